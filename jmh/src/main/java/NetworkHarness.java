@@ -0,0 +1,231 @@
+import benchmarks.Network;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * This class sets up the network core in Main's static fields and runs it for the JMH benchmarks,
+ * which reach it through the Network interface, since they cannot import the default package. The
+ * network is given random weights and a random truth table whose inputs are multiples of 1/255,
+ * like the image tables. Anything Main prints is discarded from setUp until tearDown, so it does
+ * not end up in the benchmark output.
+ *
+ * Table of Contents:
+ * 1. setUp(int[] layers, int cases, String weightsFile, String tableFile)
+ * 2. writeTruthTable(String file)
+ * 3. forward(int caseNum)
+ * 4. backprop(int caseNum)
+ * 5. epoch()
+ * 6. saveWeights()
+ * 7. loadWeights()
+ * 8. parseTable()
+ * 9. tearDown()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class NetworkHarness implements Network
+{
+   public static final double PEL_SCALE = 255.0;           //Inputs are multiples of 1/255
+   public static final long SEED = 1L;
+
+   private Config config;
+   private String weightsFile;
+   private String tableFile;
+   private PrintStream stdout;                             //Standard output before setUp
+
+/**
+ * Sets up Main for training a network of the given topology on a random truth table with random
+ * weights, where training runs one iteration each time train is called, and writes the weights
+ * and the truth table.
+ *
+ * @param layers      the number of activations in each layer
+ * @param cases       the number of cases in the truth table
+ * @param weightsFile the weights file to save to and load from
+ * @param tableFile   the truth table file to write and parse
+ * @throws IOException if either file cannot be written
+ */
+   public void setUp(int[] layers, int cases, String weightsFile, String tableFile)
+         throws IOException
+   {
+      int caseIter;
+      int k;
+      Random random;
+
+      this.weightsFile = weightsFile;
+      this.tableFile = tableFile;
+      stdout = System.out;
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+      config = new Config(Main.DEFAULT_WEIGHTS_FILE, Main.DEFAULT_TRUTH_TABLE_FILE);
+      config.numActLayers = layers.length;
+      config.OUTPUT_LAYER = config.numActLayers - 1;
+      config.LAST_HIDDEN_LAYER = config.OUTPUT_LAYER - 1;
+      config.numActsInLayers = layers.clone();
+      config.networkMode = Main.TRAINING;
+      config.numCases = cases;
+      config.maxIters = 1;
+      config.lambda = 0.3;
+      config.errThreshold = -1.0;                          //Never reached, so train always iterates
+      config.lowRand = -0.5;
+      config.highRand = 0.5;
+
+      Main.config = config;
+      Main.df = new DecimalFormat("0.000000");
+      Main.allocateMemory();
+
+      random = new Random(SEED);
+      for (caseIter = 0; caseIter < cases; caseIter++)
+      {
+         for (k = 0; k < layers[config.INPUT_LAYER]; k++)
+         {
+            Main.truthTableInputs[caseIter][k] = random.nextInt((int) PEL_SCALE + 1) / PEL_SCALE;
+         }
+         for (k = 0; k < layers[config.OUTPUT_LAYER]; k++)
+         {
+            Main.truthTableOutputs[caseIter][k] = random.nextInt(2);
+         }
+      } //for (caseIter = 0; caseIter < cases; caseIter++)
+
+      Main.indexInputs();
+      Main.randomizeWeights();
+
+      writeTruthTable(tableFile);
+      saveWeights();
+   } //public void setUp(int[] layers, int cases, String weightsFile, String tableFile)
+
+/**
+ * Writes the truth table Main was set up with to a file, with each case given on its own line.
+ *
+ * @param file the truth table file to write
+ * @throws IOException if the file cannot be written
+ */
+   public void writeTruthTable(String file) throws IOException
+   {
+      int caseIter;
+      int k;
+      PrintWriter out;
+
+      out = new PrintWriter(new FileOutputStream(file));
+      out.println(config.numCases + "-" + config.numActsInLayers[config.INPUT_LAYER] + "-" +
+            config.numActsInLayers[config.OUTPUT_LAYER]);
+
+      out.println();
+      for (caseIter = 0; caseIter < config.numCases; caseIter++)
+      {
+         for (k = 0; k < config.numActsInLayers[config.INPUT_LAYER]; k++)
+         {
+            out.print(((k > 0) ? " " : "") + Main.truthTableInputs[caseIter][k]);
+         }
+         out.println();
+      }
+
+      out.println();
+      for (caseIter = 0; caseIter < config.numCases; caseIter++)
+      {
+         for (k = 0; k < config.numActsInLayers[config.OUTPUT_LAYER]; k++)
+         {
+            out.print(((k > 0) ? " " : "") + Main.truthTableOutputs[caseIter][k]);
+         }
+         out.println();
+      }
+
+      out.close();
+      if (out.checkError())
+      {
+         throw new IOException("Failed to write " + file);
+      }
+   } //public void writeTruthTable(String file)
+
+/**
+ * Runs one case through the network with loadInputCase and runSingleCase, as in run all mode.
+ *
+ * @param caseNum the case to run
+ * @return the first output activation
+ */
+   public double forward(int caseNum)
+   {
+      Main.loadInputCase(caseNum);
+      Main.runSingleCase();
+
+      return Main.a[config.OUTPUT_LAYER][0];
+   }
+
+/**
+ * Runs one case with loadTrainingCase and runDuringTrain, then backpropagates it.
+ *
+ * @param caseNum the case to train on
+ * @return the first psi of the output layer
+ */
+   public double backprop(int caseNum)
+   {
+      Main.loadTrainingCase(caseNum);
+      Main.runDuringTrain(caseNum);
+      Main.backpropagate();
+
+      return Main.psi[config.OUTPUT_LAYER][0];
+   }
+
+/**
+ * Trains for one iteration, which also runs the error pass train starts with.
+ *
+ * @return the error after the iteration
+ */
+   public double epoch()
+   {
+      Main.trainIterations = 0;
+      Main.train();
+
+      return Main.error;
+   }
+
+/**
+ * Saves every weight with WeightsFileIO.saveWeights.
+ */
+   public void saveWeights()
+   {
+      new WeightsFileIO(weightsFile, config).saveWeights(Main.w);
+   }
+
+/**
+ * Loads every weight with WeightsFileIO.loadWeights.
+ *
+ * @return the first weight loaded
+ */
+   public double loadWeights()
+   {
+      new WeightsFileIO(weightsFile, config).loadWeights(Main.w);
+
+      return Main.w[config.INPUT_LAYER][0][0];
+   }
+
+/**
+ * Parses the truth table with TruthTableFileIO.loadTruthTable, with snapshots off.
+ *
+ * @return the first input parsed
+ */
+   public double parseTable()
+   {
+      TruthTableFileIO table;
+
+      table = new TruthTableFileIO(config.numActsInLayers[config.INPUT_LAYER],
+            config.numActsInLayers[config.OUTPUT_LAYER], config.numCases, Main.TRAINING,
+            tableFile);
+      table.setSnapshots(false);
+      table.loadTruthTable(Main.truthTableInputs, Main.truthTableOutputs);
+
+      return Main.truthTableInputs[0][0];
+   } //public double parseTable()
+
+/**
+ * Restores standard output.
+ */
+   public void tearDown()
+   {
+      System.setOut(stdout);
+   }
+} //public class NetworkHarness implements Network
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import activationFunctions.Function;
+import activationFunctions.Gaussian;
+import activationFunctions.LeakyReLU;
+import activationFunctions.Linear;
+import activationFunctions.RReLU;
+import activationFunctions.ReLU;
+import activationFunctions.Sigmoid;
+import activationFunctions.Tanh;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks f and fPrime of each activation function with JMH, each over POINTS
+ * evenly spaced points from -RANGE to RANGE, and reports the time of one call. Each function runs
+ * in its own forked JVM, so it is the only Function the JIT sees, as when the network runs.
+ *
+ * Run with java -jar jmh/target/benchmarks.jar ActivationBenchmark, adding -p function=Sigmoid to
+ * time one function.
+ *
+ * Table of Contents:
+ * 1. setUp()
+ * 2. f()
+ * 3. fPrime()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ActivationBenchmark
+{
+   public static final int POINTS = 4096;
+   public static final double RANGE = 4.0;                 //Points are from -4 to 4
+   public static final double LEAKY_SLOPE = 0.01;
+
+   @Param({"Sigmoid", "Tanh", "ReLU", "LeakyReLU", "RReLU", "Linear", "Gaussian"})
+   public String function;
+
+   private Function f;
+   private double[] x;
+
+/**
+ * Creates the activation function and the points to run it on.
+ */
+   @Setup(Level.Trial)
+   public void setUp()
+   {
+      int i;
+
+      switch (function)
+      {
+         case "Sigmoid":
+            f = new Sigmoid();
+            break;
+         case "Tanh":
+            f = new Tanh();
+            break;
+         case "ReLU":
+            f = new ReLU();
+            break;
+         case "LeakyReLU":
+            f = new LeakyReLU(LEAKY_SLOPE);
+            break;
+         case "RReLU":
+            f = new RReLU();
+            break;
+         case "Linear":
+            f = new Linear(1.0, 0.0);
+            break;
+         case "Gaussian":
+            f = new Gaussian();
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown activation function " + function);
+      } //switch (function)
+
+      x = new double[POINTS];
+      for (i = 0; i < POINTS; i++)
+      {
+         x[i] = RANGE * (2.0 * i / (POINTS - 1) - 1.0);
+      }
+   } //public void setUp()
+
+/**
+ * Sums f over every point.
+ *
+ * @return the sum
+ */
+   @Benchmark
+   @OperationsPerInvocation(POINTS)
+   public double f()
+   {
+      double sum;
+
+      sum = 0.0;
+      for (double xi : x)
+      {
+         sum += f.f(xi);
+      }
+
+      return sum;
+   } //public double f()
+
+/**
+ * Sums fPrime over every point.
+ *
+ * @return the sum
+ */
+   @Benchmark
+   @OperationsPerInvocation(POINTS)
+   public double fPrime()
+   {
+      double sum;
+
+      sum = 0.0;
+      for (double xi : x)
+      {
+         sum += f.fPrime(xi);
+      }
+
+      return sum;
+   } //public double fPrime()
+} //public class ActivationBenchmark
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * This interface is the network core as the benchmarks see it. Main, WeightsFileIO and
+ * TruthTableFileIO are in the default package, which JMH benchmarks cannot be in and cannot
+ * import, so NetworkHarness implements this interface from the default package, and load finds it
+ * by name. Each benchmark runs in its own forked JVM, where NetworkHarness is the only
+ * implementation, so calls through the interface are inlined like direct calls.
+ *
+ * Table of Contents:
+ * 1. load()
+ * 2. setUp(int[] layers, int cases, String weightsFile, String tableFile)
+ * 3. forward(int caseNum)
+ * 4. backprop(int caseNum)
+ * 5. epoch()
+ * 6. saveWeights()
+ * 7. loadWeights()
+ * 8. parseTable()
+ * 9. tearDown()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public interface Network
+{
+   String HARNESS = "NetworkHarness";                      //The implementation, by class name
+
+/**
+ * Creates the implementation of the network core.
+ *
+ * @return a new NetworkHarness
+ * @throws ReflectiveOperationException if NetworkHarness cannot be found or created
+ */
+   static Network load() throws ReflectiveOperationException
+   {
+      return (Network) Class.forName(HARNESS).getDeclaredConstructor().newInstance();
+   }
+
+/**
+ * Sets up a network of the given topology for training on a random truth table with random
+ * weights, and writes the weights and the truth table to the given files.
+ *
+ * @param layers      the number of activations in each layer
+ * @param cases       the number of cases in the truth table
+ * @param weightsFile the weights file to save to and load from
+ * @param tableFile   the truth table file to write and parse
+ * @throws IOException if either file cannot be written
+ */
+   void setUp(int[] layers, int cases, String weightsFile, String tableFile) throws IOException;
+
+/**
+ * Runs one case through the network, as in run all mode.
+ *
+ * @param caseNum the case to run
+ * @return the first output activation
+ */
+   double forward(int caseNum);
+
+/**
+ * Runs one case through the network and backpropagates its error, as one step of training.
+ *
+ * @param caseNum the case to train on
+ * @return the first psi of the output layer
+ */
+   double backprop(int caseNum);
+
+/**
+ * Trains for one iteration over every case.
+ *
+ * @return the error after the iteration
+ */
+   double epoch();
+
+/**
+ * Saves every weight to the weights file.
+ */
+   void saveWeights();
+
+/**
+ * Loads every weight from the weights file.
+ *
+ * @return the first weight loaded
+ */
+   double loadWeights();
+
+/**
+ * Parses the whole truth table file, without a snapshot.
+ *
+ * @return the first input parsed
+ */
+   double parseTable();
+
+/**
+ * Restores anything setUp changed outside the network.
+ */
+   void tearDown();
+} //public interface Network
@@ -0,0 +1,195 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the core of the network with JMH, so that a change to Main or one of the
+ * file formats can be timed before and after it is made. For each topology it times
+ *
+ *    forward      - loadInputCase and runSingleCase on one case, as in run all mode
+ *    backprop     - loadTrainingCase, runDuringTrain and backpropagate on one case
+ *    epoch        - train for one iteration over CASES cases, which also runs the error pass train
+ *                   starts with
+ *    weightsSave  - WeightsFileIO.saveWeights of every weight
+ *    weightsLoad  - WeightsFileIO.loadWeights of every weight
+ *    tableParse   - TruthTableFileIO.loadTruthTable of a CASES case table, without snapshots
+ *
+ * The network is set up once per trial by NetworkHarness, in a temporary directory which is
+ * deleted afterwards. forward and backprop go through the cases in turn.
+ *
+ * Run with java -jar jmh/target/benchmarks.jar NetworkBenchmark, adding -p topology=2-2-1 to
+ * time one topology. A topology is given as in a configuration file.
+ *
+ * Table of Contents:
+ * 1. setUp()
+ * 2. tearDown()
+ * 3. nextCase()
+ * 4. forward()
+ * 5. backprop()
+ * 6. epoch()
+ * 7. weightsSave()
+ * 8. weightsLoad()
+ * 9. tableParse()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NetworkBenchmark
+{
+   public static final int CASES = 16;                     //Cases in each truth table
+
+   @Param({"2-2-1", "3-8-3", "9960-30-20-5"})
+   public String topology;
+
+   private Network network;
+   private Path dir;
+   private int caseNum;
+
+/**
+ * Sets up a network of the topology, and writes its weights and truth table.
+ *
+ * @throws IOException if the files cannot be written
+ * @throws ReflectiveOperationException if NetworkHarness cannot be created
+ */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException, ReflectiveOperationException
+   {
+      int n;
+      int[] layers;
+      String[] read;
+
+      read = topology.split("-");
+      layers = new int[read.length];
+      for (n = 0; n < read.length; n++)
+      {
+         layers[n] = Integer.parseInt(read[n].trim());
+      }
+      if (layers.length < 3)
+      {
+         throw new IllegalArgumentException("Topology " + topology + " must have at least one " +
+               "hidden layer");
+      }
+
+      dir = Files.createTempDirectory("NetworkBenchmark");
+      network = Network.load();
+      network.setUp(layers, CASES, dir.resolve("weights.bin").toString(),
+            dir.resolve("table.txt").toString());
+   } //public void setUp()
+
+/**
+ * Restores standard output and deletes the files written.
+ *
+ * @throws IOException if the files cannot be deleted
+ */
+   @TearDown(Level.Trial)
+   public void tearDown() throws IOException
+   {
+      network.tearDown();
+
+      DirectoryStream<Path> files = Files.newDirectoryStream(dir);
+      for (Path file : files)
+      {
+         Files.delete(file);
+      }
+      files.close();
+      Files.delete(dir);
+   } //public void tearDown()
+
+/**
+ * Returns the next case, going through them in turn.
+ *
+ * @return the case number
+ */
+   private int nextCase()
+   {
+      caseNum = (caseNum + 1) % CASES;
+      return caseNum;
+   }
+
+/**
+ * Runs the next case forward.
+ *
+ * @return the first output activation
+ */
+   @Benchmark
+   public double forward()
+   {
+      return network.forward(nextCase());
+   }
+
+/**
+ * Runs the next case forward and backpropagates it.
+ *
+ * @return the first psi of the output layer
+ */
+   @Benchmark
+   public double backprop()
+   {
+      return network.backprop(nextCase());
+   }
+
+/**
+ * Trains for one iteration over every case.
+ *
+ * @return the error after the iteration
+ */
+   @Benchmark
+   public double epoch()
+   {
+      return network.epoch();
+   }
+
+/**
+ * Saves every weight.
+ */
+   @Benchmark
+   public void weightsSave()
+   {
+      network.saveWeights();
+   }
+
+/**
+ * Loads every weight.
+ *
+ * @return the first weight loaded
+ */
+   @Benchmark
+   public double weightsLoad()
+   {
+      return network.loadWeights();
+   }
+
+/**
+ * Parses the whole truth table.
+ *
+ * @return the first input parsed
+ */
+   @Benchmark
+   public double tableParse()
+   {
+      return network.parseTable();
+   }
+} //public class NetworkBenchmark
@@ -0,0 +1,163 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that TableReader.parseDouble gives the same double as Util.toDouble, bit for
+ * bit, and the same value as Double.parseDouble, on the inputs at the edges of its fast path and on
+ * random decimal numbers. Malformed numbers must be rejected the same way as Util.toDouble rejects
+ * them. Since BigDecimal has no negative zero, a negative zero is only compared by value with
+ * Double.parseDouble.
+ *
+ * Table of Contents:
+ * 1. edgeInputs()
+ * 2. malformedInputs()
+ * 3. randomInputs()
+ * 4. parse(String s)
+ * 5. check(String s)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class TableReaderTest
+{
+   public static final int RANDOM_INPUTS = 100000;
+   public static final int MAX_RANDOM_DIGITS = 25;         //Past the 17 digits of a double
+   public static final int MAX_RANDOM_EXP = 330;           //Past the exponents of a double
+   public static final long SEED = 1L;
+
+/**
+ * Checks signs, missing digits around the point, powers of ten at and just past the fast path,
+ * mantissas at and just past 2^53, numbers with more than 17 significant digits, and subnormals.
+ */
+   @Test
+   public void edgeInputs()
+   {
+      String[] inputs = {"0", "-0", "+0", "0.0", "-0.0", "0e5", "-0e-5", "1", "-1", "+1", "1.",
+            "-1.", ".5", "+.5e-3", "-.5E+3", "1e0", "1e+0", "1E-0", "0.1", "0.2", "0.3",
+            "1e22", "1e23", "-1e22", "-1e23", "1e-22", "1e-23", "9e22", "9e-22",
+            "9007199254740992", "9007199254740993", "9007199254740994", "9007199254740995",
+            "900719925474099.3", "9007199254740993e-5", "9007199254740992e22",
+            "9007199254740992e-22",
+            "123456789012345678", "0.12345678901234567890123", "3.141592653589793238462643",
+            "1.00000000000000011102230246251565404236316680908203125",
+            "1.00000000000000011102230246251565404236316680908203124",
+            "1.00000000000000011102230246251565404236316680908203126",
+            "2.2250738585072011e-308", "2.2250738585072014e-308", "2.2250738585072012e-308",
+            "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "1e-320",
+            "-1e-320", "1e-400", "1.7976931348623157e308", "1.7976931348623158e308",
+            "1.7976931348623159e308", "1e308", "1e309", "-1e309", "0.00000000000000000000001",
+            "1e99999", "1e-99999", "1e100001", "0.5", "0.25", "0.0039215686274509803"};
+
+      for (String s : inputs)
+      {
+         check(s);
+      }
+   } //public void edgeInputs()
+
+/**
+ * Checks that malformed numbers are rejected, including an exponent with no digits.
+ */
+   @Test
+   public void malformedInputs()
+   {
+      String[] inputs = {"", "-", "+", ".", "-.", "e5", ".e5", "1e", "1e+", "1e-", "1E+", "1.2.3",
+            "--1", "+-1", "1-", "1x", "1e5x", "1e5.5", "0x10", "NaN", "Infinity", "-Infinity",
+            "1d", "1f", " 1", "1 ", "1,5", "1..", "1e++5"};
+
+      for (String s : inputs)
+      {
+         assertThrows(NumberFormatException.class, () -> Util.toDouble(s), s);
+         assertThrows(NumberFormatException.class, () -> parse(s), s);
+      }
+   } //public void malformedInputs()
+
+/**
+ * Checks RANDOM_INPUTS random decimal numbers of up to MAX_RANDOM_DIGITS digits, with a random
+ * sign, point, and exponent, so that both the fast path and BigDecimal are taken.
+ */
+   @Test
+   public void randomInputs()
+   {
+      int i;
+      int d;
+      int digits;
+      int point;
+      Random random;
+      StringBuilder s;
+
+      random = new Random(SEED);
+      s = new StringBuilder();
+
+      for (i = 0; i < RANDOM_INPUTS; i++)
+      {
+         s.setLength(0);
+         if (random.nextInt(3) == 0)
+         {
+            s.append(random.nextBoolean() ? '-' : '+');
+         }
+
+         digits = 1 + random.nextInt(MAX_RANDOM_DIGITS);
+         point = random.nextInt(digits + 2) - 1;           //-1 for no point
+         for (d = 0; d < digits; d++)
+         {
+            if (d == point)
+            {
+               s.append('.');
+            }
+            s.append((char) ('0' + random.nextInt(10)));
+         }
+         if (point == digits)
+         {
+            s.append('.');
+         }
+
+         if (random.nextBoolean())
+         {
+            s.append(random.nextBoolean() ? 'e' : 'E');
+            if (random.nextInt(3) > 0)
+            {
+               s.append(random.nextBoolean() ? '-' : '+');
+            }
+            s.append(random.nextInt((random.nextInt(4) == 0) ? MAX_RANDOM_EXP : 25));
+         }
+
+         check(s.toString());
+      } //for (i = 0; i < RANDOM_INPUTS; i++)
+   } //public void randomInputs()
+
+/**
+ * Parses a number with TableReader.parseDouble, from the middle of a larger buffer so that the
+ * bounds are respected.
+ *
+ * @param s the number
+ * @return the parsed number
+ */
+   private static double parse(String s)
+   {
+      byte[] b;
+
+      b = ("9 " + s + " 9").getBytes(StandardCharsets.ISO_8859_1);
+
+      return TableReader.parseDouble(b, 2, 2 + s.length());
+   } //private static double parse(String s)
+
+/**
+ * Checks that a valid number parses to the same bits as Util.toDouble and to the same value as
+ * Double.parseDouble.
+ *
+ * @param s the number
+ */
+   private static void check(String s)
+   {
+      double value;
+
+      value = parse(s);
+      assertEquals(Double.doubleToRawLongBits(Util.toDouble(s)), Double.doubleToRawLongBits(value),
+            s);
+      assertEquals(Double.parseDouble(s) == 0.0 ? 0.0 : Double.parseDouble(s), value, 0.0, s);
+   } //private static void check(String s)
+} //public class TableReaderTest
@@ -0,0 +1,154 @@
+package imgProcessing.PelArray;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The LazyPelArrayTest class checks that a chain of LazyPelArray operations gives exactly the same
+ * image as the same chain of PelArray operations carried out one after the other. Random chains of
+ * pads, crops, scales and color operations are built both ways from the same random image, which
+ * is a view into a larger array. The lazy chain is evaluated whole, into a view, one pel at a time
+ * and over random parts of rows, and its center of mass is compared too.
+ *
+ * Methods in the LazyPelArrayTest class are
+ *  chains() - Run CHAINS random chains
+ *  runChain(Random) - Build one chain both ways and compare them
+ *  view(Random, int, int) - Make an image of random pels in the middle of a larger array
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class LazyPelArrayTest
+{
+   public static final int CHAINS = 100000;
+   public static final int MAX_OPERATIONS = 6;       // Operations in one chain
+   public static final int MAX_SIZE = 8;             // Width and height of the source images
+   public static final int MAX_PAD = 4;
+   public static final int MAX_MARGIN = 3;           // Pels around a view in its array
+   public static final long SEED = 1L;
+
+   @Test
+   public void chains()
+   {
+      int chain;
+      Random random = new Random(SEED);
+
+      for (chain = 0; chain < CHAINS; ++chain) runChain(random);
+   }
+
+   /*
+    * Builds a random chain of operations on a random image both lazily and eagerly and checks that
+    * the lazy chain evaluates to the eager result.
+    */
+   private static void runChain(Random random)
+   {
+      int op, iOp, count, w, h, x0, y0, x1, y1, n, color, red, green, blue;
+      int[] row;
+      PelArray eager, result;
+      LazyPelArray lazy;
+
+      eager = view(random, 1 + random.nextInt(MAX_SIZE), 1 + random.nextInt(MAX_SIZE));
+      lazy = eager.lazy();
+
+      count = 1 + random.nextInt(MAX_OPERATIONS);
+      for (iOp = 0; iOp < count; ++iOp)
+      {
+         w = eager.getWidth();
+         h = eager.getHeight();
+         op = random.nextInt(8);
+
+         switch (op)
+         {
+            case 0:  // Pad
+               x0 = random.nextInt(MAX_PAD + 1);
+               y0 = random.nextInt(MAX_PAD + 1);
+               x1 = random.nextInt(MAX_PAD + 1);
+               y1 = random.nextInt(MAX_PAD + 1);
+               color = random.nextInt(PelArray.WHITE + 1);
+               eager = eager.pad(x0, y0, x1, y1, color);
+               lazy = lazy.pad(x0, y0, x1, y1, color);
+               break;
+
+            case 1:  // Crop
+            case 2:
+               x0 = random.nextInt(w);
+               y0 = random.nextInt(h);
+               x1 = x0 + random.nextInt(w - x0);
+               y1 = y0 + random.nextInt(h - y0);
+               eager = eager.crop(x0, y0, x1, y1);
+               lazy = lazy.crop(x0, y0, x1, y1);
+               break;
+
+            case 3:  // Scale
+            case 4:
+               x1 = 1 + random.nextInt(2 * w + 1);
+               y1 = 1 + random.nextInt(2 * h + 1);
+               eager = eager.scale(x1, y1);
+               lazy = lazy.scale(x1, y1);
+               break;
+
+            case 5:  // Ones complement
+               eager = eager.onesComplimentImage();
+               lazy = lazy.onesComplimentImage();
+               break;
+
+            case 6:  // Color offsets
+               red = random.nextInt(511) - 255;
+               green = random.nextInt(511) - 255;
+               blue = random.nextInt(511) - 255;
+               eager = eager.offsetColors(red, green, blue);
+               lazy = lazy.offsetColors(red, green, blue);
+               break;
+
+            default: // Gray scale, or force a minimum or maximum
+               x0 = random.nextInt(PelArray.WHITE + 1);
+               y0 = random.nextInt(PelArray.WHITE + 1);
+               color = random.nextInt(3);
+               eager = (color == 0) ? eager.grayScaleImage() : (color == 1) ? eager.forceMin(x0, y0) : eager.forceMax(x0, y0);
+               lazy = (color == 0) ? lazy.grayScaleImage() : (color == 1) ? lazy.forceMin(x0, y0) : lazy.forceMax(x0, y0);
+               break;
+         } // switch (op)
+      } // for (iOp = 0; iOp < count; ++iOp)
+
+      w = eager.getWidth();
+      h = eager.getHeight();
+      assertEquals(w, lazy.getWidth());
+      assertEquals(h, lazy.getHeight());
+
+      result = lazy.toPelArray(view(random, w, h));
+      assertArrayEquals(eager.getPelArray(), result.getPelArray());
+      assertEquals(eager.getXcom(), lazy.getXcom());
+      assertEquals(eager.getYcom(), lazy.getYcom());
+
+      x0 = random.nextInt(w);
+      y0 = random.nextInt(h);
+      assertEquals(eager.getPel(x0, y0), lazy.getPel(x0, y0));
+
+      n = 1 + random.nextInt(w - x0);
+      row = new int[n + 2];
+      lazy.getRow(x0, y0, n, row, 1);
+      for (x1 = 0; x1 < n; ++x1) assertEquals(eager.getPel(x0 + x1, y0), row[1 + x1]);
+      assertEquals(0, row[0]);
+      assertEquals(0, row[n + 1]);
+   } // private static void runChain(Random random)
+
+   /*
+    * Returns an image of random pels in the middle of a larger array of random pels.
+    */
+   private static PelArray view(Random random, int width, int height)
+   {
+      int i, left, top, stride;
+      int[] pels;
+
+      left = random.nextInt(MAX_MARGIN + 1);
+      top = random.nextInt(MAX_MARGIN + 1);
+      stride = width + left + random.nextInt(MAX_MARGIN + 1);
+      pels = new int[stride * (height + top + random.nextInt(MAX_MARGIN + 1))];
+      for (i = 0; i < pels.length; ++i) pels[i] = random.nextInt(PelArray.WHITE + 1);
+
+      return new PelArray(pels, top * stride + left, width, height, stride);
+   } // private static PelArray view(Random random, int width, int height)
+} // public class LazyPelArrayTest
@@ -0,0 +1,302 @@
+package imgProcessing.PelArray;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The PelArrayTest class checks the flat array indexing of PelArray against plain two dimensional
+ * arrays. Random chains of operations are run on images that are views into larger arrays, with
+ * strides wider than the images and random offsets, writing to destinations that are views too.
+ * After every operation the pels must match the same operation done on an int[][], the center of
+ * mass must match one summed directly, and no pel outside the image written to may change.
+ *
+ * Most chains use small images, so that every edge case turns up. A few use images large enough
+ * to be split into parallel bands of rows and into several rotation tiles.
+ *
+ * Methods in the PelArrayTest class are
+ *  smallChains()  - Run CHAINS chains on images of up to MAX_SIZE pels a side
+ *  bandedChains() - Run BANDED_CHAINS chains on images large enough to be split into bands
+ *  runChain(Random, int, int) - Run one chain of operations and check it after each one
+ *  view(Random, int, int)     - Make an image of random pels in the middle of a larger array
+ *  check(PelArray, int[][])   - Check the pels and center of mass of an image
+ *  checkOutside(PelArray, int[]) - Check that no pel outside an image changed
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class PelArrayTest
+{
+   public static final int CHAINS = 11000;
+   public static final int BANDED_CHAINS = 8;
+   public static final int MAX_OPERATIONS = 8;       // Operations in one chain
+   public static final int MAX_SIZE = 10;            // Width and height of the small images
+   public static final int BANDED_WIDTH = 400;       // Over 2 * PelKernels.MIN_PELS_PER_TASK pels
+   public static final int BANDED_HEIGHT = 350;
+   public static final int MAX_MARGIN = 3;           // Pels around a view in its array
+   public static final long SEED = 1L;
+
+   @Test
+   public void smallChains()
+   {
+      int chain;
+      Random random = new Random(SEED);
+
+      for (chain = 0; chain < CHAINS; ++chain)
+      {
+         runChain(random, 1 + random.nextInt(MAX_SIZE), 1 + random.nextInt(MAX_SIZE));
+      }
+   }
+
+   @Test
+   public void bandedChains()
+   {
+      int chain;
+      Random random = new Random(SEED);
+
+      for (chain = 0; chain < BANDED_CHAINS; ++chain)
+      {
+         runChain(random, BANDED_WIDTH + random.nextInt(MAX_SIZE), BANDED_HEIGHT + random.nextInt(MAX_SIZE));
+      }
+   }
+
+   /*
+    * Runs a random chain of operations on a random image, each on the result of the one before, and
+    * checks the image after each one. Operations that write to a destination write to a view.
+    */
+   private static void runChain(Random random, int width, int height)
+   {
+      int op, iOp, count, x, y, x0, y0, x1, y1, w, h, pel, color, left, top, right, bottom;
+      int[] before;
+      int[][] ref, next;
+      PelArray img, dest;
+
+      img = view(random, width, height);
+      ref = img.getPelArray();
+      check(img, ref);
+
+      count = 1 + random.nextInt(MAX_OPERATIONS);
+      for (iOp = 0; iOp < count; ++iOp)
+      {
+         w = ref[0].length;
+         h = ref.length;
+         op = random.nextInt(15);
+         before = img.getPels().clone();
+
+         switch (op)
+         {
+            case 0:  // Crop to a view, or copy the frame into a destination
+            case 1:
+               x0 = random.nextInt(w);
+               y0 = random.nextInt(h);
+               x1 = x0 + random.nextInt(w - x0);
+               y1 = y0 + random.nextInt(h - y0);
+               next = new int[y1 - y0 + 1][x1 - x0 + 1];
+               for (y = y0; y <= y1; ++y)
+                  for (x = x0; x <= x1; ++x) next[y - y0][x - x0] = ref[y][x];
+
+               img = (op == 0) ? img.crop(x0, y0, x1, y1) : img.crop(x0, y0, x1, y1, view(random, x1 - x0 + 1, y1 - y0 + 1));
+               ref = next;
+               break;
+
+            case 2:  // Copy
+               img = img.copy();
+               break;
+
+            case 3:  // Rotate clockwise
+               next = new int[w][h];
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x) next[x][h - 1 - y] = ref[y][x];
+
+               img = img.rotateCW90(view(random, h, w));
+               ref = next;
+               break;
+
+            case 4:  // Rotate counter clockwise
+               next = new int[w][h];
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x) next[w - 1 - x][y] = ref[y][x];
+
+               img = img.rotateCCW90(view(random, h, w));
+               ref = next;
+               break;
+
+            case 5:  // Flip top to bottom
+               next = new int[h][w];
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x) next[h - 1 - y][x] = ref[y][x];
+
+               img = img.flipHorizontal(view(random, w, h));
+               ref = next;
+               break;
+
+            case 6:  // Flip left to right
+               next = new int[h][w];
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x) next[y][w - 1 - x] = ref[y][x];
+
+               img = img.flipVertical(view(random, w, h));
+               ref = next;
+               break;
+
+            case 7:  // Offset, filling with black
+               x0 = random.nextInt(2 * w + 1) - w;
+               y0 = random.nextInt(2 * h + 1) - h;
+               next = new int[h][w];
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x)
+                     if (x + x0 >= 0 && x + x0 < w && y + y0 >= 0 && y + y0 < h) next[y + y0][x + x0] = ref[y][x];
+
+               img = img.offset(x0, y0, view(random, w, h));
+               ref = next;
+               break;
+
+            case 8:  // Pad
+               left = random.nextInt(MAX_MARGIN + 1);
+               top = random.nextInt(MAX_MARGIN + 1);
+               right = random.nextInt(MAX_MARGIN + 1);
+               bottom = random.nextInt(MAX_MARGIN + 1);
+               color = random.nextInt(PelArray.WHITE + 1);
+               next = new int[h + top + bottom][w + left + right];
+               for (y = 0; y < next.length; ++y)
+                  for (x = 0; x < next[0].length; ++x)
+                     next[y][x] = (x >= left && x < left + w && y >= top && y < top + h) ? ref[y - top][x - left] : color;
+
+               img = img.pad(left, top, right, bottom, color, view(random, next[0].length, next.length));
+               ref = next;
+               break;
+
+            case 9:  // Scale to the nearest pel
+               x1 = 1 + random.nextInt(2 * w + 1);
+               y1 = 1 + random.nextInt(2 * h + 1);
+               next = new int[y1][x1];
+               for (y = 0; y < y1; ++y)
+                  for (x = 0; x < x1; ++x)
+                     next[y][x] = ref[(int)Math.round(y * ((h - 1.0) / (y1 - 1.0)))][(int)Math.round(x * ((w - 1.0) / (x1 - 1.0)))];
+
+               img = img.scale(x1, y1, view(random, x1, y1));
+               ref = next;
+               break;
+
+            case 10: // Color operations, into a destination or in place
+            case 11:
+               color = random.nextInt(6);
+               x0 = random.nextInt(PelArray.WHITE + 1);
+               y0 = random.nextInt(PelArray.WHITE + 1);
+               left = random.nextInt(511) - 255;
+               top = random.nextInt(511) - 255;
+               right = random.nextInt(511) - 255;
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x)
+                  {
+                     pel = ref[y][x];
+                     if (color == 0) pel = (~pel) & PelArray.WHITE;
+                     else if (color == 1) pel = PelArray.grayScalePel(pel);
+                     else if (color == 2) pel = PelArray.offsetColorsPel(pel, left, top, right);
+                     else if (color == 3) pel = (pel < x0) ? y0 : pel;
+                     else if (color == 4) pel = (pel > x0) ? y0 : pel;
+                     else pel &= PelArray.GREEN;
+                     ref[y][x] = pel;
+                  }
+
+               dest = (op == 10) ? view(random, w, h) : img;
+               if (color == 0) img = img.onesComplimentImage(dest);
+               else if (color == 1) img = img.grayScaleImage(dest);
+               else if (color == 2) img = img.offsetColors(left, top, right, dest);
+               else if (color == 3) img = img.forceMin(x0, y0, dest);
+               else if (color == 4) img = img.forceMax(x0, y0, dest);
+               else img = img.oneColorImage(PelArray.GREEN, dest);
+               break;
+
+            case 12: // Set one pel
+               x = random.nextInt(w);
+               y = random.nextInt(h);
+               pel = random.nextInt(PelArray.WHITE + 1);
+               img.setPel(x, y, pel);
+               ref[y][x] = pel;
+               break;
+
+            case 13: // Fill
+               color = random.nextInt(PelArray.WHITE + 1);
+               for (y = 0; y < h; ++y)
+                  for (x = 0; x < w; ++x) ref[y][x] = color;
+
+               img = img.fill(color);
+               break;
+
+            default: // Area average
+               x1 = 1 + random.nextInt(w);
+               y1 = 1 + random.nextInt(h);
+               img = img.scaleAreaAverage(x1, y1, view(random, x1, y1));
+               ref = img.getPelArray();     // Checked against a brute force average in SummedAreaTableTest
+               break;
+         } // switch (op)
+
+         if (op >= 11 && op <= 13) checkOutside(img, before);
+         check(img, ref);
+      } // for (iOp = 0; iOp < count; ++iOp)
+   } // private static void runChain(Random random, int width, int height)
+
+   /*
+    * Returns an image of random pels in the middle of a larger array of random pels, with random
+    * margins on every side so that the offset is random and the stride wider than the image.
+    */
+   private static PelArray view(Random random, int width, int height)
+   {
+      int i, left, top, stride;
+      int[] pels;
+
+      left = random.nextInt(MAX_MARGIN + 1);
+      top = random.nextInt(MAX_MARGIN + 1);
+      stride = width + left + random.nextInt(MAX_MARGIN + 1);
+      pels = new int[stride * (height + top + random.nextInt(MAX_MARGIN + 1))];
+      for (i = 0; i < pels.length; ++i) pels[i] = random.nextInt(PelArray.WHITE + 1);
+
+      return new PelArray(pels, top * stride + left, width, height, stride);
+   } // private static PelArray view(Random random, int width, int height)
+
+   /*
+    * Checks the pels of an image, read both with getPel() and through the flat array, and its
+    * center of mass against the moments of the reference summed directly.
+    */
+   private static void check(PelArray img, int[][] ref)
+   {
+      int x, y;
+      long mass = 0L, colMoment = 0L, rowMoment = 0L;
+
+      assertEquals(ref[0].length, img.getWidth());
+      assertEquals(ref.length, img.getHeight());
+      assertArrayEquals(ref, img.getPelArray());
+
+      for (y = 0; y < ref.length; ++y)
+         for (x = 0; x < ref[0].length; ++x)
+         {
+            assertEquals(ref[y][x], img.getPel(x, y));
+            assertEquals(ref[y][x], img.getPels()[img.getOffset() + y * img.getStride() + x]);
+            mass += ref[y][x];
+            colMoment += (long)x * ref[y][x];
+            rowMoment += (long)y * ref[y][x];
+         }
+
+      assertEquals((mass == 0L) ? ref[0].length / 2 : Math.round((double)colMoment / mass), img.getXcom());
+      assertEquals((mass == 0L) ? ref.length / 2 : Math.round((double)rowMoment / mass), img.getYcom());
+   } // private static void check(PelArray img, int[][] ref)
+
+   /*
+    * Checks that an operation writing to an image in place changed no pel of its array outside it.
+    */
+   private static void checkOutside(PelArray img, int[] before)
+   {
+      int i, x, y;
+      int[] pels = img.getPels();
+
+      for (i = 0; i < pels.length; ++i)
+      {
+         x = (i - img.getOffset()) % img.getStride();
+         y = Math.floorDiv(i - img.getOffset(), img.getStride());
+         if (i < img.getOffset() || x >= img.getWidth() || y >= img.getHeight()) assertEquals(before[i], pels[i], "pel " + i);
+      }
+   } // private static void checkOutside(PelArray img, int[] before)
+} // public class PelArrayTest
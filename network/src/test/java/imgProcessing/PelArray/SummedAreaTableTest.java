@@ -0,0 +1,166 @@
+package imgProcessing.PelArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The SummedAreaTableTest class checks SummedAreaTable against a brute force area average worked
+ * out in rationals. New pel (iCol, iRow) of a newWidth x newHeight scale of a width x height image
+ * covers source columns iCol * width / newWidth to (iCol + 1) * width / newWidth, and rows likewise.
+ * Measured in 1/newWidth of a column and 1/newHeight of a row, the overlap of every source pel with
+ * it is a whole number, so its average is a ratio of whole numbers, rounded halves up.
+ *
+ * Methods in the SummedAreaTableTest class are
+ *  scale()      - Scale IMAGES random images to random sizes, smaller and larger, and compare
+ *  boxAverage() - Compare the average of random frames with their mean
+ *  largeImage() - Scale a white image whose sums do not fit in 32 bits
+ *  view(Random, int, int)  - Make an image of random pels in the middle of a larger array
+ *  overlap(int, int, int, int) - The overlap of a source pel with a new pel along one axis
+ *  rounded(long, long)     - Divide, rounding halves up
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class SummedAreaTableTest
+{
+   public static final int IMAGES = 3000;
+   public static final int SIZES = 4;                // New sizes each image is scaled to
+   public static final int MAX_SIZE = 12;            // Width and height of the images
+   public static final int MAX_MARGIN = 3;           // Pels around a view in its array
+   public static final long SEED = 1L;
+   public static final int LARGE_WIDTH = 4200;       // Over 2^32 / 255 pels, the most 32 bit sums allowed
+   public static final int LARGE_HEIGHT = 4100;
+   public static final int LARGE_FACTOR = 50;        // Reduction of the large image
+
+   @Test
+   public void scale()
+   {
+      int image, size, width, height, newWidth, newHeight, iRow, iCol, x, y, shift;
+      long weight, sum;
+      PelArray img, scaled;
+      SummedAreaTable table;
+      Random random = new Random(SEED);
+
+      for (image = 0; image < IMAGES; ++image)
+      {
+         width = 1 + random.nextInt(MAX_SIZE);
+         height = 1 + random.nextInt(MAX_SIZE);
+         img = view(random, width, height);
+         table = img.summedAreaTable();
+
+         for (size = 0; size < SIZES; ++size)
+         {
+            newWidth = 1 + random.nextInt(2 * MAX_SIZE);
+            newHeight = 1 + random.nextInt(2 * MAX_SIZE);
+            scaled = table.scale(newWidth, newHeight, view(random, newWidth, newHeight));
+
+            for (iRow = 0; iRow < newHeight; ++iRow)
+               for (iCol = 0; iCol < newWidth; ++iCol)
+                  for (shift = 0; shift <= 16; shift += 8)
+                  {
+                     sum = 0L;
+                     for (y = 0; y < height; ++y)
+                        for (x = 0; x < width; ++x)
+                        {
+                           weight = (long)overlap(x, iCol, width, newWidth) * overlap(y, iRow, height, newHeight);
+                           sum += weight * ((img.getPel(x, y) >> shift) & 0xFF);
+                        }
+
+                     assertEquals(rounded(sum, (long)width * height), (scaled.getPel(iCol, iRow) >> shift) & 0xFF,
+                           width + "x" + height + " to " + newWidth + "x" + newHeight + " at " + iCol + "," + iRow);
+                  } // for (shift = 0; shift <= 16; shift += 8)
+         } // for (size = 0; size < SIZES; ++size)
+      } // for (image = 0; image < IMAGES; ++image)
+   } // public void scale()
+
+   @Test
+   public void boxAverage()
+   {
+      int image, box, width, height, x0, y0, x1, y1, x, y, shift, expected;
+      long sum;
+      PelArray img;
+      SummedAreaTable table;
+      Random random = new Random(SEED);
+
+      for (image = 0; image < IMAGES; ++image)
+      {
+         width = 1 + random.nextInt(MAX_SIZE);
+         height = 1 + random.nextInt(MAX_SIZE);
+         img = view(random, width, height);
+         table = new SummedAreaTable(img);
+
+         for (box = 0; box < SIZES; ++box)
+         {
+            x0 = random.nextInt(width);
+            y0 = random.nextInt(height);
+            x1 = x0 + random.nextInt(width - x0);
+            y1 = y0 + random.nextInt(height - y0);
+            expected = 0;
+
+            for (shift = 0; shift <= 16; shift += 8)
+            {
+               sum = 0L;
+               for (y = y0; y <= y1; ++y)
+                  for (x = x0; x <= x1; ++x) sum += (img.getPel(x, y) >> shift) & 0xFF;
+
+               expected |= rounded(sum, (long)(x1 - x0 + 1) * (y1 - y0 + 1)) << shift;
+            }
+
+            assertEquals(expected, table.boxAverage(x0, y0, x1, y1));
+         } // for (box = 0; box < SIZES; ++box)
+      } // for (image = 0; image < IMAGES; ++image)
+   } // public void boxAverage()
+
+   @Test
+   public void largeImage()
+   {
+      int x, y;
+      PelArray scaled;
+      SummedAreaTable table;
+
+      table = new PelArray(LARGE_WIDTH, LARGE_HEIGHT).fill(PelArray.WHITE).summedAreaTable();
+      scaled = table.scale(LARGE_WIDTH / LARGE_FACTOR, LARGE_HEIGHT / LARGE_FACTOR);
+
+      for (y = 0; y < scaled.getHeight(); ++y)
+         for (x = 0; x < scaled.getWidth(); ++x) assertEquals(PelArray.WHITE, scaled.getPel(x, y));
+
+      assertEquals(PelArray.WHITE, table.boxAverage(0, 0, LARGE_WIDTH - 1, LARGE_HEIGHT - 1));
+   } // public void largeImage()
+
+   /*
+    * Returns an image of random pels, including a random top byte that must be ignored, in the
+    * middle of a larger array of random pels.
+    */
+   private static PelArray view(Random random, int width, int height)
+   {
+      int i, left, top, stride;
+      int[] pels;
+
+      left = random.nextInt(MAX_MARGIN + 1);
+      top = random.nextInt(MAX_MARGIN + 1);
+      stride = width + left + random.nextInt(MAX_MARGIN + 1);
+      pels = new int[stride * (height + top + random.nextInt(MAX_MARGIN + 1))];
+      for (i = 0; i < pels.length; ++i) pels[i] = random.nextInt();
+
+      return new PelArray(pels, top * stride + left, width, height, stride);
+   } // private static PelArray view(Random random, int width, int height)
+
+   /*
+    * Returns how much of source pel i, from i * newSize to (i + 1) * newSize in 1/newSize of a pel,
+    * new pel j covers, from j * oldSize to (j + 1) * oldSize.
+    */
+   private static int overlap(int i, int j, int oldSize, int newSize)
+   {
+      return Math.max(0, Math.min((i + 1) * newSize, (j + 1) * oldSize) - Math.max(i * newSize, j * oldSize));
+   }
+
+   /*
+    * Returns sum / count rounded to the nearest whole number, halves up.
+    */
+   private static int rounded(long sum, long count)
+   {
+      return (int)Math.floorDiv(2 * sum + count, 2 * count);
+   }
+} // public class SummedAreaTableTest
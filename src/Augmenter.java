@@ -0,0 +1,301 @@
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class makes randomly altered copies of image training cases on a background thread while
+ * the network trains, so that every case is seen slightly differently in every iteration without
+ * storing the altered images. Each truth table input is read as a gray scale image, row after row,
+ * Augment Image Width pels wide, the layout ingestAll and scaleAll write.
+ *
+ * For each case of each iteration the image is shifted by a random fraction of a pel of up to
+ * Augment Max Shift pels in x and y, rotated about its center by a random angle of up to Augment
+ * Max Rotation degrees either way, and scaled in intensity by a random factor within Augment
+ * Intensity Jitter of 1. The new pels are found by mapping each one back into the original
+ * image and interpolating bilinearly between the four pels around it. Outside its edges the image
+ * is taken to be 0, the background of the scans once oneByteToPelArrayAll has complemented and
+ * offset them.
+ *
+ * The thread works through the cases in order, iteration after iteration, and keeps up to
+ * PREFETCH_CASES altered cases ready, so the training loop takes each one without waiting as long
+ * as making a case is quicker than training on it, which it is for any network with a hidden layer.
+ * The altered inputs are written into a fixed set of buffers which are handed back once the
+ * training loop moves on to the next case, so nothing is allocated while training. If the sparse
+ * path is enabled, the thread also lists the non-zero inputs of each altered case.
+ *
+ * Table of Contents:
+ * 1. Augmenter(Config config, double[][] inputs)
+ * 2. next(int caseNum)
+ * 3. getActiveCount()
+ * 4. getActiveIndices()
+ * 5. produce()
+ * 6. augment(double[] in, Case out)
+ * 7. sample(double[] in, double x, double y)
+ * 8. pel(double[] in, int x, int y)
+ * 9. shutdown()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Augmenter
+{
+   public static final int PREFETCH_CASES = 16;            //Altered cases kept ready
+   public static final double RADIANS_PER_DEGREE = Math.PI / 180.0;
+
+   private final double[][] inputs;                        //Original inputs of every case
+   private final int width;
+   private final int height;
+   private final double maxShift;
+   private final double maxRotation;                       //In radians
+   private final double jitter;
+   private final double sparseDensity;
+   private final Random random;
+   private final BlockingQueue<Case> ready;                //Altered cases, in case order
+   private final BlockingQueue<Case> free;                 //Buffers to alter the next cases into
+   private final Thread thread;
+   private Case current;                                   //Case last handed to the training loop
+
+/**
+ * One altered case, and the buffers it is written into.
+ */
+   private static class Case
+   {
+      int caseNum;
+      final double[] inputs;
+      final int[] indices;                                 //Non-zero inputs, if sparse
+      int numActive;                                       //Number of indices, -1 if dense
+
+      Case(int numInputs)
+      {
+         inputs = new double[numInputs];
+         indices = new int[numInputs];
+      }
+   } //private static class Case
+
+/**
+ * Constructor for the Augmenter class. Allocates the buffers and starts altering cases from the
+ * first one.
+ *
+ * @param config the network configuration, which holds the augmentation parameters
+ * @param inputs the truth table inputs of every case, which are only read
+ */
+   public Augmenter(Config config, double[][] inputs)
+   {
+      int i;
+
+      this.inputs = inputs;
+      width = config.augmentImageWidth;
+      height = config.numActsInLayers[config.INPUT_LAYER] / width;
+      maxShift = config.augmentMaxShift;
+      maxRotation = config.augmentMaxRotation * RADIANS_PER_DEGREE;
+      jitter = config.augmentIntensityJitter;
+      sparseDensity = config.sparseDensity;
+      random = new Random();
+
+      ready = new ArrayBlockingQueue<>(PREFETCH_CASES);
+      free = new ArrayBlockingQueue<>(PREFETCH_CASES + 1);
+      for (i = 0; i <= PREFETCH_CASES; i++)              //One more for the case in use
+      {
+         free.add(new Case(width * height));
+      }
+
+      thread = new Thread(this::produce, "Augmenter");
+      thread.setDaemon(true);
+      thread.start();
+   } //public Augmenter(Config config, double[][] inputs)
+
+/**
+ * Returns the altered inputs of the given case, waiting for them if they are not ready yet. Cases
+ * must be asked for in increasing order within an iteration, but may be left out, as when learned
+ * cases are skipped: the altered copies of cases which were left out are dropped. The inputs
+ * returned stay valid until the next call.
+ *
+ * @param caseNum the case number to return
+ * @return the altered inputs of the case
+ * @throws IllegalStateException if interrupted while waiting
+ */
+   public double[] next(int caseNum)
+   {
+      if (current != null)
+      {
+         free.add(current);
+      }
+
+      try
+      {
+         current = ready.take();
+         while (current.caseNum != caseNum)
+         {
+            free.add(current);
+            current = ready.take();
+         }
+      } //try
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for augmented case " + caseNum);
+      }
+
+      return current.inputs;
+   } //public double[] next(int caseNum)
+
+/**
+ * Returns the number of non-zero inputs of the case last returned by next, or -1 if it is dense.
+ *
+ * @return the number of active inputs, or -1
+ */
+   public int getActiveCount()
+   {
+      return current.numActive;
+   }
+
+/**
+ * Returns the indices of the non-zero inputs of the case last returned by next. Only the first
+ * getActiveCount() of them are valid.
+ *
+ * @return the active input indices
+ */
+   public int[] getActiveIndices()
+   {
+      return current.indices;
+   }
+
+/**
+ * Alters every case in order, iteration after iteration, until the augmenter is shut down.
+ */
+   private void produce()
+   {
+      int caseNum;
+      Case out;
+
+      try
+      {
+         while (true)
+         {
+            for (caseNum = 0; caseNum < inputs.length; caseNum++)
+            {
+               out = free.take();                          //Blocks while PREFETCH_CASES are ready
+               out.caseNum = caseNum;
+               augment(inputs[caseNum], out);
+               ready.put(out);
+            }
+         }
+      } //try
+      catch (InterruptedException e)
+      {
+         //Shut down
+      }
+   } //private void produce()
+
+/**
+ * Writes a randomly shifted, rotated and intensity scaled copy of an image into a case, and lists
+ * its non-zero inputs if the copy is sparse enough. Each new pel (x, y) is taken from the point of
+ * the original image which the shift and rotation move onto it: the shift is undone, and the point
+ * is rotated back about the center of the image.
+ *
+ * @param in  the original image
+ * @param out the case to write the altered image into
+ */
+   private void augment(double[] in, Case out)
+   {
+      int x;
+      int y;
+      int k;
+      int count;
+      double dx;
+      double dy;
+      double angle;
+      double gain;
+      double cos;
+      double sin;
+      double cx;
+      double cy;
+      double u;
+      double v;
+
+      dx = (random.nextDouble() * 2.0 - 1.0) * maxShift;
+      dy = (random.nextDouble() * 2.0 - 1.0) * maxShift;
+      angle = (random.nextDouble() * 2.0 - 1.0) * maxRotation;
+      gain = 1.0 + (random.nextDouble() * 2.0 - 1.0) * jitter;
+      cos = Math.cos(angle);
+      sin = Math.sin(angle);
+      cx = (width - 1) / 2.0;
+      cy = (height - 1) / 2.0;
+
+      count = 0;
+      for (y = 0; y < height; y++)
+      {
+         for (x = 0; x < width; x++)
+         {
+            k = y * width + x;
+            u = x - dx - cx;
+            v = y - dy - cy;
+            out.inputs[k] = gain * sample(in, cos * u + sin * v + cx, cos * v - sin * u + cy);
+
+            out.indices[count] = k;                        //Kept only if the input is not 0
+            count += (out.inputs[k] != 0.0) ? 1 : 0;
+         } //for (x = 0; x < width; x++)
+      } //for (y = 0; y < height; y++)
+
+      out.numActive = (count < sparseDensity * out.inputs.length) ? count : -1;
+   } //private void augment(double[] in, Case out)
+
+/**
+ * Interpolates the image bilinearly at a point between its pels. Pels outside the image are 0. A
+ * point exactly on a pel gives that pel's value.
+ *
+ * @param in the image
+ * @param x  the column of the point
+ * @param y  the row of the point
+ * @return the value of the image at the point
+ */
+   private double sample(double[] in, double x, double y)
+   {
+      int x0;
+      int y0;
+      int k;
+      double fx;
+      double fy;
+      double top;
+      double bottom;
+
+      x0 = (int) Math.floor(x);
+      y0 = (int) Math.floor(y);
+      fx = x - x0;
+      fy = y - y0;
+
+      if (x0 >= 0 && y0 >= 0 && x0 < width - 1 && y0 < height - 1) //All four pels are inside
+      {
+         k = y0 * width + x0;
+         top = (1.0 - fx) * in[k] + fx * in[k + 1];
+         bottom = (1.0 - fx) * in[k + width] + fx * in[k + width + 1];
+      }
+      else if (x0 < -1 || y0 < -1 || x0 >= width || y0 >= height)  //All four pels are outside
+      {
+         return 0.0;
+      }
+      else
+      {
+         top = (1.0 - fx) * pel(in, x0, y0) + fx * pel(in, x0 + 1, y0);
+         bottom = (1.0 - fx) * pel(in, x0, y0 + 1) + fx * pel(in, x0 + 1, y0 + 1);
+      }
+
+      return (1.0 - fy) * top + fy * bottom;
+   } //private double sample(double[] in, double x, double y)
+
+/**
+ * Returns the pel at column x and row y of the image, or 0 if it is outside the image.
+ */
+   private double pel(double[] in, int x, int y)
+   {
+      return (x < 0 || y < 0 || x >= width || y >= height) ? 0.0 : in[y * width + x];
+   }
+
+/**
+ * Stops the background thread. The augmenter cannot be used afterwards.
+ */
+   public void shutdown()
+   {
+      thread.interrupt();
+   }
+} //public class Augmenter
@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class coalesces concurrent single-input predictions into batches. Callers submit one input
+ * each and get a future for its output. A dispatcher thread collects the waiting inputs into a
+ * batch, runs the batch through Model.predictBatch as one matrix product per layer, and completes
+ * each caller's future with its row of the output.
+ *
+ * A batch is run as soon as it holds the target number of inputs, or once its first input has
+ * waited maxWait microseconds. The target adapts to the load:
+ *
+ * 1. If a batch of more than one input reaches the target before the wait runs out, requests are
+ *    arriving faster than they are answered, so the target doubles, up to maxBatch.
+ * 2. If the wait runs out first, fewer requests arrived than expected, so the target moves halfway
+ *    down to the batch size that was reached, down to 1.
+ *
+ * At low load the target falls to 1, and a lone request runs as soon as it is taken off the queue
+ * without waiting. Under load, requests which arrive while a batch is running are taken together as
+ * the next batch, which is full, so the target grows again.
+ *
+ * The model may be replaced while batches are running. Each batch is run entirely on the model
+ * that was current when it started. An input whose size does not match that model, because it was
+ * parsed for the model it replaced, fails with an IllegalArgumentException, and the rest of the
+ * batch runs without it.
+ *
+ * If a batch fails in any way, even with an Error such as an OutOfMemoryError, each of its inputs
+ * fails with that exception and the dispatcher goes on. If the dispatcher stops for any reason,
+ * every input waiting and every input submitted later is cancelled, and a caller of predict never
+ * waits more than PREDICT_TIMEOUT_SECONDS.
+ *
+ * Table of Contents:
+ * 1. BatchPredictor(Model model, int maxBatch, long maxWait)
+ * 2. submit(double[] input)
+ * 3. predict(double[] input)
+ * 4. dispatch()
+ * 5. runBatch(ArrayList<Pending> batch)
+ * 6. setModel(Model model)
+ * 7. shutdown()
+ * 8. cancelQueued()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class BatchPredictor
+{
+   public static final long NANO_PER_MICRO = 1000L;        //Nanoseconds per microsecond
+   public static final long PREDICT_TIMEOUT_SECONDS = 60L; //Longest predict waits for its output
+
+   private volatile Model model;
+   private final int maxBatch;                             //Largest batch run at once
+   private final long maxWaitNanos;                        //Longest an input waits for a batch
+   private final LinkedBlockingQueue<Pending> queue;
+   private final Thread dispatcher;
+   private int targetBatch;                                //Batch size which runs without waiting
+   private volatile boolean stopped;                       //True once the dispatcher stops
+
+   /**
+    * Counters for reporting, updated by the dispatcher thread.
+    */
+   public final AtomicLong batches = new AtomicLong();     //Number of batches run
+   public final AtomicLong batchedInputs = new AtomicLong();         //Number of inputs run
+
+   /**
+    * An input waiting to be batched, with the future to complete with its output.
+    */
+   private static class Pending
+   {
+      final double[] input;
+      final long arrival;
+      final CompletableFuture<double[]> future;
+
+      Pending(double[] input)
+      {
+         this.input = input;
+         arrival = System.nanoTime();
+         future = new CompletableFuture<double[]>();
+      }
+   } //private static class Pending
+
+/**
+ * Constructor for the BatchPredictor class. Starts the dispatcher thread.
+ *
+ * @param model    the model to run
+ * @param maxBatch the largest number of inputs to run in one batch
+ * @param maxWait  the longest time in microseconds an input waits for a batch to fill
+ */
+   public BatchPredictor(Model model, int maxBatch, long maxWait)
+   {
+      this.model = model;
+      this.maxBatch = maxBatch;
+      maxWaitNanos = maxWait * NANO_PER_MICRO;
+      targetBatch = maxBatch;
+      queue = new LinkedBlockingQueue<Pending>();
+
+      dispatcher = new Thread(this::dispatch, "BatchPredictor");
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+   } //public BatchPredictor(Model model, int maxBatch, long maxWait)
+
+/**
+ * Queues an input to be run in the next batch. Once the dispatcher has stopped, the future is
+ * cancelled instead.
+ *
+ * @param input the input activations
+ * @return a future which is completed with the output activations
+ */
+   public CompletableFuture<double[]> submit(double[] input)
+   {
+      Pending pending;
+
+      pending = new Pending(input);
+      queue.add(pending);
+      if (stopped && queue.remove(pending))
+      {
+         pending.future.cancel(false);
+      }
+
+      return pending.future;
+   } //public CompletableFuture<double[]> submit(double[] input)
+
+/**
+ * Queues an input and waits up to PREDICT_TIMEOUT_SECONDS for its output. If the batch failed with
+ * a RuntimeException, that exception is thrown here, rather than wrapped.
+ *
+ * @param input the input activations
+ * @return the output activations
+ * @throws IllegalArgumentException if the input does not fit the model its batch ran on
+ * @throws java.util.concurrent.CancellationException if the predictor stopped first
+ * @throws IllegalStateException if the batch failed with an Error, the output did not come in
+ *                               time, or the wait was interrupted
+ */
+   public double[] predict(double[] input)
+   {
+      CompletableFuture<double[]> future;
+
+      future = submit(input);
+      try
+      {
+         return future.get(PREDICT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      }
+      catch (ExecutionException e)
+      {
+         if (e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException("Batch failed: " + e.getCause(), e.getCause());
+      }
+      catch (TimeoutException e)
+      {
+         future.cancel(false);
+         throw new IllegalStateException("No output after " + PREDICT_TIMEOUT_SECONDS +
+               " seconds");
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         future.cancel(false);
+         throw new IllegalStateException("Interrupted waiting for the output");
+      }
+   } //public double[] predict(double[] input)
+
+/**
+ * Collects and runs batches until the dispatcher thread is interrupted, or fails outside a batch.
+ * When it stops, the inputs it holds and every input still queued are cancelled.
+ */
+   private void dispatch()
+   {
+      long remaining;
+      boolean filled;
+      Pending next;
+      ArrayList<Pending> batch;
+
+      batch = new ArrayList<Pending>(maxBatch);
+
+      try
+      {
+         while (true)
+         {
+            batch.clear();
+            batch.add(queue.take());
+            queue.drainTo(batch, maxBatch - batch.size());
+
+            remaining = batch.get(0).arrival + maxWaitNanos - System.nanoTime();
+            while (batch.size() < targetBatch && remaining > 0)
+            {
+               next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+               if (next == null)
+               {
+                  break;
+               }
+               batch.add(next);
+               queue.drainTo(batch, maxBatch - batch.size());
+               remaining = batch.get(0).arrival + maxWaitNanos - System.nanoTime();
+            } //while (batch.size() < targetBatch && remaining > 0)
+
+            filled = batch.size() >= targetBatch && batch.size() > 1;
+            runBatch(batch);
+
+            if (filled)
+            {
+               targetBatch = Math.min(maxBatch, targetBatch * 2);
+            }
+            else if (batch.size() < targetBatch)
+            {
+               targetBatch = Math.max(1, (targetBatch + batch.size()) / 2);
+            }
+         } //while (true)
+      } //try
+      catch (InterruptedException e)
+      {
+         //Shut down
+      }
+      catch (Throwable e)
+      {
+         System.out.println("BatchPredictor stopped: " + e);
+      }
+      finally
+      {
+         stopped = true;
+         for (Pending pending : batch)
+         {
+            pending.future.cancel(false);
+         }
+         cancelQueued();
+      } //try...finally
+   } //private void dispatch()
+
+/**
+ * Runs one batch through the model and completes the future of each input with its output. An
+ * input of the wrong size is completed with an IllegalArgumentException and left out of the batch.
+ * If the batch fails with any exception or Error, every future in it is completed with it.
+ *
+ * @param batch the inputs to run
+ */
+   private void runBatch(ArrayList<Pending> batch)
+   {
+      int b;
+      int count;
+      double[][] inputs;
+      double[][] outputs;
+      Pending[] run;
+      Model current;
+
+      current = model;
+      count = 0;
+      inputs = new double[batch.size()][];
+      run = new Pending[batch.size()];
+      for (Pending pending : batch)
+      {
+         if (pending.input.length == current.numInputs())
+         {
+            inputs[count] = pending.input;
+            run[count] = pending;
+            count++;
+         }
+         else
+         {
+            pending.future.completeExceptionally(new IllegalArgumentException("Expected " +
+                  current.numInputs() + " inputs, read " + pending.input.length));
+         }
+      } //for (Pending pending : batch)
+
+      try
+      {
+         if (count > 0)
+         {
+            outputs = current.predictBatch(inputs, count);
+            for (b = 0; b < count; b++)
+            {
+               run[b].future.complete(outputs[b]);
+            }
+         }
+      }
+      catch (Throwable e)
+      {
+         for (b = 0; b < count; b++)
+         {
+            run[b].future.completeExceptionally(e);
+         }
+      }
+
+      batches.incrementAndGet();
+      batchedInputs.addAndGet(batch.size());
+   } //private void runBatch(ArrayList<Pending> batch)
+
+/**
+ * Replaces the model run by later batches. A batch which is already running finishes on the old
+ * model.
+ *
+ * @param model the new model, with the same numbers of inputs and outputs
+ */
+   public void setModel(Model model)
+   {
+      this.model = model;
+   }
+
+/**
+ * Stops the dispatcher thread. Inputs which have not been run yet, and any submitted later, are
+ * cancelled.
+ */
+   public void shutdown()
+   {
+      stopped = true;
+      dispatcher.interrupt();
+      cancelQueued();
+   }
+
+/**
+ * Cancels every input still in the queue.
+ */
+   private void cancelQueued()
+   {
+      Pending pending;
+
+      while ((pending = queue.poll()) != null)
+      {
+         pending.future.cancel(false);
+      }
+   }
+} //public class BatchPredictor
@@ -41,6 +41,60 @@ import java.util.Arrays;
  *                         end, regardless of network mode.
  * etaInterval:            the interval at which to print an ETA for training. This defaults to 0
  *                         (disabled).
+ * skipErrThreshold:       the per-case error below which a case is considered learned, and its
+ *                         backpropagation is skipped during training. This defaults to 0.0
+ *                         (disabled).
+ * skipRevisitInterval:    the interval at which every case, learned or not, is run through
+ *                         backpropagation again. Used only when skipErrThreshold is greater than 0.
+ *                         This defaults to 10, and must be positive.
+ * skipRescoreInterval:    the interval at which learned cases are run forward again to update
+ *                         their errors, so a case which later updates made worse is trained again.
+ *                         Used only when skipErrThreshold is greater than 0. This defaults to 2, and
+ *                         must be positive.
+ * frozenLayers:           the number of leading weight layers which are not updated during
+ *                         training. The activations of the last frozen layer are computed once
+ *                         per case and reused every iteration. This defaults to 0 (all layers
+ *                         are trained).
+ * sparseDensity:          the fraction of non-zero activations below which a layer is run
+ *                         through the sparse path, which only visits the non-zero activations.
+ *                         This defaults to 0.5. 0 disables the sparse path.
+ * sparseWeights:          whether the weights file to load is in the sparse (CSR) format written
+ *                         by the Prune tool. Sparse weights are run through the CSR kernel outside
+ *                         of training. This defaults to false.
+ * serverAddress:          the address the inference Server listens on. This defaults to
+ *                         127.0.0.1 (loopback only).
+ * serverPort:             the port the inference Server listens on. This defaults to 8080.
+ * serverThreads:          the number of threads the inference Server handles requests with. This
+ *                         defaults to 0, which uses one thread per available processor.
+ * maxBatchSize:           the largest number of concurrent requests the inference Server runs
+ *                         through the network as one batch. This defaults to 1 (no batching).
+ * maxBatchWait:           the longest time in microseconds a request to the inference Server
+ *                         waits for other requests to batch with. This defaults to 200.
+ * predictionCacheSize:    the number of outputs the inference Server keeps in its least recently
+ *                         used cache, keyed by the content of the input. This defaults to 0
+ *                         (no cache).
+ * watchWeights:           whether the inference Server watches the weights file in, and its
+ *                         training checkpoints, for new weights to swap in while serving. This
+ *                         defaults to false.
+ * resultsFile:            the file run all mode streams the output activations of every case to,
+ *                         instead of printing them. A file ending in "csv" is written as comma
+ *                         separated text, and any other file as eight byte doubles. This defaults
+ *                         to "" (print the outputs).
+ * resultsChunkSize:       the number of cases read from the truth table at a time when streaming
+ *                         results to the results file. This defaults to 1024.
+ * truthTableSnapshots:    whether loading a whole truth table keeps a binary snapshot of the
+ *                         loaded arrays next to it, and memory maps that snapshot on later loads
+ *                         while none of the table's files has changed. This defaults to true.
+ * augmentImageWidth:      the width in pels of the images held by the truth table inputs, row
+ *                         after row. If this is greater than 0, training alters each case randomly
+ *                         in every iteration, as set by the three parameters below. This defaults
+ *                         to 0 (disabled).
+ * augmentMaxShift:        the largest shift in pels, in x and in y, of an altered training image.
+ *                         Shifts may be fractions of a pel. This defaults to 0.0.
+ * augmentMaxRotation:     the largest rotation in degrees, either way, of an altered training
+ *                         image. This defaults to 0.0.
+ * augmentIntensityJitter: the largest fraction by which the intensity of an altered training
+ *                         image is scaled up or down. This defaults to 0.0.
  *
  * Table of Contents:
  * 1. Config(String defaultWeightsFile, String defaultTruthTableFile)
@@ -74,6 +128,26 @@ public class Config
    public Function activationFunction;
    public int saveWeightsInterval;
    public int etaInterval;
+   public double skipErrThreshold;
+   public int skipRevisitInterval;
+   public int skipRescoreInterval;
+   public int frozenLayers;
+   public double sparseDensity;
+   public boolean sparseWeights;
+   public String serverAddress;
+   public int serverPort;
+   public int serverThreads;
+   public int maxBatchSize;
+   public int maxBatchWait;
+   public int predictionCacheSize;
+   public boolean watchWeights;
+   public String resultsFile;
+   public int resultsChunkSize;
+   public boolean truthTableSnapshots;
+   public int augmentImageWidth;
+   public double augmentMaxShift;
+   public double augmentMaxRotation;
+   public double augmentIntensityJitter;
 
 /**
  * Constructor for the Config class. Initializes the parameters to their default values.
@@ -105,5 +179,25 @@ public class Config
       activationFunction = new Sigmoid();
       saveWeightsInterval = 0;
       etaInterval = 0;
+      skipErrThreshold = 0.0;
+      skipRevisitInterval = 10;
+      skipRescoreInterval = 2;
+      frozenLayers = 0;
+      sparseDensity = 0.5;
+      sparseWeights = false;
+      serverAddress = "127.0.0.1";
+      serverPort = 8080;
+      serverThreads = 0;
+      maxBatchSize = 1;
+      maxBatchWait = 200;
+      predictionCacheSize = 0;
+      watchWeights = false;
+      resultsFile = "";
+      resultsChunkSize = 1024;
+      truthTableSnapshots = true;
+      augmentImageWidth = 0;
+      augmentMaxShift = 0.0;
+      augmentMaxRotation = 0.0;
+      augmentIntensityJitter = 0.0;
    } //public Config(String defaultWeightsFile, String defaultTruthTableFile)
 } //public class Config
@@ -37,6 +37,44 @@ import java.io.*;
  *                            of network mode.
  * ETA Interval:              The interval at which to print an ETA to the end of training. This
  *                            is only used when the network is in training mode.
+ * Skip Error Threshold:      The per-case error below which a case is treated as learned during
+ *                            training and its backpropagation is skipped. 0 disables skipping.
+ * Skip Revisit Interval:     The interval at which learned cases are run through backpropagation
+ *                            again. Must be positive.
+ * Skip Rescore Interval:     The interval at which learned cases are run forward to update their
+ *                            errors, so that a case which got worse is trained again. Must be
+ *                            positive.
+ * Frozen Layers:             The number of leading weight layers to keep fixed during training.
+ *                            Must leave at least one weight layer trainable.
+ * Sparse Density Threshold:  The fraction of non-zero activations in a layer below which only
+ *                            the non-zero activations are used in dot products and weight
+ *                            updates. 0 disables the sparse path.
+ * Sparse Weights:            Whether the weights file to load is in the sparse (CSR) format.
+ * Server Address:            The address the inference Server listens on.
+ * Server Port:               The port the inference Server listens on.
+ * Server Threads:            The number of threads the inference Server handles requests with. 0
+ *                            uses one thread per available processor.
+ * Max Batch Size:            The largest number of concurrent requests the inference Server runs
+ *                            as one batch. 1 disables batching.
+ * Max Batch Wait:            The longest time in microseconds a request to the inference Server
+ *                            waits for other requests to batch with.
+ * Prediction Cache Size:     The number of outputs the inference Server caches by input content.
+ *                            0 disables the cache.
+ * Watch Weights:             Whether the inference Server loads new weights written to the weights
+ *                            file in, or to its training checkpoints, while serving.
+ * Results File:              The file run all mode streams every case's outputs to instead of
+ *                            printing them, as CSV if it ends in "csv" and as doubles otherwise.
+ * Results Chunk Size:        The number of cases read at a time when streaming to the results
+ *                            file.
+ * Truth Table Snapshots:     Whether whole truth table loads keep and reuse a binary snapshot of
+ *                            the loaded table next to the truth table file.
+ * Augment Image Width:       The width in pels of the images held by the truth table inputs. If
+ *                            greater than 0, training randomly alters every case in every
+ *                            iteration. 0 disables augmentation.
+ * Augment Max Shift:         The largest shift in pels of an altered training image.
+ * Augment Max Rotation:      The largest rotation in degrees of an altered training image.
+ * Augment Intensity Jitter:  The largest fraction an altered training image's intensity is scaled
+ *                            up or down by.
  *
  * Keys which do not match the above list will be ignored. Lines beginning with a '#' are treated
  * as comments and are ignored. An example configuration file may look like the following:
@@ -58,6 +96,26 @@ import java.io.*;
  * Activation Function: Linear, 0.1, 0.5
  * Save Weights Interval: 1e3
  * ETA Interval: 0
+ * Skip Error Threshold: 1e-5
+ * Skip Revisit Interval: 10
+ * Skip Rescore Interval: 2
+ * Frozen Layers: 0
+ * Sparse Density Threshold: 0.5
+ * Sparse Weights: false
+ * Server Address: 127.0.0.1
+ * Server Port: 8080
+ * Server Threads: 0
+ * Max Batch Size: 32
+ * Max Batch Wait: 200
+ * Prediction Cache Size: 10000
+ * Watch Weights: false
+ * Results File: results.csv
+ * Results Chunk Size: 1024
+ * Truth Table Snapshots: true
+ * Augment Image Width: 0
+ * Augment Max Shift: 1.5
+ * Augment Max Rotation: 5
+ * Augment Intensity Jitter: 0.1
  *
  *
  * Table of Contents:
@@ -245,6 +303,9 @@ public class ConfigFileIO
                   case "weights file in":
                      config.weightsFileIn = read[VALUE];
                      break;
+                  case "sparse weights":
+                     config.sparseWeights = Util.toBoolean(read[VALUE]);
+                     break;
                   case "weights file out":
                      config.weightsFileOut = read[VALUE];
                      break;
@@ -396,6 +457,248 @@ public class ConfigFileIO
                            Util.exit("Poorly formatted integer for ETA Interval: " +
                                  read[VALUE], fileName);
                         }
+                  case "skip error threshold":
+                     try
+                     {
+                        config.skipErrThreshold = Util.toDouble(read[VALUE]);
+                        break;
+                     }
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted double for Skip Error Threshold: " +
+                              read[VALUE], fileName);
+                     }
+                  case "skip revisit interval":
+                     try
+                     {
+                        config.skipRevisitInterval = Util.toInt(read[VALUE]);
+                        if (config.skipRevisitInterval <= 0)
+                        {
+                           Util.exit("Invalid: \"Skip Revisit Interval\" parameter is not " +
+                                 "positive. Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Skip Revisit Interval: " +
+                              read[VALUE], fileName);
+                     }
+                  case "skip rescore interval":
+                     try
+                     {
+                        config.skipRescoreInterval = Util.toInt(read[VALUE]);
+                        if (config.skipRescoreInterval <= 0)
+                        {
+                           Util.exit("Invalid: \"Skip Rescore Interval\" parameter is not " +
+                                 "positive. Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Skip Rescore Interval: " +
+                              read[VALUE], fileName);
+                     }
+                  case "frozen layers":
+                     try
+                     {
+                        config.frozenLayers = Util.toInt(read[VALUE]);
+                        if (config.frozenLayers < 0)
+                        {
+                           Util.exit("Invalid: \"Frozen Layers\" parameter is negative. Read - "
+                                 + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Frozen Layers: " + read[VALUE],
+                              fileName);
+                     }
+                  case "sparse density threshold":
+                     try
+                     {
+                        config.sparseDensity = Util.toDouble(read[VALUE]);
+                        break;
+                     }
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted double for Sparse Density Threshold: " +
+                              read[VALUE], fileName);
+                     }
+                  case "server address":
+                     config.serverAddress = read[VALUE];
+                     break;
+                  case "server port":
+                     try
+                     {
+                        config.serverPort = Util.toInt(read[VALUE]);
+                        if (config.serverPort < 0 || config.serverPort > 65535)
+                        {
+                           Util.exit("Invalid: \"Server Port\" parameter is out of range. Read - "
+                                 + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Server Port: " + read[VALUE],
+                              fileName);
+                     }
+                  case "server threads":
+                     try
+                     {
+                        config.serverThreads = Util.toInt(read[VALUE]);
+                        if (config.serverThreads < 0)
+                        {
+                           Util.exit("Invalid: \"Server Threads\" parameter is negative. Read - "
+                                 + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Server Threads: " + read[VALUE],
+                              fileName);
+                     }
+                  case "max batch size":
+                     try
+                     {
+                        config.maxBatchSize = Util.toInt(read[VALUE]);
+                        if (config.maxBatchSize < 1)
+                        {
+                           Util.exit("Invalid: \"Max Batch Size\" parameter is less than 1. " +
+                                 "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Max Batch Size: " + read[VALUE],
+                              fileName);
+                     }
+                  case "max batch wait":
+                     try
+                     {
+                        config.maxBatchWait = Util.toInt(read[VALUE]);
+                        if (config.maxBatchWait < 0)
+                        {
+                           Util.exit("Invalid: \"Max Batch Wait\" parameter is negative. Read - "
+                                 + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Max Batch Wait: " + read[VALUE],
+                              fileName);
+                     }
+                  case "watch weights":
+                     config.watchWeights = Util.toBoolean(read[VALUE]);
+                     break;
+                  case "prediction cache size":
+                     try
+                     {
+                        config.predictionCacheSize = Util.toInt(read[VALUE]);
+                        if (config.predictionCacheSize < 0)
+                        {
+                           Util.exit("Invalid: \"Prediction Cache Size\" parameter is negative. " +
+                                 "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Prediction Cache Size: " +
+                              read[VALUE], fileName);
+                     }
+                  case "truth table snapshots":
+                     config.truthTableSnapshots = Util.toBoolean(read[VALUE]);
+                     break;
+                  case "augment image width":
+                     try
+                     {
+                        config.augmentImageWidth = Util.toInt(read[VALUE]);
+                        if (config.augmentImageWidth < 0)
+                        {
+                           Util.exit("Invalid: \"Augment Image Width\" parameter is negative. " +
+                                 "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Augment Image Width: " +
+                              read[VALUE], fileName);
+                     }
+                  case "augment max shift":
+                     try
+                     {
+                        config.augmentMaxShift = Util.toDouble(read[VALUE]);
+                        if (config.augmentMaxShift < 0.0)
+                        {
+                           Util.exit("Invalid: \"Augment Max Shift\" parameter is negative. " +
+                                 "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted double for Augment Max Shift: " +
+                              read[VALUE], fileName);
+                     }
+                  case "augment max rotation":
+                     try
+                     {
+                        config.augmentMaxRotation = Util.toDouble(read[VALUE]);
+                        if (config.augmentMaxRotation < 0.0)
+                        {
+                           Util.exit("Invalid: \"Augment Max Rotation\" parameter is negative. " +
+                                 "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted double for Augment Max Rotation: " +
+                              read[VALUE], fileName);
+                     }
+                  case "augment intensity jitter":
+                     try
+                     {
+                        config.augmentIntensityJitter = Util.toDouble(read[VALUE]);
+                        if (config.augmentIntensityJitter < 0.0)
+                        {
+                           Util.exit("Invalid: \"Augment Intensity Jitter\" parameter is " +
+                                 "negative. Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted double for Augment Intensity Jitter: " +
+                              read[VALUE], fileName);
+                     }
+                  case "results file":
+                     config.resultsFile = read[VALUE];
+                     break;
+                  case "results chunk size":
+                     try
+                     {
+                        config.resultsChunkSize = Util.toInt(read[VALUE]);
+                        if (config.resultsChunkSize <= 0)
+                        {
+                           Util.exit("Invalid: \"Results Chunk Size\" parameter is not positive. "
+                                 + "Read - " + ln, fileName);
+                        }
+                        break;
+                     } //try
+                     catch (NumberFormatException e)
+                     {
+                        Util.exit("Poorly formatted integer for Results Chunk Size: " +
+                              read[VALUE], fileName);
+                     }
                   default:
                      Util.exit("Invalid configuration parameter \"" + read[KEY] + "\"",
                            fileName);
@@ -524,6 +827,26 @@ public class ConfigFileIO
          out.writeUTF(Util.newLine("Save Weights Interval: " + config.saveWeightsInterval));
          out.writeUTF(Util.newLine("Decimal precision: " + config.decimalPrecision));
          out.writeUTF(Util.newLine("Activation Function: " + config.activationFunction.toString()));
+         out.writeUTF(Util.newLine("Skip Error Threshold: " + config.skipErrThreshold));
+         out.writeUTF(Util.newLine("Skip Revisit Interval: " + config.skipRevisitInterval));
+         out.writeUTF(Util.newLine("Skip Rescore Interval: " + config.skipRescoreInterval));
+         out.writeUTF(Util.newLine("Frozen Layers: " + config.frozenLayers));
+         out.writeUTF(Util.newLine("Sparse Density Threshold: " + config.sparseDensity));
+         out.writeUTF(Util.newLine("Sparse Weights: " + config.sparseWeights));
+         out.writeUTF(Util.newLine("Server Address: " + config.serverAddress));
+         out.writeUTF(Util.newLine("Server Port: " + config.serverPort));
+         out.writeUTF(Util.newLine("Server Threads: " + config.serverThreads));
+         out.writeUTF(Util.newLine("Max Batch Size: " + config.maxBatchSize));
+         out.writeUTF(Util.newLine("Max Batch Wait: " + config.maxBatchWait));
+         out.writeUTF(Util.newLine("Prediction Cache Size: " + config.predictionCacheSize));
+         out.writeUTF(Util.newLine("Watch Weights: " + config.watchWeights));
+         out.writeUTF(Util.newLine("Results File: " + config.resultsFile));
+         out.writeUTF(Util.newLine("Results Chunk Size: " + config.resultsChunkSize));
+         out.writeUTF(Util.newLine("Truth Table Snapshots: " + config.truthTableSnapshots));
+         out.writeUTF(Util.newLine("Augment Image Width: " + config.augmentImageWidth));
+         out.writeUTF(Util.newLine("Augment Max Shift: " + config.augmentMaxShift));
+         out.writeUTF(Util.newLine("Augment Max Rotation: " + config.augmentMaxRotation));
+         out.writeUTF(Util.newLine("Augment Intensity Jitter: " + config.augmentIntensityJitter));
 
       } //try
       catch (IOException e)
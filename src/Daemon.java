@@ -0,0 +1,222 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class keeps one JVM running and runs the network on configuration files as they are sent
+ * to it, instead of starting "java Main config_file" for each one. Later runs skip JVM startup, run
+ * on code the JIT has already compiled, and take their truth tables and weights from a
+ * DatasetCache, which only reads a file again once it has changed.
+ *
+ * Jobs are configuration file paths, one per line. They are read from standard input and, if a
+ * port is given, from connections to that port on the loopback address. The output of a job read
+ * from standard input is printed to standard output, while the output of a job read from a
+ * connection is sent back over that connection. Each job ends with a line starting with
+ * "Finished job" that gives its time and the cache hits and misses so far.
+ *
+ * Jobs are queued and run one at a time, since Main keeps the state of the network in static
+ * fields.
+ *
+ * For example, "echo configA.txt | nc 127.0.0.1 9090" runs configA.txt on a daemon started with
+ * "java Daemon 9090".
+ *
+ * Usage: java Daemon [port]
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. submit(String configFile, PrintStream out)
+ * 3. runJob(String configFile, PrintStream out)
+ * 4. acceptJobs(ServerSocket serverSocket)
+ * 5. serveConnection(Socket socket)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Daemon
+{
+   public static PrintStream stdout;                       //Standard output when the daemon started
+   public static ExecutorService jobs;                     //Runs the queued jobs one at a time
+
+/**
+ * Starts the daemon, reading jobs from standard input until it closes. If a port is given, jobs
+ * are also accepted over connections to it, and the daemon keeps running after standard input
+ * closes.
+ *
+ * @param args optionally, the port to accept jobs on
+ */
+   public static void main(String[] args)
+   {
+      String ln;
+      Thread acceptor;
+      ServerSocket serverSocket;
+      BufferedReader in;
+
+      stdout = System.out;
+      jobs = Executors.newSingleThreadExecutor();
+      Main.datasetCache = new DatasetCache();
+      acceptor = null;
+
+      try
+      {
+         if (args.length > 0)
+         {
+            try
+            {
+               serverSocket = new ServerSocket(Util.toInt(args[0]), 0,
+                     InetAddress.getLoopbackAddress());
+               acceptor = new Thread(() -> acceptJobs(serverSocket), "DaemonAcceptor");
+               acceptor.start();
+               stdout.println("Accepting jobs on port " + serverSocket.getLocalPort());
+            }
+            catch (NumberFormatException e)
+            {
+               Util.exit("Poorly formatted integer for port: " + args[0], "Daemon");
+            }
+            catch (IOException e)
+            {
+               Util.exit("Failed to listen on port " + args[0], "Daemon");
+            }
+         } //if (args.length > 0)
+
+         stdout.println("Reading jobs from standard input");
+         in = new BufferedReader(new InputStreamReader(System.in));
+         while ((ln = in.readLine()) != null)
+         {
+            if (!ln.isBlank())
+            {
+               submit(ln.trim(), stdout);
+            }
+         }
+
+         if (acceptor != null)
+         {
+            acceptor.join();
+         }
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+      catch (IOException | InterruptedException e)
+      {
+         System.out.println("Stopped reading jobs: " + e.getMessage());
+      }
+
+      jobs.shutdown();
+   } //public static void main(String[] args)
+
+/**
+ * Queues a job and waits for it to finish, so that jobs from one source finish in the order they
+ * were sent.
+ *
+ * @param configFile the configuration file to run
+ * @param out        the stream to print the output of the job to
+ */
+   public static void submit(String configFile, PrintStream out)
+   {
+      Future<?> job;
+
+      job = jobs.submit(() -> runJob(configFile, out));
+      try
+      {
+         job.get();
+      }
+      catch (InterruptedException | ExecutionException e)
+      {
+         out.println("Job " + configFile + " did not finish: " + e.getMessage());
+      }
+   } //public static void submit(String configFile, PrintStream out)
+
+/**
+ * Runs the network on one configuration file, printing its output to the given stream.
+ *
+ * @param configFile the configuration file to run
+ * @param out        the stream to print the output of the job to
+ */
+   public static void runJob(String configFile, PrintStream out)
+   {
+      long start;
+
+      start = System.nanoTime();
+      System.setOut(out);
+
+      try
+      {
+         Main.main(new String[] {configFile});
+      }
+      catch (RuntimeException e)
+      {
+         out.println("Job " + configFile + " failed: " + e);
+      }
+      finally
+      {
+         System.setOut(stdout);
+      }
+
+      out.println("Finished job " + configFile + " in " +
+            (System.nanoTime() - start) / Server.NANO_PER_MILLI + " milliseconds (cache hits: " +
+            Main.datasetCache.hits + ", misses: " + Main.datasetCache.misses + ")");
+      out.flush();
+   } //public static void runJob(String configFile, PrintStream out)
+
+/**
+ * Accepts connections and serves each one on its own thread.
+ *
+ * @param serverSocket the socket to accept connections on
+ */
+   public static void acceptJobs(ServerSocket serverSocket)
+   {
+      while (true)
+      {
+         try
+         {
+            final Socket socket = serverSocket.accept();
+            new Thread(() -> serveConnection(socket), "DaemonConnection").start();
+         }
+         catch (IOException e)
+         {
+            stdout.println("Failed to accept a connection: " + e.getMessage());
+         }
+      } //while (true)
+   } //public static void acceptJobs(ServerSocket serverSocket)
+
+/**
+ * Reads jobs from a connection until it closes, sending the output of each back over it.
+ *
+ * @param socket the connection
+ */
+   public static void serveConnection(Socket socket)
+   {
+      String ln;
+      BufferedReader in;
+      PrintStream out;
+
+      try
+      {
+         in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+         out = new PrintStream(socket.getOutputStream(), true);
+
+         while ((ln = in.readLine()) != null)
+         {
+            if (!ln.isBlank())
+            {
+               submit(ln.trim(), out);
+            }
+         }
+
+         socket.close();
+      } //try
+      catch (IOException e)
+      {
+         stdout.println("Lost a connection: " + e.getMessage());
+      }
+   } //public static void serveConnection(Socket socket)
+} //public class Daemon
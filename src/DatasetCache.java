@@ -0,0 +1,323 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class keeps parsed truth tables and loaded weights in memory between runs of the network in
+ * the same JVM, so that a Daemon running many configuration files only reads each file once.
+ *
+ * Each entry remembers every file it was loaded from, along with each file's size and last
+ * modified time. For a truth table these are the table itself and every file it references with
+ * '?'. An entry is reused only if none of its files has changed since it was loaded, and is
+ * reloaded otherwise.
+ *
+ * A file may be rewritten while it is being loaded, so the stamps of the weights file and the truth
+ * table file are taken before loading and checked again afterwards. The files a truth table
+ * references are only known once it is loaded, so they are instead checked for having been modified
+ * at or after the load started, within the MODIFIED_RESOLUTION_MILLIS resolution of the last
+ * modified time. If any file may have changed, what was loaded is still returned, but it is not
+ * cached, so the next run loads it again.
+ *
+ * Truth tables are keyed by their path and their number of cases, inputs, and outputs. Cached
+ * truth table arrays are shared with the network, which only reads them. Weights are keyed by their
+ * path, format, and network configuration. Since training changes the weights, cached dense weights
+ * are copied into the network's array rather than shared. Sparse weights are only read, so they are
+ * shared.
+ *
+ * Table of Contents:
+ * 1. DatasetCache()
+ * 2. loadTruthTable(Config config, boolean withOutputs)
+ * 3. loadWeights(Config config, double[][][] w)
+ * 4. loadSparseWeights(Config config)
+ * 5. isCurrent(Entry entry)
+ * 6. isSettled(Entry entry, long started)
+ * 7. stamp(Entry entry, ArrayList<String> files)
+ * 8. weightsKey(Config config)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class DatasetCache
+{
+   public static final long MODIFIED_RESOLUTION_MILLIS = 2000L; //Coarsest last modified time kept
+
+   private final HashMap<String, Entry> tables;
+   private final HashMap<String, Entry> weights;
+
+   /**
+    * Counters for reporting.
+    */
+   public long hits;
+   public long misses;
+
+   /**
+    * A cached truth table or set of weights, with the files it was loaded from.
+    */
+   public static class Entry
+   {
+      public double[][] inputs;                            //Truth table inputs
+      public double[][] outputs;                           //Truth table outputs, null if not loaded
+      public double[][][] w;                               //Dense weights
+      public SparseWeights sparse;                         //Sparse weights
+      String[] files;
+      long[] sizes;
+      long[] modified;
+   } //public static class Entry
+
+/**
+ * Constructor for the DatasetCache class. Creates an empty cache.
+ */
+   public DatasetCache()
+   {
+      tables = new HashMap<String, Entry>();
+      weights = new HashMap<String, Entry>();
+   }
+
+/**
+ * Returns the truth table of the given configuration, loading it if it is not cached or if any of
+ * its files has changed.
+ *
+ * @param config      the network configuration, giving the truth table file and its shape
+ * @param withOutputs whether the expected outputs are needed as well as the inputs
+ * @return the cached entry, with its inputs and, if requested, outputs
+ */
+   public Entry loadTruthTable(Config config, boolean withOutputs)
+   {
+      int numInputs;
+      int numOutputs;
+      long started;
+      String key;
+      Entry entry;
+      Entry before;
+      ArrayList<String> files;
+      TruthTableFileIO truthTableFileIO;
+
+      numInputs = config.numActsInLayers[config.INPUT_LAYER];
+      numOutputs = config.numActsInLayers[config.OUTPUT_LAYER];
+      key = new File(config.truthTableFile).getAbsolutePath() + "|" + config.numCases + "-" +
+            numInputs + "-" + numOutputs;
+
+      entry = tables.get(key);
+      if (entry != null && (entry.outputs != null || !withOutputs) && isCurrent(entry))
+      {
+         hits++;
+         return entry;
+      }
+
+      misses++;
+      before = new Entry();
+      files = new ArrayList<String>();
+      files.add(config.truthTableFile);
+      stamp(before, files);
+      started = System.currentTimeMillis();
+
+      entry = new Entry();
+      entry.inputs = new double[config.numCases][numInputs];
+      truthTableFileIO = new TruthTableFileIO(numInputs, numOutputs, config.numCases,
+            withOutputs ? Main.TRAINING : Main.RUN_ALL, config.truthTableFile);
+      truthTableFileIO.setSnapshots(config.truthTableSnapshots);
+
+      if (withOutputs)
+      {
+         entry.outputs = new double[config.numCases][numOutputs];
+         truthTableFileIO.loadTruthTable(entry.inputs, entry.outputs);
+      }
+      else
+      {
+         truthTableFileIO.loadTruthTableInputs(entry.inputs);
+      }
+
+      stamp(entry, truthTableFileIO.getSourceFiles());
+      if (isCurrent(before) && isSettled(entry, started))
+      {
+         tables.put(key, entry);
+      }
+      else
+      {
+         tables.remove(key);
+      }
+
+      return entry;
+   } //public Entry loadTruthTable(Config config, boolean withOutputs)
+
+/**
+ * Loads the dense weights file in of the given configuration into w, reading the file only if it
+ * is not cached or has changed.
+ *
+ * @param config the network configuration, giving the weights file in and the layer sizes
+ * @param w      the array to copy the weights into
+ */
+   public void loadWeights(Config config, double[][][] w)
+   {
+      int n;
+      int k;
+      String key;
+      Entry entry;
+      ArrayList<String> files;
+
+      key = weightsKey(config);
+      entry = weights.get(key);
+
+      if (entry != null && isCurrent(entry))
+      {
+         hits++;
+      }
+      else
+      {
+         misses++;
+         entry = new Entry();
+         files = new ArrayList<String>();
+         files.add(config.weightsFileIn);
+         stamp(entry, files);
+
+         entry.w = new double[config.numActLayers - 1][][];
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            entry.w[n] = new double[config.numActsInLayers[n]][config.numActsInLayers[n + 1]];
+         }
+         new WeightsFileIO(config.weightsFileIn, config).loadWeights(entry.w);
+
+         if (isCurrent(entry))
+         {
+            weights.put(key, entry);
+         }
+         else
+         {
+            weights.remove(key);
+         }
+      } //if (entry != null && isCurrent(entry))...else
+
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            System.arraycopy(entry.w[n][k], 0, w[n][k], 0, config.numActsInLayers[n + 1]);
+         }
+      }
+   } //public void loadWeights(Config config, double[][][] w)
+
+/**
+ * Returns the sparse weights file in of the given configuration, reading the file only if it is
+ * not cached or has changed.
+ *
+ * @param config the network configuration, giving the weights file in and the layer sizes
+ * @return the CSR weights, which must not be changed
+ */
+   public SparseWeights loadSparseWeights(Config config)
+   {
+      String key;
+      Entry entry;
+      ArrayList<String> files;
+
+      key = weightsKey(config);
+      entry = weights.get(key);
+
+      if (entry != null && isCurrent(entry))
+      {
+         hits++;
+         return entry.sparse;
+      }
+
+      misses++;
+      entry = new Entry();
+      files = new ArrayList<String>();
+      files.add(config.weightsFileIn);
+      stamp(entry, files);
+
+      entry.sparse = new WeightsFileIO(config.weightsFileIn, config).loadSparseWeights();
+
+      if (isCurrent(entry))
+      {
+         weights.put(key, entry);
+      }
+      else
+      {
+         weights.remove(key);
+      }
+
+      return entry.sparse;
+   } //public SparseWeights loadSparseWeights(Config config)
+
+/**
+ * Checks whether every file an entry was loaded from still has the same size and last modified
+ * time.
+ *
+ * @param entry the cached entry
+ * @return true if none of its files has changed
+ */
+   private boolean isCurrent(Entry entry)
+   {
+      int x;
+      File file;
+
+      for (x = 0; x < entry.files.length; x++)
+      {
+         file = new File(entry.files[x]);
+         if (file.length() != entry.sizes[x] || file.lastModified() != entry.modified[x])
+         {
+            return false;
+         }
+      }
+
+      return true;
+   } //private boolean isCurrent(Entry entry)
+
+/**
+ * Checks that no file an entry was loaded from was last modified at or after the load started.
+ * Since the last modified time may be rounded down, a file modified less than
+ * MODIFIED_RESOLUTION_MILLIS milliseconds before the load started is also taken to have changed.
+ *
+ * @param entry   the entry, stamped after it was loaded
+ * @param started the time the load started, in milliseconds
+ * @return true if none of its files can have changed during the load
+ */
+   private boolean isSettled(Entry entry, long started)
+   {
+      int x;
+
+      for (x = 0; x < entry.files.length; x++)
+      {
+         if (entry.modified[x] > started - MODIFIED_RESOLUTION_MILLIS)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   } //private boolean isSettled(Entry entry, long started)
+
+/**
+ * Records the size and last modified time of each file an entry was loaded from.
+ *
+ * @param entry the entry
+ * @param files the files it was loaded from
+ */
+   private void stamp(Entry entry, ArrayList<String> files)
+   {
+      int x;
+      File file;
+
+      entry.files = files.toArray(new String[0]);
+      entry.sizes = new long[entry.files.length];
+      entry.modified = new long[entry.files.length];
+
+      for (x = 0; x < entry.files.length; x++)
+      {
+         file = new File(entry.files[x]);
+         entry.sizes[x] = file.length();
+         entry.modified[x] = file.lastModified();
+      }
+   } //private void stamp(Entry entry, ArrayList<String> files)
+
+/**
+ * Makes the cache key of the weights file in of a configuration.
+ *
+ * @param config the network configuration
+ * @return the key
+ */
+   private String weightsKey(Config config)
+   {
+      return new File(config.weightsFileIn).getAbsolutePath() + "|" + config.sparseWeights + "|" +
+            Util.formatConfiguration(config.numActsInLayers, config.numActLayers);
+   }
+} //public class DatasetCache
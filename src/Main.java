@@ -1,3 +1,7 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.DecimalFormat;
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDateTime;
@@ -12,6 +16,10 @@ import java.util.Arrays;
  * of the output node(s). In run single mode the network runs only the input specified in the
  * configuration file.
  *
+ * If a results file is configured, run-all mode instead streams the truth table through the
+ * network one chunk of cases at a time, running each case once and writing its outputs to the
+ * results file, so that the memory used does not grow with the number of cases.
+ *
  * The network reads the configuration parameters from a file, using a ConfigFileIO object to
  * read/write from/to the file and storing the network configuration in a Config object.
  *
@@ -23,15 +31,27 @@ import java.util.Arrays;
  * 5. populateArrays()
  * 6. randomizeWeights()
  * 7. runSingleCase()
- * 8. runAll()
- * 9. runDuringTrain(int caseNum)
- * 10. activationFunction(double x)
- * 11. activationFunctionPrime(double x)
- * 12. runError(int caseNum)
- * 13. reportFull()
- * 14. formatDoubleArray(double[] arr, int len)
- * 15. formatTime(double seconds)
- * 16. main(String[] args)
+ * 8. runLayers(int firstLayer, int lastLayer)
+ * 9. computeTheta(int n, int j)
+ * 10. runAll()
+ * 11. runDuringTrain(int caseNum)
+ * 12. backpropagate()
+ * 13. activationFunction(double x)
+ * 14. activationFunctionPrime(double x)
+ * 15. runError(int caseNum)
+ * 16. reportFull()
+ * 17. formatDoubleArray(double[] arr, int len)
+ * 18. cacheFrozenFeatures()
+ * 19. loadTrainingCase(int caseNum)
+ * 20. loadAugmentedCase(int caseNum)
+ * 21. indexInputs()
+ * 22. loadInputCase(int caseNum)
+ * 23. indexActive(int n)
+ * 24. formatTime(double seconds)
+ * 25. streamResults()
+ * 26. writeResults(FileChannel channel)
+ * 27. flushResults(ByteBuffer buf, FileChannel channel)
+ * 28. main(String[] args)
  *
  * Author: Akul Goyal
  * Date of Creation: 01/30/2024
@@ -56,6 +76,7 @@ public class Main
    /**
     * Constants and variables for tracking the elapsed time since the start of the program.
     */
+   public static final int RESULTS_BUFFER_BYTES = 1 << 16; //Size of the results file buffer
    public static final double NANO_PER_SEC = 1.0e9;        //Nanoseconds per second
    public static final double MILLIS_PER_SEC = 1000.0;     //Milliseconds per second
    public static final double SEC_PER_MIN = 60.0;          //Seconds per minute
@@ -74,6 +95,8 @@ public class Main
    public static WeightsFileIO weightsFileIOSaver;       //Object for reading/writing the output weights file
    public static TruthTableFileIO truthTableFileIO;      //Object for reading/writing the truth table file
    public static Config config;                          //Network configuration object
+   public static DatasetCache datasetCache;              //Files kept between runs, null if not cached
+   public static boolean streaming;                      //Whether run all streams to the results file
 
    /**
     * Basic variables for the fundamental network functionality. Used in all modes.
@@ -82,6 +105,15 @@ public class Main
    public static double[][][] w;                        //Weights between each layer
    public static double[][] truthTableInputs;           //Inputs for each case in the truth table
 
+   /**
+    * Variables for the sparse path, which skips zero activations in dot products and weight updates.
+    */
+   public static int[][] inputIndices;                  //Non-zero input indices of each sparse case
+   public static int[] inputCounts;                     //Non-zero inputs per case, -1 if dense
+   public static int[][] activeIndices;                 //Non-zero activation indices in each layer
+   public static int[] numActive;                       //Non-zero activations per layer, -1 if dense
+   public static SparseWeights sparseW;                 //CSR weights used for running, if loaded
+
    /**
     * Variables used during training mode only
     */
@@ -90,6 +122,12 @@ public class Main
    public static double[][] theta;                      //Theta values for each node
    public static double[][] psi;                        //Psi values for each node
    public static double error;                          //Average error for the network
+   public static double[] caseErrors;                   //Error of each case from its last pass
+   public static long backpropsRun;                     //Number of case backpropagations performed
+   public static long backpropsSkipped;                 //Number of case backpropagations skipped
+   public static int featureLayer;                      //Last frozen activation layer during training
+   public static double[][] frozenFeatures;             //Cached featureLayer activations per case
+   public static Augmenter augmenter;                   //Alters the cases while training, if enabled
 
    /**
     * Variables for formatting.
@@ -128,6 +166,19 @@ public class Main
       configFileIO = new ConfigFileIO(configFile, DEFAULT_WEIGHTS_FILE, DEFAULT_TRUTH_TABLE_FILE);
       config = configFileIO.loadConfig();
 
+      if (config.frozenLayers > config.LAST_HIDDEN_LAYER)
+      {
+         Util.exit("Frozen Layers (" + config.frozenLayers + ") must leave at least one " +
+               "trainable weight layer", configFile);
+      }
+
+      if (config.augmentImageWidth > 0 &&
+            config.numActsInLayers[config.INPUT_LAYER] % config.augmentImageWidth != 0)
+      {
+         Util.exit("Augment Image Width (" + config.augmentImageWidth + ") must divide the " +
+               "number of inputs (" + config.numActsInLayers[config.INPUT_LAYER] + ")", configFile);
+      }
+
       df1 = new DecimalFormat("#".repeat(config.decimalPrecision) + "." +
             "0".repeat(config.decimalPrecision) + "E0");
       df1.setRoundingMode(java.math.RoundingMode.FLOOR);
@@ -136,9 +187,12 @@ public class Main
             "0".repeat(config.decimalPrecision));
       df.setRoundingMode(java.math.RoundingMode.FLOOR);
 
+      streaming = config.networkMode == RUN_ALL && !config.resultsFile.isEmpty();
+
       truthTableFileIO = new TruthTableFileIO(config.numActsInLayers[config.INPUT_LAYER],
             config.numActsInLayers[config.OUTPUT_LAYER],
             config.numCases, config.networkMode, config.truthTableFile);
+      truthTableFileIO.setSnapshots(config.truthTableSnapshots);
 
       if (config.loadWeights)
       {
@@ -170,6 +224,15 @@ public class Main
          System.out.println("WARNING: Activation function is unbounded. May result in NaN values.");
       }
 
+      if (config.sparseDensity > 0.0)
+      {
+         System.out.println("Sparse density threshold: " + config.sparseDensity);
+      }
+      else
+      {
+         System.out.println("Sparse density threshold: Disabled");
+      }
+
       System.out.println();
 
       if (config.networkMode == TRAINING)
@@ -207,12 +270,51 @@ public class Main
             System.out.println("ETA interval: Disabled");
          }
 
+         if (config.skipErrThreshold > 0.0)
+         {
+            System.out.println("Skip learned cases under error: " + config.skipErrThreshold);
+            if (config.skipErrThreshold > config.errThreshold)
+            {
+               System.out.println("WARNING: Skip error threshold exceeds error threshold. " +
+                     "Training may not converge.");
+            }
+            System.out.println("Revisit learned cases interval: " + config.skipRevisitInterval);
+            System.out.println("Rescore learned cases interval: " + config.skipRescoreInterval);
+         } //if (config.skipErrThreshold > 0.0)
+         else
+         {
+            System.out.println("Skip learned cases: Disabled");
+         }
+
+         if (config.frozenLayers > 0)
+         {
+            System.out.println("Frozen weight layers: " + config.frozenLayers);
+         }
+
+         if (config.augmentImageWidth > 0)
+         {
+            System.out.println("Augmenting " + config.augmentImageWidth + "x" +
+                  config.numActsInLayers[config.INPUT_LAYER] / config.augmentImageWidth +
+                  " images with shifts up to " + config.augmentMaxShift + " pels, rotations up to " +
+                  config.augmentMaxRotation + " degrees and intensity jitter up to " +
+                  config.augmentIntensityJitter);
+         }
+         else
+         {
+            System.out.println("Augmentation: Disabled");
+         }
+
          System.out.println("\nLoading truth table from file: " + config.truthTableFile);
       } //if (config.networkMode == TRAINING)
       else if (config.networkMode == RUN_ALL)
       {
          System.out.println("Network is in mode: " + config.networkMode + " (Run All)\n");
          System.out.println("Loading inputs from file: " + config.truthTableFile);
+         if (streaming)
+         {
+            System.out.println("Streaming outputs to results file: " + config.resultsFile +
+                  " (" + config.resultsChunkSize + " cases at a time)");
+         }
       }
       else
       {
@@ -226,6 +328,10 @@ public class Main
       if (config.loadWeights)
       {
          System.out.println("Loading weights from file: " + config.weightsFileIn);
+         if (config.sparseWeights)
+         {
+            System.out.println("Weights file is in the sparse (CSR) format");
+         }
       }
       else
       {
@@ -251,6 +357,9 @@ public class Main
    public static void allocateMemory()
    {
       int n;
+
+      featureLayer = config.INPUT_LAYER;
+      sparseW = null;
 /**
  * Allocates the following memory only if the network is in training mode.
  */
@@ -264,6 +373,15 @@ public class Main
 
          error = config.errThreshold + 1.0;
          trainIterations = 0;
+         caseErrors = new double[config.numCases];
+         backpropsRun = 0;
+         backpropsSkipped = 0;
+
+         featureLayer = config.frozenLayers;
+         if (featureLayer > config.INPUT_LAYER)
+         {
+            frozenFeatures = new double[config.numCases][config.numActsInLayers[featureLayer]];
+         }
 
          truthTableOutputs = new double[config.numCases][config.numActsInLayers[config.OUTPUT_LAYER]];
 
@@ -289,7 +407,29 @@ public class Main
          w[n] = new double[config.numActsInLayers[n]][config.numActsInLayers[n + 1]];
       }
 
-      truthTableInputs = new double[config.numCases][config.numActsInLayers[config.INPUT_LAYER]];
+      if (config.networkMode == RUN_SINGLE)
+      {
+         truthTableInputs = new double[config.numCases][];
+         truthTableInputs[config.runCaseNum] =
+               new double[config.numActsInLayers[config.INPUT_LAYER]];
+      }
+      else if (streaming)
+      {
+         truthTableInputs = new double[Math.min(config.resultsChunkSize, config.numCases)]
+               [config.numActsInLayers[config.INPUT_LAYER]];
+      }
+      else
+      {
+         truthTableInputs = new double[config.numCases][config.numActsInLayers[config.INPUT_LAYER]];
+      }
+
+      numActive = new int[config.numActLayers];
+      Arrays.fill(numActive, -1);
+      activeIndices = new int[config.numActLayers][];
+      for (n = config.LAST_HIDDEN_LAYER; n > config.INPUT_LAYER; n--)
+      {
+         activeIndices[n] = new int[config.numActsInLayers[n]];
+      }
    } //public static void allocateMemory()
 
    /**
@@ -306,31 +446,82 @@ public class Main
 
    /**
     * Populates the weights from file or randomly, depending on the value of the loadWeights
-    * boolean. Also, populates the truth table from the specified file.
+    * boolean. Also, populates the truth table from the specified file. Weights loaded in the sparse
+    * format are kept in CSR form for running, and are also expanded into the dense weights. In run
+    * single mode, only the input line of the case being run is read, found through the truth
+    * table's case index. If a dataset cache is set, the truth table and weights are taken from it,
+    * and it only reads the files which are not cached or have changed. When streaming results, the
+    * truth table is left to be read chunk by chunk by streamResults.
     */
    public static void populateArrays()
    {
-      if (config.networkMode != TRAINING)
-      {
-         truthTableFileIO.loadTruthTableInputs(truthTableInputs);
+      DatasetCache.Entry cached;
 
-         if (config.networkMode == RUN_ALL)
+      if (streaming)
+      {
+         inputIndices = null;
+         inputCounts = null;
+      }
+      else if (datasetCache != null)
+      {
+         cached = datasetCache.loadTruthTable(config, config.networkMode == TRAINING);
+         truthTableInputs = cached.inputs;
+         if (config.networkMode == TRAINING)
          {
-            a[config.INPUT_LAYER] = truthTableInputs[0];
+            truthTableOutputs = cached.outputs;
          }
-         else
+         indexInputs();
+
+         if (config.networkMode != TRAINING)
          {
-            a[config.INPUT_LAYER] = truthTableInputs[config.runCaseNum];
+            loadInputCase((config.networkMode == RUN_ALL) ? 0 : config.runCaseNum);
          }
-      } //if (config.networkMode != TRAINING)
+      } //if (datasetCache != null)
+      else if (config.networkMode == RUN_ALL)
+      {
+         truthTableFileIO.loadTruthTableInputs(truthTableInputs);
+         indexInputs();
+         loadInputCase(0);
+      }
+      else if (config.networkMode == RUN_SINGLE)
+      {
+         truthTableFileIO.loadTruthTableCase(truthTableInputs, config.runCaseNum);
+         indexInputs();
+         loadInputCase(config.runCaseNum);
+      } //if (streaming)...else if (config.networkMode == RUN_SINGLE)
       else {
          truthTableFileIO.loadTruthTable(truthTableInputs, truthTableOutputs);
+         indexInputs();
       }
 
-      if (config.loadWeights)
+      if (config.loadWeights && config.sparseWeights)
       {
-         weightsFileIOLoader.loadWeights(w);
-      } //if (config.loadWeights)
+         if (datasetCache != null)
+         {
+            sparseW = datasetCache.loadSparseWeights(config);
+         }
+         else
+         {
+            sparseW = weightsFileIOLoader.loadSparseWeights();
+         }
+         sparseW.toDense(w);
+
+         if (config.networkMode == TRAINING) //The CSR weights go stale once training updates w
+         {
+            sparseW = null;
+         }
+      } //if (config.loadWeights && config.sparseWeights)
+      else if (config.loadWeights)
+      {
+         if (datasetCache != null)
+         {
+            datasetCache.loadWeights(config, w);
+         }
+         else
+         {
+            weightsFileIOLoader.loadWeights(w);
+         }
+      } //if (config.loadWeights && config.sparseWeights)...else if (config.loadWeights)
       else
       {
          randomizeWeights();
@@ -364,27 +555,84 @@ public class Main
     * activation function of the sum of the dot products of each of the previous activations and the
     * corresponding weight between the previous activation and the current activation. This
     * method does not save the theta values because they are not needed after the network runs.
+    * If CSR weights were loaded, only the stored weights are visited.
     */
    public static void runSingleCase()
+   {
+      if (sparseW != null)
+      {
+         sparseW.run(a, config.activationFunction);
+      }
+      else
+      {
+         runLayers(config.FIRST_HIDDEN_LAYER, config.OUTPUT_LAYER);
+      }
+   } //public static void runSingleCase()
+
+   /**
+    * Runs the network the same as the runSingleCase() method, but only computes the activations of
+    * the layers from firstLayer to lastLayer (inclusive). The activations of the layer before
+    * firstLayer must already be set, and indexed if the sparse path is to be used.
+    *
+    * @param firstLayer the first activation layer to compute
+    * @param lastLayer  the last activation layer to compute
+    */
+   public static void runLayers(int firstLayer, int lastLayer)
    {
       int n;
-      int k;
       int j;
-      double thetaAccumulator;
 
-      for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+      for (n = firstLayer; n <= lastLayer; n++)
       {
          for (j = 0; j < config.numActsInLayers[n]; j++)
          {
-            thetaAccumulator = 0.0;
-            for (k = 0; k < config.numActsInLayers[n - 1]; k++)
-            {
-               thetaAccumulator += a[n - 1][k] * w[n - 1][k][j];
-            }
-            a[n][j] = activationFunction(thetaAccumulator);
+            a[n][j] = activationFunction(computeTheta(n, j));
          }
-      } //for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
-   } //public static void runSingleCase()
+
+         if (n < config.OUTPUT_LAYER)
+         {
+            indexActive(n);
+         }
+      } //for (n = firstLayer; n <= lastLayer; n++)
+   } //public static void runLayers(int firstLayer, int lastLayer)
+
+   /**
+    * Computes the dot product of the activations of layer n - 1 and the weights into node j of
+    * layer n. If layer n - 1 has been indexed as sparse, only its non-zero activations are visited,
+    * in increasing order, which gives the same sum as the dense loop.
+    *
+    * @param n the activation layer of the node
+    * @param j the index of the node in layer n
+    * @return the theta value of the node
+    */
+   public static double computeTheta(int n, int j)
+   {
+      int k;
+      int x;
+      int[] active;
+      double thetaAccumulator;
+
+      thetaAccumulator = 0.0;
+
+      if (numActive[n - 1] >= 0)
+      {
+         active = activeIndices[n - 1];
+         for (x = 0; x < numActive[n - 1]; x++)
+         {
+            k = active[x];
+            thetaAccumulator += a[n - 1][k] * w[n - 1][k][j];
+         }
+      } //if (numActive[n - 1] >= 0)
+      else
+      {
+         for (k = 0; k < config.numActsInLayers[n - 1]; k++)
+         {
+            thetaAccumulator += a[n - 1][k] * w[n - 1][k][j];
+         }
+      }
+
+      return thetaAccumulator;
+   } //public static double computeTheta(int n, int j)
 
    /**
     * If the network is in the training or run all modes, it runs the network on all the inputs
@@ -399,51 +647,45 @@ public class Main
       {
          for (caseIter = 0; caseIter < config.numCases; caseIter++)
          {
-            a[config.INPUT_LAYER] = truthTableInputs[caseIter];
+            loadInputCase(caseIter);
             runSingleCase();
          }
       } //if (config.networkMode == RUN_ALL || config.networkMode == TRAINING)
       else
       {
-         a[config.INPUT_LAYER] = truthTableInputs[config.runCaseNum];
+         loadInputCase(config.runCaseNum);
          runSingleCase();
       }
    } //public static void runAll()
 
    /**
     * Runs the network the same as the runSingleCase() method, but also saves the theta values for
-    * the hidden layer and saves the psi values for the output layer.
+    * the hidden layer and saves the psi values for the output layer. Starts from the layer after
+    * featureLayer, whose activations must already be set.
     */
    public static void runDuringTrain(int caseNum)
    {
       int n;
-      int k;
       int j;
       double thetaI;
       double omegaI;
       double Ti;
 
-      for (n = config.FIRST_HIDDEN_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      for (n = featureLayer + 1; n <= config.LAST_HIDDEN_LAYER; n++)
       {
          for (j = 0; j < config.numActsInLayers[n]; j++)
          {
-            theta[n][j] = 0.0;
-            for (k = 0; k < config.numActsInLayers[n - 1]; k++)
-            {
-               theta[n][j] += a[n - 1][k] * w[n - 1][k][j];
-            }
+            theta[n][j] = computeTheta(n, j);
             a[n][j] = activationFunction(theta[n][j]);
-         } //for (j = 0; j < config.numActsInLayers[n]; j++)
-      } //for (n = config.FIRST_HIDDEN_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         }
+
+         indexActive(n);
+      } //for (n = featureLayer + 1; n <= config.LAST_HIDDEN_LAYER; n++)
 
       n = config.OUTPUT_LAYER;
       for (j = 0; j < config.numActsInLayers[n]; j++)
       {
-         thetaI = 0.0;
-         for (k = 0; k < config.numActsInLayers[n - 1]; k++)
-         {
-            thetaI += a[n - 1][k] * w[n - 1][k][j];
-         }
+         thetaI = computeTheta(n, j);
          a[n][j] = activationFunction(thetaI);
 
          Ti = truthTableOutputs[caseNum][j];
@@ -452,6 +694,90 @@ public class Main
       } //for (j = 0; j < config.numActsInLayers[n]; j++)
    } //public static void runDuringTrain(int caseNum)
 
+   /**
+    * Backpropagates the psi values of the output layer, set by runDuringTrain, through the network
+    * and updates every trainable weight by gradient descent. The weights up to the featureLayer are
+    * frozen and are left alone.
+    */
+   public static void backpropagate()
+   {
+      int n;
+      int m;
+      int k;
+      int j;
+      int x;
+      int lastPsiLayer;
+      int[] active;
+      double omegaJ;
+      double omegaM;
+      double psiM;
+
+      lastPsiLayer = Math.max(config.FIRST_HIDDEN_LAYER, featureLayer);
+
+      for (n = config.LAST_HIDDEN_LAYER; n > lastPsiLayer; n--)
+      {
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            omegaJ = 0.0;
+            for (j = 0; j < config.numActsInLayers[n + 1]; j++)
+            {
+               omegaJ += psi[n + 1][j] * w[n][k][j];
+               w[n][k][j] += config.lambda * a[n][k] * psi[n + 1][j];
+            }
+
+            psi[n][k] = omegaJ * activationFunctionPrime(theta[n][k]);
+         } //for (k = 0; k < config.numActsInLayers[n]; k++)
+      } //for (n = config.LAST_HIDDEN_LAYER; n > lastPsiLayer; n--)
+
+      if (featureLayer == config.INPUT_LAYER)
+      {
+         n = config.FIRST_HIDDEN_LAYER;
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            omegaM = 0.0;
+            for (j = 0; j < config.numActsInLayers[n + 1]; j++)
+            {
+               omegaM += psi[n + 1][j] * w[n][k][j];
+               w[n][k][j] += config.lambda * a[n][k] * psi[n + 1][j];
+            }
+
+            psiM = omegaM * activationFunctionPrime(theta[n][k]);
+            if (psiM == 0.0) //No update to make, such as for an inactive ReLU node
+            {
+               continue;
+            }
+
+            if (numActive[n - 1] >= 0) //Only inputs which are non-zero change the weights
+            {
+               active = activeIndices[n - 1];
+               for (x = 0; x < numActive[n - 1]; x++)
+               {
+                  m = active[x];
+                  w[n - 1][m][k] += config.lambda * a[n - 1][m] * psiM;
+               }
+            }
+            else
+            {
+               for (m = 0; m < config.numActsInLayers[n - 1]; m++)
+               {
+                  w[n - 1][m][k] += config.lambda * a[n - 1][m] * psiM;
+               }
+            }
+         } //for (k = 0; k < config.numActsInLayers[n]; k++)
+      } //if (featureLayer == config.INPUT_LAYER)
+      else
+      {
+         n = featureLayer;
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            for (j = 0; j < config.numActsInLayers[n + 1]; j++)
+            {
+               w[n][k][j] += config.lambda * a[n][k] * psi[n + 1][j];
+            }
+         }
+      } //if (featureLayer == config.INPUT_LAYER)...else
+   } //public static void backpropagate()
+
    /**
     * Activation function for the network.
     * @param x the input to the activation function
@@ -474,8 +800,8 @@ public class Main
 
    /**
     * Calculates the error for the given case number by first running the network on the current
-    * input activations and then comparing it to the expected values in the truth table for the
-    * given case number. The error is half the sum of the squares of the differences between the
+    * activations of the featureLayer and then comparing it to the expected values in the truth
+    * table for the given case number. The error is half the sum of the squares of the differences between the
     * expected output and the actual output.
     *
     * @param caseNum the case number to calculate the error for
@@ -488,7 +814,7 @@ public class Main
       double errorAccumulator;
       double Ti;
 
-      runSingleCase();
+      runLayers(featureLayer + 1, config.OUTPUT_LAYER);
 
       errorAccumulator = 0.0;
       n = config.OUTPUT_LAYER;
@@ -531,15 +857,30 @@ public class Main
 
             System.out.println("Reached " + trainIterations + " iterations.");
             System.out.println("Reached " + error + " average error.");
+
+            if (config.skipErrThreshold > 0.0 && backpropsRun + backpropsSkipped > 0)
+            {
+               System.out.println("Skipped " + backpropsSkipped + " of " +
+                     (backpropsRun + backpropsSkipped) + " case backpropagations (" +
+                     df.format(100.0 * (double) backpropsSkipped /
+                           (double) (backpropsRun + backpropsSkipped)) + "%).");
+            }
          } //if (config.networkMode == TRAINING)
 
-         n = config.INPUT_LAYER;
-         for (caseIter = 0; caseIter < config.numCases; caseIter++)
+         if (streaming)
          {
-            a[n] = truthTableInputs[caseIter];
-            runSingleCase();
-            reportSingleCase(caseIter);
+            System.out.println("Wrote the outputs of " + config.numCases + " cases to results " +
+                  "file: " + config.resultsFile);
          }
+         else
+         {
+            for (caseIter = 0; caseIter < config.numCases; caseIter++)
+            {
+               loadInputCase(caseIter);
+               runSingleCase();
+               reportSingleCase(caseIter);
+            }
+         } //if (streaming)...else
       } //if (config.networkMode == TRAINING || config.networkMode == RUN_ALL)
       else if (config.networkMode == RUN_SINGLE)
       {
@@ -606,18 +947,26 @@ public class Main
     * until the max number of iterations has been reached or the average error is under the error
     * threshold. For each iteration, every truth table case is run, the error is computed, and then
     * the delta weights are calculated and applied.
+    *
+    * If a skip error threshold is configured, a case whose error from its last pass is under that
+    * threshold is treated as learned and skipped, keeping its last error in the average. Every
+    * skipRescoreInterval iterations the learned cases are run forward to update their errors, and
+    * one whose error is back over the threshold is trained in that iteration. Every
+    * skipRevisitInterval iterations all cases are run again, and training only ends on the error
+    * threshold after an iteration in which no case was skipped.
+    *
+    * If leading weight layers are frozen, the activations of the last frozen layer are cached once
+    * per case, each case starts from its cached features, and backpropagation stops at the first
+    * trainable weight layer.
+    *
+    * If augmentation is enabled, each iteration trains on randomly altered copies of the cases,
+    * which an Augmenter makes on a background thread ahead of the loop. The error before the first
+    * iteration is that of the unaltered cases, and the error of each iteration is that of the
+    * copies it trained on.
     */
    public static void train()
    {
-      int n;
-      int m;
-      int k;
-      int j;
-
       int caseIter;
-      double omegaJ;
-      double omegaM;
-      double psiM;
 
       double prevTime;
       double prevError;
@@ -628,18 +977,32 @@ public class Main
       double multiplier;
       double currDeltaErrorEMA = 0.0;
       double prevDeltaErrorEMA;
+      boolean revisitAll;
+      boolean rescore;
+      boolean skippedAny;
 
       System.out.println("Training...");
 
+      if (featureLayer > config.INPUT_LAYER)
+      {
+         cacheFrozenFeatures();
+      }
+      if (config.augmentImageWidth > 0)
+      {
+         augmenter = new Augmenter(config, truthTableInputs);
+      }
+
 /**
  * Each iteration is defined as each execution of the body of the following while loop.
  */
       for (error = 0.0, caseIter = 0; caseIter < config.numCases; caseIter++)
       {
-         a[config.INPUT_LAYER] = truthTableInputs[caseIter];
-         error += runError(caseIter);
+         loadTrainingCase(caseIter);
+         caseErrors[caseIter] = runError(caseIter);
+         error += caseErrors[caseIter];
       }
       error /= (double) config.numCases;
+      skippedAny = false;
 
       prevTime = System.nanoTime() / NANO_PER_SEC;
       prevDeltaTimeEMA = 0.0;
@@ -648,7 +1011,7 @@ public class Main
 
 
       System.out.println("Starting training at iteration 0 and error " + df.format(error));
-      while (trainIterations < config.maxIters && error > config.errThreshold)
+      while (trainIterations < config.maxIters && (error > config.errThreshold || skippedAny))
       {
          if (config.keepAliveInterval > 0 && trainIterations > 0 &&
                trainIterations % config.keepAliveInterval == 0)
@@ -698,51 +1061,230 @@ public class Main
             }
          }
 
+         revisitAll = config.skipErrThreshold <= 0.0 || error <= config.errThreshold ||
+               trainIterations % config.skipRevisitInterval == 0;
+         rescore = trainIterations % config.skipRescoreInterval == 0;
+         skippedAny = false;
+
          for (error = 0.0, caseIter = 0; caseIter < config.numCases; caseIter++)
          {
-            a[config.INPUT_LAYER] = truthTableInputs[caseIter];
-            runDuringTrain(caseIter);
-
-            for (n = config.LAST_HIDDEN_LAYER; n > config.FIRST_HIDDEN_LAYER; n--)
+            if (!revisitAll && caseErrors[caseIter] < config.skipErrThreshold)
             {
-               for (k = 0; k < config.numActsInLayers[n]; k++)
+               if (rescore)
                {
-                  omegaJ = 0.0;
-                  for (j = 0; j < config.numActsInLayers[n + 1]; j++)
-                  {
-                     omegaJ += psi[n + 1][j] * w[n][k][j];
-                     w[n][k][j] += config.lambda * a[n][k] * psi[n + 1][j];
-                  }
-
-                  psi[n][k] = omegaJ * activationFunctionPrime(theta[n][k]);
-               } //for (k = 0; k < config.numActsInLayers[n]; k++)
-            } //for (n = config.LAST_HIDDEN_LAYER; n > config.FIRST_HIDDEN_LAYER; n--)
-
-            n = config.FIRST_HIDDEN_LAYER;
-            for (k = 0; k < config.numActsInLayers[n]; k++)
-            {
-               omegaM = 0.0;
-               for (j = 0; j < config.numActsInLayers[n + 1]; j++)
-               {
-                  omegaM += psi[n + 1][j] * w[n][k][j];
-                  w[n][k][j] += config.lambda * a[n][k] * psi[n + 1][j];
+                  loadTrainingCase(caseIter);
+                  caseErrors[caseIter] = runError(caseIter);
                }
 
-               psiM = omegaM * activationFunctionPrime(theta[n][k]);
-               for (m = 0; m < config.numActsInLayers[n - 1]; m++)
+               if (caseErrors[caseIter] < config.skipErrThreshold)
                {
-                  w[n - 1][m][k] += config.lambda * a[n - 1][m] * psiM;
+                  error += caseErrors[caseIter];
+                  backpropsSkipped++;
+                  skippedAny = true;
+                  continue;
                }
-            } //for (k = 0; k < config.numActsInLayers[n]; k++)
+            } //if (!revisitAll && caseErrors[caseIter] < config.skipErrThreshold)
 
-            error += runError(caseIter);
+            if (augmenter != null)
+            {
+               loadAugmentedCase(caseIter);
+            }
+            else
+            {
+               loadTrainingCase(caseIter);
+            }
+            runDuringTrain(caseIter);
+            backpropagate();
+
+            caseErrors[caseIter] = runError(caseIter);
+            error += caseErrors[caseIter];
+            backpropsRun++;
          } //for (caseIter = 0; caseIter < config.numCases; caseIter++)
 
          error /= (double) config.numCases;
          trainIterations++;
-      } //while (trainIterations < config.maxIters && error > config.errThreshold)
+      } //while (trainIterations < config.maxIters && (error > config.errThreshold || skippedAny))
+
+      if (augmenter != null)
+      {
+         augmenter.shutdown();
+         augmenter = null;
+      }
    } //public static void train()
 
+   /**
+    * Computes the activations of the featureLayer for every truth table case and stores them in
+    * the frozenFeatures array. Since the weights up to the featureLayer are frozen, these
+    * activations do not change during training.
+    */
+   public static void cacheFrozenFeatures()
+   {
+      int caseIter;
+
+      System.out.println("Caching activations of frozen layer " + featureLayer + "...");
+
+      for (caseIter = 0; caseIter < config.numCases; caseIter++)
+      {
+         loadInputCase(caseIter);
+         runLayers(config.FIRST_HIDDEN_LAYER, featureLayer);
+         System.arraycopy(a[featureLayer], 0, frozenFeatures[caseIter], 0,
+               config.numActsInLayers[featureLayer]);
+      }
+   } //public static void cacheFrozenFeatures()
+
+   /**
+    * Sets the activations the training loop starts from for the given case. These are the truth
+    * table inputs, or the cached features of the featureLayer if any layers are frozen.
+    *
+    * @param caseNum the case number to load
+    */
+   public static void loadTrainingCase(int caseNum)
+   {
+      loadInputCase(caseNum);
+
+      if (featureLayer > config.INPUT_LAYER)
+      {
+         System.arraycopy(frozenFeatures[caseNum], 0, a[featureLayer], 0,
+               config.numActsInLayers[featureLayer]);
+         indexActive(featureLayer);
+      }
+   } //public static void loadTrainingCase(int caseNum)
+
+   /**
+    * Sets the activations the training loop starts from for the given case to those of the next
+    * randomly altered copy of it. If any layers are frozen, the altered inputs are run up to the
+    * featureLayer, since the cached features are those of the unaltered case.
+    *
+    * @param caseNum the case number to load
+    */
+   public static void loadAugmentedCase(int caseNum)
+   {
+      a[config.INPUT_LAYER] = augmenter.next(caseNum);
+      activeIndices[config.INPUT_LAYER] = augmenter.getActiveIndices();
+      numActive[config.INPUT_LAYER] = augmenter.getActiveCount();
+
+      if (featureLayer > config.INPUT_LAYER)
+      {
+         runLayers(config.FIRST_HIDDEN_LAYER, featureLayer);
+      }
+   } //public static void loadAugmentedCase(int caseNum)
+
+   /**
+    * Builds the list of non-zero input indices for every truth table case whose fraction of
+    * non-zero inputs is under the sparse density threshold, and stores their number in
+    * inputCounts. Cases at or above the threshold, and cases which were not loaded, are left dense,
+    * with a count of -1. Every case is left dense if the sparse path is disabled. The index arrays
+    * are kept from one call to the next and only grown when a case needs more room, so indexing
+    * each chunk of a streamed truth table does not allocate.
+    */
+   public static void indexInputs()
+   {
+      int caseIter;
+      int k;
+      int count;
+      int numInputs;
+      double[] inputs;
+
+      if (inputIndices == null || inputIndices.length != truthTableInputs.length)
+      {
+         inputIndices = new int[truthTableInputs.length][];
+         inputCounts = new int[truthTableInputs.length];
+      }
+      numInputs = config.numActsInLayers[config.INPUT_LAYER];
+
+      for (caseIter = 0; caseIter < truthTableInputs.length; caseIter++)
+      {
+         inputCounts[caseIter] = -1;
+         inputs = truthTableInputs[caseIter];
+         if (inputs == null || config.sparseDensity <= 0.0)
+         {
+            continue;                                       //Not loaded in run single, or dense
+         }
+
+         count = 0;
+         for (k = 0; k < numInputs; k++)
+         {
+            if (inputs[k] != 0.0)
+            {
+               count++;
+            }
+         }
+
+         if (count < config.sparseDensity * numInputs)
+         {
+            if (inputIndices[caseIter] == null || inputIndices[caseIter].length < count)
+            {
+               inputIndices[caseIter] = new int[count];
+            }
+            inputCounts[caseIter] = count;
+
+            count = 0;
+            for (k = 0; k < numInputs; k++)
+            {
+               if (inputs[k] != 0.0)
+               {
+                  inputIndices[caseIter][count] = k;
+                  count++;
+               }
+            }
+         } //if (count < config.sparseDensity * numInputs)
+      } //for (caseIter = 0; caseIter < truthTableInputs.length; caseIter++)
+   } //public static void indexInputs()
+
+   /**
+    * Sets the input activations to the truth table inputs of the given case, using the case's
+    * non-zero input indices if it was indexed as sparse.
+    *
+    * @param caseNum the case number to load
+    */
+   public static void loadInputCase(int caseNum)
+   {
+      a[config.INPUT_LAYER] = truthTableInputs[caseNum];
+
+      if (inputCounts != null && inputCounts[caseNum] >= 0)
+      {
+         activeIndices[config.INPUT_LAYER] = inputIndices[caseNum];
+         numActive[config.INPUT_LAYER] = inputCounts[caseNum];
+      }
+      else
+      {
+         numActive[config.INPUT_LAYER] = -1;
+      }
+   } //public static void loadInputCase(int caseNum)
+
+   /**
+    * Builds the list of non-zero activation indices for hidden layer n, if the activation function
+    * can produce zeros. The layer is only marked sparse if its fraction of non-zero activations is
+    * under the sparse density threshold.
+    *
+    * @param n the hidden activation layer to index
+    */
+   public static void indexActive(int n)
+   {
+      int k;
+      int count;
+
+      numActive[n] = -1;
+
+      if (config.sparseDensity > 0.0 && config.activationFunction.producesZeros())
+      {
+         count = 0;
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            if (a[n][k] != 0.0)
+            {
+               activeIndices[n][count] = k;
+               count++;
+            }
+         }
+
+         if (count < config.sparseDensity * config.numActsInLayers[n])
+         {
+            numActive[n] = count;
+         }
+      } //if (config.sparseDensity > 0.0 && config.activationFunction.producesZeros())
+   } //public static void indexActive(int n)
+
    /**
     * Accept a value representing seconds elapsed and print out a decimal value in easier to
     * digest units.
@@ -791,6 +1333,135 @@ public class Main
       return time + "\n";
    } //public static String formatTime(double seconds)
 
+   /**
+    * Runs every case of the truth table once and writes its outputs to the results file. The
+    * cases are read into the truth table input array one chunk at a time, so only one chunk is in
+    * memory. The outputs go through a buffer that is written to the file through its channel
+    * whenever it fills. A results file ending in "csv" gets one line per case, holding the case
+    * number followed by the output activations, all comma separated. Any other results file gets
+    * the output activations of each case in order as eight byte doubles, with no header. The
+    * results file and the truth table are closed whether or not every case is written.
+    */
+   public static void streamResults()
+   {
+      FileChannel channel;
+
+      try
+      {
+         channel = new FileOutputStream(config.resultsFile).getChannel();
+         try
+         {
+            truthTableFileIO.openInputs();
+            try
+            {
+               writeResults(channel);
+            }
+            finally
+            {
+               truthTableFileIO.closeInputs();
+            }
+         } //try
+         finally
+         {
+            channel.close();
+         }
+      } //try
+      catch (IOException e)
+      {
+         Util.exit("Error writing results", config.resultsFile);
+      }
+   } //public static void streamResults()
+
+   /**
+    * Runs every case of the opened truth table, reading it one chunk at a time, and writes the
+    * outputs to the results file in the format streamResults describes.
+    *
+    * @param channel the channel of the results file
+    * @throws IOException if a write fails
+    */
+   public static void writeResults(FileChannel channel) throws IOException
+   {
+      int j;
+      int x;
+      int row;
+      int count;
+      int caseIter;
+      int numOutputs;
+      boolean csv;
+      double[] outputs;
+      StringBuilder ln;
+      ByteBuffer buf;
+
+      numOutputs = config.numActsInLayers[config.OUTPUT_LAYER];
+      csv = config.resultsFile.endsWith("csv");
+      ln = new StringBuilder();
+      buf = ByteBuffer.allocate(RESULTS_BUFFER_BYTES);
+
+      for (caseIter = 0; caseIter < config.numCases; caseIter += count)
+      {
+         count = Math.min(truthTableInputs.length, config.numCases - caseIter);
+         truthTableFileIO.readInputCases(truthTableInputs, count);
+         indexInputs();
+
+         for (row = 0; row < count; row++)
+         {
+            loadInputCase(row);
+            runSingleCase();
+            outputs = a[config.OUTPUT_LAYER];
+
+            if (csv)
+            {
+               ln.setLength(0);
+               ln.append(caseIter + row);
+               for (j = 0; j < numOutputs; j++)
+               {
+                  ln.append(',').append(outputs[j]);
+               }
+               ln.append('\n');
+
+               for (x = 0; x < ln.length(); x++)
+               {
+                  if (!buf.hasRemaining())
+                  {
+                     flushResults(buf, channel);
+                  }
+                  buf.put((byte) ln.charAt(x));
+               }
+            } //if (csv)
+            else
+            {
+               for (j = 0; j < numOutputs; j++)
+               {
+                  if (buf.remaining() < Double.BYTES)
+                  {
+                     flushResults(buf, channel);
+                  }
+                  buf.putDouble(outputs[j]);
+               }
+            } //if (csv)...else
+         } //for (row = 0; row < count; row++)
+      } //for (caseIter = 0; caseIter < config.numCases; caseIter += count)
+
+      flushResults(buf, channel);
+   } //public static void writeResults(FileChannel channel)
+
+   /**
+    * Writes the contents of the results buffer to the results file and clears the buffer.
+    *
+    * @param buf     the results buffer
+    * @param channel the channel of the results file
+    * @throws IOException if the write fails
+    */
+   public static void flushResults(ByteBuffer buf, FileChannel channel) throws IOException
+   {
+      buf.flip();
+      while (buf.hasRemaining())
+      {
+         channel.write(buf);
+      }
+      buf.clear();
+   } //public static void flushResults(ByteBuffer buf, FileChannel channel)
+
    /**
     * Sets the configuration parameters, echos the network's settings, allocates memory for all
     * arrays and variables, populates all the arrays, loading the weights from file depending on
@@ -814,6 +1485,10 @@ public class Main
             train();
             runAll();
          }
+         else if (streaming)
+         {
+            streamResults();
+         }
          else
          {
             runAll();
@@ -0,0 +1,223 @@
+import activationFunctions.Function;
+
+/**
+ * This class is a trained network loaded once and kept in memory for inference. The weights and
+ * topology are read when the model is constructed and never changed afterwards, so a single Model
+ * may be run by many threads at once. Each call to predict allocates its own activations.
+ *
+ * Weights are loaded from the dense or sparse (CSR) weights format, depending on the configuration.
+ * Dense weights are run with the activations of the previous layer in the outer loop, so that zero
+ * activations (most of the pixels of an image) skip a whole row of weights. Each theta still adds
+ * the same terms in the same order as Main, so the outputs match a RUN_ALL or RUN_SINGLE run.
+ * Several inputs may also be run together as a batch, which reads each row of weights once for the
+ * whole batch instead of once per input.
+ *
+ * Table of Contents:
+ * 1. Model(Config config, String weightsFile)
+ * 2. predict(double[] input)
+ * 3. predictBatch(double[][] inputs, int count)
+ * 4. numInputs()
+ * 5. numOutputs()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Model
+{
+   public final Config config;
+   public final String weightsFile;
+   public final int numActLayers;
+   public final int[] numActsInLayers;
+   public final Function f;
+   public final long[] fingerprint;                     //128-bit fingerprint of the loaded weights
+   private final double[][][] w;                        //Dense weights, null if sparseW is used
+   private final SparseWeights sparseW;                 //CSR weights, null if w is used
+
+/**
+ * Constructor for the Model class. Loads the weights from the given file, which must match the
+ * network configuration, and fingerprints the loaded weights so that cached outputs can be tied
+ * to them.
+ *
+ * @param config      the network configuration
+ * @param weightsFile the weights file to load, in the format given by config.sparseWeights
+ */
+   public Model(Config config, String weightsFile)
+   {
+      int n;
+      double[][][] dense;
+
+      this.config = config;
+      this.weightsFile = weightsFile;
+      numActLayers = config.numActLayers;
+      numActsInLayers = config.numActsInLayers.clone();
+      f = config.activationFunction;
+
+      if (config.sparseWeights)
+      {
+         w = null;
+         sparseW = new WeightsFileIO(weightsFile, config).loadSparseWeights();
+         fingerprint = PredictionCache.fingerprint(sparseW);
+      }
+      else
+      {
+         dense = new double[numActLayers - 1][][];
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            dense[n] = new double[numActsInLayers[n]][numActsInLayers[n + 1]];
+         }
+         new WeightsFileIO(weightsFile, config).loadWeights(dense);
+
+         w = dense;
+         sparseW = null;
+         fingerprint = PredictionCache.fingerprint(dense);
+      } //if (config.sparseWeights)...else
+   } //public Model(Config config, String weightsFile)
+
+/**
+ * Runs the network on one input.
+ *
+ * @param input the input activations, which must have numInputs() elements
+ * @return a new array with the output activations
+ */
+   public double[] predict(double[] input)
+   {
+      int n;
+      int k;
+      int j;
+      double ak;
+      double[] wk;
+      double[] prev;
+      double[] theta;
+      double[][] a;
+
+      a = new double[numActLayers][];
+      a[config.INPUT_LAYER] = input;
+
+      if (sparseW != null)
+      {
+         for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+         {
+            a[n] = new double[numActsInLayers[n]];
+         }
+         sparseW.run(a, f);
+      } //if (sparseW != null)
+      else
+      {
+         for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+         {
+            prev = a[n - 1];
+            theta = new double[numActsInLayers[n]];
+
+            for (k = 0; k < numActsInLayers[n - 1]; k++)
+            {
+               ak = prev[k];
+               if (ak != 0.0)
+               {
+                  wk = w[n - 1][k];
+                  for (j = 0; j < numActsInLayers[n]; j++)
+                  {
+                     theta[j] += ak * wk[j];
+                  }
+               }
+            } //for (k = 0; k < numActsInLayers[n - 1]; k++)
+
+            for (j = 0; j < numActsInLayers[n]; j++)
+            {
+               theta[j] = f.f(theta[j]);
+            }
+            a[n] = theta;
+         } //for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+      } //if (sparseW != null)...else
+
+      return a[config.OUTPUT_LAYER];
+   } //public double[] predict(double[] input)
+
+/**
+ * Runs the network on a batch of inputs as one matrix product per layer. Each row of weights is
+ * read once and applied to every input in the batch while it is in cache, which is much faster
+ * than running the inputs one at a time when the first weight layer is large. The outputs are the
+ * same as calling predict on each input.
+ *
+ * @param inputs the input activations of each case in the batch
+ * @param count  the number of cases in the batch, starting from inputs[0]
+ * @return a new array with the output activations of each case
+ */
+   public double[][] predictBatch(double[][] inputs, int count)
+   {
+      int n;
+      int b;
+      int k;
+      int j;
+      double ak;
+      double[] wk;
+      double[] thetaB;
+      double[][] prev;
+      double[][] theta;
+
+      if (sparseW != null)
+      {
+         theta = new double[count][];
+         for (b = 0; b < count; b++)
+         {
+            theta[b] = predict(inputs[b]);
+         }
+         return theta;
+      } //if (sparseW != null)
+
+      prev = inputs;
+      theta = null;
+
+      for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+      {
+         theta = new double[count][numActsInLayers[n]];
+
+         for (k = 0; k < numActsInLayers[n - 1]; k++)
+         {
+            wk = w[n - 1][k];
+            for (b = 0; b < count; b++)
+            {
+               ak = prev[b][k];
+               if (ak != 0.0)
+               {
+                  thetaB = theta[b];
+                  for (j = 0; j < numActsInLayers[n]; j++)
+                  {
+                     thetaB[j] += ak * wk[j];
+                  }
+               }
+            } //for (b = 0; b < count; b++)
+         } //for (k = 0; k < numActsInLayers[n - 1]; k++)
+
+         for (b = 0; b < count; b++)
+         {
+            for (j = 0; j < numActsInLayers[n]; j++)
+            {
+               theta[b][j] = f.f(theta[b][j]);
+            }
+         }
+         prev = theta;
+      } //for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+
+      return theta;
+   } //public double[][] predictBatch(double[][] inputs, int count)
+
+/**
+ * Returns the number of input activations the model expects.
+ *
+ * @return the size of the input layer
+ */
+   public int numInputs()
+   {
+      return numActsInLayers[config.INPUT_LAYER];
+   }
+
+/**
+ * Returns the number of output activations the model produces.
+ *
+ * @return the size of the output layer
+ */
+   public int numOutputs()
+   {
+      return numActsInLayers[config.OUTPUT_LAYER];
+   }
+} //public class Model
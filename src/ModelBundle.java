@@ -0,0 +1,216 @@
+import activationFunctions.*;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class exports a trained network as one self-describing model bundle, which the Predict
+ * entry point memory maps to run the network without a configuration file or truth table. The
+ * bundle is a binary file adhering to the following format, with every value big-endian:
+ *
+ * 1. The integer MAGIC.
+ * 2. The number of activation layers, followed by the number of activations in each layer.
+ * 3. For each weight layer n, the activation function applied to layer n + 1, as an integer code
+ *    followed by two double parameters. The codes and parameters are:
+ *       LINEAR:      the slope and the y-intercept.
+ *       SIGMOID:     unused.
+ *       TANH:        unused.
+ *       LEAKY_RELU:  the slope for negative inputs, then unused. ReLU is a slope of 0, and a
+ *                    randomized ReLU is saved with the slope it was given.
+ *       GAUSSIAN:    unused.
+ * 4. For each weight layer n, the weights w[n][k][j] in row major order, the same as a weights file.
+ *
+ * The activation function is stored per layer, even though the network currently uses one function
+ * for every layer.
+ *
+ * Usage: java ModelBundle config_file bundle_file
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. save(Config config, double[][][] w, String fileName)
+ * 3. activationCode(Function f)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class ModelBundle
+{
+   public static final int MAGIC = 0x4E4E4231;             //The characters "NNB1"
+   public static final int LINEAR = 0;
+   public static final int SIGMOID = 1;
+   public static final int TANH = 2;
+   public static final int LEAKY_RELU = 3;
+   public static final int GAUSSIAN = 4;
+   public static final int ACTIVATION_BYTES = Integer.BYTES + 2 * Double.BYTES;
+
+/**
+ * Loads the network configuration and weights in the given configuration file and saves them as a
+ * model bundle.
+ *
+ * @param args the configuration file and the bundle file to write
+ */
+   public static void main(String[] args)
+   {
+      int n;
+      Config config;
+      double[][][] w;
+
+      try
+      {
+         if (args.length < 2)
+         {
+            System.out.println("Usage: java ModelBundle config_file bundle_file");
+            return;
+         }
+
+         config = new ConfigFileIO(args[0], Main.DEFAULT_WEIGHTS_FILE,
+               Main.DEFAULT_TRUTH_TABLE_FILE).loadConfig();
+
+         w = new double[config.numActLayers - 1][][];
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            w[n] = new double[config.numActsInLayers[n]][config.numActsInLayers[n + 1]];
+         }
+
+         if (config.sparseWeights)
+         {
+            new WeightsFileIO(config.weightsFileIn, config).loadSparseWeights().toDense(w);
+         }
+         else
+         {
+            new WeightsFileIO(config.weightsFileIn, config).loadWeights(w);
+         }
+
+         save(config, w, args[1]);
+         System.out.println("Saved " + Util.formatConfiguration(config.numActsInLayers,
+               config.numActLayers) + " " + config.activationFunction + " network to bundle: " +
+               args[1]);
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Saves a network as a model bundle. The whole bundle is assembled in memory and written to the
+ * file in one write.
+ *
+ * @param config   the network configuration, giving the layer sizes and activation function
+ * @param w        the weights, indexed as w[n][k][j]
+ * @param fileName the bundle file to write
+ */
+   public static void save(Config config, double[][][] w, String fileName)
+   {
+      int n;
+      int k;
+      int j;
+      int code;
+      long size;
+      double param0;
+      double param1;
+      ByteBuffer buf;
+      FileChannel channel;
+
+      size = Integer.BYTES * (2L + config.numActLayers) +
+            (long) ACTIVATION_BYTES * (config.numActLayers - 1);
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         size += (long) Double.BYTES * config.numActsInLayers[n] * config.numActsInLayers[n + 1];
+      }
+      if (size > Integer.MAX_VALUE)
+      {
+         Util.exit("Network is too large for a model bundle", fileName);
+      }
+
+      buf = ByteBuffer.allocate((int) size);
+      buf.putInt(MAGIC);
+      buf.putInt(config.numActLayers);
+      for (n = config.INPUT_LAYER; n <= config.OUTPUT_LAYER; n++)
+      {
+         buf.putInt(config.numActsInLayers[n]);
+      }
+
+      code = activationCode(config.activationFunction);
+      param0 = 0.0;
+      param1 = 0.0;
+      if (code == LINEAR)
+      {
+         param0 = ((Linear) config.activationFunction).m;
+         param1 = ((Linear) config.activationFunction).b;
+      }
+      else if (code == LEAKY_RELU)
+      {
+         param0 = ((LeakyReLU) config.activationFunction).getA();
+      }
+
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         buf.putInt(code);
+         buf.putDouble(param0);
+         buf.putDouble(param1);
+      }
+
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         for (k = 0; k < config.numActsInLayers[n]; k++)
+         {
+            for (j = 0; j < config.numActsInLayers[n + 1]; j++)
+            {
+               buf.putDouble(w[n][k][j]);
+            }
+         }
+      } //for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      buf.flip();
+
+      try
+      {
+         channel = new FileOutputStream(fileName).getChannel();
+         while (buf.hasRemaining())
+         {
+            channel.write(buf);
+         }
+         channel.close();
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error writing model bundle", fileName);
+      }
+   } //public static void save(Config config, double[][][] w, String fileName)
+
+/**
+ * Returns the bundle code of an activation function.
+ *
+ * @param f the activation function
+ * @return the code of the function
+ */
+   public static int activationCode(Function f)
+   {
+      int code;
+
+      code = SIGMOID;
+      if (f instanceof Linear)
+      {
+         code = LINEAR;
+      }
+      else if (f instanceof Tanh)
+      {
+         code = TANH;
+      }
+      else if (f instanceof LeakyReLU)
+      {
+         code = LEAKY_RELU;
+      }
+      else if (f instanceof Gaussian)
+      {
+         code = GAUSSIAN;
+      }
+      else if (!(f instanceof Sigmoid))
+      {
+         Util.exit("Unsupported activation function " + f, "bundle");
+      }
+
+      return code;
+   } //public static int activationCode(Function f)
+} //public class ModelBundle
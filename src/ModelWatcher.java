@@ -0,0 +1,191 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * This class watches the directory of a weights file for new weights and loads them in the
+ * background. It reacts to the weights file itself being written, and to the checkpoints which
+ * Main.train saves every Save Weights Interval iterations, named "iter" + iteration + "_" + the
+ * weights file name.
+ *
+ * A training run may write a file in several steps, so once a matching file changes, the watcher
+ * waits until no file has changed for SETTLE_MILLIS milliseconds and then loads the most recently
+ * changed one. The file is loaded into a new Model, which checks that its layer sizes match the
+ * network configuration and that it holds every weight. A file which fails these checks is
+ * reported and skipped, and the current model stays in use. A file which loads is passed to the
+ * callback, which is expected to swap it in atomically. All of this runs on the watcher's own
+ * thread, so the threads running predictions never wait on a load.
+ *
+ * Table of Contents:
+ * 1. ModelWatcher(Config config, String weightsFile, Consumer<Model> onLoad)
+ * 2. matches(String fileName)
+ * 3. watch()
+ * 4. load(Path file)
+ * 5. shutdown()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class ModelWatcher
+{
+   public static final long SETTLE_MILLIS = 200L;          //Quiet time before loading a change
+
+   private final Config config;
+   private final Path dir;                                 //Directory holding the weights file
+   private final String name;                              //File name of the weights file
+   private final Pattern checkpoint;                       //File names of training checkpoints
+   private final Consumer<Model> onLoad;
+   private final WatchService watcher;
+   private final Thread thread;
+
+/**
+ * Constructor for the ModelWatcher class. Registers the directory of the weights file and starts
+ * the watcher thread.
+ *
+ * @param config      the network configuration every new weights file must match
+ * @param weightsFile the weights file to watch
+ * @param onLoad      called with each new model once it has loaded
+ */
+   public ModelWatcher(Config config, String weightsFile, Consumer<Model> onLoad)
+   {
+      Path path;
+      WatchService service;
+
+      this.config = config;
+      this.onLoad = onLoad;
+
+      path = Paths.get(weightsFile).toAbsolutePath();
+      dir = path.getParent();
+      name = path.getFileName().toString();
+      checkpoint = Pattern.compile("iter[0-9]+_" + Pattern.quote(name));
+
+      service = null;
+      try
+      {
+         service = FileSystems.getDefault().newWatchService();
+         dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+               StandardWatchEventKinds.ENTRY_MODIFY);
+      }
+      catch (IOException e)
+      {
+         Util.exit("Failed to watch the directory of the weights file", weightsFile);
+      }
+      watcher = service;
+
+      thread = new Thread(this::watch, "ModelWatcher");
+      thread.setDaemon(true);
+      thread.start();
+   } //public ModelWatcher(Config config, String weightsFile, Consumer<Model> onLoad)
+
+/**
+ * Returns whether a file in the watched directory holds new weights, either as the weights file
+ * itself or as a training checkpoint of it.
+ *
+ * @param fileName the name of the file, without its directory
+ * @return true if the file should be loaded when it changes
+ */
+   public boolean matches(String fileName)
+   {
+      return fileName.equals(name) || checkpoint.matcher(fileName).matches();
+   }
+
+/**
+ * Waits for matching files to change and loads the most recently changed one once the directory
+ * has settled. Runs until the watcher is shut down.
+ */
+   private void watch()
+   {
+      Path changed;
+      Path file;
+      WatchKey key;
+
+      try
+      {
+         while (true)
+         {
+            changed = null;
+            key = watcher.take();
+
+            while (key != null)
+            {
+               for (WatchEvent<?> event : key.pollEvents())
+               {
+                  if (event.kind() != StandardWatchEventKinds.OVERFLOW)
+                  {
+                     file = (Path) event.context();
+                     if (matches(file.toString()))
+                     {
+                        changed = file;
+                     }
+                  }
+               } //for (WatchEvent<?> event : key.pollEvents())
+               key.reset();
+
+               key = (changed != null) ? watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS) :
+                     null;
+            } //while (key != null)
+
+            if (changed != null)
+            {
+               load(dir.resolve(changed));
+            }
+         } //while (true)
+      } //try
+      catch (InterruptedException | ClosedWatchServiceException e)
+      {
+         //The watcher was shut down
+      }
+   } //private void watch()
+
+/**
+ * Loads a weights file into a new Model and passes it to the callback. If the file does not match
+ * the network configuration or cannot be read, or the load or the callback fails in any other way,
+ * even with an Error such as an OutOfMemoryError, the error is printed, the file is skipped, and
+ * the watcher keeps watching.
+ *
+ * @param file the weights file to load
+ */
+   private void load(Path file)
+   {
+      Model model;
+
+      try
+      {
+         model = new Model(config, file.toString());
+         onLoad.accept(model);
+      }
+      catch (IllegalArgumentException e)
+      {
+         System.out.println("Skipped new weights: " + e.getMessage());
+      }
+      catch (RuntimeException | Error e)
+      {
+         System.out.println("Skipped new weights " + file + ": " + e);
+      }
+   } //private void load(Path file)
+
+/**
+ * Stops watching for new weights.
+ */
+   public void shutdown()
+   {
+      thread.interrupt();
+      try
+      {
+         watcher.close();
+      }
+      catch (IOException e)
+      {
+         //The watcher thread stops either way
+      }
+   } //public void shutdown()
+} //public class ModelWatcher
@@ -0,0 +1,346 @@
+import activationFunctions.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class is a slim entry point that runs a network saved as a model bundle by ModelBundle. It
+ * memory maps the bundle and reads the weights straight from the mapping, so answering one input
+ * only costs JVM startup, the pages of the bundle that are touched, and one forward pass. It does
+ * not read a configuration file or truth table, or load the classes that parse them.
+ *
+ * An input is given as one of the following:
+ *
+ * 1. The input activations, as separate command line arguments.
+ * 2. "?" followed by a file holding the input activations, read the same way as a file referenced
+ *    in a truth table. A file ending in "txt" holds space separated values on its first line, and
+ *    a file ending in "bin" holds eight byte doubles.
+ * 3. "-", to read inputs from standard input, one per line, each given as space separated values
+ *    or as a '?' file. This runs a whole batch job in one JVM.
+ *
+ * The output activations of each input are printed as space separated doubles on one line.
+ *
+ * Usage: java Predict bundle_file (input_values... | ?input_file | -)
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. load(String fileName)
+ * 3. predict(double[] input)
+ * 4. parseInput(String[] values, int first)
+ * 5. readInputFile(String file)
+ * 6. formatOutput(double[] output)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Predict
+{
+   public static int numActLayers;
+   public static int[] numActsInLayers;
+   public static Function[] f;                             //Activation function of each layer
+   public static DoubleBuffer weights;                     //All weights, mapped from the bundle
+   public static int[] layerStart;                         //Index in weights of each weight layer
+
+/**
+ * Loads the bundle and runs the network on the given input or inputs.
+ *
+ * @param args the bundle file, followed by the input
+ */
+   public static void main(String[] args)
+   {
+      String ln;
+      BufferedReader in;
+
+      try
+      {
+         if (args.length < 2)
+         {
+            System.out.println("Usage: java Predict bundle_file (input_values... | " +
+                  "?input_file | -)");
+            return;
+         }
+
+         load(args[0]);
+
+         if (args[1].equals("-"))
+         {
+            in = new BufferedReader(new InputStreamReader(System.in));
+            while ((ln = in.readLine()) != null)
+            {
+               if (!ln.isBlank())
+               {
+                  System.out.print(formatOutput(predict(parseInput(ln.trim().split("[ ,]+"), 0))));
+               }
+            }
+         } //if (args[1].equals("-"))
+         else
+         {
+            System.out.print(formatOutput(predict(parseInput(args, 1))));
+         }
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+      catch (IOException e)
+      {
+         System.out.println("Error reading inputs: " + e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Memory maps a model bundle and reads its header.
+ *
+ * @param fileName the bundle file
+ */
+   public static void load(String fileName)
+   {
+      int n;
+      int code;
+      int index;
+      double param0;
+      MappedByteBuffer buf;
+      RandomAccessFile file;
+
+      try
+      {
+         file = new RandomAccessFile(fileName, "r");
+         buf = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+         file.close();
+
+         if (buf.getInt() != ModelBundle.MAGIC)
+         {
+            Util.exit("Not a model bundle", fileName);
+         }
+
+         numActLayers = buf.getInt();
+         numActsInLayers = new int[numActLayers];
+         for (n = 0; n < numActLayers; n++)
+         {
+            numActsInLayers[n] = buf.getInt();
+         }
+
+         f = new Function[numActLayers];
+         for (n = 1; n < numActLayers; n++)
+         {
+            code = buf.getInt();
+            param0 = buf.getDouble();
+
+            switch (code)
+            {
+               case ModelBundle.LINEAR:
+                  f[n] = new Linear(param0, buf.getDouble());
+                  break;
+               case ModelBundle.SIGMOID:
+                  f[n] = new Sigmoid();
+                  buf.getDouble();
+                  break;
+               case ModelBundle.TANH:
+                  f[n] = new Tanh();
+                  buf.getDouble();
+                  break;
+               case ModelBundle.LEAKY_RELU:
+                  f[n] = (param0 == 0.0) ? new ReLU() : new LeakyReLU(param0);
+                  buf.getDouble();
+                  break;
+               case ModelBundle.GAUSSIAN:
+                  f[n] = new Gaussian();
+                  buf.getDouble();
+                  break;
+               default:
+                  Util.exit("Unknown activation function code " + code + " for layer " + n,
+                        fileName);
+            } //switch (code)
+         } //for (n = 1; n < numActLayers; n++)
+
+         weights = buf.slice().asDoubleBuffer();
+
+         layerStart = new int[numActLayers - 1];
+         index = 0;
+         for (n = 0; n < numActLayers - 1; n++)
+         {
+            layerStart[n] = index;
+            index += numActsInLayers[n] * numActsInLayers[n + 1];
+         }
+         if (weights.capacity() != index)
+         {
+            Util.exit("Expected " + index + " weights, found " + weights.capacity(), fileName);
+         }
+      } //try
+      catch (IOException e)
+      {
+         Util.exit("Failed to map model bundle", fileName);
+      }
+   } //public static void load(String fileName)
+
+/**
+ * Runs the network on one input, skipping the rows of weights of zero activations.
+ *
+ * @param input the input activations
+ * @return the output activations
+ */
+   public static double[] predict(double[] input)
+   {
+      int n;
+      int k;
+      int j;
+      int row;
+      double ak;
+      double[] prev;
+      double[] theta;
+
+      prev = input;
+      theta = input;
+
+      for (n = 1; n < numActLayers; n++)
+      {
+         theta = new double[numActsInLayers[n]];
+
+         for (k = 0; k < numActsInLayers[n - 1]; k++)
+         {
+            ak = prev[k];
+            if (ak != 0.0)
+            {
+               row = layerStart[n - 1] + k * numActsInLayers[n];
+               for (j = 0; j < numActsInLayers[n]; j++)
+               {
+                  theta[j] += ak * weights.get(row + j);
+               }
+            }
+         } //for (k = 0; k < numActsInLayers[n - 1]; k++)
+
+         for (j = 0; j < numActsInLayers[n]; j++)
+         {
+            theta[j] = f[n].f(theta[j]);
+         }
+         prev = theta;
+      } //for (n = 1; n < numActLayers; n++)
+
+      return theta;
+   } //public static double[] predict(double[] input)
+
+/**
+ * Parses an input given as values or as a '?' file.
+ *
+ * @param values the input, starting at index first
+ * @param first  the index of the first value
+ * @return the input activations
+ */
+   public static double[] parseInput(String[] values, int first)
+   {
+      int x;
+      double[] input;
+
+      if (values[first].startsWith("?"))
+      {
+         return readInputFile(values[first].substring(1));
+      }
+
+      if (values.length - first != numActsInLayers[0])
+      {
+         Util.exit("Expected " + numActsInLayers[0] + " inputs, read " + (values.length - first),
+               "input");
+      }
+
+      input = new double[numActsInLayers[0]];
+      for (x = 0; x < input.length; x++)
+      {
+         try
+         {
+            input[x] = Double.parseDouble(values[first + x]);
+         }
+         catch (NumberFormatException e)
+         {
+            Util.exit("Poorly formatted double for input " + x + ": " + values[first + x],
+                  "input");
+         }
+      } //for (x = 0; x < input.length; x++)
+
+      return input;
+   } //public static double[] parseInput(String[] values, int first)
+
+/**
+ * Reads the input activations from a file, in the same formats as a file referenced in a truth
+ * table.
+ *
+ * @param file the file ending in "txt" or "bin"
+ * @return the input activations
+ */
+   public static double[] readInputFile(String file)
+   {
+      int x;
+      String ln;
+      double[] input;
+      BufferedReader reader;
+      DataInputStream in;
+
+      input = null;
+
+      try
+      {
+         if (file.endsWith("txt"))
+         {
+            reader = new BufferedReader(new FileReader(file));
+            ln = reader.readLine();
+            reader.close();
+            if (ln == null || ln.isBlank())
+            {
+               Util.exit("Empty input file", file);
+            }
+            input = parseInput(ln.trim().split(" +"), 0);
+         } //if (file.endsWith("txt"))
+         else if (file.endsWith("bin"))
+         {
+            input = new double[numActsInLayers[0]];
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            for (x = 0; x < input.length; x++)
+            {
+               input[x] = in.readDouble();
+            }
+            in.close();
+         } //if (file.endsWith("txt"))...else if (file.endsWith("bin"))
+         else
+         {
+            Util.exit("Input file must end in txt or bin", file);
+         }
+      } //try
+      catch (IOException e)
+      {
+         Util.exit("Error reading input file", file);
+      }
+
+      return input;
+   } //public static double[] readInputFile(String file)
+
+/**
+ * Formats output activations as space separated doubles on one line, at full precision.
+ *
+ * @param output the output activations
+ * @return the formatted output
+ */
+   public static String formatOutput(double[] output)
+   {
+      int j;
+      StringBuilder res;
+
+      res = new StringBuilder();
+      for (j = 0; j < output.length; j++)
+      {
+         if (j > 0)
+         {
+            res.append(' ');
+         }
+         res.append(output[j]);
+      }
+
+      return res.append('\n').toString();
+   } //public static String formatOutput(double[] output)
+} //public class Predict
@@ -0,0 +1,412 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a size-bounded, least recently used cache of network outputs, keyed by the content
+ * of the input. Each key is a 128-bit hash of the input activations, seeded with the fingerprint of
+ * the model's loaded weights, so the same input run through different weights gets a different key.
+ * Inputs are not stored; two inputs are treated as the same if their 128-bit hashes are equal.
+ *
+ * All entries are kept in primitive arrays, indexed by slot:
+ *
+ * keyHi, keyLo:        the two halves of the key in each slot.
+ * outputs:             the output activations of slot s, at outputs[s * numOutputs] onwards.
+ * bucketHead:          the first slot in each hash bucket, or EMPTY. Slots in the same bucket are
+ *                      chained through chainNext.
+ * lruPrev, lruNext:    a doubly linked list of the slots from most (mruSlot) to least (lruSlot)
+ *                      recently used. When the cache is full, the least recently used slot is
+ *                      evicted and reused.
+ *
+ * When a key is made for a model whose fingerprint differs from the last one seen, every entry is
+ * dropped, so loading new weights invalidates the cache without any action from the caller.
+ *
+ * Table of Contents:
+ * 1. PredictionCache(int capacity, int numOutputs)
+ * 2. key(Model model, double[] input)
+ * 3. get(long[] key)
+ * 4. put(long[] key, double[] output)
+ * 5. clear()
+ * 6. size()
+ * 7. find(long hi, long lo)
+ * 8. unlink(int slot)
+ * 9. linkFirst(int slot)
+ * 10. hash(double[] data, long seedHi, long seedLo)
+ * 11. fingerprint(double[][][] w)
+ * 12. fingerprint(SparseWeights sparse)
+ * 13. mix(long h1, long h2, long k)
+ * 14. fmix(long k)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class PredictionCache
+{
+   public static final int EMPTY = -1;                     //No slot
+   public static final long C1 = 0x87c37b91114253d5L;      //MurmurHash3 x64 128-bit constants
+   public static final long C2 = 0x4cf5ad432745937fL;
+
+   private final int capacity;
+   private final int numOutputs;
+   private final long[] keyHi;
+   private final long[] keyLo;
+   private final double[] outputs;
+   private final int[] bucketHead;
+   private final int[] chainNext;
+   private final int[] lruPrev;
+   private final int[] lruNext;
+   private final int bucketMask;
+   private int size;                                       //Number of slots in use
+   private int mruSlot;                                    //Most recently used slot
+   private int lruSlot;                                    //Least recently used slot
+   private long[] fingerprint;                             //Fingerprint of the cached model
+
+   /**
+    * Counters for reporting.
+    */
+   public final AtomicLong hits = new AtomicLong();
+   public final AtomicLong misses = new AtomicLong();
+   public final AtomicLong evictions = new AtomicLong();
+
+/**
+ * Constructor for the PredictionCache class. Allocates every slot up front.
+ *
+ * @param capacity   the largest number of outputs to keep
+ * @param numOutputs the number of output activations of each entry
+ */
+   public PredictionCache(int capacity, int numOutputs)
+   {
+      this.capacity = capacity;
+      this.numOutputs = numOutputs;
+
+      keyHi = new long[capacity];
+      keyLo = new long[capacity];
+      outputs = new double[capacity * numOutputs];
+      chainNext = new int[capacity];
+      lruPrev = new int[capacity];
+      lruNext = new int[capacity];
+
+      bucketHead = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+      bucketMask = bucketHead.length - 1;
+
+      clear();
+   } //public PredictionCache(int capacity, int numOutputs)
+
+/**
+ * Makes the key of an input run through the given model. If the model's fingerprint differs from
+ * that of the entries in the cache, the cache is cleared first.
+ *
+ * @param model the model the input is run through
+ * @param input the input activations
+ * @return the key, as the high and low 64 bits of the hash
+ */
+   public long[] key(Model model, double[] input)
+   {
+      synchronized (this)
+      {
+         if (!Arrays.equals(fingerprint, model.fingerprint))
+         {
+            clear();
+            fingerprint = model.fingerprint;
+         }
+      }
+
+      return hash(input, model.fingerprint[0], model.fingerprint[1]);
+   } //public long[] key(Model model, double[] input)
+
+/**
+ * Looks up the output for a key, marking it as the most recently used entry if it is found.
+ *
+ * @param key the key made by key(Model model, double[] input)
+ * @return a new array with the output activations, or null if the key is not cached
+ */
+   public synchronized double[] get(long[] key)
+   {
+      int slot;
+
+      slot = find(key[0], key[1]);
+      if (slot == EMPTY)
+      {
+         misses.incrementAndGet();
+         return null;
+      }
+
+      hits.incrementAndGet();
+      if (slot != mruSlot)
+      {
+         unlink(slot);
+         linkFirst(slot);
+      }
+
+      return Arrays.copyOfRange(outputs, slot * numOutputs, (slot + 1) * numOutputs);
+   } //public synchronized double[] get(long[] key)
+
+/**
+ * Stores the output for a key as the most recently used entry. If the cache is full, the least
+ * recently used entry is evicted.
+ *
+ * @param key    the key made by key(Model model, double[] input)
+ * @param output the output activations
+ */
+   public synchronized void put(long[] key, double[] output)
+   {
+      int slot;
+      int bucket;
+      int prev;
+
+      slot = find(key[0], key[1]);
+
+      if (slot != EMPTY)
+      {
+         unlink(slot);
+      }
+      else
+      {
+         if (size < capacity)
+         {
+            slot = size;
+            size++;
+         }
+         else
+         {
+            slot = lruSlot;
+            unlink(slot);
+            evictions.incrementAndGet();
+
+            bucket = (int) keyLo[slot] & bucketMask;
+            if (bucketHead[bucket] == slot)
+            {
+               bucketHead[bucket] = chainNext[slot];
+            }
+            else
+            {
+               prev = bucketHead[bucket];
+               while (chainNext[prev] != slot)
+               {
+                  prev = chainNext[prev];
+               }
+               chainNext[prev] = chainNext[slot];
+            }
+         } //if (size < capacity)...else
+
+         keyHi[slot] = key[0];
+         keyLo[slot] = key[1];
+         bucket = (int) key[1] & bucketMask;
+         chainNext[slot] = bucketHead[bucket];
+         bucketHead[bucket] = slot;
+      } //if (slot != EMPTY)...else
+
+      System.arraycopy(output, 0, outputs, slot * numOutputs, numOutputs);
+      linkFirst(slot);
+   } //public synchronized void put(long[] key, double[] output)
+
+/**
+ * Drops every entry. The counters are kept.
+ */
+   public synchronized void clear()
+   {
+      Arrays.fill(bucketHead, EMPTY);
+      size = 0;
+      mruSlot = EMPTY;
+      lruSlot = EMPTY;
+   }
+
+/**
+ * Returns the number of entries in the cache.
+ *
+ * @return the number of slots in use
+ */
+   public synchronized int size()
+   {
+      return size;
+   }
+
+/**
+ * Finds the slot holding a key.
+ *
+ * @param hi the high 64 bits of the key
+ * @param lo the low 64 bits of the key
+ * @return the slot, or EMPTY if the key is not cached
+ */
+   private int find(long hi, long lo)
+   {
+      int slot;
+
+      slot = bucketHead[(int) lo & bucketMask];
+      while (slot != EMPTY && (keyHi[slot] != hi || keyLo[slot] != lo))
+      {
+         slot = chainNext[slot];
+      }
+
+      return slot;
+   } //private int find(long hi, long lo)
+
+/**
+ * Removes a slot from the least recently used list.
+ *
+ * @param slot the slot to remove
+ */
+   private void unlink(int slot)
+   {
+      if (lruPrev[slot] == EMPTY)
+      {
+         mruSlot = lruNext[slot];
+      }
+      else
+      {
+         lruNext[lruPrev[slot]] = lruNext[slot];
+      }
+
+      if (lruNext[slot] == EMPTY)
+      {
+         lruSlot = lruPrev[slot];
+      }
+      else
+      {
+         lruPrev[lruNext[slot]] = lruPrev[slot];
+      }
+   } //private void unlink(int slot)
+
+/**
+ * Adds a slot to the front of the least recently used list, as the most recently used slot.
+ *
+ * @param slot the slot to add
+ */
+   private void linkFirst(int slot)
+   {
+      lruPrev[slot] = EMPTY;
+      lruNext[slot] = mruSlot;
+
+      if (mruSlot == EMPTY)
+      {
+         lruSlot = slot;
+      }
+      else
+      {
+         lruPrev[mruSlot] = slot;
+      }
+      mruSlot = slot;
+   } //private void linkFirst(int slot)
+
+/**
+ * Computes a 128-bit hash of an array of doubles, using the block mixing and finalization of
+ * MurmurHash3 x64 128 on the bits of each double.
+ *
+ * @param data   the doubles to hash
+ * @param seedHi the seed of the high 64 bits
+ * @param seedLo the seed of the low 64 bits
+ * @return the hash, as the high and low 64 bits
+ */
+   public static long[] hash(double[] data, long seedHi, long seedLo)
+   {
+      int x;
+      long h1;
+      long h2;
+      long k;
+
+      h1 = seedHi;
+      h2 = seedLo;
+
+      for (x = 0; x < data.length; x++)
+      {
+         k = Double.doubleToLongBits(data[x]);
+         h1 = mix(h1, h2, k);
+         h2 = mix(h2, h1, Long.reverseBytes(k));
+      }
+
+      h1 ^= data.length;
+      h2 ^= data.length;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix(h1);
+      h2 = fmix(h2);
+      h1 += h2;
+      h2 += h1;
+
+      return new long[] {h1, h2};
+   } //public static long[] hash(double[] data, long seedHi, long seedLo)
+
+/**
+ * Computes a 128-bit fingerprint of dense weights as they were loaded, by hashing each row in turn
+ * with the hash of the rows before it as the seed. Since the loaded arrays themselves are hashed,
+ * the fingerprint always describes the weights that produce the outputs, even if the file is
+ * rewritten while it is being loaded.
+ *
+ * @param w the weights, indexed by layer, then row
+ * @return the fingerprint, as the high and low 64 bits
+ */
+   public static long[] fingerprint(double[][][] w)
+   {
+      long[] res;
+
+      res = new long[] {0L, 0L};
+      for (double[][] layer : w)
+      {
+         for (double[] row : layer)
+         {
+            res = hash(row, res[0], res[1]);
+         }
+      }
+
+      return res;
+   } //public static long[] fingerprint(double[][][] w)
+
+/**
+ * Computes a 128-bit fingerprint of sparse weights as they were loaded, from the row starts,
+ * column indices and values of each layer in turn.
+ *
+ * @param sparse the weights
+ * @return the fingerprint, as the high and low 64 bits
+ */
+   public static long[] fingerprint(SparseWeights sparse)
+   {
+      int n;
+      long[] res;
+
+      res = new long[] {0L, 0L};
+      for (n = 0; n < sparse.numActLayers - 1; n++)
+      {
+         res = hash(Arrays.stream(sparse.rowStart[n]).asDoubleStream().toArray(), res[0], res[1]);
+         res = hash(Arrays.stream(sparse.colIndex[n]).asDoubleStream().toArray(), res[0], res[1]);
+         res = hash(sparse.values[n], res[0], res[1]);
+      }
+
+      return res;
+   } //public static long[] fingerprint(SparseWeights sparse)
+
+/**
+ * Mixes one 64-bit block into half of the hash state.
+ *
+ * @param h1 the half of the state to mix into
+ * @param h2 the other half of the state
+ * @param k  the block
+ * @return the new value of h1
+ */
+   private static long mix(long h1, long h2, long k)
+   {
+      k *= C1;
+      k = Long.rotateLeft(k, 31);
+      k *= C2;
+      h1 ^= k;
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+
+      return h1 * 5 + 0x52dce729;
+   } //private static long mix(long h1, long h2, long k)
+
+/**
+ * The MurmurHash3 64-bit finalizer, which spreads every bit of k over the result.
+ *
+ * @param k the value to finalize
+ * @return the finalized value
+ */
+   private static long fmix(long k)
+   {
+      k ^= k >>> 33;
+      k *= 0xff51afd7ed558ccdL;
+      k ^= k >>> 33;
+      k *= 0xc4ceb9fe1a85ec53L;
+      k ^= k >>> 33;
+
+      return k;
+   } //private static long fmix(long k)
+} //public class PredictionCache
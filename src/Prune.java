@@ -0,0 +1,383 @@
+import activationFunctions.Function;
+import java.util.Arrays;
+
+/**
+ * This class prunes the weights of a trained network. It loads the network configuration, the
+ * weights, and a truth table with expected outputs from the given configuration file, and then:
+ *
+ * 1. Zeroes the smallest magnitude weights in each weight layer until the layer reaches the target
+ *    sparsity (the fraction of its weights which are zero).
+ * 2. Removes every hidden neuron whose outgoing weights are all within epsilon of zero, along with
+ *    its incoming weights. Such a neuron does not change the output of the network. Layers are
+ *    checked from the last hidden layer back, since removing a neuron can leave a neuron in the
+ *    previous layer with no outgoing weights. Every layer keeps at least one neuron.
+ * 3. Stores the remaining weights as SparseWeights and saves them in the sparse weights format.
+ *
+ * The network is run over the truth table before and after pruning, and the average error and
+ * the fraction of cases whose largest output matches the largest expected output are reported.
+ * To run the pruned network, set the printed network configuration, the output file as the
+ * weights file in, and "Sparse Weights: true" in a configuration file.
+ *
+ * Usage: java Prune config_file sparsity output_weights_file [epsilon]
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. pruneLayer(int n, double sparsity)
+ * 3. removeDeadNeurons(double epsilon)
+ * 4. countBelow(double[] sorted, int len, double cutoff)
+ * 5. evaluate(SparseWeights sparse, Function f)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Prune
+{
+   public static final double DEFAULT_EPSILON = 1.0e-12;   //Default magnitude treated as zero
+
+   public static Config config;
+   public static double[][][] w;                           //Weights, indexed as w[n][k][j]
+   public static int[] numActsInLayers;                    //Activations per layer after pruning
+   public static double[][] truthTableInputs;
+   public static double[][] truthTableOutputs;
+   public static double evalError;                         //Average error from evaluate()
+   public static double evalAccuracy;                      //Fraction of cases classified correctly
+
+/**
+ * Loads the network and truth table, prunes the weights, validates the pruned network, and saves
+ * the pruned weights.
+ *
+ * @param args the configuration file, the target sparsity of each weight layer from 0 to 1, the
+ *             file to save the pruned weights to, and optionally the magnitude treated as zero
+ *             when removing neurons
+ */
+   public static void main(String[] args)
+   {
+      int n;
+      int k;
+      long denseCount;
+      long removed;
+      double sparsity;
+      double epsilon;
+      String originalConfig;
+      SparseWeights sparse;
+      WeightsFileIO weightsFileIO;
+      TruthTableFileIO truthTableFileIO;
+
+      try
+      {
+         if (args.length < 3)
+         {
+            System.out.println("Usage: java Prune config_file sparsity output_weights_file " +
+                  "[epsilon]");
+            return;
+         }
+
+         sparsity = Util.toDouble(args[1]);
+         epsilon = (args.length > 3) ? Util.toDouble(args[3]) : DEFAULT_EPSILON;
+         if (sparsity < 0.0 || sparsity >= 1.0)
+         {
+            Util.exit("Sparsity must be at least 0 and less than 1. Read - " + args[1], args[0]);
+         }
+
+         config = new ConfigFileIO(args[0], Main.DEFAULT_WEIGHTS_FILE,
+               Main.DEFAULT_TRUTH_TABLE_FILE).loadConfig();
+         if (!config.loadWeights)
+         {
+            Util.exit("Pruning requires \"Load Weights: true\" and a trained weights file", args[0]);
+         }
+
+         numActsInLayers = config.numActsInLayers.clone();
+         w = new double[config.numActLayers - 1][][];
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            w[n] = new double[numActsInLayers[n]][numActsInLayers[n + 1]];
+         }
+
+         weightsFileIO = new WeightsFileIO(config.weightsFileIn, config);
+         if (config.sparseWeights)
+         {
+            weightsFileIO.loadSparseWeights().toDense(w);
+         }
+         else
+         {
+            weightsFileIO.loadWeights(w);
+         }
+
+         truthTableInputs = new double[config.numCases][numActsInLayers[config.INPUT_LAYER]];
+         truthTableOutputs = new double[config.numCases][numActsInLayers[config.OUTPUT_LAYER]];
+         truthTableFileIO = new TruthTableFileIO(numActsInLayers[config.INPUT_LAYER],
+               numActsInLayers[config.OUTPUT_LAYER], config.numCases, Main.TRAINING,
+               config.truthTableFile);
+         truthTableFileIO.setSnapshots(config.truthTableSnapshots);
+         truthTableFileIO.loadTruthTable(truthTableInputs, truthTableOutputs);
+
+         originalConfig = Util.formatConfiguration(numActsInLayers, config.numActLayers);
+         denseCount = 0;
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            denseCount += (long) numActsInLayers[n] * numActsInLayers[n + 1];
+         }
+
+         evaluate(SparseWeights.fromDense(w, numActsInLayers), config.activationFunction);
+         System.out.println("Before pruning: " + originalConfig + ", " + denseCount +
+               " weights, average error " + evalError + ", accuracy " + evalAccuracy);
+
+         for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+         {
+            k = pruneLayer(n, sparsity);
+            System.out.println("Weight layer " + n + ": zeroed " + k + " of " +
+                  (numActsInLayers[n] * numActsInLayers[n + 1]) + " weights");
+         }
+
+         removed = removeDeadNeurons(epsilon);
+         System.out.println("Removed " + removed + " hidden neurons");
+
+         sparse = SparseWeights.fromDense(w, numActsInLayers);
+         evaluate(sparse, config.activationFunction);
+         System.out.println("After pruning: " + Util.formatConfiguration(numActsInLayers,
+               config.numActLayers) + ", " + sparse.countNonZero() + " weights, average error " +
+               evalError + ", accuracy " + evalAccuracy);
+
+         config.numActsInLayers = numActsInLayers;
+         new WeightsFileIO(args[2], config).saveSparseWeights(sparse);
+
+         System.out.println("Saved sparse weights to file: " + args[2]);
+         System.out.println("Run the pruned network with:\n" +
+               "   Network configuration: " + Util.formatConfiguration(numActsInLayers,
+               config.numActLayers) + "\n   Weights file in: " + args[2] +
+               "\n   Sparse Weights: true");
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Zeroes the smallest magnitude weights of weight layer n until the given fraction of the layer's
+ * weights are zero. Weights which are already zero count towards the sparsity.
+ *
+ * @param n        the weight layer to prune
+ * @param sparsity the target fraction of zero weights
+ * @return the number of weights zeroed by this call
+ */
+   public static int pruneLayer(int n, double sparsity)
+   {
+      int k;
+      int j;
+      int rows;
+      int cols;
+      int target;
+      int ties;
+      int zeroed;
+      double cutoff;
+      double[] magnitudes;
+
+      rows = numActsInLayers[n];
+      cols = numActsInLayers[n + 1];
+      target = (int) (sparsity * rows * cols);
+      zeroed = 0;
+
+      if (target > 0)
+      {
+         magnitudes = new double[rows * cols];
+         for (k = 0; k < rows; k++)
+         {
+            for (j = 0; j < cols; j++)
+            {
+               magnitudes[k * cols + j] = Math.abs(w[n][k][j]);
+            }
+         }
+         Arrays.sort(magnitudes);
+         cutoff = magnitudes[target - 1];
+         ties = target - countBelow(magnitudes, target, cutoff);
+
+/**
+ * Zero every weight strictly under the cutoff first, then only as many weights equal to the cutoff
+ * as are needed to reach the target, so that ties do not overshoot the target sparsity.
+ */
+         for (k = 0; k < rows; k++)
+         {
+            for (j = 0; j < cols; j++)
+            {
+               if (w[n][k][j] != 0.0 && Math.abs(w[n][k][j]) < cutoff)
+               {
+                  w[n][k][j] = 0.0;
+                  zeroed++;
+               }
+            }
+         } //for (k = 0; k < rows; k++)
+
+         for (k = 0; k < rows && cutoff > 0.0 && ties > 0; k++)
+         {
+            for (j = 0; j < cols && ties > 0; j++)
+            {
+               if (Math.abs(w[n][k][j]) == cutoff)
+               {
+                  w[n][k][j] = 0.0;
+                  zeroed++;
+                  ties--;
+               }
+            }
+         } //for (k = 0; k < rows && cutoff > 0.0 && ties > 0; k++)
+      } //if (target > 0)
+
+      return zeroed;
+   } //public static int pruneLayer(int n, double sparsity)
+
+/**
+ * Counts the magnitudes under the cutoff among the first len elements of a sorted array.
+ *
+ * @param sorted the sorted magnitudes
+ * @param len    the number of elements to consider
+ * @param cutoff the cutoff magnitude
+ * @return the number of magnitudes strictly under the cutoff
+ */
+   public static int countBelow(double[] sorted, int len, double cutoff)
+   {
+      int count;
+
+      count = 0;
+      while (count < len && sorted[count] < cutoff)
+      {
+         count++;
+      }
+
+      return count;
+   } //public static int countBelow(double[] sorted, int len, double cutoff)
+
+/**
+ * Removes every hidden neuron whose outgoing weights all have a magnitude of at most epsilon,
+ * along with its incoming weights, updating w and numActsInLayers. Layers are processed from the
+ * last hidden layer back to the first.
+ *
+ * @param epsilon the magnitude treated as zero
+ * @return the number of neurons removed
+ */
+   public static long removeDeadNeurons(double epsilon)
+   {
+      int n;
+      int k;
+      int j;
+      int m;
+      int kept;
+      long removed;
+      boolean[] alive;
+      double[][] newOut;
+      double[][] newIn;
+
+      removed = 0;
+
+      for (n = config.LAST_HIDDEN_LAYER; n >= config.FIRST_HIDDEN_LAYER; n--)
+      {
+         alive = new boolean[numActsInLayers[n]];
+         kept = 0;
+
+         for (k = 0; k < numActsInLayers[n]; k++)
+         {
+            for (j = 0; j < numActsInLayers[n + 1] && !alive[k]; j++)
+            {
+               alive[k] = Math.abs(w[n][k][j]) > epsilon;
+            }
+            if (alive[k])
+            {
+               kept++;
+            }
+         } //for (k = 0; k < numActsInLayers[n]; k++)
+
+         if (kept == 0) //Keep one neuron so that the layer still exists
+         {
+            alive[0] = true;
+            kept = 1;
+         }
+
+         if (kept < numActsInLayers[n])
+         {
+            newOut = new double[kept][];
+            newIn = new double[numActsInLayers[n - 1]][kept];
+
+            kept = 0;
+            for (k = 0; k < numActsInLayers[n]; k++)
+            {
+               if (alive[k])
+               {
+                  newOut[kept] = w[n][k];
+                  for (m = 0; m < numActsInLayers[n - 1]; m++)
+                  {
+                     newIn[m][kept] = w[n - 1][m][k];
+                  }
+                  kept++;
+               }
+            } //for (k = 0; k < numActsInLayers[n]; k++)
+
+            removed += numActsInLayers[n] - kept;
+            w[n] = newOut;
+            w[n - 1] = newIn;
+            numActsInLayers[n] = kept;
+         } //if (kept < numActsInLayers[n])
+      } //for (n = config.LAST_HIDDEN_LAYER; n >= config.FIRST_HIDDEN_LAYER; n--)
+
+      return removed;
+   } //public static long removeDeadNeurons(double epsilon)
+
+/**
+ * Runs every truth table case through the given CSR weights and sets evalError to the average
+ * error and evalAccuracy to the fraction of cases whose largest output is at the same index as
+ * the largest expected output.
+ *
+ * @param sparse the CSR weights to run
+ * @param f      the activation function
+ */
+   public static void evaluate(SparseWeights sparse, Function f)
+   {
+      int n;
+      int i;
+      int caseIter;
+      int maxOut;
+      int maxExpected;
+      int correct;
+      double[][] a;
+      double errorAccumulator;
+
+      a = new double[config.numActLayers][];
+      for (n = config.FIRST_HIDDEN_LAYER; n <= config.OUTPUT_LAYER; n++)
+      {
+         a[n] = new double[numActsInLayers[n]];
+      }
+
+      n = config.OUTPUT_LAYER;
+      errorAccumulator = 0.0;
+      correct = 0;
+
+      for (caseIter = 0; caseIter < config.numCases; caseIter++)
+      {
+         a[config.INPUT_LAYER] = truthTableInputs[caseIter];
+         sparse.run(a, f);
+
+         maxOut = 0;
+         maxExpected = 0;
+         for (i = 0; i < numActsInLayers[n]; i++)
+         {
+            errorAccumulator += 0.5 * (truthTableOutputs[caseIter][i] - a[n][i]) *
+                  (truthTableOutputs[caseIter][i] - a[n][i]);
+
+            if (a[n][i] > a[n][maxOut])
+            {
+               maxOut = i;
+            }
+            if (truthTableOutputs[caseIter][i] > truthTableOutputs[caseIter][maxExpected])
+            {
+               maxExpected = i;
+            }
+         } //for (i = 0; i < numActsInLayers[n]; i++)
+
+         if (maxOut == maxExpected)
+         {
+            correct++;
+         }
+      } //for (caseIter = 0; caseIter < config.numCases; caseIter++)
+
+      evalError = errorAccumulator / (double) config.numCases;
+      evalAccuracy = (double) correct / (double) config.numCases;
+   } //public static void evaluate(SparseWeights sparse, Function f)
+} //public class Prune
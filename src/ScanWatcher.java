@@ -0,0 +1,364 @@
+import imgProcessing.ingestAll;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class watches a drop directory for new BMP scans and runs each one through the network as
+ * soon as it arrives, instead of batching the scans by hand through the image tools and a RUN_ALL
+ * configuration. Each scan is decoded, thresholded, cropped around its center of mass, scaled and
+ * normalized in memory by ingestAll, exactly as the training inputs were made, and the inputs go
+ * straight into a Model loaded once from the configuration file. No intermediate files are
+ * written.
+ *
+ * One line is appended to the log file for each scan, separated by tabs: the time it was
+ * classified, its file name, the milliseconds from when its arrival was seen to when its outputs
+ * were known, and the output activations separated by spaces. A scan that cannot be read is
+ * logged with the reason in place of the outputs, and is read again if it changes.
+ *
+ * Scans are classified by a fixed pool of worker threads, with up to QUEUE_SCANS_PER_THREAD scans
+ * per thread waiting. If that many are waiting, the watching thread classifies the next scan
+ * itself, so a burst of scans slows down the reading of new events instead of queuing without
+ * bound. If the events overflow all the same, the directory is listed again to find the scans that
+ * were missed.
+ *
+ * A scan is classified again only if its size or modified time changes, so the several events a
+ * copy into the directory raises cause one prediction. Empty files are ignored until they are
+ * written to. Scans are best moved or renamed into the directory once they are complete: a scan
+ * that is read while it is still being written is logged as skipped and classified once the write
+ * finishes. Scans already in the directory when the watcher starts are not classified.
+ *
+ * Usage: java ScanWatcher config_file drop_directory log_file threshold_value [threads [size]]
+ *
+ * The threshold value may be "x" for no threshold, as for ingestAll. The number of threads
+ * defaults to the number of available processors. The size the scans are scaled to is given as
+ * WIDTHxHEIGHT, as for ingestAll, and must be the size the training inputs were made at. Its width
+ * times its height must be the number of inputs of the network. If it is not given, it is chosen
+ * from the number of inputs by ingestAll.sizeFor, which gives 86x100, the default size of
+ * ingestAll, for 8600 inputs.
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. watch()
+ * 3. listScans(boolean submit)
+ * 4. submit(Path file, long arrival)
+ * 5. classify(Path file, long arrival)
+ * 6. preprocess(byte[] scan)
+ * 7. record(String fileName, String result)
+ * 8. isScan(Path file)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class ScanWatcher
+{
+   public static final int QUEUE_SCANS_PER_THREAD = 4;
+   public static final double NANO_PER_MILLI = 1.0e6;     //Nanoseconds per millisecond
+
+   public static Model model;
+   public static int threshold;                           //Integer.MAX_VALUE for no threshold
+   public static int[] size;                              //Width and height scans are scaled to
+   public static Path dir;                                //The drop directory
+   public static WatchService watcher;
+   public static ThreadPoolExecutor workers;
+   public static PrintWriter log;
+   public static ConcurrentHashMap<Path, String> seen = new ConcurrentHashMap<>(); //Size and time
+   public static AtomicLong classified = new AtomicLong();
+   public static AtomicLong skipped = new AtomicLong();
+
+/**
+ * Loads the configuration and weights, starts the workers, and watches the drop directory until
+ * the process is stopped, at which point the number of scans classified is printed.
+ *
+ * @param args the configuration file, drop directory, log file, threshold, and optionally the
+ *             number of threads and the size scans are scaled to
+ */
+   public static void main(String[] args)
+   {
+      int threads;
+      Config config;
+
+      try
+      {
+         if (args.length < 4 || args.length > 6)
+         {
+            System.out.println("Usage: java ScanWatcher config_file drop_directory log_file " +
+                  "threshold_value [threads [size]]");
+            return;
+         }
+
+         config = new ConfigFileIO(args[0], Main.DEFAULT_WEIGHTS_FILE,
+               Main.DEFAULT_TRUTH_TABLE_FILE).loadConfig();
+         model = new Model(config, config.weightsFileIn);
+
+         threshold = Integer.MAX_VALUE;
+         threads = Runtime.getRuntime().availableProcessors();
+         size = ingestAll.sizeFor(model.numInputs());
+         try
+         {
+            if (!args[3].trim().equals("x"))
+            {
+               threshold = Util.toInt(args[3]);
+            }
+            if (args.length >= 5)
+            {
+               threads = Util.toInt(args[4]);
+            }
+            if (args.length == 6)
+            {
+               size = ingestAll.parseSize(args[5]);
+            }
+         } //try
+         catch (NumberFormatException e)
+         {
+            Util.exit("Poorly formatted threshold, threads or size: " +
+                  String.join(" ", Arrays.copyOfRange(args, 3, args.length)), "ScanWatcher");
+         }
+
+         if ((long) size[0] * size[1] != model.numInputs())
+         {
+            Util.exit("The network has " + model.numInputs() + " inputs, but scans are " +
+                  "preprocessed to " + size[0] + "x" + size[1] + " pels", args[0]);
+         }
+
+         dir = Paths.get(args[1]).toAbsolutePath();
+         try
+         {
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                  StandardWatchEventKinds.ENTRY_MODIFY);
+            log = new PrintWriter(new OutputStreamWriter(new FileOutputStream(args[2], true),
+                  StandardCharsets.UTF_8));
+         }
+         catch (IOException e)
+         {
+            Util.exit("Failed to watch " + dir + " or open the log file " + args[2], args[0]);
+         }
+
+         workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+               new ArrayBlockingQueue<>(QUEUE_SCANS_PER_THREAD * threads),
+               new ThreadPoolExecutor.CallerRunsPolicy());
+         listScans(false);                                 //Scans already here are not classified
+
+         Runtime.getRuntime().addShutdownHook(new Thread(() ->
+         {
+            try
+            {
+               watcher.close();
+               workers.shutdown();
+               workers.awaitTermination(1L, TimeUnit.MINUTES);
+            }
+            catch (IOException | InterruptedException e)
+            {
+               //Stopping either way
+            }
+            log.close();
+            System.out.println("Classified " + classified.get() + " scans, skipped " +
+                  skipped.get());
+         }));
+
+         System.out.println("Network configuration: " + Util.formatConfiguration(
+               model.numActsInLayers, model.numActLayers));
+         System.out.println("Loaded weights from file: " + model.weightsFile);
+         System.out.println("Preprocessing scans to " + size[0] + "x" + size[1] + " pels");
+         System.out.println("Watching " + dir + " with " + threads + " threads, logging to " +
+               args[2]);
+
+         watch();
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Waits for files to be created or changed in the drop directory and submits each scan among
+ * them. Runs until the watch service is closed.
+ */
+   public static void watch()
+   {
+      long arrival;
+      Path file;
+      WatchKey key;
+
+      try
+      {
+         while (true)
+         {
+            key = watcher.take();
+            arrival = System.nanoTime();
+
+            for (WatchEvent<?> event : key.pollEvents())
+            {
+               if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+               {
+                  listScans(true);
+               }
+               else
+               {
+                  file = dir.resolve((Path) event.context());
+                  if (isScan(file))
+                  {
+                     submit(file, arrival);
+                  }
+               }
+            } //for (WatchEvent<?> event : key.pollEvents())
+            key.reset();
+         } //while (true)
+      } //try
+      catch (InterruptedException | ClosedWatchServiceException e)
+      {
+         //The watcher was shut down
+      }
+   } //public static void watch()
+
+/**
+ * Lists the scans in the drop directory, either to submit the ones not yet classified, after the
+ * events overflowed, or to mark them all as seen, when the watcher starts.
+ *
+ * @param submit true to submit the scans, false to only mark them as seen
+ */
+   public static void listScans(boolean submit)
+   {
+      long arrival;
+
+      arrival = System.nanoTime();
+      try
+      {
+         DirectoryStream<Path> files = Files.newDirectoryStream(dir);
+         for (Path file : files)
+         {
+            if (isScan(file))
+            {
+               if (submit)
+               {
+                  submit(file, arrival);
+               }
+               else
+               {
+                  seen.put(file, Files.size(file) + "@" + Files.getLastModifiedTime(file));
+               }
+            }
+         } //for (Path file : files)
+         files.close();
+      } //try
+      catch (IOException e)
+      {
+         System.out.println("Failed to list " + dir + ": " + e.getMessage());
+      }
+   } //public static void listScans(boolean submit)
+
+/**
+ * Hands a scan to the workers unless it is empty or has not changed since it was last submitted.
+ * If the workers are all busy and their queue is full, the scan is classified on this thread.
+ *
+ * @param file    the scan
+ * @param arrival the time its event was seen, from System.nanoTime()
+ */
+   public static void submit(Path file, long arrival)
+   {
+      long size;
+      String signature;
+
+      try
+      {
+         size = Files.size(file);
+         signature = size + "@" + Files.getLastModifiedTime(file);
+      }
+      catch (IOException e)
+      {
+         return;                                           //Moved away or deleted already
+      }
+
+      if (size > 0 && !signature.equals(seen.put(file, signature)))
+      {
+         workers.execute(() -> classify(file, arrival));
+      }
+   } //public static void submit(Path file, long arrival)
+
+/**
+ * Reads a scan, runs it through the network, and logs its outputs, or the reason it was skipped.
+ *
+ * @param file    the scan
+ * @param arrival the time its event was seen, from System.nanoTime()
+ */
+   public static void classify(Path file, long arrival)
+   {
+      double[] output;
+
+      try
+      {
+         output = model.predict(preprocess(Files.readAllBytes(file)));
+         classified.incrementAndGet();
+         record(file.getFileName().toString(), (System.nanoTime() - arrival) / NANO_PER_MILLI +
+               "\t" + Server.formatOutput(output).trim());
+      }
+      catch (IOException | RuntimeException e)
+      {
+         skipped.incrementAndGet();
+         record(file.getFileName().toString(), "skipped\t" + e);
+      }
+   } //public static void classify(Path file, long arrival)
+
+/**
+ * Turns the bytes of a BMP scan into network inputs, the same as ingestAll does for training at
+ * the same size.
+ * The file is read whole rather than memory mapped, since it may still be changing.
+ *
+ * @param scan the contents of the BMP file
+ * @return the network inputs
+ * @throws IOException if the scan is not a supported BMP
+ */
+   public static double[] preprocess(byte[] scan) throws IOException
+   {
+      return ingestAll.toInputs(ingestAll.transform(ingestAll.decode(ByteBuffer.wrap(scan)),
+            threshold, size[0], size[1]));
+   }
+
+/**
+ * Appends a line to the log and flushes it, so the log is up to date after every scan.
+ *
+ * @param fileName the file name of the scan
+ * @param result   the rest of the line
+ */
+   public static void record(String fileName, String result)
+   {
+      synchronized (log)
+      {
+         log.println(LocalDateTime.now() + "\t" + fileName + "\t" + result);
+         log.flush();
+      }
+   }
+
+/**
+ * Returns whether a file in the drop directory is a BMP scan, by its extension.
+ *
+ * @param file the file
+ * @return true if the file name ends in .bmp, in any case
+ */
+   public static boolean isScan(Path file)
+   {
+      return file.getFileName().toString().toLowerCase().endsWith(".bmp");
+   }
+} //public class ScanWatcher
@@ -0,0 +1,468 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * This class serves a trained network over HTTP, so that other programs can run it without
+ * starting a new JVM and reloading the weights for every input. The configuration file is read
+ * once for the network configuration, activation function, weights file in, sparse weights, and
+ * server settings, and the weights are loaded once into a Model. The server uses the JDK's built
+ * in com.sun.net.httpserver and handles requests on a fixed pool of Server Threads threads.
+ *
+ * If Max Batch Size is greater than 1, concurrent requests are coalesced by a BatchPredictor and
+ * run through the network together. Since each request holds a thread while it waits, the pool
+ * then has at least Max Batch Size threads.
+ *
+ * If Prediction Cache Size is greater than 0, outputs are kept in a PredictionCache keyed by the
+ * content of the input and the fingerprint of the weights, and a repeated input is answered from
+ * the cache without running the network.
+ *
+ * If Watch Weights is true, a ModelWatcher loads new weights written to the weights file in, or to
+ * its training checkpoints, in the background. The new Model replaces the current one with a single
+ * reference assignment. Each request reads the current model once, so requests in flight finish on
+ * the weights they started with, and no request waits on the load.
+ *
+ * The server has the following endpoints:
+ *
+ * POST /predict:  Runs the network on one input and responds with the output activations as
+ *                 space separated doubles on one line. With a Content-Type of
+ *                 application/octet-stream, the body is a packed byte image with one unsigned
+ *                 byte per input activation, each scaled by 1/255 like scaleAll. Otherwise, the
+ *                 body is text with one double per input activation, separated by whitespace or
+ *                 commas. Malformed input is answered with status 400, and a prediction which
+ *                 fails or is cancelled with status 500.
+ * GET /stats:     Responds with the number of requests and errors, the mean and maximum latency of
+ *                 /predict, and the throughput since the server started. When batching, it also
+ *                 responds with the number of batches and the mean batch size, and with a cache,
+ *                 the number of cache hits, misses, evictions, and entries. It also responds with
+ *                 the current weights file and the number of times the weights were swapped.
+ *
+ * For example, "curl --data '0 1' http://127.0.0.1:8080/predict" runs a 2 input network.
+ *
+ * Usage: java Server config_file
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. handlePredict(HttpExchange exchange)
+ * 3. handleStats(HttpExchange exchange)
+ * 4. parseInput(Model current, byte[] body, String contentType)
+ * 5. formatOutput(double[] output)
+ * 6. formatStats()
+ * 7. respond(HttpExchange exchange, int status, String body)
+ * 8. swapModel(Model newModel)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class Server
+{
+   public static final int HTTP_OK = 200;
+   public static final int HTTP_BAD_REQUEST = 400;
+   public static final int HTTP_BAD_METHOD = 405;
+   public static final int HTTP_SERVER_ERROR = 500;
+   public static final double NANO_PER_MILLI = 1.0e6;     //Nanoseconds per millisecond
+   public static final double BYTE_SCALE = 255.0;         //Packed byte value of a full activation
+
+   public static Config config;
+   public static volatile Model model;                    //The model new requests are run on
+   public static BatchPredictor batcher;                  //Null if requests are not batched
+   public static PredictionCache cache;                   //Null if outputs are not cached
+   public static HttpServer server;
+   public static ExecutorService executor;
+   public static ModelWatcher watcher;                    //Null if the weights are not watched
+
+   /**
+    * Counters for the /stats endpoint, shared by all request threads.
+    */
+   public static long startTime;                          //Time the server started, in nanoseconds
+   public static AtomicLong requests = new AtomicLong();  //Number of /predict requests answered
+   public static AtomicLong errors = new AtomicLong();    //Number of /predict requests rejected
+   public static AtomicLong totalLatency = new AtomicLong();        //Sum of latencies in nanoseconds
+   public static LongAccumulator maxLatency = new LongAccumulator(Math::max, 0L);
+   public static AtomicLong swaps = new AtomicLong();     //Number of times new weights were loaded
+
+/**
+ * Loads the configuration and weights, then starts the server. The server runs until the process
+ * is stopped, at which point the final statistics are printed.
+ *
+ * @param args the configuration file
+ */
+   public static void main(String[] args)
+   {
+      int threads;
+
+      try
+      {
+         if (args.length < 1)
+         {
+            System.out.println("Usage: java Server config_file");
+            return;
+         }
+
+         config = new ConfigFileIO(args[0], Main.DEFAULT_WEIGHTS_FILE,
+               Main.DEFAULT_TRUTH_TABLE_FILE).loadConfig();
+         model = new Model(config, config.weightsFileIn);
+
+         threads = config.serverThreads;
+         if (threads == 0)
+         {
+            threads = Runtime.getRuntime().availableProcessors();
+         }
+
+         if (config.maxBatchSize > 1)
+         {
+            batcher = new BatchPredictor(model, config.maxBatchSize, config.maxBatchWait);
+            threads = Math.max(threads, config.maxBatchSize);
+         }
+
+         if (config.predictionCacheSize > 0)
+         {
+            cache = new PredictionCache(config.predictionCacheSize, model.numOutputs());
+         }
+
+         if (config.watchWeights)
+         {
+            watcher = new ModelWatcher(config, config.weightsFileIn, Server::swapModel);
+         }
+
+         try
+         {
+            server = HttpServer.create(new InetSocketAddress(config.serverAddress,
+                  config.serverPort), 0);
+         }
+         catch (IOException e)
+         {
+            Util.exit("Failed to listen on " + config.serverAddress + ":" + config.serverPort,
+                  args[0]);
+         }
+
+         executor = Executors.newFixedThreadPool(threads);
+         server.setExecutor(executor);
+         server.createContext("/predict", Server::handlePredict);
+         server.createContext("/stats", Server::handleStats);
+
+         Runtime.getRuntime().addShutdownHook(new Thread(() ->
+         {
+            server.stop(0);
+            executor.shutdown();
+            if (watcher != null)
+            {
+               watcher.shutdown();
+            }
+            if (batcher != null)
+            {
+               batcher.shutdown();
+            }
+            System.out.print(formatStats());
+         }));
+
+         startTime = System.nanoTime();
+         server.start();
+
+         System.out.println("Network configuration: " + Util.formatConfiguration(
+               model.numActsInLayers, model.numActLayers));
+         System.out.println("Activation function: " + model.f.toString());
+         System.out.println("Loaded weights from file: " + model.weightsFile);
+         System.out.println("Serving on http://" + config.serverAddress + ":" +
+               server.getAddress().getPort() + " with " + threads + " threads");
+         if (batcher != null)
+         {
+            System.out.println("Batching up to " + config.maxBatchSize + " requests, waiting " +
+                  "up to " + config.maxBatchWait + " microseconds");
+         }
+         if (cache != null)
+         {
+            System.out.println("Caching up to " + config.predictionCacheSize + " outputs");
+         }
+         if (watcher != null)
+         {
+            System.out.println("Watching for new weights");
+         }
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Handles a request to /predict. Parses the input, runs the network unless the output is cached,
+ * and responds with the output activations. The latency of every POST request is recorded,
+ * including rejected ones.
+ *
+ * @param exchange the HTTP request and response
+ * @throws IOException if the response cannot be written
+ */
+   public static void handlePredict(HttpExchange exchange) throws IOException
+   {
+      long start;
+      long latency;
+      long[] key;
+      double[] input;
+      double[] output;
+      Model current;
+
+      start = System.nanoTime();
+      current = model;
+
+      if (!exchange.getRequestMethod().equals("POST"))
+      {
+         respond(exchange, HTTP_BAD_METHOD, "Use POST to run the network\n");
+         return;
+      }
+
+      try
+      {
+         input = parseInput(current, exchange.getRequestBody().readAllBytes(),
+               exchange.getRequestHeaders().getFirst("Content-Type"));
+         key = null;
+         output = null;
+         if (cache != null)
+         {
+            key = cache.key(current, input);
+            output = cache.get(key);
+         }
+
+         if (output == null)
+         {
+            if (batcher != null)
+            {
+               output = batcher.predict(input);
+            }
+            else
+            {
+               output = current.predict(input);
+            }
+
+            if (cache != null)
+            {
+               cache.put(key, output);
+            }
+         } //if (output == null)
+         respond(exchange, HTTP_OK, formatOutput(output));
+      }
+      catch (IllegalArgumentException e)
+      {
+         errors.incrementAndGet();
+         respond(exchange, HTTP_BAD_REQUEST, e.getMessage() + "\n");
+      }
+      catch (RuntimeException e)
+      {
+         errors.incrementAndGet();
+         respond(exchange, HTTP_SERVER_ERROR, "Prediction failed: " + e + "\n");
+      }
+      finally
+      {
+         latency = System.nanoTime() - start;
+         requests.incrementAndGet();
+         totalLatency.addAndGet(latency);
+         maxLatency.accumulate(latency);
+      }
+   } //public static void handlePredict(HttpExchange exchange)
+
+/**
+ * Handles a request to /stats by responding with the current statistics.
+ *
+ * @param exchange the HTTP request and response
+ * @throws IOException if the response cannot be written
+ */
+   public static void handleStats(HttpExchange exchange) throws IOException
+   {
+      exchange.getRequestBody().readAllBytes();
+      respond(exchange, HTTP_OK, formatStats());
+   }
+
+/**
+ * Parses the body of a /predict request into input activations.
+ *
+ * @param current     the model the input is for
+ * @param body        the request body
+ * @param contentType the Content-Type header of the request, which may be null
+ * @return the input activations
+ * @throws IllegalArgumentException if the body does not hold exactly one input
+ */
+   public static double[] parseInput(Model current, byte[] body, String contentType)
+   {
+      int x;
+      int start;
+      int count;
+      char c;
+      double[] input;
+      String text;
+
+      input = new double[current.numInputs()];
+
+      if (contentType != null && contentType.startsWith("application/octet-stream"))
+      {
+         if (body.length != input.length)
+         {
+            throw new IllegalArgumentException("Expected " + input.length + " bytes, read " +
+                  body.length);
+         }
+         for (x = 0; x < body.length; x++)
+         {
+            input[x] = (body[x] & 0xFF) / BYTE_SCALE;
+         }
+      } //if (contentType != null && contentType.startsWith("application/octet-stream"))
+      else
+      {
+         text = new String(body, StandardCharsets.US_ASCII);
+         count = 0;
+         x = 0;
+         while (x < text.length())
+         {
+            c = text.charAt(x);
+            if (Character.isWhitespace(c) || c == ',')
+            {
+               x++;
+            }
+            else
+            {
+               start = x;
+               while (x < text.length() && !Character.isWhitespace(text.charAt(x)) &&
+                     text.charAt(x) != ',')
+               {
+                  x++;
+               }
+
+               if (count == input.length)
+               {
+                  throw new IllegalArgumentException("Expected " + input.length + " inputs, " +
+                        "read more");
+               }
+               try
+               {
+                  input[count] = Double.parseDouble(text.substring(start, x));
+               }
+               catch (NumberFormatException e)
+               {
+                  throw new IllegalArgumentException("Poorly formatted double for input " + count +
+                        ": " + text.substring(start, x));
+               }
+               count++;
+            } //if (Character.isWhitespace(c) || c == ',')...else
+         } //while (x < text.length())
+
+         if (count != input.length)
+         {
+            throw new IllegalArgumentException("Expected " + input.length + " inputs, read " +
+                  count);
+         }
+      } //if (contentType != null && contentType.startsWith("application/octet-stream"))...else
+
+      return input;
+   } //public static double[] parseInput(Model current, byte[] body, String contentType)
+
+/**
+ * Formats output activations as space separated doubles on one line, at full precision.
+ *
+ * @param output the output activations
+ * @return the formatted output
+ */
+   public static String formatOutput(double[] output)
+   {
+      int j;
+      StringBuilder res;
+
+      res = new StringBuilder();
+      for (j = 0; j < output.length; j++)
+      {
+         if (j > 0)
+         {
+            res.append(' ');
+         }
+         res.append(output[j]);
+      }
+
+      return res.append('\n').toString();
+   } //public static String formatOutput(double[] output)
+
+/**
+ * Formats the request count, error count, latency, and throughput of the server, and the batch
+ * count and mean batch size when batching, and the cache counters when caching.
+ *
+ * @return the statistics, one per line
+ */
+   public static String formatStats()
+   {
+      long count;
+      double seconds;
+      double meanLatency;
+      String stats;
+
+      count = requests.get();
+      seconds = (System.nanoTime() - startTime) / Main.NANO_PER_SEC;
+      meanLatency = (count > 0) ? totalLatency.get() / NANO_PER_MILLI / count : 0.0;
+
+      stats = "Requests: " + count + "\n" +
+            "Errors: " + errors.get() + "\n" +
+            "Mean latency (ms): " + meanLatency + "\n" +
+            "Max latency (ms): " + (maxLatency.get() / NANO_PER_MILLI) + "\n" +
+            "Throughput (requests/s): " + (count / seconds) + "\n" +
+            "Uptime (s): " + seconds + "\n" +
+            "Weights file: " + model.weightsFile + "\n" +
+            "Weights swaps: " + swaps.get() + "\n";
+
+      if (batcher != null)
+      {
+         stats += "Batches: " + batcher.batches.get() + "\n" +
+               "Mean batch size: " + ((double) batcher.batchedInputs.get() /
+               Math.max(1L, batcher.batches.get())) + "\n";
+      }
+      if (cache != null)
+      {
+         stats += "Cache hits: " + cache.hits.get() + "\n" +
+               "Cache misses: " + cache.misses.get() + "\n" +
+               "Cache evictions: " + cache.evictions.get() + "\n" +
+               "Cache entries: " + cache.size() + "\n";
+      }
+
+      return stats;
+   } //public static String formatStats()
+
+/**
+ * Sends a text response and closes the exchange.
+ *
+ * @param exchange the HTTP request and response
+ * @param status   the HTTP status code
+ * @param body     the response body
+ * @throws IOException if the response cannot be written
+ */
+   public static void respond(HttpExchange exchange, int status, String body) throws IOException
+   {
+      byte[] bytes;
+      OutputStream out;
+
+      bytes = body.getBytes(StandardCharsets.US_ASCII);
+      exchange.getResponseHeaders().set("Content-Type", "text/plain");
+      exchange.sendResponseHeaders(status, bytes.length);
+
+      out = exchange.getResponseBody();
+      out.write(bytes);
+      out.close();
+   } //public static void respond(HttpExchange exchange, int status, String body)
+
+/**
+ * Makes a newly loaded model the one new requests are run on. Called on the watcher's thread.
+ *
+ * @param newModel the new model
+ */
+   public static void swapModel(Model newModel)
+   {
+      if (batcher != null)
+      {
+         batcher.setModel(newModel);
+      }
+      model = newModel;
+      swaps.incrementAndGet();
+
+      System.out.println("Swapped in weights from file: " + newModel.weightsFile);
+   } //public static void swapModel(Model newModel)
+} //public class Server
@@ -0,0 +1,200 @@
+import activationFunctions.Function;
+
+/**
+ * This class stores the weights of an N-layer network in compressed sparse row (CSR) format, keeping
+ * only the weights which are not zero. For each weight layer n, the weights into node j of layer
+ * n + 1 are stored contiguously:
+ *
+ * rowStart[n][j]:     the index of the first stored weight into node j. rowStart[n][j + 1] is one
+ *                     past the last, so rowStart[n] has one more element than layer n + 1.
+ * colIndex[n][p]:     the index k of the activation in layer n that stored weight p multiplies.
+ * values[n][p]:       the value of stored weight p, which is w[n][k][j] of the dense weights.
+ *
+ * The stored weights of each node are kept in increasing order of k, so a forward pass adds the
+ * same terms in the same order as the dense forward pass in Main.
+ *
+ * Table of Contents:
+ * 1. SparseWeights(int[] numActsInLayers)
+ * 2. fromDense(double[][][] w, int[] numActsInLayers)
+ * 3. toDense(double[][][] w)
+ * 4. run(double[][] a, Function f)
+ * 5. countNonZero()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class SparseWeights
+{
+   public int numActLayers;
+   public int[] numActsInLayers;
+   public int[][] rowStart;
+   public int[][] colIndex;
+   public double[][] values;
+
+/**
+ * Constructor for the SparseWeights class. Allocates the row start arrays for the given network
+ * configuration. The column index and value arrays are left to be allocated once the number of
+ * stored weights in each layer is known.
+ *
+ * @param numActsInLayers the number of activations in each layer
+ */
+   public SparseWeights(int[] numActsInLayers)
+   {
+      int n;
+
+      this.numActsInLayers = numActsInLayers;
+      numActLayers = numActsInLayers.length;
+
+      rowStart = new int[numActLayers - 1][];
+      colIndex = new int[numActLayers - 1][];
+      values = new double[numActLayers - 1][];
+
+      for (n = 0; n < numActLayers - 1; n++)
+      {
+         rowStart[n] = new int[numActsInLayers[n + 1] + 1];
+      }
+   } //public SparseWeights(int[] numActsInLayers)
+
+/**
+ * Builds the CSR weights from dense weights, storing only the weights which are not zero.
+ *
+ * @param w               the dense weights, indexed as w[n][k][j]
+ * @param numActsInLayers the number of activations in each layer
+ * @return the CSR weights
+ */
+   public static SparseWeights fromDense(double[][][] w, int[] numActsInLayers)
+   {
+      int n;
+      int k;
+      int j;
+      int p;
+      SparseWeights sparse;
+
+      sparse = new SparseWeights(numActsInLayers);
+
+      for (n = 0; n < sparse.numActLayers - 1; n++)
+      {
+         p = 0;
+         for (j = 0; j < numActsInLayers[n + 1]; j++)
+         {
+            for (k = 0; k < numActsInLayers[n]; k++)
+            {
+               if (w[n][k][j] != 0.0)
+               {
+                  p++;
+               }
+            }
+         } //for (j = 0; j < numActsInLayers[n + 1]; j++)
+
+         sparse.colIndex[n] = new int[p];
+         sparse.values[n] = new double[p];
+
+         p = 0;
+         for (j = 0; j < numActsInLayers[n + 1]; j++)
+         {
+            sparse.rowStart[n][j] = p;
+            for (k = 0; k < numActsInLayers[n]; k++)
+            {
+               if (w[n][k][j] != 0.0)
+               {
+                  sparse.colIndex[n][p] = k;
+                  sparse.values[n][p] = w[n][k][j];
+                  p++;
+               }
+            }
+         } //for (j = 0; j < numActsInLayers[n + 1]; j++)
+         sparse.rowStart[n][numActsInLayers[n + 1]] = p;
+      } //for (n = 0; n < sparse.numActLayers - 1; n++)
+
+      return sparse;
+   } //public static SparseWeights fromDense(double[][][] w, int[] numActsInLayers)
+
+/**
+ * Writes the CSR weights into the given dense weights array. Weights which are not stored are
+ * set to zero.
+ *
+ * @param w the dense weights to fill, indexed as w[n][k][j]
+ */
+   public void toDense(double[][][] w)
+   {
+      int n;
+      int k;
+      int j;
+      int p;
+
+      for (n = 0; n < numActLayers - 1; n++)
+      {
+         for (k = 0; k < numActsInLayers[n]; k++)
+         {
+            for (j = 0; j < numActsInLayers[n + 1]; j++)
+            {
+               w[n][k][j] = 0.0;
+            }
+         }
+
+         for (j = 0; j < numActsInLayers[n + 1]; j++)
+         {
+            for (p = rowStart[n][j]; p < rowStart[n][j + 1]; p++)
+            {
+               w[n][colIndex[n][p]][j] = values[n][p];
+            }
+         }
+      } //for (n = 0; n < numActLayers - 1; n++)
+   } //public void toDense(double[][][] w)
+
+/**
+ * Runs the network on the input activations in a[0], visiting only the stored weights. The
+ * activations of every other layer are written into a.
+ *
+ * @param a the activations of each layer, with the input activations already set
+ * @param f the activation function
+ */
+   public void run(double[][] a, Function f)
+   {
+      int n;
+      int j;
+      int p;
+      int[] starts;
+      int[] cols;
+      double[] vals;
+      double[] prev;
+      double thetaAccumulator;
+
+      for (n = 1; n < numActLayers; n++)
+      {
+         starts = rowStart[n - 1];
+         cols = colIndex[n - 1];
+         vals = values[n - 1];
+         prev = a[n - 1];
+
+         for (j = 0; j < numActsInLayers[n]; j++)
+         {
+            thetaAccumulator = 0.0;
+            for (p = starts[j]; p < starts[j + 1]; p++)
+            {
+               thetaAccumulator += prev[cols[p]] * vals[p];
+            }
+            a[n][j] = f.f(thetaAccumulator);
+         }
+      } //for (n = 1; n < numActLayers; n++)
+   } //public void run(double[][] a, Function f)
+
+/**
+ * Counts the stored weights over all layers.
+ *
+ * @return the number of stored weights
+ */
+   public long countNonZero()
+   {
+      int n;
+      long count;
+
+      count = 0;
+      for (n = 0; n < numActLayers - 1; n++)
+      {
+         count += values[n].length;
+      }
+
+      return count;
+   } //public long countNonZero()
+} //public class SparseWeights
@@ -0,0 +1,283 @@
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * This class benchmarks loading a truth table with TruthTableFileIO, which reads through a
+ * TableReader, against the loader it replaced, which read lines with the unbuffered
+ * DataInputStream.readLine, split them with a regular expression, and parsed each value through a
+ * BigDecimal. The old loader is kept here as the baseline.
+ *
+ * Both loaders read the truth table of the given configuration file the given number of times,
+ * after as many warm up loads, and the average time of a load is printed for each. The outputs
+ * are only loaded when the configuration is in training mode. Every value loaded by the two is
+ * compared bit for bit, and any difference is reported. Truth table snapshots are not used, so
+ * every load parses the table.
+ *
+ * Usage: java TableBenchmark config_file [repetitions]
+ *
+ * Table of Contents:
+ * 1. main(String[] args)
+ * 2. loadCurrent(Config config, double[][] inputs, double[][] outputs)
+ * 3. loadBaseline(Config config, double[][] inputs, double[][] outputs)
+ * 4. readRows(DataInputStream in, double[][] rows, int numCases, int numValues)
+ * 5. readBaselineFile(String file, double[] row)
+ * 6. countDifferences(double[][] a, double[][] b)
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class TableBenchmark
+{
+   public static final int DEFAULT_REPETITIONS = 10;
+
+/**
+ * Loads the truth table with both loaders, times them, and checks that they agree.
+ *
+ * @param args the configuration file, and optionally the number of timed loads of each loader
+ */
+   public static void main(String[] args)
+   {
+      int rep;
+      int reps;
+      long start;
+      long differences;
+      double currentMillis;
+      double baselineMillis;
+      Config config;
+      double[][] inputs;
+      double[][] outputs;
+      double[][] baselineInputs;
+      double[][] baselineOutputs;
+
+      try
+      {
+         if (args.length < 1)
+         {
+            System.out.println("Usage: java TableBenchmark config_file [repetitions]");
+            return;
+         }
+
+         config = new ConfigFileIO(args[0], Main.DEFAULT_WEIGHTS_FILE,
+               Main.DEFAULT_TRUTH_TABLE_FILE).loadConfig();
+         reps = (args.length > 1) ? Util.toInt(args[1]) : DEFAULT_REPETITIONS;
+
+         inputs = new double[config.numCases][config.numActsInLayers[config.INPUT_LAYER]];
+         baselineInputs = new double[config.numCases][config.numActsInLayers[config.INPUT_LAYER]];
+         outputs = null;
+         baselineOutputs = null;
+         if (config.networkMode == Main.TRAINING)
+         {
+            outputs = new double[config.numCases][config.numActsInLayers[config.OUTPUT_LAYER]];
+            baselineOutputs =
+                  new double[config.numCases][config.numActsInLayers[config.OUTPUT_LAYER]];
+         }
+
+         for (rep = 0; rep < reps; rep++)
+         {
+            loadCurrent(config, inputs, outputs);
+            loadBaseline(config, baselineInputs, baselineOutputs);
+         }
+
+         start = System.nanoTime();
+         for (rep = 0; rep < reps; rep++)
+         {
+            loadCurrent(config, inputs, outputs);
+         }
+         currentMillis = (System.nanoTime() - start) / (Server.NANO_PER_MILLI * (double) reps);
+
+         start = System.nanoTime();
+         for (rep = 0; rep < reps; rep++)
+         {
+            loadBaseline(config, baselineInputs, baselineOutputs);
+         }
+         baselineMillis = (System.nanoTime() - start) / (Server.NANO_PER_MILLI * (double) reps);
+
+         differences = countDifferences(inputs, baselineInputs);
+         if (outputs != null)
+         {
+            differences += countDifferences(outputs, baselineOutputs);
+         }
+
+         System.out.println("Truth table: " + config.truthTableFile + " (" + config.numCases +
+               " cases, " + reps + " loads each)");
+         System.out.println("TableReader loader:     " + currentMillis + " milliseconds per load");
+         System.out.println("BigDecimal loader:      " + baselineMillis + " milliseconds per load");
+         System.out.println("Speedup:                " + baselineMillis / currentMillis);
+         System.out.println("Values that differ:     " + differences);
+      } //try
+      catch (IllegalArgumentException e)
+      {
+         System.out.println(e.getMessage());
+      }
+      catch (IOException e)
+      {
+         System.out.println("Error reading truth table: " + e.getMessage());
+      }
+   } //public static void main(String[] args)
+
+/**
+ * Loads the truth table with TruthTableFileIO.
+ *
+ * @param config  the network configuration
+ * @param inputs  the array to load the inputs into
+ * @param outputs the array to load the outputs into, or null to only load the inputs
+ */
+   public static void loadCurrent(Config config, double[][] inputs, double[][] outputs)
+   {
+      TruthTableFileIO truthTableFileIO;
+
+      truthTableFileIO = new TruthTableFileIO(config.numActsInLayers[config.INPUT_LAYER],
+            config.numActsInLayers[config.OUTPUT_LAYER], config.numCases, config.networkMode,
+            config.truthTableFile);
+      truthTableFileIO.setSnapshots(false);
+
+      if (outputs != null)
+      {
+         truthTableFileIO.loadTruthTable(inputs, outputs);
+      }
+      else
+      {
+         truthTableFileIO.loadTruthTableInputs(inputs);
+      }
+   } //public static void loadCurrent(Config config, double[][] inputs, double[][] outputs)
+
+/**
+ * Loads the truth table the way TruthTableFileIO did before it read through a TableReader. Only
+ * well formed tables are supported, so the checks of the format are left out.
+ *
+ * @param config  the network configuration
+ * @param inputs  the array to load the inputs into
+ * @param outputs the array to load the outputs into, or null to only load the inputs
+ * @throws IOException if the truth table cannot be read
+ */
+   @SuppressWarnings("deprecation")                        //The old loader used readLine on purpose
+   public static void loadBaseline(Config config, double[][] inputs, double[][] outputs)
+         throws IOException
+   {
+      String ln;
+      DataInputStream in;
+
+      in = new DataInputStream(new FileInputStream(config.truthTableFile));
+
+      ln = in.readLine();
+      while (ln.isBlank())
+      {
+         ln = in.readLine();
+      }
+
+      readRows(in, inputs, config.numCases, config.numActsInLayers[config.INPUT_LAYER]);
+      if (outputs != null)
+      {
+         readRows(in, outputs, config.numCases, config.numActsInLayers[config.OUTPUT_LAYER]);
+      }
+
+      in.close();
+   } //public static void loadBaseline(Config config, double[][] inputs, double[][] outputs)
+
+/**
+ * Reads one section of the truth table the way the old loader did.
+ *
+ * @param in        the truth table, positioned at the start of the section
+ * @param rows      the array to load the section into
+ * @param numCases  the number of cases in the section
+ * @param numValues the number of values in each case
+ * @throws IOException if the truth table cannot be read
+ */
+   @SuppressWarnings("deprecation")                        //The old loader used readLine on purpose
+   public static void readRows(DataInputStream in, double[][] rows, int numCases, int numValues)
+         throws IOException
+   {
+      int caseIter;
+      int x;
+      String ln;
+      String[] read;
+
+      caseIter = 0;
+      while (caseIter < numCases)
+      {
+         ln = in.readLine().trim();
+         if (!ln.isBlank())
+         {
+            if (ln.startsWith("?"))
+            {
+               readBaselineFile(ln.substring(1), rows[caseIter]);
+            }
+            else
+            {
+               read = ln.split(" +");
+               for (x = 0; x < numValues; x++)
+               {
+                  rows[caseIter][x] = Util.toDouble(read[x]);
+               }
+            }
+            caseIter++;
+         } //if (!ln.isBlank())
+      } //while (caseIter < numCases)
+   } //public static void readRows(DataInputStream in, double[][] rows, int numCases, ...)
+
+/**
+ * Reads the values of a file referenced in the truth table the way the old loader did.
+ *
+ * @param file the file ending in "txt" or "bin"
+ * @param row  the array to load the values into
+ * @throws IOException if the file cannot be read
+ */
+   public static void readBaselineFile(String file, double[] row) throws IOException
+   {
+      int x;
+      String[] read;
+      BufferedReader reader;
+      DataInputStream in;
+
+      if (file.endsWith("txt"))
+      {
+         reader = new BufferedReader(new FileReader(file));
+         read = reader.readLine().trim().split(" +");
+         reader.close();
+         for (x = 0; x < row.length; x++)
+         {
+            row[x] = Util.toDouble(read[x]);
+         }
+      } //if (file.endsWith("txt"))
+      else
+      {
+         in = new DataInputStream(new FileInputStream(file));
+         for (x = 0; x < row.length; x++)
+         {
+            row[x] = in.readDouble();
+         }
+         in.close();
+      } //if (file.endsWith("txt"))...else
+   } //public static void readBaselineFile(String file, double[] row)
+
+/**
+ * Counts the values of two arrays of the same shape which are not the same bit for bit.
+ *
+ * @param a the first array
+ * @param b the second array
+ * @return the number of values which differ
+ */
+   public static long countDifferences(double[][] a, double[][] b)
+   {
+      int x;
+      int y;
+      long count;
+
+      count = 0L;
+      for (x = 0; x < a.length; x++)
+      {
+         for (y = 0; y < a[x].length; y++)
+         {
+            if (Double.doubleToRawLongBits(a[x][y]) != Double.doubleToRawLongBits(b[x][y]))
+            {
+               count++;
+            }
+         }
+      } //for (x = 0; x < a.length; x++)
+
+      return count;
+   } //public static long countDifferences(double[][] a, double[][] b)
+} //public class TableBenchmark
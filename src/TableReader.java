@@ -0,0 +1,341 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class reads the lines of a truth table, or of a text file referenced by one, and parses the
+ * values on them. The file is read through a byte buffer into one reusable line buffer, and the
+ * values on a line are parsed in place, so reading a table makes no String per line or per value
+ * and uses no regular expressions. Lines end with "\n", "\r\n", or "\r", and values are separated
+ * by whitespace.
+ *
+ * Values are parsed to the same doubles as Util.toDouble, which goes through BigDecimal, and
+ * malformed values are rejected the same way. A value whose digits, read as an integer, are at
+ * most 2^53 and whose power of ten is at most 22 in magnitude is parsed directly: the digits and
+ * the power of ten are both exact doubles, so one multiplication or division gives the correctly
+ * rounded result. Every other value, including anything malformed, is passed to BigDecimal.
+ *
+ * Table of Contents:
+ * 1. TableReader(String fileName)
+ * 2. TableReader(InputStream in)
+ * 3. readLine()
+ * 4. fill()
+ * 5. isBlank()
+ * 6. startsWith(char c)
+ * 7. lineString()
+ * 8. parseValues(double[] values, int max)
+ * 9. parseDouble(byte[] b, int start, int end)
+ * 10. close()
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class TableReader
+{
+   public static final int BUFFER_BYTES = 1 << 16;         //Bytes read from the file at a time
+   public static final long MAX_EXACT = 1L << 53;          //Largest exact run of integer doubles
+   public static final int MAX_EXACT_POW10 = 22;           //Largest power of ten exact as a double
+   public static final int MAX_EXP_DIGITS_VALUE = 100000;  //Exponents past this go to BigDecimal
+
+   private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+         1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+   private final InputStream in;
+   private final byte[] buf;
+   private int pos;                                        //Next unread byte in buf
+   private int limit;                                      //End of the bytes read into buf
+   private byte[] line;                                    //The current line, without its end
+   private int lineLength;
+
+/**
+ * Constructor for the TableReader class. Opens a file for reading.
+ *
+ * @param fileName the file to read
+ * @throws FileNotFoundException if the file cannot be opened
+ */
+   public TableReader(String fileName) throws FileNotFoundException
+   {
+      this(new FileInputStream(fileName));
+   }
+
+/**
+ * Constructor for the TableReader class. Reads from a stream, which is closed by close().
+ *
+ * @param in the stream to read
+ */
+   public TableReader(InputStream in)
+   {
+      this.in = in;
+      buf = new byte[BUFFER_BYTES];
+      line = new byte[256];
+   }
+
+/**
+ * Reads the next line into the line buffer.
+ *
+ * @return false if the end of the file was reached before any line, true otherwise
+ * @throws IOException if the file cannot be read
+ */
+   public boolean readLine() throws IOException
+   {
+      int x;
+      int end;
+      boolean ended;
+
+      lineLength = 0;
+      if (!fill())
+      {
+         return false;
+      }
+
+      ended = false;
+      while (!ended && fill())
+      {
+         end = pos;
+         while (end < limit && buf[end] != '\n' && buf[end] != '\r')
+         {
+            end++;
+         }
+
+         if (lineLength + end - pos > line.length)
+         {
+            line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + end - pos));
+         }
+         System.arraycopy(buf, pos, line, lineLength, end - pos);
+         lineLength += end - pos;
+
+         if (end < limit)
+         {
+            ended = true;
+            x = buf[end];
+            pos = end + 1;
+            if (x == '\r' && fill() && buf[pos] == '\n')
+            {
+               pos++;
+            }
+         }
+         else
+         {
+            pos = limit;
+         }
+      } //while (!ended && fill())
+
+      return true;
+   } //public boolean readLine()
+
+/**
+ * Makes sure the buffer has unread bytes, reading more from the file once it is used up.
+ *
+ * @return false if the end of the file was reached, true otherwise
+ * @throws IOException if the file cannot be read
+ */
+   private boolean fill() throws IOException
+   {
+      if (pos < limit)
+      {
+         return true;
+      }
+
+      pos = 0;
+      limit = Math.max(in.read(buf), 0);
+
+      return limit > 0;
+   } //private boolean fill()
+
+/**
+ * Returns whether the current line holds only whitespace.
+ *
+ * @return true if the line is blank
+ */
+   public boolean isBlank()
+   {
+      int x;
+
+      for (x = 0; x < lineLength; x++)
+      {
+         if ((line[x] & 0xFF) > ' ')
+         {
+            return false;
+         }
+      }
+
+      return true;
+   } //public boolean isBlank()
+
+/**
+ * Returns whether the first character of the current line after any leading whitespace is the
+ * given character.
+ *
+ * @param c the character to check for
+ * @return true if the line starts with c
+ */
+   public boolean startsWith(char c)
+   {
+      int x;
+
+      x = 0;
+      while (x < lineLength && (line[x] & 0xFF) <= ' ')
+      {
+         x++;
+      }
+
+      return x < lineLength && line[x] == c;
+   } //public boolean startsWith(char c)
+
+/**
+ * Returns the current line as a String, without leading and trailing whitespace. Each byte is
+ * one character, the same as DataInputStream.readLine.
+ *
+ * @return the trimmed line
+ */
+   public String lineString()
+   {
+      return new String(line, 0, lineLength, StandardCharsets.ISO_8859_1).trim();
+   }
+
+/**
+ * Parses the values on the current line into the given array, up to max values. Values past max
+ * are counted but not parsed.
+ *
+ * @param values the array to store the values in
+ * @param max    the largest number of values to parse
+ * @return the number of values on the line
+ * @throws NumberFormatException if one of the parsed values is not a valid decimal number
+ */
+   public int parseValues(double[] values, int max) throws NumberFormatException
+   {
+      int x;
+      int start;
+      int count;
+
+      count = 0;
+      x = 0;
+      while (x < lineLength)
+      {
+         while (x < lineLength && (line[x] & 0xFF) <= ' ')
+         {
+            x++;
+         }
+
+         if (x < lineLength)
+         {
+            start = x;
+            while (x < lineLength && (line[x] & 0xFF) > ' ')
+            {
+               x++;
+            }
+
+            if (count < max)
+            {
+               values[count] = parseDouble(line, start, x);
+            }
+            count++;
+         } //if (x < lineLength)
+      } //while (x < lineLength)
+
+      return count;
+   } //public int parseValues(double[] values, int max)
+
+/**
+ * Parses a decimal number, giving the same double as Util.toDouble.
+ *
+ * @param b     the bytes holding the number
+ * @param start the index of the first byte of the number
+ * @param end   the index just past the last byte of the number
+ * @return the parsed number
+ * @throws NumberFormatException if the bytes are not a valid decimal number
+ */
+   public static double parseDouble(byte[] b, int start, int end) throws NumberFormatException
+   {
+      int x;
+      int exp;
+      int expValue;
+      boolean negative;
+      boolean negativeExp;
+      boolean exact;
+      boolean hasDigits;
+      long mantissa;
+      double value;
+
+      x = start;
+      negative = x < end && b[x] == '-';
+      if (x < end && (b[x] == '-' || b[x] == '+'))
+      {
+         x++;
+      }
+
+      mantissa = 0L;
+      exp = 0;
+      exact = true;
+      hasDigits = false;
+      while (exact && x < end && b[x] >= '0' && b[x] <= '9')
+      {
+         mantissa = 10L * mantissa + (b[x] - '0');
+         exact = mantissa <= MAX_EXACT;
+         hasDigits = true;
+         x++;
+      }
+
+      if (exact && x < end && b[x] == '.')
+      {
+         x++;
+         while (exact && x < end && b[x] >= '0' && b[x] <= '9')
+         {
+            mantissa = 10L * mantissa + (b[x] - '0');
+            exact = mantissa <= MAX_EXACT;
+            hasDigits = true;
+            exp--;
+            x++;
+         }
+      } //if (exact && x < end && b[x] == '.')
+
+      if (exact && x < end && (b[x] == 'e' || b[x] == 'E'))
+      {
+         x++;
+         negativeExp = x < end && b[x] == '-';
+         if (x < end && (b[x] == '-' || b[x] == '+'))
+         {
+            x++;
+         }
+
+         expValue = 0;
+         exact &= x < end;
+         while (x < end && b[x] >= '0' && b[x] <= '9' && expValue < MAX_EXP_DIGITS_VALUE)
+         {
+            expValue = 10 * expValue + (b[x] - '0');
+            x++;
+         }
+         exp += negativeExp ? -expValue : expValue;
+      } //if (exact && x < end && (b[x] == 'e' || b[x] == 'E'))
+
+      if (exact && hasDigits && x == end)
+      {
+         if (mantissa == 0L)
+         {
+            return 0.0;                                     //BigDecimal has no negative zero
+         }
+         if (exp >= -MAX_EXACT_POW10 && exp <= MAX_EXACT_POW10)
+         {
+            value = (exp >= 0) ? mantissa * POW10[exp] : mantissa / POW10[-exp];
+            return negative ? -value : value;
+         }
+      } //if (exact && hasDigits && x == end)
+
+      return new BigDecimal(new String(b, start, end - start, StandardCharsets.ISO_8859_1))
+            .doubleValue();
+   } //public static double parseDouble(byte[] b, int start, int end)
+
+/**
+ * Closes the file.
+ *
+ * @throws IOException if the file cannot be closed
+ */
+   public void close() throws IOException
+   {
+      in.close();
+   }
+} //public class TableReader
@@ -1,4 +1,13 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
@@ -17,31 +26,81 @@ import java.util.Arrays;
  * line containing space separated values for each output. The number of values on each line
  * should match the number of outputs specified in the file configuration.
  *
+ * Lines are read and their values parsed by a TableReader, which gives the same values as
+ * Util.toDouble without splitting lines into Strings.
+ *
+ * Every file read while loading, the truth table file followed by each file referenced with '?',
+ * is recorded so that callers caching the loaded table can tell when any of them changes.
+ *
+ * A single case can be loaded without reading the rest of the table. The byte offset of each
+ * case's input line is kept in an index file next to the truth table file, named the truth table
+ * file followed by INDEX_SUFFIX, along with the size and last modified time of the truth table
+ * file it was built from. The index is built by the first single case load, and rebuilt by any
+ * load after the truth table file changes.
+ *
+ * Loading the whole table also keeps a binary snapshot of the loaded arrays next to the truth
+ * table file, named the truth table file followed by SNAPSHOT_SUFFIX. It records the name, size,
+ * and last modified time of every file the table was loaded from, the truth table file and each
+ * file referenced with '?', and is only used while none of them has changed. A later load memory
+ * maps the snapshot and copies the arrays out of it instead of parsing any file. A snapshot of
+ * only the inputs is rebuilt with the outputs the first time they are needed. Snapshots hold the
+ * file names as written in the truth table, and are checked against the files those names give
+ * from the current directory, the same files a load would read. The snapshot format, with every
+ * value big-endian, is:
+ *
+ * 1. The integer SNAPSHOT_MAGIC.
+ * 2. The number of cases, inputs, and outputs, and 1 if the outputs are included or 0 if not.
+ * 3. The number of source files, then for each its name as a length and UTF-8 bytes, its size,
+ *    and its last modified time. Zero bytes follow to align the arrays to eight bytes.
+ * 4. The inputs of each case as doubles, followed by the outputs of each case if included.
+ *
  * Table of Contents:
  * 1. TruthTableFileIO(int numInputs, int numOutputs, int numCases, int networkMode, String
  *                      fileName)
  * 2. loadTruthTableInputs(double[][] truthTableInputs)
- * 3. loadTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
- * 4. readFromFile(double[][] truthTable, int caseIter, String file, int numElements)
- * 5. saveTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
- * 6. formatTableConfig()
- * 7. formatRow(double[] arr, int len)
+ * 3. openInputs()
+ * 4. readInputCases(double[][] truthTableInputs, int count)
+ * 5. closeInputs()
+ * 6. parseInputLine(double[] inputs, int caseNum, TableReader line)
+ * 7. loadTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
+ * 8. readFromFile(double[] values, int caseIter, String file, int numElements)
+ * 9. saveTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
+ * 10. formatTableConfig()
+ * 11. formatRow(double[] arr, int len)
+ * 12. getSourceFiles()
+ * 13. loadTruthTableCase(double[][] truthTableInputs, int caseNum)
+ * 14. loadCaseIndex()
+ * 15. buildCaseIndex()
+ * 16. checkTableConfig(String ln)
+ * 17. setSnapshots(boolean snapshots)
+ * 18. loadSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+ * 19. saveSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+ * 20. putSnapshotRow(double[] row, int len, ByteBuffer buf, FileChannel channel)
+ * 21. writeSnapshotBuffer(ByteBuffer buf, FileChannel channel)
  *
  * Author: Akul Goyal
  * Date of Creation: 03/19/2024
  */
 public class TruthTableFileIO
 {
+   public static final String INDEX_SUFFIX = ".idx";       //Appended to the truth table file name
+   public static final int INDEX_MAGIC = 0x54544931;       //The characters "TTI1"
+   public static final String SNAPSHOT_SUFFIX = ".snap";   //Appended to the truth table file name
+   public static final int SNAPSHOT_MAGIC = 0x54545331;    //The characters "TTS1"
+   public static final int SNAPSHOT_BUFFER_BYTES = 1 << 16;
+
    private int numInputs;
    private int numOutputs;
    private int numTrainingCases;
    private int numConfigParams;
    private int networkMode;
    private int lnNumber;
-   private String ln;
+   private int casesRead;                                  //Input cases read since openInputs
    private DataOutputStream out;
-   private DataInputStream in;
+   private TableReader reader;
    private String fileName;
+   private ArrayList<String> sourceFiles;
+   private boolean snapshots;                              //Whether to load and save snapshots
 
 /**
  * Constructor for the TruthTableFileIO class. Initializes the expected number of inputs,
@@ -63,6 +122,8 @@ public class TruthTableFileIO
       this.networkMode = networkMode;
       this.lnNumber = 0;
       this.numConfigParams = 3;  //Refers to the three integers representing the file configuration
+      this.sourceFiles = new ArrayList<String>();
+      this.snapshots = true;
    } //public TruthTableFileIO(int numInputs, int numOutputs, ...)
 
 /**
@@ -73,17 +134,28 @@ public class TruthTableFileIO
  */
    public void loadTruthTableInputs(double[][] truthTableInputs)
    {
-      int numInRead;
-      int numOutRead;
-      int numCasesRead;
-      int caseIter;
-      int inIter;
-      int blanksFound;
-      String[] read;
+      if (!loadSnapshot(truthTableInputs, null))
+      {
+         openInputs();
+         readInputCases(truthTableInputs, this.numTrainingCases);
+         closeInputs();
+         saveSnapshot(truthTableInputs, null);
+      }
+   } //public void loadTruthTableInputs(double[][] truthTableInputs)
+
+/**
+ * Opens the truth table file and checks its configuration line, leaving the file positioned at
+ * the input line of the first case so that the inputs can be read in chunks by readInputCases.
+ */
+   public void openInputs()
+   {
+      sourceFiles.clear();
+      sourceFiles.add(fileName);
+      casesRead = 0;
 
       try
       {
-         in = new DataInputStream(new FileInputStream(fileName));
+         reader = new TableReader(fileName);
       }
       catch (FileNotFoundException e)
       {
@@ -93,47 +165,20 @@ public class TruthTableFileIO
       try
       {
          lnNumber++;
-         ln = in.readLine();
-
-         if (ln == null)
+         if (!reader.readLine())
          {
             Util.exit("Empty truth table file", fileName);
          }
-         else
-         {
-            while (ln.isBlank())
-            {
-               ln = in.readLine();
-            }
-         } //if (ln == null)...else
 
-         read = ln.split("[-x]");
-
-         if (read.length != this.numConfigParams)
-         {
-            Util.exit("Expected " + this.numConfigParams + " config params. Found " +
-                  read.length, fileName);
-         }
-         else
+         while (reader.isBlank())
          {
-            try
-            {
-               numCasesRead = Util.toInt(read[0]);
-               numInRead = Util.toInt(read[1]);
-               numOutRead = Util.toInt(read[2]);
-               if (numCasesRead != this.numTrainingCases || numInRead != this.numInputs ||
-                     numOutRead != this.numOutputs)
-               {
-                  Util.exit("Network config doesn't match truth table config from file. ",
-                        fileName);
-               }
-            } //try
-            catch (NumberFormatException e)
+            if (!reader.readLine())
             {
-               Util.exit("Incorrectly formatted integer in parsed configuration: " +
-                     Arrays.toString(read), fileName);
+               throw new EOFException();
             }
-         } //if (read.length != this.numConfigParams)...else
+         }
+
+         checkTableConfig(reader.lineString());
       } //try
       catch (EOFException e)
       {
@@ -144,59 +189,102 @@ public class TruthTableFileIO
       {
          Util.exit("Error reading line " + lnNumber, fileName);
       }
+   } //public void openInputs()
 
-      blanksFound = 0;
-      for (caseIter = 0; caseIter - blanksFound < this.numTrainingCases; caseIter++)
+/**
+ * Reads the inputs of the next cases of an opened truth table into the first rows of the provided
+ * array. Reading the table in chunks this way keeps only one chunk of cases in memory.
+ *
+ * @param truthTableInputs the array to store the input values of the cases in.
+ * @param count            the number of cases to read.
+ */
+   public void readInputCases(double[][] truthTableInputs, int count)
+   {
+      int row;
+
+      if (casesRead + count > this.numTrainingCases)
+      {
+         Util.exit("Only " + (this.numTrainingCases - casesRead) + " cases left to read. " +
+               "Requested " + count + ".", fileName);
+      }
+
+      row = 0;
+      while (row < count)
       {
          try
          {
-            ln = in.readLine().trim();
-
-            if (ln == null)
+            if (!reader.readLine())
             {
                Util.exit("Truth table file missing inputs.", fileName);
             }
-            if (ln.isBlank())
-            {
-               blanksFound++;
-               continue;
-            }
-
-            if (ln.startsWith("?"))
+            if (!reader.isBlank())
             {
-               readFromFile(truthTableInputs, caseIter - blanksFound, ln.substring(1), numInputs);
+               parseInputLine(truthTableInputs[row], casesRead, reader);
+               casesRead++;
+               row++;
             }
-            else
-            {
-
-               read = ln.split(" +");
-
-               if (read.length != this.numInputs)
-               {
-                  Util.exit("Expected " + this.numInputs + " truth table inputs on line. " +
-                        "Found " + read.length + ".\nLine: " + Arrays.toString(read), fileName);
-               }
-
-               for (inIter = 0; inIter < this.numInputs; inIter++)
-               {
-                  truthTableInputs[caseIter - blanksFound][inIter] = Util.toDouble(read[inIter]);
-               }
-            } //if (ln.startsWith("?"))...else
          } //try
          catch (EOFException e)
          {
             Util.exit("Reached end of truth table file too early", fileName);
          }
+         catch (IOException e)
+         {
+            Util.exit("Encountered IOException in truth table file", fileName);
+         }
+      } //while (row < count)
+   } //public void readInputCases(double[][] truthTableInputs, int count)
+
+/**
+ * Closes a truth table opened by openInputs whose outputs are not read.
+ */
+   public void closeInputs()
+   {
+      try
+      {
+         reader.close();
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error closing input stream", fileName);
+      }
+   } //public void closeInputs()
+
+/**
+ * Parses the input line of one case, either as space separated values or as a '?' followed by
+ * the file holding the values.
+ *
+ * @param inputs  the array to store the input values of the case in.
+ * @param caseNum the number of the case, for error messages.
+ * @param line    the reader positioned at the input line.
+ */
+   private void parseInputLine(double[] inputs, int caseNum, TableReader line)
+   {
+      int numRead;
+
+      if (line.startsWith('?'))
+      {
+         readFromFile(inputs, caseNum, line.lineString().substring(1), numInputs);
+      }
+      else
+      {
+         numRead = 0;
+         try
+         {
+            numRead = line.parseValues(inputs, this.numInputs);
+         }
          catch (NumberFormatException e)
          {
             Util.exit("Incorrectly formatted input in truth table file", fileName);
          }
-         catch (IOException e)
+
+         if (numRead != this.numInputs)
          {
-            Util.exit("Encountered IOException in truth table file", fileName);
+            Util.exit("Expected " + this.numInputs + " truth table inputs on line. " +
+                  "Found " + numRead + ".\nLine: " + line.lineString(), fileName);
          }
-      } //for (caseIter = 0; caseIter - blanksFound < this.numTrainingCases; caseIter++)
-   } //public void loadTruthTableInputs(double[][] truthTableInputs)
+      } //if (line.startsWith('?'))...else
+   } //private void parseInputLine(double[] inputs, int caseNum, TableReader line)
 
 /**
  * Loads the truth table from a file and stores the input and output values in the provided
@@ -207,62 +295,49 @@ public class TruthTableFileIO
  */
    public void loadTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
    {
-      int blanksFound;
       int caseIter;
-      String[] read;
-      int outIter;
+      int numRead;
 
-      loadTruthTableInputs(truthTableInputs);
+      if (loadSnapshot(truthTableInputs, truthTableOutputs))
+      {
+         return;
+      }
+
+      openInputs();
+      readInputCases(truthTableInputs, this.numTrainingCases);
 
-      blanksFound = 0;
-      for (caseIter = 0; caseIter - blanksFound < this.numTrainingCases; caseIter++)
+      caseIter = 0;
+      while (caseIter < this.numTrainingCases)
       {
          try
          {
-            ln = in.readLine();
-
-            if (ln == null)
+            if (!reader.readLine())
             {
                Util.exit("Truth table file missing outputs.", fileName);
             }
-            if (ln.isBlank())
+            if (reader.isBlank())
             {
-               blanksFound++;
                continue;
             }
 
-            if (ln.startsWith("?"))
+            if (reader.startsWith('?'))
             {
-               readFromFile(truthTableOutputs, caseIter - blanksFound, ln.substring(1), numOutputs);
+               readFromFile(truthTableOutputs[caseIter], caseIter,
+                     reader.lineString().substring(1), numOutputs);
             }
             else
             {
-               read = ln.split(" +");
+               numRead = reader.parseValues(truthTableOutputs[caseIter], this.numOutputs);
 
-               if (read.length != this.numOutputs && networkMode == Main.TRAINING)
+               if (numRead < this.numOutputs ||
+                     (numRead != this.numOutputs && networkMode == Main.TRAINING))
                {
                   Util.exit("Expected " + this.numOutputs + " truth table outputs on line. " +
-                        "Found " + read.length + ".\nLine: " + Arrays.toString(read), fileName);
+                        "Found " + numRead + ".\nLine: " + reader.lineString(), fileName);
                }
-
-               for (outIter = 0; outIter < this.numOutputs; outIter++)
-               {
-                  try
-                  {
-                     truthTableOutputs[caseIter - blanksFound][outIter] = Util.toDouble(
-                           read[outIter]);
-                  }
-                  catch (NumberFormatException e)
-                  {
-                     Util.exit("Incorrectly formatted output in truth table file", fileName);
-                  }
-               } //for (outIter = 0; outIter < this.numOutputs; outIter++)
-            } //if (ln.startsWith("?"))...else
+            } //if (reader.startsWith('?'))...else
+            caseIter++;
          } //try
-         catch (EOFException e)
-         {
-            Util.exit("Reached end of truth table file too early", fileName);
-         }
          catch (NumberFormatException e)
          {
             Util.exit("Incorrectly formatted output in truth table file", fileName);
@@ -271,80 +346,73 @@ public class TruthTableFileIO
          {
             Util.exit("Encountered IOException in truth table file", fileName);
          }
-      } //for (caseIter = 0; caseIter - blanksFound < this.numTrainingCases; caseIter++)
+      } //while (caseIter < this.numTrainingCases)
 
-      try
-      {
-         in.close();
-      }
-      catch (IOException e)
-      {
-         Util.exit("Error closing input stream", fileName);
-      }
+      closeInputs();
+      saveSnapshot(truthTableInputs, truthTableOutputs);
    } //public void loadTruthTable(double[][] truthTableInputs, double[][] truthTableOutputs)
 
 /**
  * Reads eight byte double values from a file and stores them in the provided array. If the
  * file does not adhere to the expected format, the method will throw an exception.
  *
- * @param truthTable  the array to store the values read from the file.
+ * @param values      the array to store the values read from the file.
  * @param caseIter    the index of the case in the truth table.
  * @param file        the file to read the values from.
  * @param numElements the number of elements to read from the file.
  */
-   public void readFromFile(double[][] truthTable, int caseIter, String file, int numElements)
+   public void readFromFile(double[] values, int caseIter, String file, int numElements)
    {
-      String ln;
-      String[] read;
       int iter;
+      int numRead;
+      TableReader fileReader;
+      DataInputStream in;
+
+      sourceFiles.add(file);
 
       try
       {
          if (file.endsWith("txt"))
          {
-            BufferedReader inputReader = new BufferedReader(new FileReader(file));
-            ln = inputReader.readLine();
-            if (ln == null)
+            fileReader = new TableReader(file);
+            if (!fileReader.readLine())
             {
                Util.exit("Empty file when reading from truth table Case #" + caseIter, file);
             }
-            if (ln.isBlank())
+            if (fileReader.isBlank())
             {
                Util.exit("Empty line when reading from truth table Case #" + caseIter, file);
             }
 
-            read = ln.trim().split(" +");
-            if (read.length > numElements)
+            numRead = fileReader.parseValues(values, numElements);
+            fileReader.close();
+            if (numRead > numElements)
             {
-               System.out.println("Found " + read.length + " elements in file \"" + file + "\". " +
+               System.out.println("Found " + numRead + " elements in file \"" + file + "\". " +
                      "Using only the first " + numElements + " elements.");
             }
-            else if (read.length < numElements)
+            else if (numRead < numElements)
             {
-               Util.exit("Found " + read.length + " elements for Case #" + caseIter + ". " +
+               Util.exit("Found " + numRead + " elements for Case #" + caseIter + ". " +
                      "Expected " + numElements + ".", file);
             }
-            for (iter = 0; iter < numElements; iter++)
-            {
-               truthTable[caseIter][iter] = Util.toDouble(read[iter]);
-            }
          } //if (file.endsWith("txt"))
          else if (file.endsWith("bin"))
          {
-            DataInputStream in =
-                  new DataInputStream(new FileInputStream(file));
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
 
             for (iter = 0; iter < numElements; iter++)
             {
                try
                {
-                  truthTable[caseIter][iter] = in.readDouble();
+                  values[iter] = in.readDouble();
                }
                catch (EOFException e)
                {
                   Util.exit("Missing byte values when reading truth table Case #" + caseIter, file);
                }
             } //for (iter = 0; iter < numElements; iter++)
+            in.close();
          } //if (file.endsWith("txt"))...else if (file.endsWith("bin"))
 
       } //try
@@ -356,7 +424,7 @@ public class TruthTableFileIO
       {
          Util.exit("Error opening file in truth table case #" + caseIter, file);
       }
-   } //public void readFromFile(double[][] truthTable, int caseIter, String file, int numElements)
+   } //public void readFromFile(double[] values, int caseIter, String file, int numElements)
 
 /**
  * Saves the truth table to a file in a format compatible with the loadTruthTable and
@@ -471,4 +539,465 @@ public class TruthTableFileIO
 
       return res.toString();
    } //public String formatRow(double[] arr, int len)
+
+/**
+ * Returns the files read by the last load, starting with the truth table file itself and
+ * followed by each file referenced with '?', in the order they were read.
+ *
+ * @return the files read by the last load
+ */
+   public ArrayList<String> getSourceFiles()
+   {
+      return sourceFiles;
+   }
+
+/**
+ * Loads the inputs of a single case into the provided array, reading only that case's line of the
+ * truth table and the file it references, if any. The line is found through the case index kept
+ * next to the truth table file, which is built on the first load and rebuilt whenever the truth
+ * table file changes. Only the row of the given case needs to be allocated.
+ *
+ * @param truthTableInputs the array to store the input values of the case in.
+ * @param caseNum          the case to load.
+ */
+   public void loadTruthTableCase(double[][] truthTableInputs, int caseNum)
+   {
+      byte[] bytes;
+      long[] offsets;
+      RandomAccessFile file;
+      TableReader line;
+
+      sourceFiles.clear();
+      sourceFiles.add(fileName);
+
+      offsets = loadCaseIndex();
+
+      try
+      {
+         file = new RandomAccessFile(fileName, "r");
+         bytes = new byte[(int) (offsets[caseNum + 1] - offsets[caseNum])];
+         file.seek(offsets[caseNum]);
+         file.readFully(bytes);
+         file.close();
+         line = new TableReader(new ByteArrayInputStream(bytes));
+         line.readLine();
+         parseInputLine(truthTableInputs[caseNum], caseNum, line);
+      } //try
+      catch (IOException e)
+      {
+         Util.exit("Error reading truth table case " + caseNum, fileName);
+      }
+   } //public void loadTruthTableCase(double[][] truthTableInputs, int caseNum)
+
+/**
+ * Returns the byte offset of the input line of each case in the truth table file, followed by
+ * the offset just past the last input line. The offsets are read from the index file, named the
+ * truth table file followed by INDEX_SUFFIX, if it was built from the truth table file as it is
+ * now. Otherwise they are found by scanning the truth table file and saved to the index file.
+ *
+ * @return the offsets of the input lines, with one more entry than there are cases.
+ */
+   public long[] loadCaseIndex()
+   {
+      int caseIter;
+      long[] offsets;
+      File table;
+      String indexFile;
+      DataInputStream indexIn;
+      DataOutputStream indexOut;
+
+      table = new File(fileName);
+      indexFile = fileName + INDEX_SUFFIX;
+      offsets = null;
+
+      try
+      {
+         indexIn = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+         if (indexIn.readInt() == INDEX_MAGIC && indexIn.readLong() == table.length() &&
+               indexIn.readLong() == table.lastModified() &&
+               indexIn.readInt() == this.numTrainingCases)
+         {
+            offsets = new long[this.numTrainingCases + 1];
+            for (caseIter = 0; caseIter <= this.numTrainingCases; caseIter++)
+            {
+               offsets[caseIter] = indexIn.readLong();
+            }
+         }
+         indexIn.close();
+      } //try
+      catch (IOException e)
+      {
+         offsets = null;                  //A missing or truncated index is rebuilt
+      }
+
+      if (offsets == null)
+      {
+         offsets = buildCaseIndex();
+
+         try
+         {
+            indexOut = new DataOutputStream(new BufferedOutputStream(
+                  new FileOutputStream(indexFile)));
+            indexOut.writeInt(INDEX_MAGIC);
+            indexOut.writeLong(table.length());
+            indexOut.writeLong(table.lastModified());
+            indexOut.writeInt(this.numTrainingCases);
+            for (caseIter = 0; caseIter <= this.numTrainingCases; caseIter++)
+            {
+               indexOut.writeLong(offsets[caseIter]);
+            }
+            indexOut.close();
+         } //try
+         catch (IOException e)
+         {
+            System.out.println("Could not save truth table index: " + indexFile);
+         }
+      } //if (offsets == null)
+
+      return offsets;
+   } //public long[] loadCaseIndex()
+
+/**
+ * Scans the truth table file for the byte offset of each case's input line, checking the table
+ * configuration on the way. Blank lines are skipped, the same as when loading the whole table.
+ *
+ * @return the offsets of the input lines, followed by the offset just past the last input line.
+ */
+   private long[] buildCaseIndex()
+   {
+      int b;
+      int caseIter;
+      long pos;
+      long lnStart;
+      boolean blank;
+      long[] offsets;
+      StringBuilder config;
+      BufferedInputStream scan;
+
+      offsets = new long[this.numTrainingCases + 1];
+      config = new StringBuilder();
+      caseIter = -1;            //The configuration line comes before the first case
+      pos = 0;
+      lnStart = 0;
+      blank = true;
+
+      try
+      {
+         scan = new BufferedInputStream(new FileInputStream(fileName));
+         while (caseIter < this.numTrainingCases && (b = scan.read()) != -1)
+         {
+            pos++;
+            if (b == '\n')
+            {
+               if (!blank)
+               {
+                  if (caseIter < 0)
+                  {
+                     checkTableConfig(config.toString().trim());
+                  }
+                  else
+                  {
+                     offsets[caseIter] = lnStart;
+                  }
+                  caseIter++;
+               } //if (!blank)
+               lnStart = pos;
+               blank = true;
+            } //if (b == '\n')
+            else
+            {
+               blank &= b <= ' ';
+               if (caseIter < 0)
+               {
+                  config.append((char) b);
+               }
+            } //if (b == '\n')...else
+         } //while (caseIter < this.numTrainingCases && (b = scan.read()) != -1)
+         scan.close();
+      } //try
+      catch (FileNotFoundException e)
+      {
+         Util.exit("Failed to open truth table file", fileName);
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error indexing truth table file", fileName);
+      }
+
+      if (caseIter < this.numTrainingCases && !blank)          //Last line has no terminator
+      {
+         if (caseIter < 0)
+         {
+            checkTableConfig(config.toString().trim());
+         }
+         else
+         {
+            offsets[caseIter] = lnStart;
+         }
+         caseIter++;
+      } //if (caseIter < this.numTrainingCases && !blank)
+
+      if (caseIter < 0)
+      {
+         Util.exit("Empty truth table file", fileName);
+      }
+      if (caseIter < this.numTrainingCases)
+      {
+         Util.exit("Truth table file missing inputs.", fileName);
+      }
+      offsets[this.numTrainingCases] = pos;
+
+      return offsets;
+   } //private long[] buildCaseIndex()
+
+/**
+ * Checks that the configuration line of the truth table matches the expected number of cases,
+ * inputs, and outputs.
+ *
+ * @param ln the configuration line of the truth table.
+ */
+   private void checkTableConfig(String ln)
+   {
+      int numInRead;
+      int numOutRead;
+      int numCasesRead;
+      String[] read;
+
+      read = ln.split("[-x]");
+
+      if (read.length != this.numConfigParams)
+      {
+         Util.exit("Expected " + this.numConfigParams + " config params. Found " +
+               read.length, fileName);
+      }
+      else
+      {
+         try
+         {
+            numCasesRead = Util.toInt(read[0]);
+            numInRead = Util.toInt(read[1]);
+            numOutRead = Util.toInt(read[2]);
+            if (numCasesRead != this.numTrainingCases || numInRead != this.numInputs ||
+                  numOutRead != this.numOutputs)
+            {
+               Util.exit("Network config doesn't match truth table config from file. ",
+                     fileName);
+            }
+         } //try
+         catch (NumberFormatException e)
+         {
+            Util.exit("Incorrectly formatted integer in parsed configuration: " +
+                  Arrays.toString(read), fileName);
+         }
+      } //if (read.length != this.numConfigParams)...else
+   } //private void checkTableConfig(String ln)
+
+/**
+ * Sets whether whole table loads use and keep snapshots. They do by default.
+ *
+ * @param snapshots true to use snapshots, false to always parse the truth table.
+ */
+   public void setSnapshots(boolean snapshots)
+   {
+      this.snapshots = snapshots;
+   }
+
+/**
+ * Loads the truth table from its snapshot, if snapshots are enabled and the snapshot matches the
+ * table's configuration, holds the outputs if they are requested, and was built from the files
+ * as they are now.
+ *
+ * @param truthTableInputs  the array to store the input values of the truth table.
+ * @param truthTableOutputs the array to store the output values of the truth table, or null if
+ *                          they are not needed.
+ * @return true if the arrays were loaded from the snapshot, false if the table must be parsed.
+ */
+   private boolean loadSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+   {
+      int x;
+      int caseIter;
+      int numFiles;
+      boolean current;
+      byte[] name;
+      File file;
+      File snapshot;
+      ArrayList<String> files;
+      MappedByteBuffer buf;
+      DoubleBuffer values;
+      RandomAccessFile mapped;
+
+      snapshot = new File(fileName + SNAPSHOT_SUFFIX);
+      if (!snapshots || !snapshot.isFile() || snapshot.length() > Integer.MAX_VALUE)
+      {
+         return false;
+      }
+
+      try
+      {
+         mapped = new RandomAccessFile(snapshot, "r");
+         buf = mapped.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, mapped.length());
+         mapped.close();
+
+         current = buf.getInt() == SNAPSHOT_MAGIC && buf.getInt() == this.numTrainingCases &&
+               buf.getInt() == this.numInputs && buf.getInt() == this.numOutputs &&
+               (buf.getInt() == 1 || truthTableOutputs == null);
+
+         files = new ArrayList<String>();
+         numFiles = current ? buf.getInt() : 0;
+         for (x = 0; x < numFiles && current; x++)
+         {
+            name = new byte[buf.getInt()];
+            buf.get(name);
+            files.add(new String(name, StandardCharsets.UTF_8));
+
+            file = new File(files.get(x));
+            current = file.length() == buf.getLong() && file.lastModified() == buf.getLong();
+         } //for (x = 0; x < numFiles && current; x++)
+
+         if (!current)
+         {
+            return false;
+         }
+
+         buf.position((buf.position() + Double.BYTES - 1) / Double.BYTES * Double.BYTES);
+         values = buf.slice().asDoubleBuffer();
+         for (caseIter = 0; caseIter < this.numTrainingCases; caseIter++)
+         {
+            values.get(truthTableInputs[caseIter], 0, this.numInputs);
+         }
+         for (caseIter = 0; caseIter < this.numTrainingCases && truthTableOutputs != null;
+              caseIter++)
+         {
+            values.get(truthTableOutputs[caseIter], 0, this.numOutputs);
+         }
+
+         sourceFiles = files;
+      } //try
+      catch (IOException | RuntimeException e)
+      {
+         return false;                                      //An unreadable snapshot is rebuilt
+      }
+
+      return true;
+   } //private boolean loadSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+
+/**
+ * Saves a snapshot of the loaded truth table, stamped with the files it was loaded from. The
+ * snapshot is written to a temporary file which then replaces the old snapshot, so a load never
+ * maps a partly written snapshot. A snapshot which cannot be written is reported and skipped.
+ *
+ * @param truthTableInputs  the input values of the truth table.
+ * @param truthTableOutputs the output values of the truth table, or null if they were not loaded.
+ */
+   private void saveSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+   {
+      int x;
+      int caseIter;
+      byte[] name;
+      File file;
+      File temp;
+      ByteBuffer buf;
+      FileChannel channel;
+
+      if (!snapshots || (long) Double.BYTES * this.numTrainingCases *
+            (this.numInputs + this.numOutputs) > Integer.MAX_VALUE - SNAPSHOT_BUFFER_BYTES)
+      {
+         return;                                            //Too large to memory map at once
+      }
+
+      temp = new File(fileName + SNAPSHOT_SUFFIX + ".tmp");
+      buf = ByteBuffer.allocate(SNAPSHOT_BUFFER_BYTES);
+
+      try
+      {
+         channel = new FileOutputStream(temp).getChannel();
+
+         buf.putInt(SNAPSHOT_MAGIC);
+         buf.putInt(this.numTrainingCases);
+         buf.putInt(this.numInputs);
+         buf.putInt(this.numOutputs);
+         buf.putInt((truthTableOutputs != null) ? 1 : 0);
+         buf.putInt(sourceFiles.size());
+         for (x = 0; x < sourceFiles.size(); x++)
+         {
+            name = sourceFiles.get(x).getBytes(StandardCharsets.UTF_8);
+            file = new File(sourceFiles.get(x));
+            if (buf.remaining() < Integer.BYTES + name.length + 2 * Long.BYTES)
+            {
+               writeSnapshotBuffer(buf, channel);
+            }
+            buf.putInt(name.length);
+            buf.put(name);
+            buf.putLong(file.length());
+            buf.putLong(file.lastModified());
+         } //for (x = 0; x < sourceFiles.size(); x++)
+
+         while ((channel.position() + buf.position()) % Double.BYTES != 0)
+         {
+            buf.put((byte) 0);
+         }
+
+         for (caseIter = 0; caseIter < this.numTrainingCases; caseIter++)
+         {
+            putSnapshotRow(truthTableInputs[caseIter], this.numInputs, buf, channel);
+         }
+         for (caseIter = 0; caseIter < this.numTrainingCases && truthTableOutputs != null;
+              caseIter++)
+         {
+            putSnapshotRow(truthTableOutputs[caseIter], this.numOutputs, buf, channel);
+         }
+
+         writeSnapshotBuffer(buf, channel);
+         channel.close();
+
+         Files.move(temp.toPath(), Paths.get(fileName + SNAPSHOT_SUFFIX),
+               StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } //try
+      catch (IOException e)
+      {
+         System.out.println("Could not save truth table snapshot: " + fileName + SNAPSHOT_SUFFIX);
+         temp.delete();
+      }
+   } //private void saveSnapshot(double[][] truthTableInputs, double[][] truthTableOutputs)
+
+/**
+ * Puts one row of a snapshot into the snapshot buffer, writing the buffer out whenever it fills.
+ *
+ * @param row     the values of the row.
+ * @param len     the number of values in the row.
+ * @param buf     the snapshot buffer.
+ * @param channel the channel of the snapshot file.
+ * @throws IOException if the snapshot cannot be written.
+ */
+   private void putSnapshotRow(double[] row, int len, ByteBuffer buf, FileChannel channel)
+         throws IOException
+   {
+      int x;
+
+      for (x = 0; x < len; x++)
+      {
+         if (buf.remaining() < Double.BYTES)
+         {
+            writeSnapshotBuffer(buf, channel);
+         }
+         buf.putDouble(row[x]);
+      }
+   } //private void putSnapshotRow(double[] row, int len, ByteBuffer buf, FileChannel channel)
+
+/**
+ * Writes the contents of the snapshot buffer to the snapshot file and clears the buffer.
+ *
+ * @param buf     the snapshot buffer.
+ * @param channel the channel of the snapshot file.
+ * @throws IOException if the snapshot cannot be written.
+ */
+   private void writeSnapshotBuffer(ByteBuffer buf, FileChannel channel) throws IOException
+   {
+      buf.flip();
+      while (buf.hasRemaining())
+      {
+         channel.write(buf);
+      }
+      buf.clear();
+   } //private void writeSnapshotBuffer(ByteBuffer buf, FileChannel channel)
 } //public class TruthTableFileIO
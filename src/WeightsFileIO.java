@@ -9,16 +9,25 @@ import java.util.Arrays;
  * The first three integers are the number of input, hidden, and output activations, respectively.
  * The remaining data are the kjWeights and the jiWeights weights written in row major order.
  *
+ * Pruned weights may instead be saved in a sparse format, which starts with the SPARSE_MAGIC
+ * integer followed by the number of activations in each layer. Then, for each weight layer, it
+ * stores the number of non-zero weights, the row starts, the column indices, and the values of
+ * a SparseWeights object, in that order.
+ *
  * Table of Contents:
  * 1. WeightsFileIO(int[] numActsInLayers, String fileName)
  * 2. void saveWeights(double[][][] w)
  * 3. void loadWeights(double[][][] w)
+ * 4. void saveSparseWeights(SparseWeights sparse)
+ * 5. SparseWeights loadSparseWeights()
  *
  * Author: Akul Goyal
  * Date of Creation: 03/19/2024
  */
 public class WeightsFileIO
 {
+   public static final int SPARSE_MAGIC = 0x43535231;   //The characters "CSR1"
+
    private Config config;
    private int[] numActsInLayers;
    private DataOutputStream out;
@@ -173,4 +182,173 @@ public class WeightsFileIO
          Util.exit("Error closing input stream", fileName);
       }
    } //public void loadWeights(double[][][] w)
+
+   /**
+    * Method to save CSR weights to the binary file in the sparse format, which is compatible with
+    * the loadSparseWeights method.
+    *
+    * @param sparse the CSR weights to save
+    */
+   public void saveSparseWeights(SparseWeights sparse)
+   {
+      int n;
+      int x;
+
+      ByteArrayOutputStream b = new ByteArrayOutputStream();
+      out = new DataOutputStream(b);
+      DataOutputStream out1 = null;
+
+      try
+      {
+         out1 = new DataOutputStream(new FileOutputStream(fileName));
+      }
+      catch (FileNotFoundException e)
+      {
+         Util.exit("Failed to write to weights file", fileName);
+      }
+
+      try
+      {
+         out.writeInt(SPARSE_MAGIC);
+         for (n = config.INPUT_LAYER; n <= config.OUTPUT_LAYER; n++)
+         {
+            out.writeInt(numActsInLayers[n]);
+         }
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error writing network configuration", fileName);
+      }
+
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         try
+         {
+            out.writeInt(sparse.values[n].length);
+            for (x = 0; x <= numActsInLayers[n + 1]; x++)
+            {
+               out.writeInt(sparse.rowStart[n][x]);
+            }
+            for (x = 0; x < sparse.colIndex[n].length; x++)
+            {
+               out.writeInt(sparse.colIndex[n][x]);
+            }
+            for (x = 0; x < sparse.values[n].length; x++)
+            {
+               out.writeDouble(sparse.values[n][x]);
+            }
+         } //try
+         catch (IOException e)
+         {
+            Util.exit("Error writing sparse weights of layer " + n, fileName);
+         }
+      } //for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+
+      try
+      {
+         byte[] bArr = b.toByteArray();
+         out.close();
+         b.close();
+         out1.write(bArr);
+         out1.close();
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error closing output stream", fileName);
+      }
+   } //public void saveSparseWeights(SparseWeights sparse)
+
+   /**
+    * Method to load CSR weights from a binary file in the sparse format. The number of activations
+    * in each layer must match the network configuration.
+    *
+    * @return the CSR weights read from the file
+    */
+   public SparseWeights loadSparseWeights()
+   {
+      int[] layersRead;
+      int n;
+      int x;
+      int nonZero;
+      SparseWeights sparse;
+
+      sparse = new SparseWeights(numActsInLayers);
+
+      try
+      {
+         in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+      }
+      catch (FileNotFoundException e)
+      {
+         Util.exit("Failed to open weights file", fileName);
+      }
+
+      try
+      {
+         if (in.readInt() != SPARSE_MAGIC)
+         {
+            Util.exit("Weights file is not in the sparse format", fileName);
+         }
+
+         layersRead = new int[config.numActLayers];
+         for (n = config.INPUT_LAYER; n <= config.OUTPUT_LAYER; n++)
+         {
+            layersRead[n] = in.readInt();
+         }
+         if (!Arrays.equals(layersRead, numActsInLayers))
+         {
+            Util.exit("Network config doesn't match weights config from file", fileName);
+         }
+      } //try
+      catch (IOException e)
+      {
+         Util.exit("Error reading config", fileName);
+      }
+
+      for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+      {
+         try
+         {
+            nonZero = in.readInt();
+            for (x = 0; x <= numActsInLayers[n + 1]; x++)
+            {
+               sparse.rowStart[n][x] = in.readInt();
+            }
+            if (sparse.rowStart[n][numActsInLayers[n + 1]] != nonZero)
+            {
+               Util.exit("Sparse weight row starts don't match count in layer " + n, fileName);
+            }
+
+            sparse.colIndex[n] = new int[nonZero];
+            sparse.values[n] = new double[nonZero];
+            for (x = 0; x < nonZero; x++)
+            {
+               sparse.colIndex[n][x] = in.readInt();
+               if (sparse.colIndex[n][x] < 0 || sparse.colIndex[n][x] >= numActsInLayers[n])
+               {
+                  Util.exit("Sparse weight column out of range in layer " + n, fileName);
+               }
+            }
+            for (x = 0; x < nonZero; x++)
+            {
+               sparse.values[n][x] = in.readDouble();
+            }
+         } //try
+         catch (IOException e)
+         {
+            Util.exit("Error reading sparse weights of layer " + n, fileName);
+         }
+      } //for (n = config.INPUT_LAYER; n <= config.LAST_HIDDEN_LAYER; n++)
+
+      try
+      {
+         in.close();
+      }
+      catch (IOException e)
+      {
+         Util.exit("Error closing input stream", fileName);
+      }
+
+      return sparse;
+   } //public SparseWeights loadSparseWeights()
 } //public class WeightsFileIO
@@ -7,7 +7,8 @@ package activationFunctions;
  * 1. Function(boolean bounded)
  * 2. f(double x)
  * 3. fPrime(double x)
- * 4. toString()
+ * 4. producesZeros()
+ * 5. toString()
  *
  * Author: Akul Goyal
  * Date of Creation: 04/14/2024
@@ -36,6 +37,16 @@ public abstract class Function
  */
    public abstract double fPrime(double x);
 
+/**
+ * Returns whether the function maps a range of inputs to exactly zero, so that a layer using it
+ * may have many zero activations. Defaults to false.
+ * @return true if the function produces zeros over a range of inputs
+ */
+   public boolean producesZeros()
+   {
+      return false;
+   }
+
 /**
  * Returns the name of the function.
  */
@@ -14,8 +14,9 @@ package activationFunctions;
  * 1. LeakyReLU(double a)
  * 2. f(double x)
  * 3. fPrime(double x)
- * 4. toString()
- * 5. getA()
+ * 4. producesZeros()
+ * 5. toString()
+ * 6. getA()
  *
  * Author: Akul Goyal
  * Date of Creation: 4/14/2024
@@ -54,6 +55,15 @@ public class LeakyReLU extends Function
       return (x <= 0.0) ? a : 1.0;
    }
 
+/**
+ * Returns whether the function produces zeros, which is the case for all x <= 0 when a is 0.
+ * @return true if the slope is 0
+ */
+   public boolean producesZeros()
+   {
+      return a == 0.0;
+   }
+
 /**
  * Returns the name and configuration of the function.
  */
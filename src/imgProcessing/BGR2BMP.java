@@ -17,36 +17,43 @@ package imgProcessing;
  *
  * If five arguments are not passed, then a usage message is presented to the user.
  *
+ * The conversion can also be called directly through convert() or encode(), which build the whole
+ * BMP in one buffer and write it with one channel write. They keep no state between calls, so
+ * several threads may convert images at once, as bin2bmpAll does.
+ *
  */
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class BGR2BMP
 {
+   public static final int HEADER_BYTES = 54;   // BITMAPFILEHEADER and BITMAPINFOHEADER
+   public static final int BYTES_PER_PEL = 4;   // 32-bit RGB_Quad, so every row is already a multiple of 4 bytes
+   public static final int GRAY_INPUT_BYTES = 8;  // $ Each gray scale input pel is a double from 0 to 1
+   public static final int COLOR_INPUT_BYTES = 3; // Blue, green and red
+
    /*
-    * Methods to go between little and big endian integer formats since BMP files are little-endian Intel standard (Low-High) while Java is big-endian Motorola (High-Low)
+    * Returns the number of whole pels held in the remaining bytes of the input, up to width * height.
     */
-   public int swapInt(int v)
-   {
-      return ((v >>> 24) | (v << 24) | ((v << 8) & 0x00FF0000) | ((v >> 8) & 0x0000FF00));
-   }
-
-   public int swapShort(int v)
+   public static int pelsIn(boolean colorImage, int width, int height, ByteBuffer in)
    {
-      return (((v << 8) & 0xFF00) | ((v >> 8) & 0x00FF));
+      return (int)Math.min((long)width * height, in.remaining() / (colorImage ? COLOR_INPUT_BYTES : GRAY_INPUT_BYTES));
    }
 
    /*
-    *
-    * ---- MAIN ----
-    *
+    * Builds a whole 32-bit BMP file from the remaining bytes of the input, which is not moved.
+    * If the input holds fewer than width * height pels, only the pels it holds are written after the header.
+    * Returns the file, ready to be written.
     */
-   public static void main(String[] args)
+   public static ByteBuffer encode(boolean colorImage, int width, int height, ByteBuffer in)
    {
-      int pelCount = 0;
-      boolean colorImage, EOF;
+      int iPel, pelCount, source;
       byte byteVal;
-      int width, height;
-      String inFileName, outFileName;
       /*
        ** Bytes that represent a single 32-bit pel
        */
@@ -54,30 +61,130 @@ public class BGR2BMP
       byte rgbQuad_rgbGreen;
       byte rgbQuad_rgbRed;
       byte rgbQuad_rgbReserved = 0;
+      ByteBuffer out;
+
+      pelCount = pelsIn(colorImage, width, height, in);
+      out = ByteBuffer.allocate(HEADER_BYTES + pelCount * BYTES_PER_PEL).order(ByteOrder.LITTLE_ENDIAN); // BMP files are little-endian
+
       /*
-       **  BITMAPFILEHEADER
+       ** BITMAPFILEHEADER
+       **
+       ** bfType - Specifies the file type. It must be set to the signature word BM (0x4D42) to indicate bitmap.
+       ** bfSize - Specifies the size, in bytes, of the bitmap file.
+       ** bfReserved1 - Reserved; set to zero
+       ** bfReserved2 - Reserved; set to zero
+       ** bfOffBits - Specifies the offset, in bytes, from the BITMAPFILEHEADER structure to the bitmap bits
        */
-      int bmpFileHeader_bfType;          // WORD
-      int bmpFileHeader_bfSize;          // DWORD
-      int bmpFileHeader_bfReserved1;     // WORD
-      int bmpFileHeader_bfReserved2;     // WORD
-      int bmpFileHeader_bfOffBits;       // DWORD
+      out.putShort((short)0x4D42);                           // WORD bfType - the letters BM
+      out.putInt(width * height * BYTES_PER_PEL + HEADER_BYTES); // DWORD bfSize - 4 bytes per pel
+      out.putShort((short)0);                                // WORD bfReserved1
+      out.putShort((short)0);                                // WORD bfReserved2
+      out.putInt(HEADER_BYTES);                              // DWORD bfOffBits - determined by reading files created by DibDumop
+
       /*
        ** BITMAPINFOHEADER
+       **
+       ** biSize        - Specifies the size of the structure, in bytes. This size does not include the color table or the masks mentioned in the biClrUsed member.
+       **                 See the Remarks section for more information.
+       ** biWidth       - Specifies the width of the bitmap, in pels.
+       ** biHeight      - Specifies the height of the bitmap, in pels.
+       **                 If biHeight is positive, the bitmap is a bottom-up DIB and its origin is the lower left corner.
+       **                 If biHeight is negative, the bitmap is a top-down DIB and its origin is the upper left corner.
+       **                 If biHeight is negative, indicating a top-down DIB, biCompression must be either BI_RGB or BI_BITFIELDS. Top-down DIBs cannot be compressed.
+       ** biPlanes      - Specifies the number of planes for the target device. This value must be set to 1.
+       ** biBitCount    - Specifies the number of bits per pixel (32 in this cse)
+       ** biCompression - Specifies the type of compression for a compressed bottom-up bitmap (top-down DIBs cannot be compressed). It is 0 in our case.
+       ** biSizeImage   -  Specifies the size, in bytes, of the image. This value will be the number of bytes in each scan line which must be padded to
+       **                  ensure the line is a multiple of 4 bytes (it must align on a DWORD boundary) times the number of rows.
+       **                  This value may be set to zero for BI_RGB bitmaps (so you cannot be sure it will be set).
+       ** biXPelsPerMeter - Specifies the horizontal resolution, in pixels per meter, of the target device for the bitmap.
+       ** biYPelsPerMeter - Specifies the vertical resolution, in pixels per meter, of the target device for the bitmap
+       ** biClrUsed       - Specifies the number of color indexes in the color table that are actually used by the bitmap.
+       **                   If this value is zero, the bitmap uses the maximum number of colors corresponding to the value of the biBitCount member for the compression mode specified by biCompression.
+       ** biClrImportant  - Specifies the number of color indexes required for displaying the bitmap. If this value is zero, all colors are required.
+       */
+      out.putInt(40);                                        // DWORD biSize
+      out.putInt(width);                                     // LONG biWidth
+      out.putInt(height);                                    // LONG biHeight
+      out.putShort((short)1);                                // WORD biPlanes
+      out.putShort((short)32);                               // WORD biBitCount
+      out.putInt(0);                                         // DWORD biCompression
+      out.putInt(width * height * BYTES_PER_PEL);            // DWORD biSizeImage - We are going to write out a 32-bit image
+      out.putInt(0);                                         // LONG biXPelsPerMeter
+      out.putInt(0);                                         // LONG biYPelsPerMeter
+      out.putInt(0);                                         // DWORD biClrUsed - creating a true color image
+      out.putInt(0);                                         // DWORD biClrImportant - creating a true color image
+
+      /*
+       ** Read in 1 or 3 byte values and then write them our as an RGB_Quad value for a 32-bit BMP image which are in the order Blue-Green-Red-Zero.
+       ** The input is big-endian, like the DataOutputStream that wrote it.
        */
-      int bmpInfoHeader_biSize;          // DWORD
-      int bmpInfoHeader_biWidth;         // LONG
-      int bmpInfoHeader_biHeight;        // LONG
-      int bmpInfoHeader_biPlanes;        // WORD
-      int bmpInfoHeader_biBitCount;      // WORD
-      int bmpInfoHeader_biCompression;   // DWORD
-      int bmpInfoHeader_biSizeImage;     // DWORD
-      int bmpInfoHeader_biXPelsPerMeter; // LONG
-      int bmpInfoHeader_biYPelsPerMeter; // LONG
-      int bmpInfoHeader_biClrUsed;       // DWORD
-      int bmpInfoHeader_biClrImportant;  // DWORD
-
-      BGR2BMP dibdumper = new BGR2BMP(); // needed to get to the byte swapping methods
+      source = in.position();
+      for (iPel = 0; iPel < pelCount; ++iPel)
+      {
+         if (colorImage)
+         {
+            rgbQuad_rgbBlue  = in.get(source);
+            rgbQuad_rgbGreen = in.get(source + 1);
+            rgbQuad_rgbRed   = in.get(source + 2);
+            source += COLOR_INPUT_BYTES;
+         }
+         else
+         {
+            byteVal = (byte) (in.getDouble(source) * 255);    // $$$
+            rgbQuad_rgbBlue  = byteVal;
+            rgbQuad_rgbGreen = byteVal;
+            rgbQuad_rgbRed   = byteVal;
+            source += GRAY_INPUT_BYTES;
+         }
+
+         out.put(rgbQuad_rgbBlue);
+         out.put(rgbQuad_rgbGreen);
+         out.put(rgbQuad_rgbRed);
+         out.put(rgbQuad_rgbReserved); // The reserved value is zero
+      } // for (iPel = 0; iPel < pelCount; ++iPel)
+
+      out.flip();
+      return out;
+   } // public static ByteBuffer encode(boolean colorImage, int width, int height, ByteBuffer in)
+
+   /*
+    * Reads the input byte file and writes it out as a BMP file, in one write.
+    * Returns the number of pels read, which is less than width * height if the input was short.
+    */
+   public static int convert(boolean colorImage, int width, int height, String inFileName, String outFileName) throws IOException
+   {
+      ByteBuffer in, bmp;
+      FileChannel channel;
+
+      in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(inFileName)));
+      bmp = encode(colorImage, width, height, in);
+
+      channel = FileChannel.open(Paths.get(outFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                 StandardOpenOption.TRUNCATE_EXISTING);
+      try
+      {
+         while (bmp.hasRemaining()) channel.write(bmp); // A file channel normally writes it all at once
+      }
+      finally
+      {
+         channel.close();
+      }
+
+      return pelsIn(colorImage, width, height, in);
+   } // public static int convert(boolean colorImage, int width, int height, String inFileName, String outFileName)
+
+   /*
+    *
+    * ---- MAIN ----
+    *
+    */
+   public static void main(String[] args)
+   {
+      int pelCount;
+      boolean colorImage;
+      int width, height;
+      String inFileName, outFileName;
 
       /*
        ** args[0] - color or gray, default is gray
@@ -105,143 +212,16 @@ public class BGR2BMP
 
          System.out.printf("file '%s' (width = %d, height = %d) and writing out '%s'.\n", inFileName, width, height, outFileName);
 
-         /*
-          ** BITMAPFILEHEADER
-          **
-          ** bfType - Specifies the file type. It must be set to the signature word BM (0x4D42) to indicate bitmap.
-          ** bfSize - Specifies the size, in bytes, of the bitmap file.
-          ** bfReserved1 - Reserved; set to zero
-          ** bfReserved2 - Reserved; set to zero
-          ** bfOffBits - Specifies the offset, in bytes, from the BITMAPFILEHEADER structure to the bitmap bits
-          */
-         bmpFileHeader_bfType      = 0x424D;                                       // WORD - un-swapped it is the letters BM (0x4D42), but this is Java
-         bmpFileHeader_bfOffBits   = 54;                                           // DWORD determined by reading files created by DibDumop
-         bmpFileHeader_bfSize      = width * height * 4 + bmpFileHeader_bfOffBits; // DWORD - 4 bytes per pel
-         bmpFileHeader_bfReserved1 = 0;                                            // WORD
-         bmpFileHeader_bfReserved2 = 0;                                            // WORD
-
-         /*
-          ** BITMAPINFOHEADER
-          **
-          ** biSize        - Specifies the size of the structure, in bytes. This size does not include the color table or the masks mentioned in the biClrUsed member.
-          **                 See the Remarks section for more information.
-          ** biWidth       - Specifies the width of the bitmap, in pels.
-          ** biHeight      - Specifies the height of the bitmap, in pels.
-          **                 If biHeight is positive, the bitmap is a bottom-up DIB and its origin is the lower left corner.
-          **                 If biHeight is negative, the bitmap is a top-down DIB and its origin is the upper left corner.
-          **                 If biHeight is negative, indicating a top-down DIB, biCompression must be either BI_RGB or BI_BITFIELDS. Top-down DIBs cannot be compressed.
-          ** biPlanes      - Specifies the number of planes for the target device. This value must be set to 1.
-          ** biBitCount    - Specifies the number of bits per pixel (32 in this cse)
-          ** biCompression - Specifies the type of compression for a compressed bottom-up bitmap (top-down DIBs cannot be compressed). It is 0 in our case.
-          ** biSizeImage   -  Specifies the size, in bytes, of the image. This value will be the number of bytes in each scan line which must be padded to
-          **                  ensure the line is a multiple of 4 bytes (it must align on a DWORD boundary) times the number of rows.
-          **                  This value may be set to zero for BI_RGB bitmaps (so you cannot be sure it will be set).
-          ** biXPelsPerMeter - Specifies the horizontal resolution, in pixels per meter, of the target device for the bitmap.
-          ** biYPelsPerMeter - Specifies the vertical resolution, in pixels per meter, of the target device for the bitmap
-          ** biClrUsed       - Specifies the number of color indexes in the color table that are actually used by the bitmap.
-          **                   If this value is zero, the bitmap uses the maximum number of colors corresponding to the value of the biBitCount member for the compression mode specified by biCompression.
-          ** biClrImportant  - Specifies the number of color indexes required for displaying the bitmap. If this value is zero, all colors are required.
-          */
-         bmpInfoHeader_biSize          = 40;                 // DWORD
-         bmpInfoHeader_biWidth         = width;              // LONG
-         bmpInfoHeader_biHeight        = height;             // LONG
-         bmpInfoHeader_biPlanes        = 1;                  // WORD
-         bmpInfoHeader_biBitCount      = 32;                 // WORD
-         bmpInfoHeader_biCompression   = 0;                  // DWORD
-         bmpInfoHeader_biSizeImage     = width * height * 4; // DWORD We are going to write out a 32-bit image
-         bmpInfoHeader_biXPelsPerMeter = 0;                  // LONG
-         bmpInfoHeader_biYPelsPerMeter = 0;                  // LONG
-         bmpInfoHeader_biClrUsed       = 0;                  // DWORD creating a true color image
-         bmpInfoHeader_biClrImportant  = 0;                  // DWORD creating a true color image
-
          try // lots of things can go wrong when doing file i/o
          {
-            FileInputStream fInStream = new FileInputStream(inFileName); // Open the file that is the second command line parameter
-            DataInputStream in = new DataInputStream(fInStream);         // Convert our input stream to a DataInputStream
-
-            try
-            {
-               FileOutputStream fOutStream = new FileOutputStream(outFileName);
-               DataOutputStream out = new DataOutputStream(fOutStream);
-               /*
-                ** BITMAPFILEHEADER
-                */
-               out.writeShort(bmpFileHeader_bfType);                           // WORD - un-swapped since should be the letters BM
-               out.writeInt(dibdumper.swapInt(bmpFileHeader_bfSize));          // DWORD
-               out.writeShort(dibdumper.swapShort(bmpFileHeader_bfReserved1)); // WORD
-               out.writeShort(dibdumper.swapShort(bmpFileHeader_bfReserved2)); // WORD
-               out.writeInt(dibdumper.swapInt(bmpFileHeader_bfOffBits));       // DWORD
-
-               /*
-                ** BITMAPINFOHEADER
-                */
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biSize));          // DWORD
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biWidth));         // LONG
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biHeight));        // LONG
-               out.writeShort(dibdumper.swapShort(bmpInfoHeader_biPlanes));    // WORD
-               out.writeShort(dibdumper.swapShort(bmpInfoHeader_biBitCount));  // WORD
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biCompression));   // DWORD
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biSizeImage));     // DWORD
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biXPelsPerMeter)); // LONG
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biYPelsPerMeter)); // LONG
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biClrUsed));       // DWORD
-               out.writeInt(dibdumper.swapInt(bmpInfoHeader_biClrImportant));  // DWORD
-
-               /*
-                ** Read in 1 or 3 byte values and then write them our as an RGB_Quad value for a 32-bit BMP image which are in the order Blue-Green-Red-Zero.
-                */
-               EOF = false;
-               while (!EOF)
-               {
-                  try // an exception is thrown when end of file is reached
-                  {
-                     if (colorImage)
-                     {
-                        rgbQuad_rgbBlue  = in.readByte();
-                        rgbQuad_rgbGreen = in.readByte();
-                        rgbQuad_rgbRed   = in.readByte();
-                     }
-                     else
-                     {
-                        byteVal = (byte) (in.readDouble() * 255);    // $$$
-                        rgbQuad_rgbBlue  = byteVal;
-                        rgbQuad_rgbGreen = byteVal;
-                        rgbQuad_rgbRed   = byteVal;
-                     }
-
-                     out.writeByte(rgbQuad_rgbBlue);
-                     out.writeByte(rgbQuad_rgbGreen);
-                     out.writeByte(rgbQuad_rgbRed);
-                     out.writeByte(rgbQuad_rgbReserved); // The reserved value is zero
-
-                     ++pelCount;
-                  } // try
-                  catch (Exception e)
-                  {
-                     EOF = true;
-
-                     if (pelCount != width * height)
-                     {
-                        System.out.printf("%d pels read out of %d expected\n", pelCount, width * height);
-                        System.err.println("Reason for stopping: " + e);
-                     }
-                  }
-               } // while (!EOF)
-
-               out.close();
-               fOutStream.close();
-            } // try
-            catch (Exception e)
-            {
-               System.err.println("File output error" + e);
-            }
-
-            in.close();
-            fInStream.close();
-         } // try
+            pelCount = convert(colorImage, width, height, inFileName, outFileName);
+
+            if (pelCount != width * height)
+               System.out.printf("%d pels read out of %d expected\n", pelCount, width * height);
+         }
          catch (Exception e)
          {
-            System.err.println("File input error" + e);
+            System.err.println("File error" + e);
          }
       } // if (args.length != 5) ... else
    } // public public void main
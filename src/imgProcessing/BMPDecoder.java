@@ -0,0 +1,336 @@
+package imgProcessing;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The BMPDecoder class decodes a BMP file into a flat array of pels. Unlike BMP2OneByte and
+ * BMP2Acts, it keeps no static state, so any number of threads may decode images at once.
+ *
+ * The file is memory mapped and read as a little endian ByteBuffer, so no bytes need swapping.
+ * Each scan line is copied out of the buffer in one bulk read and then decoded in memory.
+ * Palette images at 1, 2, 4 and 8 bits per pel are decoded through a lookup table which maps each
+ * byte straight to the colors of the pels it holds. 16, 24 and 32 bit images are also supported,
+ * uncompressed or with BI_BITFIELDS color masks.
+ *
+ * The decoded pels are 0x00RRGGBB ints stored row by row with (0,0) in the upper left corner,
+ * whichever way up the rows are stored in the file.
+ *
+ * Usage:
+ *    BMPDecoder bmp = BMPDecoder.decode("scan.bmp");
+ *    int[] pels = bmp.getPels();      // pel (x, y) is pels[y * bmp.getWidth() + x]
+ *
+ * Author: Akul Goyal
+ * Date Created: October 18, 2026
+ * Date Modified: October 18, 2026
+ */
+public class BMPDecoder {
+   public static final int BM = 0x4D42;                    // "BM", read little endian
+   public static final int FILE_HEADER_SIZE = 14;
+   public static final int INFO_HEADER_SIZE = 40;
+   public static final int BI_RGB = 0;
+   public static final int BI_BITFIELDS = 3;
+   public static final int MAX_COLORS = 256;
+   public static final int COLOR_MASK = 0x00FFFFFF;
+
+   private final int width;
+   private final int height;
+   private final int[] pels;
+
+   /**
+    * Creates a decoded image. Use decode to read one.
+    *
+    * @param width  the width of the image
+    * @param height the height of the image
+    * @param pels   the pels, row by row from the top
+    */
+   private BMPDecoder(int width, int height, int[] pels) {
+      this.width = width;
+      this.height = height;
+      this.pels = pels;
+   }
+
+   public int getWidth() {
+      return width;
+   }
+
+   public int getHeight() {
+      return height;
+   }
+
+   /**
+    * Returns the decoded pels as 0x00RRGGBB ints, row by row with the top row first.
+    *
+    * @return the pels
+    */
+   public int[] getPels() {
+      return pels;
+   }
+
+   /**
+    * Converts the pels to gray scale values between 0 and 255 with the same formula as
+    * BMP2OneByte.colorToGrayscale.
+    *
+    * @return the gray scale values, row by row with the top row first
+    */
+   public int[] toGrayScale() {
+      int[] gray = new int[pels.length];
+      for (int i = 0; i < pels.length; i++) {
+         gray[i] = grayScale(pels[i]);
+      }
+      return gray;
+   } //public int[] toGrayScale()
+
+   /**
+    * Converts an RGB pel to its gray scale value, the same as BMP2OneByte.colorToGrayscale.
+    *
+    * @param pel the RGB pel
+    * @return the gray scale value between 0 and 255
+    */
+   public static int grayScale(int pel) {
+      int red = (pel >> 16) & 0xFF;
+      int green = (pel >> 8) & 0xFF;
+      int blue = pel & 0xFF;
+
+      return (int) Math.round(0.3 * (double) red + 0.589 * (double) green + 0.11 * (double) blue)
+            & 0xFF;
+   } //public static int grayScale(int pel)
+
+   /**
+    * Memory maps a BMP file and decodes it.
+    *
+    * @param path the BMP file
+    * @return the decoded image
+    * @throws IOException if the file cannot be read or is not a supported BMP
+    */
+   public static BMPDecoder decode(String path) throws IOException {
+      return decode(map(path));
+   } //public static BMPDecoder decode(String path)
+
+   /**
+    * Memory maps a whole file read only. The mapping stays valid after the file is closed.
+    *
+    * @param path the file
+    * @return the contents of the file
+    * @throws IOException if the file cannot be read
+    */
+   public static ByteBuffer map(String path) throws IOException {
+      RandomAccessFile file = new RandomAccessFile(path, "r");
+      try {
+         return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+      } finally {
+         file.close();
+      }
+   } //public static ByteBuffer map(String path)
+
+   /**
+    * Decodes a BMP held in a buffer. Only absolute reads are used, so the buffer's position and
+    * byte order are left alone and the same buffer may be decoded by several threads.
+    *
+    * @param file the whole BMP file
+    * @return the decoded image
+    * @throws IOException if the buffer does not hold a supported BMP
+    */
+   public static BMPDecoder decode(ByteBuffer file) throws IOException {
+      ByteBuffer buf = file.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      if (buf.limit() < FILE_HEADER_SIZE + INFO_HEADER_SIZE || buf.getShort(0) != BM) {
+         throw new IOException("Not a BMP file");
+      }
+
+      int offBits = buf.getInt(10);
+      int biSize = buf.getInt(14);
+      int width = buf.getInt(18);
+      int height = buf.getInt(22);
+      int bitCount = buf.getShort(28) & 0xFFFF;
+      int compression = buf.getInt(30);
+      int clrUsed = buf.getInt(46);
+      boolean topDown = height < 0;
+      height = Math.abs(height);
+
+      boolean bitFields = compression == BI_BITFIELDS && (bitCount == 16 || bitCount == 32);
+      if (compression != BI_RGB && !bitFields) {
+         throw new IOException("Compressed BMPs are not supported");
+      }
+      if (width <= 0 || (long) width * height > Integer.MAX_VALUE) {
+         throw new IOException("Bad BMP size " + width + "x" + height);
+      }
+
+      int headerEnd = FILE_HEADER_SIZE + Math.max(biSize, INFO_HEADER_SIZE);
+      int stride = (int) (((long) width * bitCount + 31) / 32) * 4; // Rows are padded to 4 bytes
+      int[] pels = new int[width * height];
+
+      int numColors = 0;
+      if (bitCount <= 8) {
+         numColors = (clrUsed > 0) ? clrUsed : 1 << bitCount;
+         if (numColors > MAX_COLORS) {
+            throw new IOException("Bad BMP color table of " + numColors + " colors");
+         }
+      }
+
+      if (offBits < headerEnd + 4 * numColors || offBits > buf.limit()) {
+         offBits = headerEnd + 4 * numColors;             // Pels follow the color table
+      }
+      if ((long) offBits + (long) stride * height > buf.limit()) {
+         throw new IOException("BMP file is truncated");
+      }
+
+      switch (bitCount) {
+         case 1:
+         case 2:
+         case 4:
+         case 8:
+            decodePalette(buf, offBits, stride, width, height, topDown, bitCount,
+                  readPalette(buf, headerEnd, numColors), pels);
+            break;
+         case 16:
+         case 24:
+         case 32:
+            int[] masks = bitFields ?
+                  new int[] {buf.getInt(54), buf.getInt(58), buf.getInt(62)} :
+                  (bitCount == 16) ? new int[] {0x7C00, 0x03E0, 0x001F} : null;
+            decodeTrueColor(buf, offBits, stride, width, height, topDown, bitCount, masks, pels);
+            break;
+         default:
+            throw new IOException("Unsupported BMP: " + bitCount + " bits per pel");
+      } //switch (bitCount)
+
+      return new BMPDecoder(width, height, pels);
+   } //public static BMPDecoder decode(ByteBuffer file)
+
+   /**
+    * Reads the color table. Entries past its end stay black, the same as BMP2OneByte.
+    *
+    * @param buf       the BMP file
+    * @param start     the index of the color table
+    * @param numColors the number of entries in the color table
+    * @return the color of each of the 256 possible indices
+    */
+   private static int[] readPalette(ByteBuffer buf, int start, int numColors) {
+      int[] palette = new int[MAX_COLORS];
+      for (int i = 0; i < numColors; i++) {
+         palette[i] = buf.getInt(start + 4 * i) & COLOR_MASK;
+      }
+      return palette;
+   } //private static int[] readPalette(ByteBuffer buf, int start, int numColors)
+
+   /**
+    * Decodes the rows of a 1, 2, 4 or 8 bit palette image. A lookup table holds the colors of
+    * the pels packed into each of the 256 byte values, most significant bits first, so each byte
+    * of a row is decoded with one table lookup per pel and no shifting or masking.
+    */
+   private static void decodePalette(ByteBuffer buf, int offBits, int stride, int width,
+                                     int height, boolean topDown, int bitCount, int[] palette,
+                                     int[] pels) {
+      int pelsPerByte = 8 / bitCount;
+      int mask = (1 << bitCount) - 1;
+      int[] lut = new int[MAX_COLORS * pelsPerByte];
+      for (int b = 0; b < MAX_COLORS; b++) {
+         for (int k = 0; k < pelsPerByte; k++) {
+            lut[b * pelsPerByte + k] = palette[(b >> (8 - bitCount * (k + 1))) & mask];
+         }
+      }
+
+      byte[] line = new byte[stride];
+      int fullBytes = width / pelsPerByte;
+      int trailing = width % pelsPerByte;
+
+      for (int row = 0; row < height; row++) {
+         buf.get(offBits + row * stride, line, 0, stride);
+         int p = (topDown ? row : height - 1 - row) * width;
+
+         if (bitCount == 8) {
+            for (int j = 0; j < width; j++) {
+               pels[p + j] = lut[line[j] & 0xFF];
+            }
+         } else {
+            for (int j = 0; j < fullBytes; j++) {
+               System.arraycopy(lut, (line[j] & 0xFF) * pelsPerByte, pels, p, pelsPerByte);
+               p += pelsPerByte;
+            }
+            if (trailing > 0) {
+               System.arraycopy(lut, (line[fullBytes] & 0xFF) * pelsPerByte, pels, p, trailing);
+            }
+         } //if (bitCount == 8)...else
+      } //for (int row = 0; row < height; row++)
+   } //private static void decodePalette(ByteBuffer buf, int offBits, int stride, ...)
+
+   /**
+    * Decodes the rows of a 16, 24 or 32 bit image. masks holds the red, green and blue masks of a
+    * 16 bit or BI_BITFIELDS image, and is null for plain 24 and 32 bit images.
+    */
+   private static void decodeTrueColor(ByteBuffer buf, int offBits, int stride, int width,
+                                       int height, boolean topDown, int bitCount, int[] masks,
+                                       int[] pels) {
+      byte[] line = new byte[stride];
+      IntBuffer ints = (bitCount == 32) ?
+            buf.slice(offBits, stride * height).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer() :
+            null;
+
+      for (int row = 0; row < height; row++) {
+         int p = (topDown ? row : height - 1 - row) * width;
+
+         if (bitCount == 32) {
+            ints.get(row * width, pels, p, width);          // 32 bit rows are never padded
+            if (masks == null) {
+               for (int j = p; j < p + width; j++) {
+                  pels[j] &= COLOR_MASK;
+               }
+            } else {
+               for (int j = p; j < p + width; j++) {
+                  pels[j] = applyMasks(pels[j], masks);
+               }
+            }
+         } else if (bitCount == 24) {
+            buf.get(offBits + row * stride, line, 0, stride);
+            for (int j = 0, b = 0; j < width; j++, b += 3) {
+               pels[p + j] = ((line[b + 2] & 0xFF) << 16) | ((line[b + 1] & 0xFF) << 8) |
+                     (line[b] & 0xFF);
+            }
+         } else {
+            buf.get(offBits + row * stride, line, 0, stride);
+            for (int j = 0, b = 0; j < width; j++, b += 2) {
+               pels[p + j] = applyMasks((line[b] & 0xFF) | ((line[b + 1] & 0xFF) << 8), masks);
+            }
+         } //if (bitCount == 32)...else if (bitCount == 24)...else
+      } //for (int row = 0; row < height; row++)
+   } //private static void decodeTrueColor(ByteBuffer buf, int offBits, int stride, ...)
+
+   /**
+    * Extracts the red, green and blue fields of a pel with the given masks and scales each one to
+    * eight bits.
+    *
+    * @param v     the raw pel
+    * @param masks the red, green and blue masks
+    * @return the pel as 0x00RRGGBB
+    */
+   private static int applyMasks(int v, int[] masks) {
+      return (maskedChannel(v, masks[0]) << 16) | (maskedChannel(v, masks[1]) << 8) |
+            maskedChannel(v, masks[2]);
+   }
+
+   /**
+    * Extracts one color field of a pel and scales it to eight bits, rounding to nearest.
+    *
+    * @param v    the raw pel
+    * @param mask the mask of the field
+    * @return the field between 0 and 255
+    */
+   private static int maskedChannel(int v, int mask) {
+      if (mask == 0) {
+         return 0;
+      }
+
+      int bits = Integer.bitCount(mask);
+      long field = (v & mask & 0xFFFFFFFFL) >>> Integer.numberOfTrailingZeros(mask);
+      if (bits >= 8) {
+         return (int) (field >>> (bits - 8));
+      }
+
+      long max = (1L << bits) - 1;
+      return (int) ((field * 255 + max / 2) / max);
+   } //private static int maskedChannel(int v, int mask)
+} //public class BMPDecoder
@@ -0,0 +1,250 @@
+package imgProcessing;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The IngestManifest class records which scans ingestAll has already turned into network inputs,
+ * so that a rerun only processes the scans that are new or have changed. It is kept in the output
+ * directory as a text file with one line per scan, separated by tabs:
+ *
+ *    source, size, modified time, SHA-256 of the contents, parameters, output file, output size
+ *
+ * The parameters are a string describing every setting the output depends on, so changing the
+ * threshold, the crop, the offsets or the target size makes every output out of date.
+ *
+ * A scan is up to date if its entry has the same parameters, its output file is still there
+ * with the recorded size, and no other scan claims the same output file. If the size and modified
+ * time of the scan also match, it is not even read. If only the modified time differs, as after
+ * copying a scan or touching it, its contents are hashed, and if the hash matches the entry is
+ * updated without processing the scan again.
+ *
+ * An output file belongs to the scan most recently recorded as writing it, so after a scan with
+ * the same name in another directory has overwritten it, the first scan is processed again. If
+ * two lines of the manifest name the same output file, both are dropped.
+ *
+ * The manifest may be updated by several threads at once. save() writes it to a temporary file
+ * and renames it over the old one, so an interrupted run leaves the previous manifest intact.
+ * Lines that cannot be read are dropped, and those scans are processed again.
+ *
+ * Author: Akul Goyal
+ * Date Created: October 18, 2026
+ * Date Modified: October 18, 2026
+ */
+public class IngestManifest {
+   public static final String FILE_NAME = "ingest.manifest";
+   public static final String HEADER =
+         "# source\tsize\tmodified\tsha256\tparameters\toutput\toutputSize";
+   public static final int FIELDS = 7;
+   public static final String CLAIMED_TWICE = "";          // Owner of an output two lines claim
+
+   private final File file;
+   private final File directory;
+   private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+   private final ConcurrentHashMap<String, String> owners = new ConcurrentHashMap<>();
+
+   /**
+    * What was recorded about one scan when its output was written.
+    */
+   public static class Entry {
+      final long size;
+      final long modified;
+      final String hash;
+      final String parameters;
+      final String output;
+      final long outputSize;
+
+      Entry(long size, long modified, String hash, String parameters, String output,
+            long outputSize) {
+         this.size = size;
+         this.modified = modified;
+         this.hash = hash;
+         this.parameters = parameters;
+         this.output = output;
+         this.outputSize = outputSize;
+      }
+   } //public static class Entry
+
+   /**
+    * Loads the manifest of an output directory, or starts an empty one if there is none yet.
+    *
+    * @param outputDirectory the directory the outputs are written to
+    * @throws IOException if the manifest exists but cannot be read
+    */
+   public IngestManifest(String outputDirectory) throws IOException {
+      directory = new File(outputDirectory);
+      file = new File(directory, FILE_NAME);
+
+      if (file.exists()) {
+         BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+               StandardCharsets.UTF_8));
+         String line;
+         while ((line = br.readLine()) != null) {
+            String[] f = line.split("\t");
+            if (line.startsWith("#") || f.length != FIELDS) {
+               continue;
+            }
+            try {
+               entries.put(f[0], new Entry(Long.parseLong(f[1]), Long.parseLong(f[2]), f[3], f[4],
+                     f[5], Long.parseLong(f[6])));
+               String other = owners.putIfAbsent(f[5], f[0]);
+               if (other != null) {
+                  entries.remove(other);                    // Neither scan can be trusted
+                  entries.remove(f[0]);
+                  owners.put(f[5], CLAIMED_TWICE);
+               }
+            } catch (NumberFormatException e) {
+               // Dropped, so the scan is processed again
+            }
+         } //while ((line = br.readLine()) != null)
+         br.close();
+      } //if (file.exists())
+   } //public IngestManifest(String outputDirectory)
+
+   /**
+    * Returns whether a scan is known to be up to date without reading it: its size and modified
+    * time are those recorded, the parameters are the same, and its output is still there.
+    *
+    * @param source     the path of the scan
+    * @param parameters the parameters the output should have been made with
+    * @return true if the scan can be skipped
+    */
+   public boolean isUnchanged(String source, String parameters) {
+      File scan = new File(source);
+      Entry entry = entries.get(key(source));
+
+      return entry != null && entry.size == scan.length() &&
+            entry.modified == scan.lastModified() && hasOutput(key(source), entry, parameters);
+   }
+
+   /**
+    * Returns whether a scan whose contents hash to the given value is up to date, and if so records
+    * its new size and modified time.
+    *
+    * @param source     the path of the scan
+    * @param size       the size of the scan when it was hashed
+    * @param modified   the modified time of the scan when it was hashed
+    * @param hash       the hash of the contents of the scan
+    * @param parameters the parameters the output should have been made with
+    * @return true if the scan need not be processed again
+    */
+   public boolean isCurrent(String source, long size, long modified, String hash,
+                            String parameters) {
+      Entry entry = entries.get(key(source));
+
+      if (entry == null || !entry.hash.equals(hash) || !hasOutput(key(source), entry, parameters)) {
+         return false;
+      }
+
+      entries.put(key(source), new Entry(size, modified, hash, parameters, entry.output,
+            entry.outputSize));
+      return true;
+   } //public boolean isCurrent(String source, long size, long modified, String hash, ...)
+
+   /**
+    * Records that the output of a scan has been written. The size and modified time should be
+    * those of the scan before it was read, so that a scan changed while it was processed is found
+    * to be out of date on the next run. Any other scan recorded as writing the same output file is
+    * forgotten, since its output has been overwritten.
+    *
+    * @param source     the path of the scan
+    * @param size       the size of the scan when it was read
+    * @param modified   the modified time of the scan when it was read
+    * @param hash       the hash of the contents of the scan
+    * @param parameters the parameters the output was made with
+    * @param output     the name of the output file in the output directory
+    */
+   public void put(String source, long size, long modified, String hash, String parameters,
+                   String output) {
+      entries.put(key(source), new Entry(size, modified, hash, parameters, output,
+            new File(directory, output).length()));
+
+      String previous = owners.put(output, key(source));
+      if (previous != null && !previous.equals(key(source))) {
+         entries.computeIfPresent(previous, (k, e) -> e.output.equals(output) ? null : e);
+      }
+   } //public void put(String source, long size, long modified, String hash, String parameters, ...)
+
+   /**
+    * Forgets a scan, so that it is processed again on the next run.
+    *
+    * @param source the path of the scan
+    */
+   public void remove(String source) {
+      Entry entry = entries.remove(key(source));
+      if (entry != null) {
+         owners.remove(entry.output, key(source));
+      }
+   }
+
+   /**
+    * Writes the manifest, sorted by source path, to a temporary file and renames it into place.
+    *
+    * @throws IOException if the manifest cannot be written
+    */
+   public void save() throws IOException {
+      File temp = new File(directory, FILE_NAME + ".tmp");
+      Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp),
+            StandardCharsets.UTF_8));
+
+      out.write(HEADER + "\n");
+      for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+         Entry entry = e.getValue();
+         out.write(e.getKey() + "\t" + entry.size + "\t" + entry.modified + "\t" + entry.hash +
+               "\t" + entry.parameters + "\t" + entry.output + "\t" + entry.outputSize + "\n");
+      }
+      out.close();
+
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+   } //public void save()
+
+   /**
+    * Returns the SHA-256 of the remaining bytes of a buffer as a hex string. The buffer itself is
+    * not moved.
+    *
+    * @param contents the contents to hash
+    * @return the hash in hex
+    */
+   public static String hash(ByteBuffer contents) {
+      MessageDigest sha;
+      try {
+         sha = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 is not available", e);
+      }
+      sha.update(contents.duplicate());
+
+      StringBuilder hex = new StringBuilder();
+      for (byte b : sha.digest()) {
+         hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+   } //public static String hash(ByteBuffer contents)
+
+   /**
+    * Returns whether an entry was made with the given parameters, its output file still has the
+    * size it was written with, and its scan is the last one recorded as writing that file.
+    */
+   private boolean hasOutput(String key, Entry entry, String parameters) {
+      File output = new File(directory, entry.output);
+      return entry.parameters.equals(parameters) && key.equals(owners.get(entry.output)) &&
+            output.isFile() && output.length() == entry.outputSize;
+   }
+
+   /**
+    * Scans are recorded by absolute path, so the manifest does not depend on the directory a list
+    * of relative paths was run from.
+    */
+   private static String key(String source) {
+      return new File(source).getAbsolutePath();
+   }
+} //public class IngestManifest
@@ -0,0 +1,378 @@
+package imgProcessing.PelArray;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The LazyPelArray class records a chain of PelArray operations without carrying them out. Each
+ * operation returns a new LazyPelArray which only knows its size and how to work out one row of
+ * its pels from the rows of the image it was made from: pad, crop and scale map coordinates, and
+ * the color operations map pel values. Nothing is computed until the pels are asked for, and then
+ * the whole chain is evaluated one row at a time, straight from the source image.
+ *
+ * This lets an image be padded, cropped around its center of mass, color offset and scaled down
+ * without ever building the padded or cropped images, which are far larger than the result:
+ *
+ *    LazyPelArray pel = img.lazy().onesComplimentImage().pad(500, 500, 500, 500, color);
+ *    PelArray small = pel.crop(x0, y0, x1, y1).offsetColors(-50, -50, -50).scale(86, 100).toPelArray();
+ *
+ * Every operation gives exactly the same pels as the PelArray method of the same name, and the
+ * center of mass is summed the same way as PelArray.calcCOM(), so the results match a chain of
+ * PelArray calls pel for pel.
+ *
+ * A LazyPelArray reads its source image every time it is evaluated, so the source should not be
+ * changed while the chain is in use. A chain can be evaluated by several threads at once.
+ *
+ * Methods in the LazyPelArray class are
+ *  of(PelArray) - Start a chain from an image (the same as PelArray.lazy())
+ *  getWidth()   - Return the width of the image
+ *  getHeight()  - Return the height of the image
+ *
+ *  map(IntUnaryOperator)  - Apply a function to every pel
+ *  onesComplimentImage()  - Take the ones complement of every pel
+ *  grayScaleImage()       - Convert every pel to gray scale
+ *  oneColorImage(int)     - Mask off a single color in every pel
+ *  forceMin(int, int)     - Any value below the first argument is set to the second argument
+ *  forceMax(int, int)     - Any value above the first argument is set to the second argument
+ *  offsetColors(int, int, int) - Add a bounded offset to each color of every pel
+ *
+ *  pad(int, int, int, int, int) - Surround the image with borders of the given widths and color
+ *  crop(int, int, int, int)     - Keep the given frame (inclusive)
+ *  scale(int, int)              - Scale to the new width and height
+ *
+ *  getRow(int, int, int, int[], int) - Evaluate part of one row
+ *  getPel(int, int)     - Evaluate one pel
+ *  getXcom(), getYcom() - Evaluate the center of mass without building the image
+ *  toPelArray()         - Evaluate the whole image into a new PelArray
+ *  toPelArray(PelArray) - Evaluate the whole image into a given PelArray
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public abstract class LazyPelArray
+{
+   protected final int width;
+   protected final int height;
+   private volatile int[] com;         // x and y center of mass, once known
+
+   /*
+    * Start a chain from an image.
+    */
+   public static LazyPelArray of(PelArray source)
+   {
+      return new Source(source);
+   }
+
+   protected LazyPelArray(int width, int height)
+   {
+      if (width < 1 || height < 1) throw new IllegalArgumentException("Bad LazyPelArray size " + width + "x" + height);
+
+      this.width = width;
+      this.height = height;
+   }
+
+   public int getWidth()
+   {
+      return width;
+   }
+
+   public int getHeight()
+   {
+      return height;
+   }
+
+   /*
+    * Evaluate n pels of row y, starting at column x0, into dst starting at index dstOff.
+    */
+   public abstract void getRow(int x0, int y, int n, int[] dst, int dstOff);
+
+   /*
+    ** Color operations, each applied to one pel at a time
+    */
+   public LazyPelArray map(IntUnaryOperator f)
+   {
+      return new Map(this, f);
+   }
+
+   public LazyPelArray onesComplimentImage()
+   {
+      return map(pel -> (~pel) & PelArray.WHITE);
+   }
+
+   public LazyPelArray grayScaleImage()
+   {
+      return map(PelArray::grayScalePel);
+   }
+
+   public LazyPelArray oneColorImage(int color)
+   {
+      return map(pel -> pel & color);
+   }
+
+   public LazyPelArray forceMin(int limit, int forced)
+   {
+      return map(pel -> (pel < limit) ? forced : pel);
+   }
+
+   public LazyPelArray forceMax(int limit, int forced)
+   {
+      return map(pel -> (pel > limit) ? forced : pel);
+   }
+
+   public LazyPelArray offsetColors(int redOffset, int greenOffset, int blueOffset)
+   {
+      return map(pel -> PelArray.offsetColorsPel(pel, redOffset, greenOffset, blueOffset));
+   }
+
+   /*
+    ** Coordinate operations
+    */
+   public LazyPelArray pad(int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color)
+   {
+      return new Pad(this, xLeftPad, yTopPad, xRightPad, yBottomPad, color);
+   }
+
+   public LazyPelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
+   {
+      if (xUpperLeft < 0 || yUpperLeft < 0 || xLowerRight >= width || yLowerRight >= height)
+         throw new IllegalArgumentException("Crop (" + xUpperLeft + "," + yUpperLeft + ")-(" + xLowerRight + "," + yLowerRight +
+               ") is outside the " + width + "x" + height + " image");
+
+      return new Crop(this, xUpperLeft, yUpperLeft, xLowerRight - xUpperLeft + 1, yLowerRight - yUpperLeft + 1);
+   }
+
+   public LazyPelArray scale(int newColumnWidth, int newRowHeight)
+   {
+      return new Scale(this, newColumnWidth, newRowHeight);
+   }
+
+   /*
+    ** Evaluation
+    */
+   public int getPel(int x, int y)
+   {
+      int[] pel = new int[1];
+
+      getRow(x, y, 1, pel, 0);
+      return pel[0];
+   }
+
+   public PelArray toPelArray()
+   {
+      return toPelArray(new PelArray(width, height));
+   }
+
+   public PelArray toPelArray(PelArray dest)
+   {
+      int iRow;
+
+      if (dest.getWidth() != width || dest.getHeight() != height)
+         throw new IllegalArgumentException("Destination is " + dest.getWidth() + "x" + dest.getHeight() + ", expected " + width + "x" + height);
+
+      for (iRow = 0; iRow < height; ++iRow)
+      {
+         getRow(0, iRow, width, dest.getPels(), dest.getOffset() + iRow * dest.getStride());
+      }
+      dest.pelsChanged();
+
+      return dest;
+   } // public PelArray toPelArray(PelArray dest)
+
+   public int getXcom()
+   {
+      return calcCOM()[0];
+   }
+
+   public int getYcom()
+   {
+      return calcCOM()[1];
+   }
+
+   /*
+    * Calculates the center of mass the same way as PelArray.calcCOM(), in parallel bands of rows.
+    * Each band evaluates one row at a time into its own buffer the width of the image.
+    */
+   private int[] calcCOM()
+   {
+      PelKernels.Moments moments;
+      double fRowCom, fColCom, fMass;
+      int[] result = com;
+
+      if (result != null) return result;
+
+      moments = PelKernels.moments(width, height, (firstRow, lastRow) ->
+      {
+         PelKernels.Moments band = new PelKernels.Moments();
+         int[] row = new int[width];
+
+         for (int iRow = firstRow; iRow < lastRow; ++iRow)
+         {
+            getRow(0, iRow, width, row, 0);
+            band.addRow(row, 0, width, iRow);
+         }
+
+         return band;
+      });
+
+      fColCom = moments.colMoment();
+      fRowCom = moments.rowMoment();
+      fMass = moments.mass();
+
+      if (fMass > 0.0)
+         result = new int[] {(int)Math.round(fColCom / fMass), (int)Math.round(fRowCom / fMass)};
+      else if (fMass == 0.0) // All pels are zero, so just set to the center of the array
+         result = new int[] {width / 2, height / 2};
+      else
+         return new int[] {0, 0}; // The same as PelArray, which does not remember this either
+
+      com = result;
+      return result;
+   } // private int[] calcCOM()
+
+   /*
+    * The start of a chain: rows are copied out of a PelArray.
+    */
+   private static class Source extends LazyPelArray
+   {
+      private final PelArray source;
+
+      Source(PelArray source)
+      {
+         super(source.getWidth(), source.getHeight());
+         this.source = source;
+      }
+
+      public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+      {
+         System.arraycopy(source.getPels(), source.getOffset() + y * source.getStride() + x0, dst, dstOff, n);
+      }
+   } // private static class Source extends LazyPelArray
+
+   /*
+    * A function applied to every pel of the parent.
+    */
+   private static class Map extends LazyPelArray
+   {
+      private final LazyPelArray parent;
+      private final IntUnaryOperator f;
+
+      Map(LazyPelArray parent, IntUnaryOperator f)
+      {
+         super(parent.width, parent.height);
+         this.parent = parent;
+         this.f = f;
+      }
+
+      public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+      {
+         int i;
+
+         parent.getRow(x0, y, n, dst, dstOff);
+         for (i = dstOff; i < dstOff + n; ++i)
+         {
+            dst[i] = f.applyAsInt(dst[i]);
+         }
+      }
+   } // private static class Map extends LazyPelArray
+
+   /*
+    * The parent surrounded by borders of one color. Only the part of a row that overlaps the parent
+    * is asked of the parent; the rest is filled with the color.
+    */
+   private static class Pad extends LazyPelArray
+   {
+      private final LazyPelArray parent;
+      private final int xLeftPad, yTopPad;
+      private final int color;
+
+      Pad(LazyPelArray parent, int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color)
+      {
+         super(parent.width + xLeftPad + xRightPad, parent.height + yTopPad + yBottomPad);
+         this.parent = parent;
+         this.xLeftPad = xLeftPad;
+         this.yTopPad = yTopPad;
+         this.color = color;
+      }
+
+      public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+      {
+         int first = Math.max(x0, xLeftPad);                         // Columns of the row inside the parent
+         int last = Math.min(x0 + n, xLeftPad + parent.width);
+
+         if (y < yTopPad || y >= yTopPad + parent.height || first >= last)
+         {
+            Arrays.fill(dst, dstOff, dstOff + n, color);
+         }
+         else
+         {
+            Arrays.fill(dst, dstOff, dstOff + first - x0, color);
+            parent.getRow(first - xLeftPad, y - yTopPad, last - first, dst, dstOff + first - x0);
+            Arrays.fill(dst, dstOff + last - x0, dstOff + n, color);
+         }
+      } // public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+   } // private static class Pad extends LazyPelArray
+
+   /*
+    * A frame of the parent.
+    */
+   private static class Crop extends LazyPelArray
+   {
+      private final LazyPelArray parent;
+      private final int xUpperLeft, yUpperLeft;
+
+      Crop(LazyPelArray parent, int xUpperLeft, int yUpperLeft, int width, int height)
+      {
+         super(width, height);
+         this.parent = parent;
+         this.xUpperLeft = xUpperLeft;
+         this.yUpperLeft = yUpperLeft;
+      }
+
+      public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+      {
+         parent.getRow(xUpperLeft + x0, yUpperLeft + y, n, dst, dstOff);
+      }
+   } // private static class Crop extends LazyPelArray
+
+   /*
+    * The parent scaled the same way as PelArray.scale(): each pel takes the value of the nearest
+    * source pel. The source row and column of every pel are worked out once, and each row asks the
+    * parent only for the span of source columns it uses.
+    */
+   private static class Scale extends LazyPelArray
+   {
+      private final LazyPelArray parent;
+      private final int[] sourceRows;
+      private final int[] sourceCols;
+
+      Scale(LazyPelArray parent, int newColumnWidth, int newRowHeight)
+      {
+         super(newColumnWidth, newRowHeight);
+         this.parent = parent;
+
+         int i;
+         double xColumnRatio = ((double)(parent.width - 1))/((double)(newColumnWidth - 1));
+         double yRowRatio = ((double)(parent.height - 1))/((double)(newRowHeight - 1));
+
+         sourceCols = new int[newColumnWidth];
+         for (i = 0; i < newColumnWidth; ++i) sourceCols[i] = (int)Math.round(((double)i) * xColumnRatio);
+
+         sourceRows = new int[newRowHeight];
+         for (i = 0; i < newRowHeight; ++i) sourceRows[i] = (int)Math.round(((double)i) * yRowRatio);
+      } // Scale(LazyPelArray parent, int newColumnWidth, int newRowHeight)
+
+      public void getRow(int x0, int y, int n, int[] dst, int dstOff)
+      {
+         int i;
+         int lo = sourceCols[x0];
+         int[] span = new int[sourceCols[x0 + n - 1] - lo + 1];
+
+         parent.getRow(lo, sourceRows[y], span.length, span, 0);
+         for (i = 0; i < n; ++i)
+         {
+            dst[dstOff + i] = span[sourceCols[x0 + i] - lo];
+         }
+      }
+   } // private static class Scale extends LazyPelArray
+
+} // public abstract class LazyPelArray
@@ -9,16 +9,30 @@ package imgProcessing.PelArray;
  *
  * (0,0) is in the upper left corner.
  *
+ * The pels are kept in one flat int array, row after row. The pel at column x and row y is
+ * pels[offset + y * stride + x]. The stride may be wider than the image when the PelArray is a view
+ * of part of a larger image, as returned by crop().
+ *
  * Some of the methods currently return a fixed value which I am using as a place holder
  * for the future when it would return a success or failure flag of some sort.
  *
  * Methods in the PelArray class are
  *  PelArray(int [][])    - constructor that sets the initial array of picture elements
+ *  PelArray(int, int)    - constructor for a black image of the given width and height
+ *  PelArray(int [], int, int)           - constructor that wraps a flat array of pels
+ *  PelArray(int [], int, int, int, int) - constructor for a view of part of a flat array of pels
  *  setPelArray(int [][]) - set the current array of pels
- *  getPelArray()         - get the current array of pels
+ *  getPelArray()         - get a copy of the current pels as a two dimensional array
  *
  *  getWidth()   - Return the width of the image array
  *  getHeight()  - Return the height of the image array
+ *  getPels()    - Return the flat array holding the pels
+ *  getOffset()  - Return the index of pel (0,0) in the flat array
+ *  getStride()  - Return the distance between the starts of two rows in the flat array
+ *  getPel(int, int)      - Return the pel at x,y
+ *  setPel(int, int, int) - Set the pel at x,y
+ *  copy()       - Return a compact copy of the image, which shares nothing with this one
+ *  lazy()       - Return a LazyPelArray which records operations on this image without carrying them out
  *
  *  getXcom() - return the x coordinate of the center of mass (method may need to call calcCOM() to determine the value). Zero indexed.
  *  getYcom() - return the y coordinate of the center of mass (method may need to call calcCOM() to determine the value). Zero indexed.
@@ -32,8 +46,10 @@ package imgProcessing.PelArray;
  *  flipVertical()           - Flip the image about the vertical central line (left becomes right)
  *
  *  edgeDetect(int, int)     - Find edges in the image array based on a simple threshold count criteria.
- *  crop(int, int, int, int) - crop the image array given the x,y upper left and x,y lower left coordinates.
+ *  crop(int, int, int, int) - view of the image array given the x,y upper left and x,y lower left coordinates. No pels are copied.
  *  scale(int, int)          - scale the image array to an array with the new specified width and height.
+ *  scaleAreaAverage(int, int) - scale the image array by averaging the source pels each new pel covers.
+ *  summedAreaTable()        - Return a SummedAreaTable of the image, for area averaging to several sizes
  *
  *  dump() - dumps the pelArray as hex values to the console
  *
@@ -48,12 +64,29 @@ package imgProcessing.PelArray;
  *
  *  offsetColors(int redOffset, int greenOffset, int blueOffset) - Add a bounded offset to individual colors in the image array (arrayOfPels[][]).
  *
+ *  fill(int)                    - Set every pel to one color
+ *  pad(int, int, int, int, int) - Surround the image with borders of the given widths and color
+ *
  *  min(int a, int b) - Return the minimum value of two integers
  *  max(int a, int b) - Return the maximum value of two integers
  *
+ * Every method that returns a new PelArray also has a variant that takes a destination PelArray
+ * as its last argument, writes the result there and returns it, so a caller processing many images
+ * can reuse its buffers instead of allocating new ones for each image. The destination must have
+ * the size of the result. For grayScaleImage, onesComplimentImage, oneColorImage, forceMin,
+ * forceMax and offsetColors the destination may be the source itself, which changes the image in
+ * place. Writing to a view changes the image it is a view of.
+ *
  * November 17, 2023 - Added the getWidth() and getHeight() methods
  * December 6, 2023  - Added forceMin() and forceMax()
  * April 24, 2024    - Added offsetColors(), min() and max()
+ * October 18, 2026  - Stored the pels in one flat array with a stride, made crop() return a view,
+ *                     and added the variants that write to a destination PelArray
+ * October 18, 2026  - Added lazy()
+ * October 18, 2026  - Split calcCOM(), grayScaleImage(), onesComplimentImage() and offsetColors() into
+ *                     bands of rows run in parallel (see PelKernels), summed the center of mass exactly
+ *                     in integers so it does not depend on the split, and rotated in square tiles
+ * October 18, 2026  - Added scaleAreaAverage() and summedAreaTable()
  */
 
 /**
@@ -88,10 +121,19 @@ public class PelArray
    public static final int BLACK = 0x00000000;
    public static final int WHITE = 0x00FFFFFF;
 
+   /*
+    ** Side of the square tiles the rotations copy at a time, so that both the rows read and the rows written stay in cache
+    */
+   static final int ROTATE_TILE = 64;
+
    /*
     ** Private Member Variables
     */
-   private int[][] arrayOfPels;        // This array holds the picture elements for each instance of this class
+   private int[] pels;                 // This array holds the picture elements for each instance of this class, row after row
+   private int offset;                 // Index in pels of the upper left pel
+   private int width;                  // Number of columns
+   private int height;                 // Number of rows
+   private int stride;                 // Distance in pels between the starts of two rows
    private boolean comKnownFlag;       // If this flag is true then we have a center of mass value.
    private int xComColumnVal;          // x (column) center of mass value
    private int yComRowVal;             // y (row) center of mass value
@@ -101,8 +143,7 @@ public class PelArray
     */
    public PelArray()
    {
-      int[][] array = new int[1][1];
-      setPelArray(array);
+      this(1, 1);
    }
 
    public PelArray(int[][] array)
@@ -110,24 +151,80 @@ public class PelArray
       setPelArray(array);
    }
 
+   /*
+    * Create a black image of the given size
+    */
+   public PelArray(int width, int height)
+   {
+      this(new int[width * height], 0, width, height, width);
+   }
+
+   /*
+    * Wrap a flat array holding width * height pels, row after row. The array is not copied.
+    */
+   public PelArray(int[] pels, int width, int height)
+   {
+      this(pels, 0, width, height, width);
+   }
+
+   /*
+    * Wrap part of a flat array. The pel at x,y is pels[offset + y * stride + x]. The array is not copied.
+    */
+   public PelArray(int[] pels, int offset, int width, int height, int stride)
+   {
+      if (width < 1 || height < 1 || stride < width || offset < 0 ||
+            offset + (long)(height - 1) * stride + width > pels.length)
+         throw new IllegalArgumentException("Bad PelArray " + width + "x" + height + " at " + offset +
+               " with stride " + stride + " in " + pels.length + " pels");
+
+      this.pels = pels;
+      this.offset = offset;
+      this.width = width;
+      this.height = height;
+      this.stride = stride;
+      comKnownFlag = false;
+   }
+
    /*
     * Set the array of pels to whatever is passed. Resets the comKnownFlag to indicate that we
     * no longer know the center of mass values and that they will need to be recalculated from scratch
-    * the next time someone asks for them.
+    * the next time someone asks for them. The pels are copied into one flat array.
     */
    int[][] setPelArray(int[][] array)
    {
-      arrayOfPels = array;
+      int iRow;
+
+      width = array[0].length;
+      height = array.length;
+      stride = width;
+      offset = 0;
+      pels = new int[width * height];
+
+      for (iRow = 0; iRow < height; ++iRow)
+      {
+         if (array[iRow].length != width) throw new IllegalArgumentException("Rows of a PelArray must all be " + width + " pels wide");
+         System.arraycopy(array[iRow], 0, pels, iRow * width, width);
+      }
+
       comKnownFlag = false;
-      return arrayOfPels;
-   }
+      return array;
+   } // int[][] setPelArray(int[][] array)
 
    /*
-    * A get method to return the array of picture elements maintained by this class
+    * A get method to return the picture elements maintained by this class as a new two dimensional array.
+    * Use getPel() or getPels() to read pels without making a copy.
     */
    public int[][] getPelArray()
    {
-      return arrayOfPels;
+      int iRow;
+      int[][] array = new int[height][width];
+
+      for (iRow = 0; iRow < height; ++iRow)
+      {
+         System.arraycopy(pels, offset + iRow * stride, array[iRow], 0, width);
+      }
+
+      return array;
    }
 
    /*
@@ -135,12 +232,80 @@ public class PelArray
     */
    public int getWidth()
    {
-      return(arrayOfPels[0].length);
+      return(width);
    }
 
    public int getHeight()
    {
-      return(arrayOfPels.length);
+      return(height);
+   }
+
+   /*
+    ** Return the flat array of pels and where this image lives in it
+    */
+   public int[] getPels()
+   {
+      return pels;
+   }
+
+   public int getOffset()
+   {
+      return offset;
+   }
+
+   public int getStride()
+   {
+      return stride;
+   }
+
+   /*
+    ** Get or set one pel. Setting a pel forgets the center of mass.
+    */
+   public int getPel(int x, int y)
+   {
+      return pels[offset + y * stride + x];
+   }
+
+   public void setPel(int x, int y, int pel)
+   {
+      pels[offset + y * stride + x] = pel;
+      comKnownFlag = false;
+   }
+
+   /*
+    * Called when the pels are changed from outside the class, so that the center of mass is recalculated.
+    */
+   void pelsChanged()
+   {
+      comKnownFlag = false;
+   }
+
+   /*
+    * Returns a lazy chain of operations starting from this image. See LazyPelArray.
+    */
+   public LazyPelArray lazy()
+   {
+      return LazyPelArray.of(this);
+   }
+
+   /*
+    * Returns a compact copy of the image (stride equal to width) which does not share its pels with this one.
+    */
+   public PelArray copy()
+   {
+      return crop(0, 0, width - 1, height - 1, new PelArray(width, height));
+   }
+
+   /*
+    * Checks that a destination PelArray has the given size and returns it.
+    */
+   private static PelArray checkDest(PelArray dest, int width, int height)
+   {
+      if (dest.width != width || dest.height != height)
+         throw new IllegalArgumentException("Destination is " + dest.width + "x" + dest.height + ", expected " + width + "x" + height);
+
+      dest.comKnownFlag = false;
+      return dest;
    }
 
    /*
@@ -148,24 +313,28 @@ public class PelArray
     * This method is called by the getXcom() and getYcom() methods
     * if the com values are not known. This method sets the comKnownFlag to true.
     * If the method returns false then something weird happened.
+    * Bands of rows are summed in parallel, exactly, so the result does not depend on the number of threads.
     */
    boolean calcCOM()
    {
-      int iRow, iCol;
-      double fRowCom = 0.0, fColCom = 0.0, fMass = 0.0;
+      PelKernels.Moments moments;
+      double fRowCom, fColCom, fMass;
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      int iRowCount = height;
+      int iColCount = width;
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      moments = PelKernels.moments(width, height, (firstRow, lastRow) ->
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
-         {
-            fColCom += ((double)iCol) * ((double)arrayOfPels[iRow][iCol]);
-            fRowCom += ((double)iRow) * ((double)arrayOfPels[iRow][iCol]);
-            fMass += (double)arrayOfPels[iRow][iCol];
-         }
-      }
+         PelKernels.Moments band = new PelKernels.Moments();
+
+         for (int iRow = firstRow; iRow < lastRow; ++iRow) band.addRow(pels, offset + iRow * stride, width, iRow);
+
+         return band;
+      });
+
+      fColCom = moments.colMoment();
+      fRowCom = moments.rowMoment();
+      fMass = moments.mass();
 
       comKnownFlag = true;
 
@@ -215,29 +384,33 @@ public class PelArray
     */
    PelArray offset(int x, int y)
    {
-      int iRow, iCol;
-      int iNewRow, iNewCol;
+      return offset(x, y, new PelArray(width, height));
+   }
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+   /*
+    * Offset the image into dest, which must be a different image of the same size.
+    */
+   PelArray offset(int x, int y, PelArray dest)
+   {
+      int iRow, iNewRow;
+      int iFirstCol, iLastCol;
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
+      dest.fill(BLACK);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      iFirstCol = max(0, -x);                 // Range of source columns that land inside the image
+      iLastCol = min(width, width - x);
+
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
-         {
-            iNewRow = iRow + y;
-            iNewCol = iCol + x;
-            if ((iNewRow < iRowCount) &&
-                  (iNewRow >= 0) &&
-                  (iNewCol < iColCount) &&
-                  (iNewCol >= 0)) targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];
-         }
-      } // for (iRow = 0;  iRow < iRowCount; ++iRow)
+         iNewRow = iRow + y;
+         if ((iNewRow < height) && (iNewRow >= 0) && (iFirstCol < iLastCol))
+            System.arraycopy(pels, offset + iRow * stride + iFirstCol,
+                  dest.pels, dest.offset + iNewRow * dest.stride + iFirstCol + x, iLastCol - iFirstCol);
+      } // for (iRow = 0;  iRow < height; ++iRow)
 
-      return new PelArray(targetArray);
-   } //  PelArray offset(int x, int y)
+      return dest;
+   } //  PelArray offset(int x, int y, PelArray dest)
 
    /*
     * Rotate image 90 degrees counter clockwise
@@ -245,26 +418,15 @@ public class PelArray
     */
    PelArray rotateCCW90()
    {
-      int iRow, iCol;
-      int iNewRow, iNewCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
-
-      int[][] targetArray = new int[iColCount][iRowCount]; // Columns become rows with rotation
+      return rotateCCW90(new PelArray(height, width)); // Columns become rows with rotation
+   }
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
-      {
-         for (iCol = 0; iCol < iColCount; ++iCol)
-         {
-            iNewRow = iColCount - iCol - 1;
-            iNewCol = iRow;
-            targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];
-         }
-      }
+   PelArray rotateCCW90(PelArray dest)
+   {
+      checkDest(dest, height, width);
 
-      return new PelArray(targetArray);
-   } // PelArray rotateCCW90()
+      return rotate90(false, dest);
+   } // PelArray rotateCCW90(PelArray dest)
 
    /*
     * Rotate image 90 degrees clockwise
@@ -272,26 +434,60 @@ public class PelArray
     */
    PelArray rotateCW90()
    {
-      int iRow, iCol;
-      int iNewRow, iNewCol;
+      return rotateCW90(new PelArray(height, width)); // Columns become rows with rotation
+   }
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+   PelArray rotateCW90(PelArray dest)
+   {
+      checkDest(dest, height, width);
 
-      int[][] targetArray = new int[iColCount][iRowCount]; // Columns become rows with rotation
+      return rotate90(true, dest);
+   } // PelArray rotateCW90(PelArray dest)
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+   /*
+    * Rotate into dest one ROTATE_TILE square at a time. Going down a column of the source one pel
+    * per row would touch a different cache line for every pel, so the columns of a tile are copied
+    * one after the other while its rows are still in cache. Each new row is written in one run.
+    * Bands of tile rows are rotated in parallel, each into its own columns of dest.
+    * The new row of column iCol is width - iCol - 1 counter clockwise and iCol clockwise, and the
+    * new column of row iRow is iRow counter clockwise and height - iRow - 1 clockwise.
+    */
+   private PelArray rotate90(boolean clockwise, PelArray dest)
+   {
+      PelKernels.forRows(width, height, ROTATE_TILE, (firstRow, lastRow) ->
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         int iRow, iCol, iTileRow, iTileCol, iLastRow, iLastCol;
+         int index, newIndex;
+
+         for (iTileRow = firstRow; iTileRow < lastRow; iTileRow += ROTATE_TILE)
          {
-            iNewRow = iCol;
-            iNewCol = iRowCount  - iRow - 1;
-            targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];
-         }
-      }
+            iLastRow = Math.min(iTileRow + ROTATE_TILE, lastRow);
+
+            for (iTileCol = 0; iTileCol < width; iTileCol += ROTATE_TILE)
+            {
+               iLastCol = Math.min(iTileCol + ROTATE_TILE, width);
 
-      return new PelArray(targetArray);
-   } // PelArray rotateCW90()
+               for (iCol = iTileCol; iCol < iLastCol; ++iCol)
+               {
+                  index = offset + iCol;
+
+                  if (clockwise)
+                  {
+                     newIndex = dest.offset + iCol * dest.stride + height - 1;
+                     for (iRow = iTileRow; iRow < iLastRow; ++iRow) dest.pels[newIndex - iRow] = pels[index + iRow * stride];
+                  }
+                  else
+                  {
+                     newIndex = dest.offset + (width - iCol - 1) * dest.stride;
+                     for (iRow = iTileRow; iRow < iLastRow; ++iRow) dest.pels[newIndex + iRow] = pels[index + iRow * stride];
+                  }
+               } // for (iCol = iTileCol; iCol < iLastCol; ++iCol)
+            } // for (iTileCol = 0; iTileCol < width; iTileCol += ROTATE_TILE)
+         } // for (iTileRow = firstRow; iTileRow < lastRow; iTileRow += ROTATE_TILE)
+      });
+
+      return dest;
+   } // private PelArray rotate90(boolean clockwise, PelArray dest)
 
    /*
     * Flip the image about the horizontal central line (top becomes bottom)
@@ -299,30 +495,26 @@ public class PelArray
     */
    PelArray flipHorizontal()
    {
-      int iRow, iCol;
-      int iNewRow, iNewCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      return flipHorizontal(new PelArray(width, height));
+   }
 
-      int lastRowIndex = iRowCount - 1; // The array index value to the last row element
-      int halfWay = iRowCount / 2 + 1;  // We stop swapping elements halfway through, so let's make the loop obvious
+   /*
+    * Flip into dest, which must be a different image of the same size. Whole rows are copied at a time.
+    */
+   PelArray flipHorizontal(PelArray dest)
+   {
+      int iRow;
+      int lastRowIndex = height - 1; // The array index value to the last row element
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < halfWay; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
-         {
-            iNewRow = lastRowIndex - iRow;
-            iNewCol = iCol;
-            targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];    // Top becomes bottom
-            targetArray[iRow][iNewCol]    = arrayOfPels[iNewRow][iCol]; // Bottom becomes top
-         }
+         System.arraycopy(pels, offset + iRow * stride, dest.pels, dest.offset + (lastRowIndex - iRow) * dest.stride, width);
       }
 
-      return new PelArray(targetArray);
-   } // PelArray flipHorizontal()
+      return dest;
+   } // PelArray flipHorizontal(PelArray dest)
 
    /*
     * Flip the image about the vertical central line (left becomes right)
@@ -330,30 +522,33 @@ public class PelArray
     */
    PelArray flipVertical()
    {
-      int iRow, iCol;
-      int iNewRow, iNewCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      return flipVertical(new PelArray(width, height));
+   }
 
-      int lastColIndex = iColCount - 1; // The array index value to the last column element
-      int halfWay = iColCount / 2 + 1;  // We stop swapping elements halfway through, so let's make the loop obvious
+   /*
+    * Flip into dest, which must be a different image of the same size.
+    */
+   PelArray flipVertical(PelArray dest)
+   {
+      int iRow, iCol;
+      int index, newIndex;
+      int lastColIndex = width - 1; // The array index value to the last column element
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < halfWay; ++iCol)
+         index = offset + iRow * stride;
+         newIndex = dest.offset + iRow * dest.stride + lastColIndex;
+
+         for (iCol = 0; iCol < width; ++iCol)
          {
-            iNewRow = iRow;
-            iNewCol = lastColIndex - iCol;
-            targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];      // Left becomes right
-            targetArray[iNewRow][iCol]    = arrayOfPels[iRow][iNewCol];   // Right becomes left
+            dest.pels[newIndex - iCol] = pels[index + iCol]; // Left becomes right
          }
       }
 
-      return new PelArray(targetArray);
-   } // PelArray flipVertical()
+      return dest;
+   } // PelArray flipVertical(PelArray dest)
 
    /*
     * Detect edges by looking for a minimum count of pels (inclusive) above a given threshold (inclusive).
@@ -367,8 +562,8 @@ public class PelArray
       int count;
       int[] edges= new int[4]; // right, top, left, bottom
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      int iRowCount = height;
+      int iColCount = width;
 
       /*
        ** Initialize the returned array of edges.
@@ -384,7 +579,7 @@ public class PelArray
       {
          for (iCol = 0; iCol < iColCount; ++iCol)
          {
-            if (arrayOfPels[iRow][iCol] >= threshold) ++count;
+            if (getPel(iCol, iRow) >= threshold) ++count;
             if (count >= minCount)
             {
                edges[TOP_EDGE] = iRow;
@@ -404,7 +599,7 @@ public class PelArray
          {
             for (iCol = 0; iCol < iColCount; ++iCol)
             {
-               if (arrayOfPels[iRow][iCol] >= threshold) ++count;
+               if (getPel(iCol, iRow) >= threshold) ++count;
                if (count >= minCount)
                {
                   edges[BOTTOM_EDGE] = iRow;
@@ -423,7 +618,7 @@ public class PelArray
       {
          for (iRow = 0;  iRow < iRowCount; ++iRow)
          {
-            if (arrayOfPels[iRow][iCol] >= threshold) ++count;
+            if (getPel(iCol, iRow) >= threshold) ++count;
             if (count >= minCount)
             {
                edges[LEFT_EDGE] = iCol;
@@ -443,7 +638,7 @@ public class PelArray
          {
             for (iRow = 0;  iRow < iRowCount; ++iRow)
             {
-               if (arrayOfPels[iRow][iCol] >= threshold) ++count;
+               if (getPel(iCol, iRow) >= threshold) ++count;
                if (count >= minCount)
                {
                   edges[RIGHT_EDGE] = iCol;
@@ -460,82 +655,108 @@ public class PelArray
     * Crop the array of pels to the given frame (inclusive)
     * x is columns
     * y is rows
-    * Returns a new PelArray object
+    * Returns a new PelArray object which is a view of this one: no pels are copied, and changing
+    * the pels of either one changes the other. Use copy() on the result for an independent image.
     */
    public PelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
    {
-      int iRow, iCol;
-      int iNewRow = 0, iNewCol;
-      int pel;
+      if (xUpperLeft < 0 || yUpperLeft < 0 || xLowerRight >= width || yLowerRight >= height)
+         throw new IllegalArgumentException("Crop (" + xUpperLeft + "," + yUpperLeft + ")-(" + xLowerRight + "," + yLowerRight +
+               ") is outside the " + width + "x" + height + " image");
 
-      int iRowCount = yLowerRight - yUpperLeft + 1;
-      int iColCount = xLowerRight - xUpperLeft + 1;
+      return new PelArray(pels, offset + yUpperLeft * stride + xUpperLeft,
+            xLowerRight - xUpperLeft + 1, yLowerRight - yUpperLeft + 1, stride);
+   } // PelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+   /*
+    * Copy the given frame (inclusive) into dest, one row at a time.
+    */
+   public PelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight, PelArray dest)
+   {
+      int iRow;
+      PelArray view = crop(xUpperLeft, yUpperLeft, xLowerRight, yLowerRight);
 
-      for (iRow = yUpperLeft; iRow <= yLowerRight; ++iRow)
-      {
-         iNewCol = 0; // Start in column 0 for each new row
+      checkDest(dest, view.width, view.height);
 
-         for (iCol = xUpperLeft; iCol <= xLowerRight; ++iCol)
-         {
-            targetArray[iNewRow][iNewCol] = arrayOfPels[iRow][iCol];
-            ++iNewCol;
-         }
-         ++iNewRow;
+      for (iRow = 0; iRow < view.height; ++iRow)
+      {
+         System.arraycopy(pels, view.offset + iRow * stride, dest.pels, dest.offset + iRow * dest.stride, view.width);
       }
 
-      return new PelArray(targetArray);
-   } // PelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
+      return dest;
+   } // PelArray crop(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight, PelArray dest)
 
    /*
     * Scale the array of pels to a new size
     * We iterate over the target to get the location of the source pels. This technique prevents holes in a larger image.
-    * We average the values going into each new pel so that we don't get a "last man wins all" result.
+    * Each new pel takes the value of the nearest source pel.
     * Returns a new PelArray object
     */
    public PelArray scale(int newColumnWidth, int newRowHeight)
+   {
+      return scale(newColumnWidth, newRowHeight, new PelArray(newColumnWidth, newRowHeight));
+   }
+
+   /*
+    * Scale into dest, which must be a different image of the new size. The source column of each
+    * new column is worked out once rather than once per row.
+    */
+   public PelArray scale(int newColumnWidth, int newRowHeight, PelArray dest)
    {
       int iRow, iCol;
-      int iSourceRow, iSourceCol;
+      int iSourceRow, index, newIndex;
       double xColumnRatio, yRowRatio;
+      int[] sourceCols = new int[newColumnWidth];
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      checkDest(dest, newColumnWidth, newRowHeight);
 
-      int[][] targetArray = new int[newRowHeight][newColumnWidth];
-      double[][] sumArray = new double[newRowHeight][newColumnWidth];
-      double[][] countArray = new double[newRowHeight][newColumnWidth];
+      xColumnRatio = ((double)(width - 1))/((double)(newColumnWidth - 1));
+      yRowRatio = ((double)(height - 1))/((double)(newRowHeight - 1));
 
-      xColumnRatio = ((double)(iColCount - 1))/((double)(newColumnWidth - 1));
-      yRowRatio = ((double)(iRowCount - 1))/((double)(newRowHeight - 1));
+      for (iCol = 0; iCol < newColumnWidth; ++iCol)
+      {
+         sourceCols[iCol] = (int)Math.round(((double)iCol) * xColumnRatio);
+      }
 
-      for (iRow = 0; iRow < newRowHeight; ++iRow) // Accumulate values in the target and count how many values were added in each new pel
+      for (iRow = 0; iRow < newRowHeight; ++iRow)
       {
          iSourceRow = (int)Math.round(((double)iRow) * yRowRatio);
+         index = offset + iSourceRow * stride;
+         newIndex = dest.offset + iRow * dest.stride;
 
          for (iCol = 0; iCol < newColumnWidth; ++iCol)
          {
-            iSourceCol = (int)Math.round(((double)iCol) * xColumnRatio);
-
-            sumArray[iRow][iCol] += (double)arrayOfPels[iSourceRow][iSourceCol];
-            ++countArray[iRow][iCol];
+            dest.pels[newIndex + iCol] = pels[index + sourceCols[iCol]];
          }
       } // for (iRow = 0; iRow < newRowHeight; ++iRow)
 
-      for (iRow = 0; iRow < newRowHeight; ++iRow) // Replace the accumulated pel values with averages, or zero if there are none
-      {
-         for (iCol = 0; iCol < newColumnWidth; ++iCol)
-         {
-            if (countArray[iRow][iCol] > 0)
-               targetArray[iRow][iCol] = (int)Math.round(sumArray[iRow][iCol] / countArray[iRow][iCol]);
-            else
-               targetArray[iRow][iCol] = 0;
-         }
-      } // for (iRow = 0; iRow < newRowHeight; ++iRow)
+      return dest;
+   } // PelArray scale(int newColumnWidth, int newRowHeight, PelArray dest)
 
-      return new PelArray(targetArray);
-   } // PelArray scale(int newColumnWidth, int newRowHeight)
+   /*
+    * Scale the array of pels to a new size by area averaging
+    * Each new pel is the average of the source pels it covers, counting those cut by its edges by the part covered,
+    * so a large reduction does not alias the way the nearest pel sampling of scale() does.
+    * To scale one image to several sizes build its summedAreaTable() once and call scale() on that.
+    * Returns a new PelArray object
+    */
+   public PelArray scaleAreaAverage(int newColumnWidth, int newRowHeight)
+   {
+      return summedAreaTable().scale(newColumnWidth, newRowHeight);
+   }
+
+   public PelArray scaleAreaAverage(int newColumnWidth, int newRowHeight, PelArray dest)
+   {
+      return summedAreaTable().scale(newColumnWidth, newRowHeight, dest);
+   }
+
+   /*
+    * Returns the summed area table of the image, from which it can be area averaged to any size.
+    */
+   public SummedAreaTable summedAreaTable()
+   {
+      return new SummedAreaTable(this);
+   }
 
    /*
     * Simple method to dump the pelArray to the console as hex values per pel followed by a space.
@@ -546,14 +767,11 @@ public class PelArray
    {
       int iRow, iCol;
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
-
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         for (iCol = 0; iCol < width; ++iCol)
          {
-            System.out.printf(fmt, arrayOfPels[iRow][iCol]);
+            System.out.printf(fmt, getPel(iCol, iRow));
          }
          System.out.printf("\n");
       }
@@ -570,7 +788,7 @@ public class PelArray
     * Y = 0.3RED + 0.59GREEN + 0.11Blue
     * The colorToGrayscale method takes a color picture element (pel) and returns the gray scale pel using just one of may possible formulas
     */
-   int grayScalePel(int pel)
+   static int grayScalePel(int pel)
    {
       int blue   =  pel        & 0x00FF; // Extract the R, G, B color bytes
       int green  = (pel >> 8)  & 0x00FF;
@@ -587,23 +805,32 @@ public class PelArray
     */
    PelArray grayScaleImage()
    {
-      int iRow, iCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      return grayScaleImage(new PelArray(width, height));
+   }
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+   PelArray grayScaleImage(PelArray dest)
+   {
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      PelKernels.forRows(width, height, (firstRow, lastRow) ->
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         int iRow, iCol;
+         int index, newIndex;
+
+         for (iRow = firstRow;  iRow < lastRow; ++iRow)
          {
-            targetArray[iRow][iCol] = grayScalePel(arrayOfPels[iRow][iCol]);
+            index = offset + iRow * stride;
+            newIndex = dest.offset + iRow * dest.stride;
+
+            for (iCol = 0; iCol < width; ++iCol)
+            {
+               dest.pels[newIndex + iCol] = grayScalePel(pels[index + iCol]);
+            }
          }
-      }
+      });
 
-      return new PelArray(targetArray);
-   } // PelArray grayScaleImage()
+      return dest;
+   } // PelArray grayScaleImage(PelArray dest)
 
    /*
     * Takes the array of pels and returns a ones complement version of the PelArray
@@ -611,23 +838,32 @@ public class PelArray
     */
    public PelArray onesComplimentImage()
    {
-      int iRow, iCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      return onesComplimentImage(new PelArray(width, height));
+   }
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+   public PelArray onesComplimentImage(PelArray dest)
+   {
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      PelKernels.forRows(width, height, (firstRow, lastRow) ->
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         int iRow, iCol;
+         int index, newIndex;
+
+         for (iRow = firstRow;  iRow < lastRow; ++iRow)
          {
-            targetArray[iRow][iCol] = (~arrayOfPels[iRow][iCol]) & WHITE;
+            index = offset + iRow * stride;
+            newIndex = dest.offset + iRow * dest.stride;
+
+            for (iCol = 0; iCol < width; ++iCol)
+            {
+               dest.pels[newIndex + iCol] = (~pels[index + iCol]) & WHITE;
+            }
          }
-      }
+      });
 
-      return new PelArray(targetArray);
-   } // PelArray onesComplimentImage()
+      return dest;
+   } // PelArray onesComplimentImage(PelArray dest)
 
    /*
     * returns the pel masked with a single color: RED, GREEN or BLUE
@@ -646,23 +882,29 @@ public class PelArray
     */
    PelArray oneColorImage(int color)
    {
-      int iRow, iCol;
+      return oneColorImage(color, new PelArray(width, height));
+   }
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+   PelArray oneColorImage(int color, PelArray dest)
+   {
+      int iRow, iCol;
+      int index, newIndex;
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         index = offset + iRow * stride;
+         newIndex = dest.offset + iRow * dest.stride;
+
+         for (iCol = 0; iCol < width; ++iCol)
          {
-            targetArray[iRow][iCol] = oneColorPel(arrayOfPels[iRow][iCol], color);
+            dest.pels[newIndex + iCol] = oneColorPel(pels[index + iCol], color);
          }
       }
 
-      return new PelArray(targetArray);
-   } // PelArray oneColorImage(int color)
+      return dest;
+   } // PelArray oneColorImage(int color, PelArray dest)
 
    /*
     ** Looks at each pel and if it is below "limit" then it is given a value of "forced"
@@ -673,23 +915,29 @@ public class PelArray
     */
    PelArray forceMin(int limit, int forced)
    {
-      int iRow, iCol;
+      return forceMin(limit, forced, new PelArray(width, height));
+   }
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+   PelArray forceMin(int limit, int forced, PelArray dest)
+   {
+      int iRow, iCol;
+      int index, newIndex;
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         index = offset + iRow * stride;
+         newIndex = dest.offset + iRow * dest.stride;
+
+         for (iCol = 0; iCol < width; ++iCol)
          {
-            targetArray[iRow][iCol] = (arrayOfPels[iRow][iCol] < limit) ? forced : arrayOfPels[iRow][iCol];
+            dest.pels[newIndex + iCol] = (pels[index + iCol] < limit) ? forced : pels[index + iCol];
          }
       }
 
-      return new PelArray(targetArray);
-   } // PelArray forceMin(int limit, int forced)
+      return dest;
+   } // PelArray forceMin(int limit, int forced, PelArray dest)
 
    /*
     ** Looks at each pel and if it is above "limit" then it is given a value of "forced"
@@ -700,23 +948,29 @@ public class PelArray
     */
    PelArray forceMax(int limit, int forced)
    {
-      int iRow, iCol;
+      return forceMax(limit, forced, new PelArray(width, height));
+   }
 
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+   PelArray forceMax(int limit, int forced, PelArray dest)
+   {
+      int iRow, iCol;
+      int index, newIndex;
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      for (iRow = 0;  iRow < height; ++iRow)
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         index = offset + iRow * stride;
+         newIndex = dest.offset + iRow * dest.stride;
+
+         for (iCol = 0; iCol < width; ++iCol)
          {
-            targetArray[iRow][iCol] = (arrayOfPels[iRow][iCol] > limit) ? forced : arrayOfPels[iRow][iCol];
+            dest.pels[newIndex + iCol] = (pels[index + iCol] > limit) ? forced : pels[index + iCol];
          }
       }
 
-      return new PelArray(targetArray);
-   } // PelArray forceMax(int limit, int forced)
+      return dest;
+   } // PelArray forceMax(int limit, int forced, PelArray dest)
 
    /*
     ** Adds the passed offsets (positive or negative) to the red, green and blue values of the PelArray.
@@ -730,43 +984,56 @@ public class PelArray
     */
    public PelArray offsetColors(int redOffset, int greenOffset, int blueOffset)
    {
-      int iRow, iCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
+      return offsetColors(redOffset, greenOffset, blueOffset, new PelArray(width, height));
+   }
 
-      int[][] targetArray = new int[iRowCount][iColCount];
+   public PelArray offsetColors(int redOffset, int greenOffset, int blueOffset, PelArray dest)
+   {
+      checkDest(dest, width, height);
 
-      for (iRow = 0;  iRow < iRowCount; ++iRow)
+      PelKernels.forRows(width, height, (firstRow, lastRow) ->
       {
-         for (iCol = 0; iCol < iColCount; ++iCol)
+         int iRow, iCol;
+         int index, newIndex;
+
+         for (iRow = firstRow;  iRow < lastRow; ++iRow)
          {
-            int pelRedValue, pelGreenValue, pelBlueValue;
-            /*
-             **  Remember that RED = 0x00FF0000, GREEN = 0x0000FF00 and BLUE  = 0x000000FF, so we need to shift red and green to get the byte value between 0 and 255
-             */
-            pelRedValue   = ((arrayOfPels[iRow][iCol] & RED)   >> 16) + redOffset;   // Mask off the relevant color, make it 0-255 and add the passed color offsets
-            pelGreenValue = ((arrayOfPels[iRow][iCol] & GREEN) >>  8) + greenOffset;
-            pelBlueValue  = (arrayOfPels[iRow][iCol] & BLUE)          + blueOffset;
-
-            /*
-             ** Now make sure that each color stays in the range 0 to 255
-             */
-            pelRedValue = min(pelRedValue, 255);
-            pelRedValue = max(pelRedValue, 0);
-
-            pelGreenValue = min(pelGreenValue, 255);
-            pelGreenValue = max(pelGreenValue, 0);
-
-            pelBlueValue = min(pelBlueValue, 255);
-            pelBlueValue = max(pelBlueValue, 0);
-
-            targetArray[iRow][iCol] = (pelRedValue  << 16) | (pelGreenValue << 8) | pelBlueValue; // Rebuild the picture element with the new color values
+            index = offset + iRow * stride;
+            newIndex = dest.offset + iRow * dest.stride;
+
+            for (iCol = 0; iCol < width; ++iCol)
+            {
+               dest.pels[newIndex + iCol] = offsetColorsPel(pels[index + iCol], redOffset, greenOffset, blueOffset);
+            }
          }
-      }
+      });
 
-      return new PelArray(targetArray);
-   } // PelArray offsetColors(int redOffset, int greenOffset, int blueOffset)
+      return dest;
+   } // PelArray offsetColors(int redOffset, int greenOffset, int blueOffset, PelArray dest)
+
+   /*
+    ** Adds the offsets to the colors of one pel, keeping each color in the range 0 to 255.
+    */
+   static int offsetColorsPel(int pel, int redOffset, int greenOffset, int blueOffset)
+   {
+      int pelRedValue, pelGreenValue, pelBlueValue;
+
+      /*
+       **  Remember that RED = 0x00FF0000, GREEN = 0x0000FF00 and BLUE  = 0x000000FF, so we need to shift red and green to get the byte value between 0 and 255
+       */
+      pelRedValue   = ((pel & RED)   >> 16) + redOffset;   // Mask off the relevant color, make it 0-255 and add the passed color offsets
+      pelGreenValue = ((pel & GREEN) >>  8) + greenOffset;
+      pelBlueValue  = (pel & BLUE)          + blueOffset;
+
+      /*
+       ** Now make sure that each color stays in the range 0 to 255
+       */
+      pelRedValue = Math.max(Math.min(pelRedValue, 255), 0);
+      pelGreenValue = Math.max(Math.min(pelGreenValue, 255), 0);
+      pelBlueValue = Math.max(Math.min(pelBlueValue, 255), 0);
+
+      return (pelRedValue  << 16) | (pelGreenValue << 8) | pelBlueValue; // Rebuild the picture element with the new color values
+   } // static int offsetColorsPel(int pel, int redOffset, int greenOffset, int blueOffset)
 
    /*
     ** A couple of small methods to find the min and max of a couple of integers.
@@ -781,61 +1048,45 @@ public class PelArray
       return((a > b) ? a : b);
    }
 
-   public PelArray pad(int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color)
+   /*
+    ** Sets every pel of the image to one color.
+    */
+   public PelArray fill(int color)
    {
-      int iRow, iCol;
-
-      int iRowCount = arrayOfPels.length;
-      int iColCount = arrayOfPels[0].length;
-
-      int[][] targetArray =
-            new int[iRowCount + yTopPad + yBottomPad][iColCount + xLeftPad + xRightPad];
+      int iRow;
 
-      int iNewRowCount = targetArray.length;
-      int iNewColCount = targetArray[0].length;
-
-      for (iRow = yTopPad; iRow < yTopPad + iRowCount; iRow++) //Copy existing image
+      for (iRow = 0; iRow < height; ++iRow)
       {
-         for (iCol = xLeftPad; iCol < xLeftPad + iColCount; iCol++)
-         {
-            targetArray[iRow][iCol] = arrayOfPels[iRow - yTopPad][iCol - xLeftPad];
-         }
+         java.util.Arrays.fill(pels, offset + iRow * stride, offset + iRow * stride + width, color);
       }
+      comKnownFlag = false;
 
-      for (iRow = 0; iRow < yTopPad; iRow++) //Top Pad
-      {
-         for (iCol = 0; iCol < iNewColCount; iCol++)
-         {
-            targetArray[iRow][iCol] = color;
-         }
-      }
+      return this;
+   }
 
-      for (iRow = yTopPad + iRowCount; iRow < iNewRowCount; iRow++) //Bottom Pad
-      {
-         for (iCol = 0; iCol < iNewColCount; iCol++)
-         {
-            targetArray[iRow][iCol] = color;
-         }
-      }
+   /*
+    ** Surrounds the image with borders of the given widths, filled with the given color.
+    **
+    ** Returns a new PelArray object
+    */
+   public PelArray pad(int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color)
+   {
+      return pad(xLeftPad, yTopPad, xRightPad, yBottomPad, color,
+            new PelArray(width + xLeftPad + xRightPad, height + yTopPad + yBottomPad));
+   }
 
-      for (iRow = yTopPad; iRow < yTopPad + iRowCount; iRow++) //Left Pad (without corner)
-      {
-         for (iCol = 0; iCol < xLeftPad; iCol++)
-         {
-            targetArray[iRow][iCol] = color;
-         }
-      }
+   /*
+    ** Pads into dest, which must be a different image of the padded size. The whole of dest is filled
+    ** with the color and then the image is copied into the middle one row at a time.
+    */
+   public PelArray pad(int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color, PelArray dest)
+   {
+      checkDest(dest, width + xLeftPad + xRightPad, height + yTopPad + yBottomPad);
 
-      for (iRow = yTopPad; iRow < yTopPad + iRowCount; iRow++) //Right Pad (without corner)
-      {
-         for (iCol = xLeftPad + iColCount; iCol < iNewColCount; iCol++)
-         {
-            targetArray[iRow][iCol] = color;
-         }
-      }
+      dest.fill(color);
+      crop(0, 0, width - 1, height - 1, dest.crop(xLeftPad, yTopPad, xLeftPad + width - 1, yTopPad + height - 1));
 
-      return new PelArray(targetArray);
-   }
+      return dest;
+   } // PelArray pad(int xLeftPad, int yTopPad, int xRightPad, int yBottomPad, int color, PelArray dest)
 
 } // public class PelArray
-
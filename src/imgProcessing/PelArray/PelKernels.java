@@ -0,0 +1,279 @@
+package imgProcessing.PelArray;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The PelKernels class holds the row band parallelism shared by PelArray and LazyPelArray.
+ *
+ * An image is split into bands of whole rows, each large enough to be worth a task, and the bands
+ * are run on the common fork/join pool. Images smaller than one band run on the calling thread.
+ *
+ * The center of mass is summed exactly in integers by the Moments class: each band sums its rows
+ * into 128 bit totals, and the totals of the bands are added together, so the result does not
+ * depend on how the image was split or on the order the bands finished in. The totals are turned
+ * into doubles only at the end. Whenever the sums fit in 53 bits this is the same as summing in
+ * doubles one pel at a time; for larger images it is the exact value that the double sum only
+ * came close to.
+ *
+ * Methods in the PelKernels class are
+ *  rowsPerTask(int)          - Return the number of rows in a band of an image of the given width
+ *  forRows(int, int, Band)   - Run an action over all the rows of an image, in parallel bands
+ *  forRows(int, int, int, Band)   - The same, with at least the given number of rows in a band
+ *  moments(int, int, BandMoments) - Sum the moments of all the rows of an image, in parallel bands
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+final class PelKernels
+{
+   static final int MIN_PELS_PER_TASK = 1 << 16;   // Smallest band worth running as its own task
+
+   private PelKernels()
+   {
+   }
+
+   /*
+    * An action on the rows firstRow (inclusive) to lastRow (exclusive).
+    */
+   interface Band
+   {
+      void run(int firstRow, int lastRow);
+   }
+
+   /*
+    * Sums the moments of the rows firstRow (inclusive) to lastRow (exclusive).
+    */
+   interface BandMoments
+   {
+      Moments sum(int firstRow, int lastRow);
+   }
+
+   static int rowsPerTask(int width)
+   {
+      return Math.max(1, MIN_PELS_PER_TASK / width);
+   }
+
+   /*
+    * Runs band over every row of an image of the given size, split into bands run in parallel.
+    */
+   static void forRows(int width, int height, Band band)
+   {
+      forRows(width, height, 1, band);
+   }
+
+   /*
+    * Runs band over every row of an image, with at least minRows rows in each band.
+    */
+   static void forRows(int width, int height, int minRows, Band band)
+   {
+      int rows = Math.max(minRows, rowsPerTask(width));
+
+      if (height <= rows) band.run(0, height);
+      else ForkJoinPool.commonPool().invoke(new BandAction(band, 0, height, rows));
+   }
+
+   /*
+    * Sums the moments of every row of an image of the given size, split into bands run in parallel.
+    */
+   static Moments moments(int width, int height, BandMoments band)
+   {
+      int rows = rowsPerTask(width);
+
+      if (height <= rows) return band.sum(0, height);
+      return ForkJoinPool.commonPool().invoke(new MomentsTask(band, 0, height, rows));
+   }
+
+   @SuppressWarnings("serial")                             // Never serialized
+   private static class BandAction extends RecursiveAction
+   {
+      private final Band band;
+      private final int firstRow, lastRow, rows;
+
+      BandAction(Band band, int firstRow, int lastRow, int rows)
+      {
+         this.band = band;
+         this.firstRow = firstRow;
+         this.lastRow = lastRow;
+         this.rows = rows;
+      }
+
+      protected void compute()
+      {
+         int middle;
+
+         if (lastRow - firstRow <= rows)
+         {
+            band.run(firstRow, lastRow);
+         }
+         else
+         {
+            middle = (firstRow + lastRow) >>> 1;
+            invokeAll(new BandAction(band, firstRow, middle, rows), new BandAction(band, middle, lastRow, rows));
+         }
+      }
+   } // private static class BandAction extends RecursiveAction
+
+   @SuppressWarnings("serial")                             // Never serialized
+   private static class MomentsTask extends RecursiveTask<Moments>
+   {
+      private final BandMoments band;
+      private final int firstRow, lastRow, rows;
+
+      MomentsTask(BandMoments band, int firstRow, int lastRow, int rows)
+      {
+         this.band = band;
+         this.firstRow = firstRow;
+         this.lastRow = lastRow;
+         this.rows = rows;
+      }
+
+      protected Moments compute()
+      {
+         int middle;
+         MomentsTask upper;
+         Moments lower;
+
+         if (lastRow - firstRow <= rows) return band.sum(firstRow, lastRow);
+
+         middle = (firstRow + lastRow) >>> 1;
+         upper = new MomentsTask(band, middle, lastRow, rows);
+         upper.fork();
+         lower = new MomentsTask(band, firstRow, middle, rows).compute();
+
+         return lower.add(upper.join());
+      }
+   } // private static class MomentsTask extends RecursiveTask<Moments>
+
+   /*
+    * The mass of an image and its moments about the x and y axes, as exact 128 bit integers held in
+    * a high and a low long each.
+    */
+   static final class Moments
+   {
+      static final int COLUMNS_PER_SUM = 1 << 16;   // Columns of one row summed in a long without overflow
+
+      private long massHi, massLo;
+      private long colHi, colLo;                    // Sum of column * pel
+      private long rowHi, rowLo;                    // Sum of row * pel
+
+      /*
+       * Adds n pels of row iRow, starting at pels[start], whose first pel is in column 0. Up to
+       * COLUMNS_PER_SUM columns at a time are summed in longs: each product of a column and a pel is
+       * under 2^47, so the sums cannot overflow.
+       */
+      void addRow(int[] pels, int start, int n, int iRow)
+      {
+         int first, count, i;
+         long mass, col;
+
+         for (first = 0; first < n; first += COLUMNS_PER_SUM)
+         {
+            count = Math.min(COLUMNS_PER_SUM, n - first);
+            mass = 0L;
+            col = 0L;
+
+            for (i = 0; i < count; ++i)
+            {
+               mass += pels[start + first + i];
+               col += (long)i * pels[start + first + i];
+            }
+
+            addMass(mass);
+            addCol(col);
+            addColProduct(first, mass);                // The columns were counted from first
+            addRowProduct(iRow, mass);
+         } // for (first = 0; first < n; first += COLUMNS_PER_SUM)
+      } // void addRow(int[] pels, int start, int n, int iRow)
+
+      /*
+       * Adds the totals of another Moments to these and returns this one.
+       */
+      Moments add(Moments m)
+      {
+         long lo;
+
+         lo = massLo + m.massLo;
+         massHi += m.massHi + carry(massLo, lo);
+         massLo = lo;
+
+         lo = colLo + m.colLo;
+         colHi += m.colHi + carry(colLo, lo);
+         colLo = lo;
+
+         lo = rowLo + m.rowLo;
+         rowHi += m.rowHi + carry(rowLo, lo);
+         rowLo = lo;
+
+         return this;
+      } // Moments add(Moments m)
+
+      private void addMass(long v)
+      {
+         long lo = massLo + v;
+
+         massHi += (v >> 63) + carry(massLo, lo);
+         massLo = lo;
+      }
+
+      private void addCol(long v)
+      {
+         long lo = colLo + v;
+
+         colHi += (v >> 63) + carry(colLo, lo);
+         colLo = lo;
+      }
+
+      private void addColProduct(long a, long b)
+      {
+         long lo = colLo + a * b;
+
+         colHi += Math.multiplyHigh(a, b) + carry(colLo, lo);
+         colLo = lo;
+      }
+
+      private void addRowProduct(long a, long b)
+      {
+         long lo = rowLo + a * b;
+
+         rowHi += Math.multiplyHigh(a, b) + carry(rowLo, lo);
+         rowLo = lo;
+      }
+
+      /*
+       * Returns 1 if adding to the unsigned low word before gave after with a carry out, else 0.
+       */
+      private static long carry(long before, long after)
+      {
+         return (Long.compareUnsigned(after, before) < 0) ? 1L : 0L;
+      }
+
+      double mass()
+      {
+         return toDouble(massHi, massLo);
+      }
+
+      double colMoment()
+      {
+         return toDouble(colHi, colLo);
+      }
+
+      double rowMoment()
+      {
+         return toDouble(rowHi, rowLo);
+      }
+
+      /*
+       * Rounds a 128 bit integer to the nearest double.
+       */
+      private static double toDouble(long hi, long lo)
+      {
+         if (hi == (lo >> 63)) return (double)lo;  // Fits in a long
+
+         return BigInteger.valueOf(hi).shiftLeft(64).add(new BigInteger(Long.toUnsignedString(lo))).doubleValue();
+      }
+   } // static final class Moments
+
+} // final class PelKernels
@@ -0,0 +1,254 @@
+package imgProcessing.PelArray;
+
+/**
+ * The SummedAreaTable class holds, for each color of an image, the sum of every pel above and to
+ * the left of each point. Once it is built, the sum of any rectangle of the image is found from the
+ * four table entries at its corners, so the average of a box of any size costs the same.
+ *
+ * scale() uses it to shrink an image by area averaging: each new pel is the average of the part of
+ * the source image it covers, with the source pels cut by its edges counted by the fraction of them
+ * that is covered. Every source pel is counted, however large the reduction, so fine lines and
+ * noise are averaged instead of being picked up or missed by the sampling of PelArray.scale(). The
+ * table does not depend on the new size, so one image can be scaled to several sizes from it.
+ *
+ * The red, green and blue bytes of each pel are averaged separately and the top byte is dropped,
+ * the same as offsetColors(). Each average is worked out exactly in integers and rounded to the
+ * nearest value, halves up, so a reduction by a whole factor gives the rounded mean of each block.
+ *
+ * The sums are kept in longs, so no sum can overflow: a 5100x6600 page scanned at 600 dpi sums to
+ * under 2^34 in each color. That costs 24 bytes for each pel of the image, so the table of such a
+ * page takes about 800 MB. The only limit on the size of the image is that the table of
+ * (width + 1) x (height + 1) entries must fit in one array, so it may have up to MAX_PELS pels.
+ *
+ * Methods in the SummedAreaTable class are
+ *  SummedAreaTable(PelArray) - Build the table of an image
+ *  getWidth()   - Return the width of the image
+ *  getHeight()  - Return the height of the image
+ *  boxAverage(int, int, int, int) - Return the average of the given frame of the image (inclusive)
+ *  scale(int, int)           - Scale the image to the new width and height by area averaging
+ *  scale(int, int, PelArray) - The same, into a given PelArray
+ *
+ * Author: Akul Goyal
+ * Date of Creation: 10/18/2026
+ */
+public class SummedAreaTable
+{
+   public static final int MAX_PELS = Integer.MAX_VALUE - 8;      // Largest table one array can hold
+
+   private final int width;
+   private final int height;
+   private final long[] red;           // (width + 1) x (height + 1) sums, row after row. Row 0 and column 0 are zero.
+   private final long[] green;
+   private final long[] blue;
+
+   public SummedAreaTable(PelArray img)
+   {
+      int iRow, iCol, index, above;
+      int tableWidth;
+
+      width = img.getWidth();
+      height = img.getHeight();
+
+      if ((long)(width + 1) * (height + 1) > MAX_PELS)
+         throw new IllegalArgumentException("A " + width + "x" + height + " image is larger than a SummedAreaTable can hold");
+
+      tableWidth = width + 1;
+      red = new long[tableWidth * (height + 1)];
+      green = new long[red.length];
+      blue = new long[red.length];
+
+      /*
+       ** First the running sum along each row, in parallel bands of rows
+       */
+      PelKernels.forRows(width, height, (firstRow, lastRow) ->
+      {
+         int[] pels = img.getPels();
+         int pel, source, table;
+         long r, g, b;
+
+         for (int iSourceRow = firstRow; iSourceRow < lastRow; ++iSourceRow)
+         {
+            source = img.getOffset() + iSourceRow * img.getStride();
+            table = (iSourceRow + 1) * tableWidth + 1;
+            r = g = b = 0L;
+
+            for (int iSourceCol = 0; iSourceCol < width; ++iSourceCol)
+            {
+               pel = pels[source + iSourceCol];
+               r += (pel >> 16) & 0xFF;
+               g += (pel >> 8) & 0xFF;
+               b += pel & 0xFF;
+               red[table + iSourceCol] = r;
+               green[table + iSourceCol] = g;
+               blue[table + iSourceCol] = b;
+            }
+         }
+      });
+
+      /*
+       ** and then add in the row above, from the top down
+       */
+      for (iRow = 2; iRow <= height; ++iRow)
+      {
+         index = iRow * tableWidth;
+         above = index - tableWidth;
+
+         for (iCol = 1; iCol <= width; ++iCol)
+         {
+            red[index + iCol] += red[above + iCol];
+            green[index + iCol] += green[above + iCol];
+            blue[index + iCol] += blue[above + iCol];
+         }
+      }
+   } // public SummedAreaTable(PelArray img)
+
+   public int getWidth()
+   {
+      return width;
+   }
+
+   public int getHeight()
+   {
+      return height;
+   }
+
+   /*
+    * Returns the average of the given frame (inclusive) of the image.
+    */
+   public int boxAverage(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
+   {
+      int upperLeft, upperRight, lowerLeft, lowerRight;
+      long count;
+
+      if (xUpperLeft < 0 || yUpperLeft < 0 || xLowerRight >= width || yLowerRight >= height ||
+            xUpperLeft > xLowerRight || yUpperLeft > yLowerRight)
+         throw new IllegalArgumentException("Box (" + xUpperLeft + "," + yUpperLeft + ")-(" + xLowerRight + "," + yLowerRight +
+               ") is outside the " + width + "x" + height + " image");
+
+      upperLeft = yUpperLeft * (width + 1) + xUpperLeft;
+      upperRight = upperLeft + xLowerRight - xUpperLeft + 1;
+      lowerLeft = (yLowerRight + 1) * (width + 1) + xUpperLeft;
+      lowerRight = lowerLeft + xLowerRight - xUpperLeft + 1;
+      count = (long)(xLowerRight - xUpperLeft + 1) * (yLowerRight - yUpperLeft + 1);
+
+      return (average(red[lowerRight] - red[lowerLeft] - red[upperRight] + red[upperLeft], count) << 16) |
+             (average(green[lowerRight] - green[lowerLeft] - green[upperRight] + green[upperLeft], count) << 8) |
+              average(blue[lowerRight] - blue[lowerLeft] - blue[upperRight] + blue[upperLeft], count);
+   } // public int boxAverage(int xUpperLeft, int yUpperLeft, int xLowerRight, int yLowerRight)
+
+   /*
+    * Scale the image to a new size by area averaging.
+    * Returns a new PelArray object
+    */
+   public PelArray scale(int newColumnWidth, int newRowHeight)
+   {
+      return scale(newColumnWidth, newRowHeight, new PelArray(newColumnWidth, newRowHeight));
+   }
+
+   /*
+    * Scale into dest, which must have the new size. New column iCol covers the source from
+    * iCol * width / newColumnWidth to (iCol + 1) * width / newColumnWidth, and rows likewise.
+    *
+    * The sum of the source over the rectangle from (0,0) to a point inside a table cell is the
+    * bilinear interpolation of the sums at the corners of the cell, because the pel covering the
+    * cell is constant. Measured in 1/newColumnWidth of a source column and 1/newRowHeight of a
+    * source row, the interpolation weights are whole numbers, so the sum over each new pel times
+    * newColumnWidth * newRowHeight is a whole number too: the four corners of the new pel each
+    * need four table entries, weighted by the cornerWeights() of their column and of their row.
+    * Dividing that by width * height gives the average.
+    */
+   public PelArray scale(int newColumnWidth, int newRowHeight, PelArray dest)
+   {
+      int[] xIndex, xWeight, yIndex, yWeight;
+      long count = (long)width * height;
+
+      if (dest.getWidth() != newColumnWidth || dest.getHeight() != newRowHeight)
+         throw new IllegalArgumentException("Destination is " + dest.getWidth() + "x" + dest.getHeight() + ", expected " + newColumnWidth + "x" + newRowHeight);
+
+      xIndex = new int[4 * newColumnWidth];
+      xWeight = new int[4 * newColumnWidth];
+      yIndex = new int[4 * newRowHeight];
+      yWeight = new int[4 * newRowHeight];
+      cornerWeights(width, newColumnWidth, 1, xIndex, xWeight);
+      cornerWeights(height, newRowHeight, width + 1, yIndex, yWeight);
+
+      PelKernels.forRows(newColumnWidth, newRowHeight, (firstRow, lastRow) ->
+      {
+         int[] pels = dest.getPels();
+         int newIndex;
+
+         for (int iRow = firstRow; iRow < lastRow; ++iRow)
+         {
+            newIndex = dest.getOffset() + iRow * dest.getStride();
+
+            for (int iCol = 0; iCol < newColumnWidth; ++iCol)
+            {
+               pels[newIndex + iCol] =
+                     (average(boxSum(red, xIndex, xWeight, 4 * iCol, yIndex, yWeight, 4 * iRow), count) << 16) |
+                     (average(boxSum(green, xIndex, xWeight, 4 * iCol, yIndex, yWeight, 4 * iRow), count) << 8) |
+                      average(boxSum(blue, xIndex, xWeight, 4 * iCol, yIndex, yWeight, 4 * iRow), count);
+            }
+         }
+      });
+      dest.pelsChanged();
+
+      return dest;
+   } // public PelArray scale(int newColumnWidth, int newRowHeight, PelArray dest)
+
+   /*
+    * Works out, for each of the newSize new columns (or rows) of an image oldSize wide (or high), the
+    * four table columns (or rows) its two edges fall between, as index = column * step, and their
+    * weights: minus for the leading edge and plus for the trailing one, split between the two table
+    * columns by how far the edge is between them, in 1/newSize of a column.
+    */
+   private static void cornerWeights(int oldSize, int newSize, int step, int[] index, int[] weight)
+   {
+      int i, lead, trail;
+      long leadEdge, trailEdge;
+
+      for (i = 0; i < newSize; ++i)
+      {
+         leadEdge = (long)i * oldSize;           // Edges in 1/newSize of a source column
+         trailEdge = leadEdge + oldSize;
+         lead = (int)(leadEdge / newSize);
+         trail = (int)(trailEdge / newSize);
+
+         index[4 * i]     = lead * step;
+         weight[4 * i]    = -(newSize - (int)(leadEdge % newSize));
+         index[4 * i + 1] = Math.min(lead + 1, oldSize) * step; // Its weight is 0 at the last column
+         weight[4 * i + 1] = -(int)(leadEdge % newSize);
+         index[4 * i + 2] = trail * step;
+         weight[4 * i + 2] = newSize - (int)(trailEdge % newSize);
+         index[4 * i + 3] = Math.min(trail + 1, oldSize) * step;
+         weight[4 * i + 3] = (int)(trailEdge % newSize);
+      } // for (i = 0; i < newSize; ++i)
+   } // private static void cornerWeights(int oldSize, int newSize, int step, int[] index, int[] weight)
+
+   /*
+    * Returns the weighted sum of the sixteen table entries for one new pel. The products may wrap,
+    * but the sum is at most 255 * width * height, so it comes out exact.
+    */
+   private static long boxSum(long[] table, int[] xIndex, int[] xWeight, int x, int[] yIndex, int[] yWeight, int y)
+   {
+      int p, q;
+      long row, sum = 0L;
+
+      for (q = y; q < y + 4; ++q)
+      {
+         row = 0L;
+         for (p = x; p < x + 4; ++p) row += xWeight[p] * table[yIndex[q] + xIndex[p]];
+         sum += yWeight[q] * row;
+      }
+
+      return sum;
+   }
+
+   /*
+    * Divides a sum by a count, rounding halves up.
+    */
+   private static int average(long sum, long count)
+   {
+      return (int)((sum + count / 2) / count);
+   }
+
+} // public class SummedAreaTable
@@ -5,15 +5,16 @@ package imgProcessing;
  *
  * Author Akul Goyal
  * Date Created: April 23, 2024
- * Date Modified: June 14, 2024
+ * Date Modified: October 18, 2026
  *
  * This code reads in a list of binary file paths which represent either gray scale (1 byte)
  * or BGR color (3 bytes) images and converts each one into a BMP file.
  *
  *
- * Usage: java bin2bmpAll input_paths_file output_directory
+ * Usage: java bin2bmpAll input_paths_file output_directory [threads]
  *
- * If two arguments are not passed, then a usage message is presented to the user.
+ * If two or three arguments are not passed, then a usage message is presented to the user. The
+ * number of threads must be at least 1.
  *
  * Each binary image file must have a corresponding header file with the same base name
  * and a ".txt" extension. The header file must contain the following information:
@@ -32,86 +33,133 @@ package imgProcessing;
  * 480
  * gray
  *
- * Relies on the BGR2BMP class to convert the binary image to a BMP file. BGR2BMP must be in the
- * same directory as this class, else change its location at the line marked with "CHANGE THIS".
+ * Relies on the BGR2BMP class to convert each binary image to a BMP file. The images are converted
+ * in this process by a pool of threads, the number of processors by default, so converting many
+ * small images is limited by the disk rather than by starting a JVM for each one. The paths are
+ * printed in the order of the list, with any problem found converting each image.
  */
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class bin2bmpAll
 {
    /**
     * Reads in a text file containing paths to binary image files and converts each one to a BMP
-    * file. Reads the header file (path determined from binary file name) for each binary image to
-    * determine the width, height, and type of image (gray or BGR). Gives a command line call to
-    * the BGR2BMP class to convert each binary image to a BMP file, saved in the output directory.
+    * file in the output directory, on a pool of threads.
     *
-    * @param args - two arguments: path to file containing input paths, path to output directory
-    * @throws IOException - if an I/O error occurs
+    * @param args - two or three arguments: path to file containing input paths, path to output
+    *             directory, and optionally the number of threads
+    * @throws IOException - if the file of input paths cannot be read
     * @throws InterruptedException - if a thread is interrupted
     */
    public static void main(String[] args) throws IOException, InterruptedException
    {
       // Check if the number of arguments is correct
-      if (args.length != 2)
+      if (args.length != 2 && args.length != 3)
       {
-         System.out.println("Usage: java bin2bmpAll input_paths_file output_directory");
+         System.out.println("Usage: java bin2bmpAll input_paths_file output_directory [threads]");
       }
       else
       {
          // Ensure the output directory path ends with a '/'
-         if (!args[1].endsWith("/"))
+         String outDir = args[1].endsWith("/") ? args[1] : args[1] + "/";
+         int threads = (args.length == 3) ? Integer.parseInt(args[2]) :
+               Runtime.getRuntime().availableProcessors();
+         if (threads < 1)
          {
-            args[1] = args[1] + "/";
+            System.out.println("The number of threads must be at least 1, read " + threads);
+            return;
          }
+         long start = System.nanoTime();
+         int converted = 0;
 
-         // Read the input paths file
-         BufferedReader br = new BufferedReader(new FileReader(args[0]));
-         String fileName;
-         int width;
-         int height;
-         String type;
-         String cmd = "java BGR2BMP"; // Command to run the conversion utility - CHANGE THIS
-         Runtime r;
-         Process p;
-         String outFile;
+         ExecutorService pool = Executors.newFixedThreadPool(threads);
+         List<String> paths = new ArrayList<>();
+         List<Future<String>> results = new ArrayList<>();
 
-         String line;
-         while ((line = br.readLine()) != null)
+         try
          {
-            System.out.println(line);
-
-            // Extract the file name from the path
-            fileName = extractFileName(line);
-
-            // Construct the output file path
-            outFile = args[1] + fileName + ".bmp";
+            // Read the input paths file and queue every image
+            BufferedReader br = new BufferedReader(new FileReader(args[0]));
+            String line;
+            while ((line = br.readLine()) != null)
+            {
+               final String path = line;
+               paths.add(path);
+               results.add(pool.submit(() -> convert(path, outDir)));
+            }
+            br.close(); // Close the BufferedReader
 
-            // Construct the header file path and read the image properties
-            String headerPath = line.substring(0, line.indexOf(".")) + ".txt";
-            BufferedReader headerIn = new BufferedReader(new FileReader(headerPath));
+            // Report on each image in the order of the list
+            for (int i = 0; i < paths.size(); i++)
+            {
+               System.out.println(paths.get(i));
+               try
+               {
+                  String problem = results.get(i).get();
+                  if (problem != null)
+                  {
+                     System.out.println(problem);
+                  }
+                  converted++;
+               }
+               catch (ExecutionException e)
+               {
+                  System.out.println("Skipped " + paths.get(i) + ": " + e.getCause());
+               }
+            } //for (int i = 0; i < paths.size(); i++)
+         } //try
+         finally
+         {
+            pool.shutdown(); // Lets the threads end, so the JVM can exit, whatever went wrong
+         }
 
-            width = Integer.parseInt(headerIn.readLine()); // Read the width
-            height = Integer.parseInt(headerIn.readLine()); // Read the height
-            type = headerIn.readLine().trim(); // Read the image type (e.g., BGR, gray)
+         System.out.println("Converted " + converted + " of " + paths.size() + " images in " +
+               (System.nanoTime() - start) / 1000000 + " ms");
+      } //if (args.length != 2 && args.length != 3)...else
+   } //public static void main(String[] args) throws IOException, InterruptedException
 
-            // Execute the command to convert the binary file to BMP format
-            r = Runtime.getRuntime();
-            p = r.exec(cmd + " " + type + " " + width + " " + height + " " + line + " " + outFile);
+   /**
+    * Reads the header file of a binary image to find its width, height, and type, and converts it
+    * to a BMP file in the output directory. Called from several threads at once.
+    *
+    * @param path   the path to the binary image file
+    * @param outDir the output directory, ending with a '/'
+    * @return a message if the image was shorter than its header says, else null
+    * @throws IOException if the header or the image cannot be read, or the BMP cannot be written
+    */
+   public static String convert(String path, String outDir) throws IOException
+   {
+      // Construct the header file path and read the image properties
+      String headerPath = path.substring(0, path.indexOf(".")) + ".txt";
+      BufferedReader headerIn = new BufferedReader(new FileReader(headerPath));
+      int width;
+      int height;
+      String type;
+      try
+      {
+         width = Integer.parseInt(headerIn.readLine().trim()); // Read the width
+         height = Integer.parseInt(headerIn.readLine().trim()); // Read the height
+         type = headerIn.readLine().trim(); // Read the image type (e.g., BGR, gray)
+      }
+      finally
+      {
+         headerIn.close();
+      }
+      boolean colorImage = type.equalsIgnoreCase("BGR") || type.equalsIgnoreCase("color");
 
-            // Read and print the output from the conversion process
-            BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            String ln;
-            while ((ln = reader.readLine()) != null)
-            {
-               System.out.println(ln);
-            }
-            p.waitFor(); // Wait for the process to complete
-         } //while ((line = br.readLine()) != null)
+      int pels = BGR2BMP.convert(colorImage, width, height, path,
+            outDir + extractFileName(path) + ".bmp");
 
-         br.close(); // Close the BufferedReader
-      } //if (args.length != 2)...else
-   } //public static void main(String[] args) throws IOException, InterruptedException
+      return (pels == width * height) ? null :
+            pels + " pels read out of " + width * height + " expected";
+   } //public static String convert(String path, String outDir)
 
    /**
     * Extracts the file name, without the extension, from a given path.
@@ -0,0 +1,479 @@
+package imgProcessing;
+
+import imgProcessing.PelArray.LazyPelArray;
+import imgProcessing.PelArray.PelArray;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ingestAll class turns a list of BMP scans into network inputs in one process. It does the
+ * work of bmp2binAll, oneByteToPelArrayAll and scaleAll without launching a JVM per image or
+ * writing intermediate files.
+ *
+ * Each image goes through three stages, and each stage runs on its own pool of worker threads:
+ *
+ * 1. Decode: the BMP is decoded by BMPDecoder and converted to one gray scale byte per pel, with
+ *    the rows in the order BMP2OneByte writes them.
+ * 2. Transform: the image is thresholded, complemented, padded, cropped around its center of mass,
+ *    color offset and scaled, the same as oneByteToPelArrayAll.
+ * 3. Write: each pel is quantized to a byte and written as a double divided by 255, the same as
+ *    scaleAll, to a binary file in the output directory.
+ *
+ * The stages are connected by bounded queues. A stage that gets ahead of the next one blocks until
+ * there is room, so only a few images per thread are held in memory at a time, however long the
+ * list of scans is. An image that cannot be read, or that runs out of memory, is reported and
+ * skipped. A worker always passes the end of the list on when it stops, so the pipeline cannot
+ * hang waiting for it.
+ *
+ * An IngestManifest in the output directory records the scans already processed, with a hash of
+ * their contents and the parameters they were processed with. A scan whose size and modified time
+ * have not changed since is skipped without being read. A scan that has been touched or copied is
+ * hashed in the decode stage and skipped if its contents are the same. So after adding a few scans
+ * to a list, rerunning it only processes the new ones. Delete the manifest to process every scan.
+ *
+ * Each output is named after its scan, without the directory, so two scans with the same name in
+ * different directories would be written to the same file. The list is read in full before any
+ * scan is processed, and if two of its scans share an output name, nothing is processed and every
+ * clash is reported. A scan listed more than once is only processed once.
+ *
+ * Usage: java ingestAll input_paths_file output_directory threshold_value [threads [size]]
+ *
+ * The threshold value may be "x" for no threshold. The number of threads in each stage defaults to
+ * the number of available processors. The size of the scaled images is given as WIDTHxHEIGHT, and
+ * defaults to DESIRED_WIDTHxDESIRED_HEIGHT, 86x100. Their width times their height is the number of
+ * inputs of the network they are for, so a network with a different number of inputs needs its
+ * images made at another size. ScanWatcher must preprocess scans at the same size.
+ *
+ * Author: Akul Goyal
+ * Date Created: October 18, 2026
+ * Date Modified: October 18, 2026
+ */
+public class ingestAll {
+   public static final int X_OFF = 600;                    // Half width of the crop window
+   public static final int Y_OFF = 700;                    // Half height of the crop window
+   public static final int PADDING = 500;
+   public static final int PAD_COLOR_ROW = 5;
+   public static final int PAD_COLOR_COL = 5;
+   public static final int COLOR_OFFSET = -50;
+   public static final int DESIRED_HEIGHT = 100;
+   public static final int DESIRED_WIDTH = (int) ((double) X_OFF / Y_OFF * DESIRED_HEIGHT + 0.5);
+   public static final double SCALE_FACTOR = 255.0;
+   public static final int QUEUE_IMAGES_PER_THREAD = 2;
+   public static final int PIPELINE_VERSION = 1;           // Change when the outputs would change
+   public static final String SIZE_SEPARATOR = "x";        // Between the width and height of a size
+
+   private static final Job END = new Job(null);           // Marks the end of the list of images
+
+   /**
+    * One image on its way through the pipeline.
+    */
+   private static class Job {
+      final String path;
+      PelArray img;
+      String error;
+      long size;                                           // Of the scan, before it was read
+      long modified;
+      String hash;
+      boolean current;                                     // Output is already up to date
+
+      Job(String path) {
+         this.path = path;
+      }
+   } //private static class Job
+
+   /**
+    * One stage of the pipeline. Its workers take images from the input queue, process them, and
+    * pass them on to the output queue, or to the failed queue if this is the last stage and the
+    * image could not be processed. The last worker to see the end of the list passes it on.
+    */
+   private abstract static class Stage {
+      final BlockingQueue<Job> in;
+      final BlockingQueue<Job> out;
+      final ConcurrentLinkedQueue<Job> failed;
+      final AtomicInteger running;
+      final Thread[] workers;
+
+      Stage(String name, int threads, BlockingQueue<Job> in, BlockingQueue<Job> out,
+            ConcurrentLinkedQueue<Job> failed) {
+         this.in = in;
+         this.out = out;
+         this.failed = failed;
+         running = new AtomicInteger(threads);
+         workers = new Thread[threads];
+         for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, name + "-" + i);
+            workers[i].setDaemon(true);
+         }
+      } //Stage(String name, int threads, BlockingQueue<Job> in, BlockingQueue<Job> out, ...)
+
+      void start() {
+         for (Thread worker : workers) {
+            worker.start();
+         }
+      }
+
+      void join() throws InterruptedException {
+         for (Thread worker : workers) {
+            worker.join();
+         }
+      }
+
+      void work() {
+         try {
+            Job job;
+            while ((job = in.take()) != END) {
+               if (job.error == null && !job.current) {
+                  try {
+                     process(job);
+                  } catch (IOException | RuntimeException | Error e) {
+                     job.img = null;                       // An OutOfMemoryError fails one image
+                     job.error = e.toString();
+                  }
+               }
+               if (out != null) {
+                  out.put(job);                             // Blocks while the next stage is busy
+               } else if (job.error != null) {
+                  failed.add(job);
+               }
+            } //while ((job = in.take()) != END)
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } finally {
+            boolean last = running.decrementAndGet() == 0;
+            try {
+               if (!last) {
+                  in.put(END);                              // Let the other workers see it too
+               } else if (out != null) {
+                  out.put(END);
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         } //try...finally
+      } //void work()
+
+      abstract void process(Job job) throws IOException;
+   } //private abstract static class Stage
+
+   /**
+    * The main method reads the list of BMP paths and feeds it through the pipeline.
+    *
+    * @param args the command-line arguments:
+    *             - args[0]: path to the file containing the BMP paths
+    *             - args[1]: path to the output directory
+    *             - args[2]: threshold value (or "x" for no threshold)
+    *             - args[3]: optional number of threads in each stage
+    *             - args[4]: optional size of the scaled images, as WIDTHxHEIGHT
+    * @throws IOException if the list of paths cannot be read
+    * @throws InterruptedException if the pipeline is interrupted
+    */
+   public static void main(String[] args) throws IOException, InterruptedException {
+      if (args.length < 3 || args.length > 5) {
+         System.out.println("Usage: java ingestAll input_paths_file output_directory " +
+               "threshold_value [threads [size]]");
+      } else {
+         String outPath = args[1].endsWith("/") ? args[1] : args[1] + "/";
+         int thresh = ("x".equals(args[2].trim())) ? Integer.MAX_VALUE : Integer.parseInt(args[2]);
+         int threads = (args.length >= 4) ? Integer.parseInt(args[3]) :
+               Runtime.getRuntime().availableProcessors();
+         int[] size = (args.length == 5) ? parseSize(args[4]) :
+               new int[] {DESIRED_WIDTH, DESIRED_HEIGHT};
+         int capacity = QUEUE_IMAGES_PER_THREAD * threads;
+
+         BlockingQueue<Job> decodeQueue = new ArrayBlockingQueue<>(capacity);
+         BlockingQueue<Job> transformQueue = new ArrayBlockingQueue<>(capacity);
+         BlockingQueue<Job> writeQueue = new ArrayBlockingQueue<>(capacity);
+         ConcurrentLinkedQueue<Job> failed = new ConcurrentLinkedQueue<>();
+         AtomicInteger written = new AtomicInteger();
+         AtomicInteger upToDate = new AtomicInteger();
+         IngestManifest manifest = new IngestManifest(outPath);
+         String parameters = parameters(thresh, size[0], size[1]);
+
+         Stage decode = new Stage("decode", threads, decodeQueue, transformQueue, failed) {
+            void process(Job job) throws IOException {
+               File scan = new File(job.path);
+               job.size = scan.length();
+               job.modified = scan.lastModified();
+               ByteBuffer file = BMPDecoder.map(job.path);
+               job.hash = IngestManifest.hash(file);
+
+               if (manifest.isCurrent(job.path, job.size, job.modified, job.hash, parameters)) {
+                  job.current = true;
+                  upToDate.incrementAndGet();
+               } else {
+                  job.img = decode(file);
+               }
+            } //void process(Job job)
+         };
+         Stage transform = new Stage("transform", threads, transformQueue, writeQueue, failed) {
+            void process(Job job) {
+               job.img = transform(job.img, thresh, size[0], size[1]);
+            }
+         };
+         Stage write = new Stage("write", threads, writeQueue, null, failed) {
+            void process(Job job) throws IOException {
+               String output = extractFileName(job.path) + ".bin";
+               write(job.img, outPath + output);
+               manifest.put(job.path, job.size, job.modified, job.hash, parameters, output);
+               written.incrementAndGet();
+            }
+         };
+
+         List<String> scans = readList(args[0]);
+
+         long start = System.nanoTime();
+         decode.start();
+         transform.start();
+         write.start();
+
+         for (String scan : scans) {
+            if (manifest.isUnchanged(scan, parameters)) {
+               upToDate.incrementAndGet();
+            } else {
+               decodeQueue.put(new Job(scan));              // Blocks while the decoders are busy
+            }
+         }
+         decodeQueue.put(END);
+
+         decode.join();
+         transform.join();
+         write.join();
+
+         for (Job job : failed) {
+            System.out.println("Skipped " + job.path + ": " + job.error);
+            manifest.remove(job.path);
+         }
+         manifest.save();
+         System.out.println("Ingested " + written.get() + " images in " +
+               (System.nanoTime() - start) / 1000000 + " ms, " + upToDate.get() +
+               " already up to date, skipped " + failed.size());
+      } //if (args.length < 3 || args.length > 5)...else
+   } //public static void main(String[] args)
+
+   /**
+    * Reads the list of scans, one path per line, skipping blank lines and any scan listed before.
+    * Fails if two different scans would be written to the same output file.
+    *
+    * @param listFile the file containing the BMP paths
+    * @return the scans, in the order they are listed
+    * @throws IOException if the list cannot be read
+    * @throws IllegalArgumentException if two scans share an output name, listing every clash
+    */
+   public static List<String> readList(String listFile) throws IOException {
+      List<String> scans = new ArrayList<>();
+      Map<String, String> sources = new HashMap<>();      // Output name to the scan written there
+      StringBuilder clashes = new StringBuilder();
+
+      BufferedReader br = new BufferedReader(new FileReader(listFile));
+      String line;
+      while ((line = br.readLine()) != null) {
+         line = line.trim();
+         if (line.isEmpty()) {
+            continue;
+         }
+
+         String output = extractFileName(line) + ".bin";
+         String path = new File(line).toPath().toAbsolutePath().normalize().toString();
+         String other = sources.putIfAbsent(output, path);
+         if (other == null) {
+            scans.add(line);
+         } else if (!other.equals(path)) {
+            clashes.append("\n   ").append(other).append(" and ").append(path).append(" -> ")
+                  .append(output);
+         }
+      } //while ((line = br.readLine()) != null)
+      br.close();
+
+      if (clashes.length() > 0) {
+         throw new IllegalArgumentException("Scans in " + listFile + " would be written to the " +
+               "same output file; rename one of each pair:" + clashes);
+      }
+      return scans;
+   } //public static List<String> readList(String listFile)
+
+   /**
+    * Decodes a BMP file and converts it to one gray scale value per pel, the same as BMP2OneByte.
+    * The rows are in the order BMP2OneByte writes them, which is bottom to top.
+    *
+    * @param path the BMP file
+    * @return the gray scale image
+    * @throws IOException if the file cannot be read or is not a supported BMP
+    */
+   public static PelArray decode(String path) throws IOException {
+      return decode(BMPDecoder.map(path));
+   } //public static PelArray decode(String path)
+
+   /**
+    * Decodes the contents of a BMP file, the same as decode(String).
+    *
+    * @param file the contents of the BMP file
+    * @return the gray scale image
+    * @throws IOException if the contents are not a supported BMP
+    */
+   public static PelArray decode(ByteBuffer file) throws IOException {
+      BMPDecoder bmp = BMPDecoder.decode(file);
+      int width = bmp.getWidth();
+      int height = bmp.getHeight();
+      int[] gray = bmp.toGrayScale();
+
+      int[] flipped = new int[gray.length];
+      for (int i = 0; i < height; i++) {
+         System.arraycopy(gray, (height - 1 - i) * width, flipped, i * width, width);
+      }
+
+      return new PelArray(flipped, width, height);
+   } //public static PelArray decode(ByteBuffer file)
+
+   /**
+    * Describes every setting the outputs depend on, for the manifest. A scan processed with
+    * different parameters is processed again.
+    *
+    * @param thresh the threshold value
+    * @param width  the width of the scaled images
+    * @param height the height of the scaled images
+    * @return the parameters as one string without tabs
+    */
+   public static String parameters(int thresh, int width, int height) {
+      return "v" + PIPELINE_VERSION +
+            " threshold=" + ((thresh == Integer.MAX_VALUE) ? "none" : String.valueOf(thresh)) +
+            " crop=" + X_OFF + "," + Y_OFF + " pad=" + PADDING + "@" + PAD_COLOR_COL + "," +
+            PAD_COLOR_ROW + " offset=" + COLOR_OFFSET + " size=" + width + SIZE_SEPARATOR +
+            height + " scale=" + SCALE_FACTOR;
+   } //public static String parameters(int thresh, int width, int height)
+
+   /**
+    * Parses the size of the scaled images, given as WIDTHxHEIGHT, such as 86x100.
+    *
+    * @param size the size
+    * @return the width and the height
+    * @throws NumberFormatException if the size is poorly formatted or not positive
+    */
+   public static int[] parseSize(String size) {
+      String[] read = size.trim().toLowerCase().split(SIZE_SEPARATOR);
+      if (read.length != 2) {
+         throw new NumberFormatException("Expected a size as WIDTHxHEIGHT, read " + size);
+      }
+
+      int[] res = {Integer.parseInt(read[0].trim()), Integer.parseInt(read[1].trim())};
+      if (res[0] <= 0 || res[1] <= 0) {
+         throw new NumberFormatException("Expected a positive size, read " + size);
+      }
+      return res;
+   } //public static int[] parseSize(String size)
+
+   /**
+    * Chooses the size of the scaled images for a network with the given number of inputs. Of the
+    * sizes whose width times height is the number of inputs, the one closest in shape to the crop
+    * window is chosen, so 8600 inputs give the default size, 86x100, and 9960 inputs give 83x120.
+    *
+    * @param inputs the number of inputs of the network
+    * @return the width and the height
+    */
+   public static int[] sizeFor(int inputs) {
+      double shape = Math.log((double) X_OFF / Y_OFF);
+      int[] res = {inputs, 1};
+      double best = Double.MAX_VALUE;
+
+      for (int height = 1; height <= inputs; height++) {
+         if (inputs % height == 0) {
+            double miss = Math.abs(Math.log((double) (inputs / height) / height) - shape);
+            if (miss < best) {
+               best = miss;
+               res[0] = inputs / height;
+               res[1] = height;
+            }
+         }
+      } //for (int height = 1; height <= inputs; height++)
+
+      return res;
+   } //public static int[] sizeFor(int inputs)
+
+   /**
+    * Thresholds, complements, pads, crops around the center of mass, color offsets and scales an
+    * image to the given size, the same as oneByteToPelArrayAll does at the default size. The steps
+    * are chained lazily, so the padded and cropped images are never built: the center of mass is
+    * summed one row at a time, and only the source pels that land in the scaled image are read to
+    * make it.
+    *
+    * @param img    the gray scale image
+    * @param thresh values above this are set to 255
+    * @param width  the width of the scaled image
+    * @param height the height of the scaled image
+    * @return the scaled image
+    */
+   public static PelArray transform(PelArray img, int thresh, int width, int height) {
+      LazyPelArray pel = img.lazy().forceMax(thresh, 255).onesComplimentImage();
+      pel = pel.pad(PADDING, PADDING, PADDING, PADDING, pel.getPel(PAD_COLOR_COL, PAD_COLOR_ROW));
+      int paddedWidth = pel.getWidth();
+      int paddedHeight = pel.getHeight();
+
+      int xCOM = pel.getXcom();
+      int yCOM = pel.getYcom();
+      pel = pel.crop(Math.max(0, xCOM - X_OFF), Math.max(0, yCOM - Y_OFF),
+            Math.min(xCOM + X_OFF, paddedWidth - 1), Math.min(yCOM + Y_OFF, paddedHeight - 1));
+      pel = pel.offsetColors(COLOR_OFFSET, COLOR_OFFSET, COLOR_OFFSET);
+
+      return pel.scale(width, height).toPelArray();
+   } //public static PelArray transform(PelArray img, int thresh, int width, int height)
+
+   /**
+    * Quantizes each pel to a byte and divides it by 255, the same as scaleAll, giving the network
+    * inputs of the image row after row.
+    *
+    * @param img the scaled image
+    * @return the network inputs
+    */
+   public static double[] toInputs(PelArray img) {
+      double[] inputs = new double[img.getWidth() * img.getHeight()];
+      int i = 0;
+      for (int y = 0; y < img.getHeight(); y++) {
+         for (int x = 0; x < img.getWidth(); x++) {
+            inputs[i++] = (img.getPel(x, y) & 0xFF) / SCALE_FACTOR;
+         }
+      }
+      return inputs;
+   } //public static double[] toInputs(PelArray img)
+
+   /**
+    * Writes the network inputs of an image as doubles, the same as scaleAll.
+    *
+    * @param img     the scaled image
+    * @param outFile the binary file to write
+    * @throws IOException if the file cannot be written
+    */
+   public static void write(PelArray img, String outFile) throws IOException {
+      double[] inputs = toInputs(img);
+      ByteBuffer buf = ByteBuffer.allocate(inputs.length * Double.BYTES);
+      buf.asDoubleBuffer().put(inputs);
+
+      FileOutputStream out = new FileOutputStream(outFile);
+      out.write(buf.array());
+      out.close();
+   } //public static void write(PelArray img, String outFile)
+
+   /**
+    * Extracts the file name from a given file path.
+    *
+    * @param line the file path
+    * @return the extracted file name without the extension
+    */
+   public static String extractFileName(String line) {
+      String res = line.substring(line.indexOf("/") + 1);
+
+      int ind;
+      while ((ind = res.indexOf("/")) != -1) {
+         res = res.substring(ind + 1);
+      }
+
+      return res.substring(0, res.indexOf("."));
+   } //public static String extractFileName(String line)
+} //public class ingestAll
@@ -1,5 +1,6 @@
 package imgProcessing;
 
+import imgProcessing.PelArray.LazyPelArray;
 import imgProcessing.PelArray.PelArray;
 
 import java.io.*;
@@ -7,7 +8,8 @@ import java.io.*;
 /**
  * The oneByteToPelArrayAll class processes images by reading byte data from input files,
  * performing various operations (e.g., thresholding, padding, cropping, color offsetting, scaling),
- * and writing the modified data to output files.
+ * and writing the modified data to output files. The operations are chained with LazyPelArray, so
+ * the padded and cropped images are never built in memory.
  *
  * Usage: java oneByteToPelArrayAll input_paths_file output_directory threshold_value color_mode
  *
@@ -16,7 +18,7 @@ import java.io.*;
  *
  * Author: Akul Goyal
  * Date Created: April 22, 2024
- * Date Modified: June 14, 2024
+ * Date Modified: October 18, 2026
  */
 public class oneByteToPelArrayAll {
 
@@ -65,7 +67,7 @@ public class oneByteToPelArrayAll {
          int[][] moddedImg;
          int desiredHeight = 100;
          int desiredWidth;
-         PelArray pel;
+         LazyPelArray pel;
          String fileName;
 
          String line;
@@ -92,14 +94,13 @@ public class oneByteToPelArrayAll {
                }
             }
 
-            pel = new PelArray(img);
+            pel = new PelArray(img).lazy(); // Nothing is computed until the scaled image is made
 
             pel = pel.onesComplimentImage();
 
-            pel = pel.pad(padding, padding, padding, padding, pel.getPelArray()[padColorRow][padColorCol]);
-            moddedImg = pel.getPelArray();
-            width = moddedImg[0].length;
-            height = moddedImg.length;
+            pel = pel.pad(padding, padding, padding, padding, pel.getPel(padColorCol, padColorRow));
+            width = pel.getWidth();
+            height = pel.getHeight();
 
             xCOM = pel.getXcom();
             yCOM = pel.getYcom();
@@ -117,7 +118,7 @@ public class oneByteToPelArrayAll {
             System.out.println("Scaling to: " + desiredWidth + " x " + desiredHeight);
             pel = pel.scale(desiredWidth, desiredHeight);
 
-            moddedImg = pel.getPelArray();
+            moddedImg = pel.toPelArray().getPelArray();
             width = moddedImg[0].length;
             height = moddedImg.length;
             DataOutputStream out = new DataOutputStream(new FileOutputStream(args[1] + fileName + ".bin"));